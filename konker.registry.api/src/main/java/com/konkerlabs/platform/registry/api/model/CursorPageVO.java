@@ -0,0 +1,19 @@
+package com.konkerlabs.platform.registry.api.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A page of results and the cursor of the next one. The response advice sends the
+ * results as the response result and the cursor as the response next field.
+ */
+@Data
+@AllArgsConstructor
+public class CursorPageVO<T> {
+
+    private List<T> result;
+    private String next;
+
+}
@@ -72,4 +72,16 @@ public class RestDestinationInputVO {
 			position = 9)
 	protected boolean active;
 
+	@ApiModelProperty(
+			value = "Number of events sent together as a JSON array. Values up to 1 send one request per event",
+			example = "100",
+			position = 10)
+	protected Integer batchSize;
+
+	@ApiModelProperty(
+			value = "Maximum time in milliseconds an event waits for its batch to fill before it is sent",
+			example = "1000",
+			position = 11)
+	protected Integer batchTimeoutMillis;
+
 }
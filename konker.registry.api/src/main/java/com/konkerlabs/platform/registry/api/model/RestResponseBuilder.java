@@ -53,6 +53,11 @@ public class RestResponseBuilder<T> {
         return this;
     }
 
+    public RestResponseBuilder<T> withNext(String next) {
+        this.response.setNext(next);
+        return this;
+    }
+
     @SuppressWarnings({ "rawtypes", "unchecked" })
     public ResponseEntity build() {
         this.response.setCode(httpStatus.value());
@@ -3,11 +3,12 @@ package com.konkerlabs.platform.registry.api.web.controller;
 import com.konkerlabs.platform.registry.api.exceptions.BadRequestResponseException;
 import com.konkerlabs.platform.registry.api.exceptions.BadServiceResponseException;
 import com.konkerlabs.platform.registry.api.exceptions.NotFoundResponseException;
+import com.konkerlabs.platform.registry.api.model.CursorPageVO;
 import com.konkerlabs.platform.registry.api.model.EventVO;
 import com.konkerlabs.platform.registry.api.model.EventsFilter;
 import com.konkerlabs.platform.registry.business.model.Application;
-import com.konkerlabs.platform.registry.business.model.Event;
 import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventPage;
 import com.konkerlabs.platform.registry.business.services.api.ApplicationService;
 import com.konkerlabs.platform.registry.business.services.api.DeviceEventService;
 import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
@@ -22,7 +23,6 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.Instant;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 
 @RestController
@@ -52,7 +52,11 @@ public class IncomingEventsRestController extends AbstractRestController impleme
         "* channel:temperature\n\n" +
         "* timestamp:&gt;2017-04-05T14:50:00+01:00\n\n" +
         "* timestamp:&lt;2017-04-05T14:55:00-01:00\n\n" +
-        "* timestamp:&gt;2017-04-05T13:54:30.891Z timestamp:&lt;2017-04-05T13:56:30.891Z\n\n";
+        "* timestamp:&gt;2017-04-05T13:54:30.891Z timestamp:&lt;2017-04-05T13:56:30.891Z\n\n" +
+        "\n\n" +
+        "### Pagination\n\n" +
+        "* while there are more results, the response carries a `next` cursor\n\n" +
+        "* send it as `cursor`, with the same `q`, `sort` and `limit`, to get the next page\n\n";
 
     @GetMapping
     @PreAuthorize("hasAuthority('VIEW_DEVICE_LOG')")
@@ -62,7 +66,7 @@ public class IncomingEventsRestController extends AbstractRestController impleme
             notes = SEARCH_NOTES,
             produces = "application/json"
             )
-    public List<EventVO> list(
+    public CursorPageVO<EventVO> list(
             @ApiParam(value = "Application ID", required = true)
             @PathVariable(value = "application") String applicationId,
             @ApiParam(value = "Query string", example = "deviceGuid:818599ad-3502-4e70-a852-fc7af8e0a9f4")
@@ -70,7 +74,9 @@ public class IncomingEventsRestController extends AbstractRestController impleme
             @ApiParam(value = "The sort order", allowableValues = "newest,oldest")
             @RequestParam(required = false, defaultValue = "newest") String sort,
             @ApiParam(value = "The number of results returned", allowableValues = "range[1, 50000]")
-            @RequestParam(required = false, defaultValue = "100") Integer limit
+            @RequestParam(required = false, defaultValue = "100") Integer limit,
+            @ApiParam(value = "The next cursor of the previous page, to continue the search after it")
+            @RequestParam(required = false) String cursor
         ) throws BadServiceResponseException, BadRequestResponseException, NotFoundResponseException {
 
         Tenant tenant = user.getTenant();
@@ -92,12 +98,15 @@ public class IncomingEventsRestController extends AbstractRestController impleme
         Instant startingTimestamp = filter.getStartingTimestamp();
         Instant endTimestamp = filter.getEndTimestamp();
 
-        ServiceResponse<List<Event>> restDestinationResponse = deviceEventService.findIncomingBy(tenant, application, deviceGuid, channel, startingTimestamp, endTimestamp, ascending, limit);
+        ServiceResponse<EventPage> restDestinationResponse = deviceEventService.findIncomingPageBy(tenant, application, deviceGuid, channel, startingTimestamp, endTimestamp, ascending, limit, cursor);
 
         if (!restDestinationResponse.isOk()) {
             throw new BadServiceResponseException( restDestinationResponse, validationsCode);
         } else {
-            return new EventVO().apply(restDestinationResponse.getResult());
+            EventPage page = restDestinationResponse.getResult();
+            return new CursorPageVO<>(
+                    new EventVO().apply(page.getEvents()),
+                    page.getNext() != null ? page.getNext().encode() : null);
         }
 
     }
@@ -2,7 +2,6 @@ package com.konkerlabs.platform.registry.api.web.controller;
 
 import java.time.Instant;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 
 import org.springframework.beans.factory.InitializingBean;
@@ -18,11 +17,12 @@ import org.springframework.web.bind.annotation.RestController;
 import com.konkerlabs.platform.registry.api.exceptions.BadRequestResponseException;
 import com.konkerlabs.platform.registry.api.exceptions.BadServiceResponseException;
 import com.konkerlabs.platform.registry.api.exceptions.NotFoundResponseException;
+import com.konkerlabs.platform.registry.api.model.CursorPageVO;
 import com.konkerlabs.platform.registry.api.model.EventVO;
 import com.konkerlabs.platform.registry.api.model.EventsFilter;
 import com.konkerlabs.platform.registry.business.model.Application;
-import com.konkerlabs.platform.registry.business.model.Event;
 import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventPage;
 import com.konkerlabs.platform.registry.business.services.api.ApplicationService;
 import com.konkerlabs.platform.registry.business.services.api.DeviceEventService;
 import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
@@ -50,7 +50,7 @@ public class OutgoingEventsRestController extends AbstractRestController impleme
             notes = IncomingEventsRestController.SEARCH_NOTES,
             produces = "application/json"
             )
-    public List<EventVO> list(
+    public CursorPageVO<EventVO> list(
             @ApiParam(value = "Application ID", required = true)
             @PathVariable(value = "application") String applicationId,
             @ApiParam(value = "Query string", example = "deviceGuid:818599ad-3502-4e70-a852-fc7af8e0a9f4")
@@ -58,7 +58,9 @@ public class OutgoingEventsRestController extends AbstractRestController impleme
             @ApiParam(value = "The sort order", allowableValues = "newest,oldest")
             @RequestParam(required = false, defaultValue = "newest") String sort,
             @ApiParam(value = "The number of results returned", allowableValues = "range[1, 10000]")
-            @RequestParam(required = false, defaultValue = "100") Integer limit
+            @RequestParam(required = false, defaultValue = "100") Integer limit,
+            @ApiParam(value = "The next cursor of the previous page, to continue the search after it")
+            @RequestParam(required = false) String cursor
         ) throws BadServiceResponseException, BadRequestResponseException, NotFoundResponseException {
 
         Tenant tenant = user.getTenant();
@@ -80,12 +82,15 @@ public class OutgoingEventsRestController extends AbstractRestController impleme
         Instant startingTimestamp = filter.getStartingTimestamp();
         Instant endTimestamp = filter.getEndTimestamp();
 
-        ServiceResponse<List<Event>> restDestinationResponse = deviceEventService.findOutgoingBy(tenant, application, deviceGuid, channel, startingTimestamp, endTimestamp, ascending, limit);
+        ServiceResponse<EventPage> restDestinationResponse = deviceEventService.findOutgoingPageBy(tenant, application, deviceGuid, channel, startingTimestamp, endTimestamp, ascending, limit, cursor);
 
         if (!restDestinationResponse.isOk()) {
             throw new BadServiceResponseException( restDestinationResponse, validationsCode);
         } else {
-            return new EventVO().apply(restDestinationResponse.getResult());
+            EventPage page = restDestinationResponse.getResult();
+            return new CursorPageVO<>(
+                    new EventVO().apply(page.getEvents()),
+                    page.getNext() != null ? page.getNext().encode() : null);
         }
 
     }
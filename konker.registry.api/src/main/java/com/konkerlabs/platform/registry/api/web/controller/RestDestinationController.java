@@ -111,6 +111,8 @@ public class RestDestinationController extends AbstractRestController implements
                 .type(restDestinationForm.getType())
                 .body(restDestinationForm.getBody())
                 .active(true)
+                .batchSize(restDestinationForm.getBatchSize())
+                .batchTimeoutMillis(restDestinationForm.getBatchTimeoutMillis())
                 .build();
 
         ServiceResponse<RestDestination> restDestinationResponse = restDestinationService.register(tenant, application, restDestination);
@@ -157,6 +159,10 @@ public class RestDestinationController extends AbstractRestController implements
         restDestinationFromDB.setType(restDestinationForm.getType());
         restDestinationFromDB.setBody(restDestinationForm.getBody());
         restDestinationFromDB.setActive(restDestinationForm.isActive());
+        if (restDestinationForm.getBatchSize() != null) {
+            restDestinationFromDB.setBatchSize(restDestinationForm.getBatchSize());
+            restDestinationFromDB.setBatchTimeoutMillis(restDestinationForm.getBatchTimeoutMillis());
+        }
 
         ServiceResponse<RestDestination> updateResponse = restDestinationService.update(tenant, application, restDestinationGuid, restDestinationFromDB);
 
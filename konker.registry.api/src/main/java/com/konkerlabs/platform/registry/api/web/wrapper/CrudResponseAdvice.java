@@ -25,6 +25,7 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
 
 import com.konkerlabs.platform.registry.api.exceptions.BadServiceResponseException;
 import com.konkerlabs.platform.registry.api.exceptions.NotFoundResponseException;
+import com.konkerlabs.platform.registry.api.model.CursorPageVO;
 import com.konkerlabs.platform.registry.api.model.RestResponseBuilder;
 
 @ControllerAdvice(basePackages = "com.konkerlabs.platform.registry.api.web.controller")
@@ -58,6 +59,12 @@ public class CrudResponseAdvice implements ResponseBodyAdvice<Object> {
             }
         }
         response.setStatusCode(httpStatus);
+
+        if (body instanceof CursorPageVO) {
+            CursorPageVO<?> page = (CursorPageVO<?>) body;
+            return RestResponseBuilder.ok().withHttpStatus(httpStatus).withResult(page.getResult()).withNext(page.getNext()).getResponse();
+        }
+
         return RestResponseBuilder.ok().withHttpStatus(httpStatus).withResult(body).getResponse();
 
     }
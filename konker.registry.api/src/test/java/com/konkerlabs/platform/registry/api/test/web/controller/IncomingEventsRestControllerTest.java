@@ -10,6 +10,8 @@ import com.konkerlabs.platform.registry.business.model.Device;
 import com.konkerlabs.platform.registry.business.model.Event;
 import com.konkerlabs.platform.registry.business.model.Event.EventActor;
 import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventCursor;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventPage;
 import com.konkerlabs.platform.registry.business.services.api.ApplicationService;
 import com.konkerlabs.platform.registry.business.services.api.DeviceEventService;
 import com.konkerlabs.platform.registry.business.services.api.ServiceResponseBuilder;
@@ -118,8 +120,8 @@ public class IncomingEventsRestControllerTest extends WebLayerTestContext {
         incomingEvents.add(event1);
         incomingEvents.add(event2);
 
-        when(deviceEventService.findIncomingBy(org.mockito.Matchers.any(Tenant.class), org.mockito.Matchers.any(Application.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.eq(false), org.mockito.Matchers.eq(100)))
-                .thenReturn(ServiceResponseBuilder.<List<Event>>ok().withResult(incomingEvents).build());
+        when(deviceEventService.findIncomingPageBy(org.mockito.Matchers.any(Tenant.class), org.mockito.Matchers.any(Application.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.eq(false), org.mockito.Matchers.eq(100), org.mockito.Matchers.isNull(String.class)))
+                .thenReturn(ServiceResponseBuilder.<EventPage>ok().withResult(new EventPage(incomingEvents, null)).build());
 
         when(applicationService.getByApplicationName(tenant, application.getName()))
         		.thenReturn(ServiceResponseBuilder.<Application>ok().withResult(application).build());
@@ -137,6 +139,7 @@ public class IncomingEventsRestControllerTest extends WebLayerTestContext {
                     .andExpect(jsonPath("$.result[0].payload", is(JSON.parse(PAYLOAD1))))
                     .andExpect(jsonPath("$.result[1].timestamp", is(dateIso)))
                     .andExpect(jsonPath("$.result[1].payload", is(JSON.parse(PAYLOAD2))))
+                    .andExpect(jsonPath("$.next").doesNotExist())
                     ;
 
     }
@@ -148,8 +151,8 @@ public class IncomingEventsRestControllerTest extends WebLayerTestContext {
         incomingEvents.add(event1);
         incomingEvents.add(event2);
 
-        when(deviceEventService.findIncomingBy(org.mockito.Matchers.any(Tenant.class), org.mockito.Matchers.any(Application.class), org.mockito.Matchers.eq("0000"), org.mockito.Matchers.eq("temp"), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.eq(false), org.mockito.Matchers.eq(100)))
-                .thenReturn(ServiceResponseBuilder.<List<Event>>ok().withResult(incomingEvents).build());
+        when(deviceEventService.findIncomingPageBy(org.mockito.Matchers.any(Tenant.class), org.mockito.Matchers.any(Application.class), org.mockito.Matchers.eq("0000"), org.mockito.Matchers.eq("temp"), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.eq(false), org.mockito.Matchers.eq(100), org.mockito.Matchers.isNull(String.class)))
+                .thenReturn(ServiceResponseBuilder.<EventPage>ok().withResult(new EventPage(incomingEvents, null)).build());
 
         when(applicationService.getByApplicationName(tenant, application.getName()))
 				.thenReturn(ServiceResponseBuilder.<Application>ok().withResult(application).build());
@@ -179,8 +182,8 @@ public class IncomingEventsRestControllerTest extends WebLayerTestContext {
         incomingEvents.add(event1);
         incomingEvents.add(event2);
 
-        when(deviceEventService.findIncomingBy(org.mockito.Matchers.any(Tenant.class), org.mockito.Matchers.any(Application.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.eq(true), org.mockito.Matchers.eq(100)))
-                .thenReturn(ServiceResponseBuilder.<List<Event>>ok().withResult(incomingEvents).build());
+        when(deviceEventService.findIncomingPageBy(org.mockito.Matchers.any(Tenant.class), org.mockito.Matchers.any(Application.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.eq(true), org.mockito.Matchers.eq(100), org.mockito.Matchers.isNull(String.class)))
+                .thenReturn(ServiceResponseBuilder.<EventPage>ok().withResult(new EventPage(incomingEvents, null)).build());
 
         when(applicationService.getByApplicationName(tenant, application.getName()))
 				.thenReturn(ServiceResponseBuilder.<Application>ok().withResult(application).build());
@@ -210,8 +213,8 @@ public class IncomingEventsRestControllerTest extends WebLayerTestContext {
         incomingEvents.add(event1);
         incomingEvents.add(event2);
 
-        when(deviceEventService.findIncomingBy(org.mockito.Matchers.any(Tenant.class), org.mockito.Matchers.any(Application.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.eq(false), org.mockito.Matchers.eq(500)))
-                .thenReturn(ServiceResponseBuilder.<List<Event>>ok().withResult(incomingEvents).build());
+        when(deviceEventService.findIncomingPageBy(org.mockito.Matchers.any(Tenant.class), org.mockito.Matchers.any(Application.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.eq(false), org.mockito.Matchers.eq(500), org.mockito.Matchers.isNull(String.class)))
+                .thenReturn(ServiceResponseBuilder.<EventPage>ok().withResult(new EventPage(incomingEvents, null)).build());
 
         when(applicationService.getByApplicationName(tenant, application.getName()))
 				.thenReturn(ServiceResponseBuilder.<Application>ok().withResult(application).build());
@@ -234,6 +237,36 @@ public class IncomingEventsRestControllerTest extends WebLayerTestContext {
 
     }
 
+    @Test
+    public void shouldListEventsAfterCursor() throws Exception {
+
+        List<Event> incomingEvents = new ArrayList<>();
+        incomingEvents.add(event2);
+
+        EventCursor next = new EventCursor(1491577802827000000L, null);
+
+        when(deviceEventService.findIncomingPageBy(org.mockito.Matchers.any(Tenant.class), org.mockito.Matchers.any(Application.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.eq(false), org.mockito.Matchers.eq(1), org.mockito.Matchers.eq("MTQ5MTU3NzgwMjgyNzAwMDAwMQ")))
+                .thenReturn(ServiceResponseBuilder.<EventPage>ok().withResult(new EventPage(incomingEvents, next)).build());
+
+        when(applicationService.getByApplicationName(tenant, application.getName()))
+				.thenReturn(ServiceResponseBuilder.<Application>ok().withResult(application).build());
+
+        getMockMvc().perform(MockMvcRequestBuilders.get("/" + application.getName() + "/incomingEvents")
+                                                   .param("limit", "1")
+                                                   .param("cursor", "MTQ5MTU3NzgwMjgyNzAwMDAwMQ")
+                                                   .contentType("application/json")
+                                                   .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType("application/json;charset=UTF-8"))
+                    .andExpect(jsonPath("$.code", is(HttpStatus.OK.value())))
+                    .andExpect(jsonPath("$.status", is("success")))
+                    .andExpect(jsonPath("$.result", hasSize(1)))
+                    .andExpect(jsonPath("$.result[0].payload", is(JSON.parse(PAYLOAD2))))
+                    .andExpect(jsonPath("$.next", is(next.encode())))
+                    ;
+
+    }
+
     @Test
     public void shouldListEventsWithInvalidLimit() throws Exception {
     	when(applicationService.getByApplicationName(tenant, application.getName()))
@@ -10,6 +10,8 @@ import com.konkerlabs.platform.registry.business.model.Device;
 import com.konkerlabs.platform.registry.business.model.Event;
 import com.konkerlabs.platform.registry.business.model.Event.EventActor;
 import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventCursor;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventPage;
 import com.konkerlabs.platform.registry.business.services.api.ApplicationService;
 import com.konkerlabs.platform.registry.business.services.api.DeviceEventService;
 import com.konkerlabs.platform.registry.business.services.api.ServiceResponseBuilder;
@@ -118,8 +120,8 @@ public class OutgoingEventsRestControllerTest extends WebLayerTestContext {
         outgoingEvents.add(event1);
         outgoingEvents.add(event2);
 
-        when(deviceEventService.findOutgoingBy(org.mockito.Matchers.any(Tenant.class), org.mockito.Matchers.any(Application.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.eq(false), org.mockito.Matchers.eq(100)))
-                .thenReturn(ServiceResponseBuilder.<List<Event>>ok().withResult(outgoingEvents).build());
+        when(deviceEventService.findOutgoingPageBy(org.mockito.Matchers.any(Tenant.class), org.mockito.Matchers.any(Application.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.eq(false), org.mockito.Matchers.eq(100), org.mockito.Matchers.isNull(String.class)))
+                .thenReturn(ServiceResponseBuilder.<EventPage>ok().withResult(new EventPage(outgoingEvents, null)).build());
 
         when(applicationService.getByApplicationName(tenant, application.getName()))
 				.thenReturn(ServiceResponseBuilder.<Application>ok().withResult(application).build());
@@ -148,8 +150,8 @@ public class OutgoingEventsRestControllerTest extends WebLayerTestContext {
         outgoingEvents.add(event1);
         outgoingEvents.add(event2);
 
-        when(deviceEventService.findOutgoingBy(org.mockito.Matchers.any(Tenant.class), org.mockito.Matchers.any(Application.class), org.mockito.Matchers.eq("0000"), org.mockito.Matchers.eq("temp"), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.eq(false), org.mockito.Matchers.eq(100)))
-                .thenReturn(ServiceResponseBuilder.<List<Event>>ok().withResult(outgoingEvents).build());
+        when(deviceEventService.findOutgoingPageBy(org.mockito.Matchers.any(Tenant.class), org.mockito.Matchers.any(Application.class), org.mockito.Matchers.eq("0000"), org.mockito.Matchers.eq("temp"), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.eq(false), org.mockito.Matchers.eq(100), org.mockito.Matchers.isNull(String.class)))
+                .thenReturn(ServiceResponseBuilder.<EventPage>ok().withResult(new EventPage(outgoingEvents, null)).build());
 
         when(applicationService.getByApplicationName(tenant, application.getName()))
 				.thenReturn(ServiceResponseBuilder.<Application>ok().withResult(application).build());
@@ -179,8 +181,8 @@ public class OutgoingEventsRestControllerTest extends WebLayerTestContext {
         outgoingEvents.add(event1);
         outgoingEvents.add(event2);
 
-        when(deviceEventService.findOutgoingBy(org.mockito.Matchers.any(Tenant.class), org.mockito.Matchers.any(Application.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.eq(true), org.mockito.Matchers.eq(100)))
-                .thenReturn(ServiceResponseBuilder.<List<Event>>ok().withResult(outgoingEvents).build());
+        when(deviceEventService.findOutgoingPageBy(org.mockito.Matchers.any(Tenant.class), org.mockito.Matchers.any(Application.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.eq(true), org.mockito.Matchers.eq(100), org.mockito.Matchers.isNull(String.class)))
+                .thenReturn(ServiceResponseBuilder.<EventPage>ok().withResult(new EventPage(outgoingEvents, null)).build());
 
         when(applicationService.getByApplicationName(tenant, application.getName()))
 				.thenReturn(ServiceResponseBuilder.<Application>ok().withResult(application).build());
@@ -210,8 +212,8 @@ public class OutgoingEventsRestControllerTest extends WebLayerTestContext {
         outgoingEvents.add(event1);
         outgoingEvents.add(event2);
 
-        when(deviceEventService.findOutgoingBy(org.mockito.Matchers.any(Tenant.class), org.mockito.Matchers.any(Application.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.eq(false), org.mockito.Matchers.eq(500)))
-                .thenReturn(ServiceResponseBuilder.<List<Event>>ok().withResult(outgoingEvents).build());
+        when(deviceEventService.findOutgoingPageBy(org.mockito.Matchers.any(Tenant.class), org.mockito.Matchers.any(Application.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.eq(false), org.mockito.Matchers.eq(500), org.mockito.Matchers.isNull(String.class)))
+                .thenReturn(ServiceResponseBuilder.<EventPage>ok().withResult(new EventPage(outgoingEvents, null)).build());
 
         when(applicationService.getByApplicationName(tenant, application.getName()))
 				.thenReturn(ServiceResponseBuilder.<Application>ok().withResult(application).build());
@@ -234,6 +236,36 @@ public class OutgoingEventsRestControllerTest extends WebLayerTestContext {
 
     }
 
+    @Test
+    public void shouldListEventsAfterCursor() throws Exception {
+
+        List<Event> outgoingEvents = new ArrayList<>();
+        outgoingEvents.add(event2);
+
+        EventCursor next = new EventCursor(1491577802827000000L, null);
+
+        when(deviceEventService.findOutgoingPageBy(org.mockito.Matchers.any(Tenant.class), org.mockito.Matchers.any(Application.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.eq(false), org.mockito.Matchers.eq(1), org.mockito.Matchers.eq("MTQ5MTU3NzgwMjgyNzAwMDAwMQ")))
+                .thenReturn(ServiceResponseBuilder.<EventPage>ok().withResult(new EventPage(outgoingEvents, next)).build());
+
+        when(applicationService.getByApplicationName(tenant, application.getName()))
+				.thenReturn(ServiceResponseBuilder.<Application>ok().withResult(application).build());
+
+        getMockMvc().perform(MockMvcRequestBuilders.get("/" + application.getName() + "/outgoingEvents")
+                                                   .param("limit", "1")
+                                                   .param("cursor", "MTQ5MTU3NzgwMjgyNzAwMDAwMQ")
+                                                   .contentType("application/json")
+                                                   .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType("application/json;charset=UTF-8"))
+                    .andExpect(jsonPath("$.code", is(HttpStatus.OK.value())))
+                    .andExpect(jsonPath("$.status", is("success")))
+                    .andExpect(jsonPath("$.result", hasSize(1)))
+                    .andExpect(jsonPath("$.result[0].payload", is(JSON.parse(PAYLOAD2))))
+                    .andExpect(jsonPath("$.next", is(next.encode())))
+                    ;
+
+    }
+
     @Test
     public void shouldListEventsWithInvalidLimit() throws Exception {
     	 when(applicationService.getByApplicationName(tenant, application.getName()))
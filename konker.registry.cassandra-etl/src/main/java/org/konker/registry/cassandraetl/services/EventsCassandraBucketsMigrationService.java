@@ -0,0 +1,183 @@
+package org.konker.registry.cassandraetl.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.konkerlabs.platform.registry.business.exceptions.BusinessException;
+import com.konkerlabs.platform.registry.business.model.Application;
+import com.konkerlabs.platform.registry.business.model.Event;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.repositories.ApplicationRepository;
+import com.konkerlabs.platform.registry.business.repositories.TenantRepository;
+import com.konkerlabs.platform.registry.business.repositories.config.CassandraRegistryConfig;
+import com.konkerlabs.platform.registry.business.repositories.events.CassandraEventRowMapper;
+import com.konkerlabs.platform.registry.business.repositories.events.EventRepositoryCassandraImpl;
+
+/**
+ * Copies events from the legacy, unbucketed Cassandra tables into the day
+ * bucketed ones. Only the application wide tables are read, the device and
+ * channel tables are rebuilt from them by the repository. Events keep their
+ * original timestamps, so running the job twice over the same period is harmless.
+ */
+@Service
+public class EventsCassandraBucketsMigrationService {
+
+    private static final String LEGACY_INCOMING_EVENTS = "incoming_events";
+    private static final String LEGACY_OUTGOING_EVENTS = "outgoing_events";
+
+    private static final int FETCH_SIZE = 2500;
+
+    private Logger LOGGER = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private CassandraRegistryConfig config;
+
+    @Autowired
+    private Session session;
+
+    @Autowired
+    private EventRepositoryCassandraImpl cassandraEventsRepository;
+
+    public void migrate(String tenantDomainFilter, Instant startInstant, Instant endInstant) throws BusinessException {
+
+        LOGGER.info("Starting...");
+
+        int count = 0;
+
+        List<Tenant> tenants = tenantRepository.findAll();
+
+        Pattern filterPattern = Pattern.compile(tenantDomainFilter);
+
+        for (Tenant tenant : tenants) {
+            if (filterPattern.matcher(tenant.getDomainName()).matches()) {
+                process(tenant, startInstant, endInstant);
+                count++;
+            }
+        }
+
+        LOGGER.info("Finished! Tenants processed: " + count);
+
+    }
+
+    private void process(Tenant tenant, Instant startInstant, Instant endInstant) throws BusinessException {
+
+        List<Application> applications = applicationRepository.findAllByTenant(tenant.getId());
+        for (Application application : applications) {
+            process(tenant, application, startInstant, endInstant);
+        }
+
+    }
+
+    private void process(Tenant tenant, Application application, Instant startInstant, Instant endInstant) throws BusinessException {
+
+        LOGGER.info("Tenant {} Application {}", tenant.getName(), application.getName());
+
+        int count = migrate(tenant, application, LEGACY_INCOMING_EVENTS, true, startInstant, endInstant);
+        LOGGER.info("\tTotal Incoming: {}", count);
+
+        count = migrate(tenant, application, LEGACY_OUTGOING_EVENTS, false, startInstant, endInstant);
+        LOGGER.info("\tTotal Outgoing: {}", count);
+
+    }
+
+    /**
+     * Saves the legacy rows one fetched page at a time. Each page is acknowledged
+     * by Cassandra before the next one is read, so the count reported is what was
+     * actually written and a failed write stops the migration.
+     */
+    private int migrate(Tenant tenant, Application application, String table, boolean incoming,
+                        Instant startInstant, Instant endInstant) throws BusinessException {
+
+        String columns = incoming ? CassandraEventRowMapper.INCOMING_COLUMNS : CassandraEventRowMapper.OUTGOING_COLUMNS;
+
+        int count = 0;
+        List<Event> page = new ArrayList<>(FETCH_SIZE);
+
+        for (Row row : session.execute(legacyQuery(table, columns, tenant, application, startInstant, endInstant))) {
+            page.add(incoming ? CassandraEventRowMapper.incoming(row) : CassandraEventRowMapper.outgoing(row));
+
+            if (page.size() == FETCH_SIZE) {
+                count += save(tenant, application, page, incoming);
+                LOGGER.info("\t{} events migrated: {}", incoming ? "Incoming" : "Outgoing", count);
+            }
+        }
+
+        return count + save(tenant, application, page, incoming);
+
+    }
+
+    private int save(Tenant tenant, Application application, List<Event> page, boolean incoming) throws BusinessException {
+
+        if (page.isEmpty()) {
+            return 0;
+        }
+
+        if (incoming) {
+            cassandraEventsRepository.saveIncoming(tenant, application, page);
+        } else {
+            cassandraEventsRepository.saveOutgoing(tenant, application, page);
+        }
+
+        int saved = page.size();
+        page.clear();
+
+        return saved;
+
+    }
+
+    private SimpleStatement legacyQuery(String table, String columns, Tenant tenant, Application application,
+            Instant startInstant, Instant endInstant) {
+
+        StringBuilder query = new StringBuilder();
+        List<Object> filters = new ArrayList<>();
+
+        query.append("SELECT ");
+        query.append(columns);
+        query.append(" FROM ");
+        query.append(config.getKeyspace());
+        query.append(".");
+        query.append(table);
+        query.append(" WHERE ");
+
+        query.append(" tenant_domain = ?");
+        filters.add(tenant.getDomainName());
+
+        query.append(" AND application_name = ?");
+        filters.add(application.getName());
+
+        if (startInstant != null) {
+            query.append(" AND timestamp > ?");
+            filters.add(startInstant.toEpochMilli() * 1000000);
+        }
+
+        if (endInstant != null) {
+            query.append(" AND timestamp <= ?");
+            filters.add(endInstant.toEpochMilli() * 1000000);
+        }
+
+        query.append(" ORDER BY timestamp ASC");
+
+        SimpleStatement statement = new SimpleStatement(query.toString(), filters.toArray(new Object[filters.size()]));
+        statement.setFetchSize(FETCH_SIZE);
+
+        return statement;
+
+    }
+
+}
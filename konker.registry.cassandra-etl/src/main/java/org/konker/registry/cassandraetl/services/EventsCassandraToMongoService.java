@@ -1,8 +1,10 @@
 package org.konker.registry.cassandraetl.services;
 
 import java.time.Instant;
+import java.util.Iterator;
 import java.util.List;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,6 +23,8 @@ import com.konkerlabs.platform.registry.business.repositories.events.EventReposi
 @Service
 public class EventsCassandraToMongoService {
 
+    private static final int LOG_INTERVAL = 2500;
+
     private Logger LOGGER = LoggerFactory.getLogger(this.getClass());
 
     @Autowired
@@ -74,28 +78,33 @@ public class EventsCassandraToMongoService {
 
         LOGGER.info("Tenant {} Application {}", tenant.getName(), application.getName());
 
-        List<Event> incomingEvents = cassandraEventsRepository.findIncomingBy(tenant, application, deviceGuid, channel, startInstant, endInstant, ascending, limit);
-        LOGGER.info("\tIncoming events: {}", incomingEvents.size());
-
-        for (Event event : incomingEvents) {
-            mongoEventsRepository.saveIncoming(tenant, application, event);
+        int count = 0;
+        try (Stream<Event> incomingEvents = cassandraEventsRepository.streamIncomingBy(tenant, application, deviceGuid, channel, startInstant, endInstant, ascending, limit)) {
+            Iterator<Event> events = incomingEvents.iterator();
+            while (events.hasNext()) {
+                mongoEventsRepository.saveIncoming(tenant, application, events.next());
+                count = log("Incoming", count + 1);
+            }
         }
-
-        if (incomingEvents.size() > 0) {
-            LOGGER.info("\tCompleted!");
+        LOGGER.info("\tTotal Incoming: {}", count);
+
+        count = 0;
+        try (Stream<Event> outgoingEvents = cassandraEventsRepository.streamOutgoingBy(tenant, application, deviceGuid, channel, startInstant, endInstant, ascending, limit)) {
+            Iterator<Event> events = outgoingEvents.iterator();
+            while (events.hasNext()) {
+                mongoEventsRepository.saveOutgoing(tenant, application, events.next());
+                count = log("Outgoing", count + 1);
+            }
         }
+        LOGGER.info("\tTotal Outgoing: {}", count);
 
-        List<Event> outgoingEvents = cassandraEventsRepository.findOutgoingBy(tenant, application, deviceGuid, channel, startInstant, endInstant, ascending, limit);
-        LOGGER.info("\tOutgoing events: {}", outgoingEvents.size());
-
-        for (Event event : outgoingEvents) {
-            mongoEventsRepository.saveOutgoing(tenant, application, event);
-        }
+    }
 
-        if (outgoingEvents.size() > 0) {
-            LOGGER.info("\tCompleted!");
+    private int log(String type, int count) {
+        if (count % LOG_INTERVAL == 0) {
+            LOGGER.info("\t{} events migrated: {}", type, count);
         }
-
+        return count;
     }
 
 }
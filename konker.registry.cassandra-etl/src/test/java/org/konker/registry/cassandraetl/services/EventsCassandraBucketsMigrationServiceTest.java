@@ -0,0 +1,158 @@
+package org.konker.registry.cassandraetl.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import com.konkerlabs.platform.registry.business.exceptions.BusinessException;
+import com.konkerlabs.platform.registry.business.model.Application;
+import com.konkerlabs.platform.registry.business.model.Event;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.repositories.ApplicationRepository;
+import com.konkerlabs.platform.registry.business.repositories.TenantRepository;
+import com.konkerlabs.platform.registry.business.repositories.config.CassandraRegistryConfig;
+import com.konkerlabs.platform.registry.business.repositories.events.EventRepositoryCassandraImpl;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EventsCassandraBucketsMigrationServiceTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Mock
+    private TenantRepository tenantRepository;
+    @Mock
+    private ApplicationRepository applicationRepository;
+    @Mock
+    private CassandraRegistryConfig config;
+    @Mock
+    private Session session;
+    @Mock
+    private EventRepositoryCassandraImpl cassandraEventsRepository;
+
+    @InjectMocks
+    private EventsCassandraBucketsMigrationService subject;
+
+    private Tenant tenant;
+    private Application application;
+
+    private List<Integer> savedIncoming;
+    private List<Integer> savedOutgoing;
+
+    @Before
+    public void setUp() throws Exception {
+        tenant = Tenant.builder().id("tenant").name("Konker").domainName("konker").build();
+        application = Application.builder().name("smartffkonker").build();
+
+        when(config.getKeyspace()).thenReturn("registrykeyspace");
+        when(tenantRepository.findAll()).thenReturn(Arrays.asList(
+                tenant,
+                Tenant.builder().id("other").name("Other").domainName("other").build()));
+        when(applicationRepository.findAllByTenant(anyString())).thenReturn(Collections.singletonList(application));
+
+        savedIncoming = new ArrayList<>();
+        savedOutgoing = new ArrayList<>();
+
+        doAnswer(invocation -> {
+            savedIncoming.add(((List<?>) invocation.getArguments()[2]).size());
+            return invocation.getArguments()[2];
+        }).when(cassandraEventsRepository).saveIncoming(eq(tenant), eq(application), anyListOf(Event.class));
+        doAnswer(invocation -> {
+            savedOutgoing.add(((List<?>) invocation.getArguments()[2]).size());
+            return invocation.getArguments()[2];
+        }).when(cassandraEventsRepository).saveOutgoing(eq(tenant), eq(application), anyListOf(Event.class));
+    }
+
+    @Test
+    public void shouldMigrateLegacyEventsOnePageAtATime() throws Exception {
+        legacyRows(2501, 3);
+
+        subject.migrate("konker", null, null);
+
+        assertThat(savedIncoming, contains(2500, 1));
+        assertThat(savedOutgoing, contains(3));
+    }
+
+    @Test
+    public void shouldOnlyMigrateTenantsMatchingTheFilter() throws Exception {
+        legacyRows(1, 0);
+
+        subject.migrate("konker", null, null);
+
+        verify(applicationRepository, times(1)).findAllByTenant("tenant");
+        verify(applicationRepository, never()).findAllByTenant("other");
+        verify(cassandraEventsRepository, never()).saveOutgoing(any(Tenant.class), any(Application.class), anyListOf(Event.class));
+    }
+
+    @Test
+    public void shouldStopMigratingIfAPageFailsToBeWritten() throws Exception {
+        legacyRows(2501, 3);
+
+        doThrow(new BusinessException("unavailable"))
+                .when(cassandraEventsRepository).saveIncoming(eq(tenant), eq(application), anyListOf(Event.class));
+
+        thrown.expect(BusinessException.class);
+
+        try {
+            subject.migrate("konker", null, null);
+        } finally {
+            verify(cassandraEventsRepository, times(1)).saveIncoming(eq(tenant), eq(application), anyListOf(Event.class));
+            verify(cassandraEventsRepository, never()).saveOutgoing(any(Tenant.class), any(Application.class), anyListOf(Event.class));
+        }
+    }
+
+    private void legacyRows(int incoming, int outgoing) {
+        when(session.execute(any(Statement.class))).thenAnswer(invocation -> {
+            String query = ((SimpleStatement) invocation.getArguments()[0]).getQueryString();
+            assertThat(query, containsString("ORDER BY timestamp ASC"));
+
+            return resultOf(query.contains(".incoming_events ") ? incoming : outgoing);
+        });
+    }
+
+    private ResultSet resultOf(int size) {
+        List<Row> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Row row = mock(Row.class);
+            when(row.isNull(anyString())).thenReturn(true);
+            when(row.getLong("timestamp")).thenReturn(1474562670340000000L + i);
+            when(row.getLong("ingested_timestamp")).thenReturn(1474562670340000000L + i);
+            rows.add(row);
+        }
+
+        ResultSet result = mock(ResultSet.class);
+        when(result.iterator()).thenReturn(rows.iterator());
+        return result;
+    }
+
+}
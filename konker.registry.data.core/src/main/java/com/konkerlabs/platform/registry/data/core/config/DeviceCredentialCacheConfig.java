@@ -0,0 +1,38 @@
+package com.konkerlabs.platform.registry.data.core.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import lombok.Data;
+
+@Data
+public class DeviceCredentialCacheConfig {
+
+    private boolean enabled;
+    private int maximumSize;
+    private int timeToLiveSeconds;
+    private int maxFailures;
+    private int failureWindowSeconds;
+
+    public DeviceCredentialCacheConfig() {
+        Map<String, Object> defaultMap = new HashMap<>();
+        defaultMap.put("deviceCredentialCache.enabled", true);
+        defaultMap.put("deviceCredentialCache.maximumSize", 100000);
+        defaultMap.put("deviceCredentialCache.timeToLiveSeconds", 60);
+        defaultMap.put("deviceCredentialCache.maxFailures", 10);
+        defaultMap.put("deviceCredentialCache.failureWindowSeconds", 60);
+
+        Config defaultConf = ConfigFactory.parseMap(defaultMap);
+        Config config = ConfigFactory.load().withFallback(defaultConf);
+
+        setEnabled(config.getBoolean("deviceCredentialCache.enabled"));
+        setMaximumSize(config.getInt("deviceCredentialCache.maximumSize"));
+        setTimeToLiveSeconds(config.getInt("deviceCredentialCache.timeToLiveSeconds"));
+        setMaxFailures(config.getInt("deviceCredentialCache.maxFailures"));
+        setFailureWindowSeconds(config.getInt("deviceCredentialCache.failureWindowSeconds"));
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.konkerlabs.platform.registry.data.core.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import lombok.Data;
+
+@Data
+public class EventRouteCacheConfig {
+
+    private boolean enabled;
+    private int maximumSize;
+    private int timeToLiveSeconds;
+
+    public EventRouteCacheConfig() {
+        Map<String, Object> defaultMap = new HashMap<>();
+        defaultMap.put("eventRouteCache.enabled", true);
+        defaultMap.put("eventRouteCache.maximumSize", 10000);
+        defaultMap.put("eventRouteCache.timeToLiveSeconds", 60);
+
+        Config defaultConf = ConfigFactory.parseMap(defaultMap);
+        Config config = ConfigFactory.load().withFallback(defaultConf);
+
+        setEnabled(config.getBoolean("eventRouteCache.enabled"));
+        setMaximumSize(config.getInt("eventRouteCache.maximumSize"));
+        setTimeToLiveSeconds(config.getInt("eventRouteCache.timeToLiveSeconds"));
+    }
+
+}
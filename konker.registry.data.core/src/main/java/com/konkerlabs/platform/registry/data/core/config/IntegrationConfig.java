@@ -3,9 +3,16 @@ package com.konkerlabs.platform.registry.data.core.config;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 import com.typesafe.config.Config;
@@ -19,6 +26,13 @@ public class IntegrationConfig {
 
 	private Integer timeoutDefault;
 	private Integer enrichment;
+	private Integer maxConnections;
+	private Integer maxConnectionsPerRoute;
+	private Integer keepAliveSeconds;
+	private Integer connectionRequestTimeout;
+	private Integer maxConcurrentPerDestination;
+	private Integer batchFlushThreads;
+	private Integer batchQueueSize;
 
 	public IntegrationConfig() {
 		Map<String, Object> defaultMap = new HashMap<>();
@@ -26,6 +40,13 @@ public class IntegrationConfig {
 		valuesTimeout.put("default", 30000);
 		valuesTimeout.put("enrichment", 30000);
 		defaultMap.put("integration.timeout", Collections.singleton(valuesTimeout));
+		defaultMap.put("integration.http.maxConnections", 200);
+		defaultMap.put("integration.http.maxConnectionsPerRoute", 20);
+		defaultMap.put("integration.http.keepAliveSeconds", 30);
+		defaultMap.put("integration.http.connectionRequestTimeout", 1000);
+		defaultMap.put("integration.http.maxConcurrentPerDestination", 10);
+		defaultMap.put("integration.http.batchFlushThreads", 2);
+		defaultMap.put("integration.http.batchQueueSize", 100);
 		Config defaultConf = ConfigFactory.parseMap(defaultMap);
 
 		Config defaultConfListValue = ConfigFactory.parseMap(valuesTimeout);
@@ -33,11 +54,49 @@ public class IntegrationConfig {
 		Config config = ConfigFactory.load().withFallback(defaultConf);
 		setTimeoutDefault(Integer.parseInt(config.getObjectList("integration.timeout").get(0).withFallback(defaultConfListValue).get("default").render()));
 		setEnrichment(Integer.parseInt(config.getObjectList("integration.timeout").get(0).withFallback(defaultConfListValue).get("enrichment").render()));
+		setMaxConnections(config.getInt("integration.http.maxConnections"));
+		setMaxConnectionsPerRoute(config.getInt("integration.http.maxConnectionsPerRoute"));
+		setKeepAliveSeconds(config.getInt("integration.http.keepAliveSeconds"));
+		setConnectionRequestTimeout(config.getInt("integration.http.connectionRequestTimeout"));
+		setMaxConcurrentPerDestination(config.getInt("integration.http.maxConcurrentPerDestination"));
+		setBatchFlushThreads(config.getInt("integration.http.batchFlushThreads"));
+		setBatchQueueSize(config.getInt("integration.http.batchQueueSize"));
+	}
+
+	/**
+	 * Shared client for outbound REST destinations and transformations. Connections
+	 * are pooled per host and kept alive between events; waiting for a free connection
+	 * is bounded, so a saturated host fails fast instead of holding the caller.
+	 */
+	@Bean(destroyMethod = "close")
+	public CloseableHttpClient integrationHttpClient() {
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal(getMaxConnections());
+		connectionManager.setDefaultMaxPerRoute(getMaxConnectionsPerRoute());
+
+		RequestConfig requestConfig = RequestConfig.custom()
+				.setConnectTimeout(getTimeoutDefault())
+				.setSocketTimeout(getTimeoutDefault())
+				.setConnectionRequestTimeout(getConnectionRequestTimeout())
+				.build();
+
+		long keepAliveMillis = TimeUnit.SECONDS.toMillis(getKeepAliveSeconds());
+
+		return HttpClients.custom()
+				.setConnectionManager(connectionManager)
+				.setDefaultRequestConfig(requestConfig)
+				.setKeepAliveStrategy((response, context) -> {
+					long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+					return keepAlive > 0 ? Math.min(keepAlive, keepAliveMillis) : keepAliveMillis;
+				})
+				.evictExpiredConnections()
+				.evictIdleConnections(getKeepAliveSeconds(), TimeUnit.SECONDS)
+				.build();
 	}
 
     @Bean
     public RestTemplate enrichmentRestTemplate() {
-        return new RestTemplate();
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(integrationHttpClient()));
     }
 
 }
@@ -0,0 +1,50 @@
+package com.konkerlabs.platform.registry.data.core.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import lombok.Data;
+
+@Data
+public class KinesisPublisherConfig {
+
+    private int maxRecords;
+    private int maxBytes;
+    private int lingerMillis;
+    private int maxRetries;
+    private int retryBackoffMillis;
+    private int flushThreads;
+    private int queueSize;
+    private int clientCacheSize;
+    private int clientTimeToLiveSeconds;
+
+    public KinesisPublisherConfig() {
+        Map<String, Object> defaultMap = new HashMap<>();
+        defaultMap.put("kinesisPublisher.maxRecords", 500);
+        defaultMap.put("kinesisPublisher.maxBytes", 5 * 1024 * 1024);
+        defaultMap.put("kinesisPublisher.lingerMillis", 200);
+        defaultMap.put("kinesisPublisher.maxRetries", 3);
+        defaultMap.put("kinesisPublisher.retryBackoffMillis", 100);
+        defaultMap.put("kinesisPublisher.flushThreads", 2);
+        defaultMap.put("kinesisPublisher.queueSize", 100);
+        defaultMap.put("kinesisPublisher.clientCacheSize", 100);
+        defaultMap.put("kinesisPublisher.clientTimeToLiveSeconds", 3600);
+
+        Config defaultConf = ConfigFactory.parseMap(defaultMap);
+        Config config = ConfigFactory.load().withFallback(defaultConf);
+
+        setMaxRecords(config.getInt("kinesisPublisher.maxRecords"));
+        setMaxBytes(config.getInt("kinesisPublisher.maxBytes"));
+        setLingerMillis(config.getInt("kinesisPublisher.lingerMillis"));
+        setMaxRetries(config.getInt("kinesisPublisher.maxRetries"));
+        setRetryBackoffMillis(config.getInt("kinesisPublisher.retryBackoffMillis"));
+        setFlushThreads(config.getInt("kinesisPublisher.flushThreads"));
+        setQueueSize(config.getInt("kinesisPublisher.queueSize"));
+        setClientCacheSize(config.getInt("kinesisPublisher.clientCacheSize"));
+        setClientTimeToLiveSeconds(config.getInt("kinesisPublisher.clientTimeToLiveSeconds"));
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.konkerlabs.platform.registry.data.core.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import lombok.Data;
+
+@Data
+public class LastEventTrackerConfig {
+
+    private int flushIntervalMillis;
+    private int batchSize;
+    private int shards;
+
+    public LastEventTrackerConfig() {
+        Map<String, Object> defaultMap = new HashMap<>();
+        defaultMap.put("lastEventTracker.flushIntervalMillis", 250);
+        defaultMap.put("lastEventTracker.batchSize", 1000);
+        defaultMap.put("lastEventTracker.shards", 16);
+
+        Config defaultConf = ConfigFactory.parseMap(defaultMap);
+        Config config = ConfigFactory.load().withFallback(defaultConf);
+
+        setFlushIntervalMillis(config.getInt("lastEventTracker.flushIntervalMillis"));
+        setBatchSize(config.getInt("lastEventTracker.batchSize"));
+        setShards(config.getInt("lastEventTracker.shards"));
+    }
+
+}
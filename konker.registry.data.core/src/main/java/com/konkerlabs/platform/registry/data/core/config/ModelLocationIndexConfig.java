@@ -0,0 +1,32 @@
+package com.konkerlabs.platform.registry.data.core.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import lombok.Data;
+
+@Data
+public class ModelLocationIndexConfig {
+
+    private boolean enabled;
+    private int maximumSize;
+    private int timeToLiveSeconds;
+
+    public ModelLocationIndexConfig() {
+        Map<String, Object> defaultMap = new HashMap<>();
+        defaultMap.put("modelLocationIndex.enabled", true);
+        defaultMap.put("modelLocationIndex.maximumSize", 1000);
+        defaultMap.put("modelLocationIndex.timeToLiveSeconds", 300);
+
+        Config defaultConf = ConfigFactory.parseMap(defaultMap);
+        Config config = ConfigFactory.load().withFallback(defaultConf);
+
+        setEnabled(config.getBoolean("modelLocationIndex.enabled"));
+        setMaximumSize(config.getInt("modelLocationIndex.maximumSize"));
+        setTimeToLiveSeconds(config.getInt("modelLocationIndex.timeToLiveSeconds"));
+    }
+
+}
@@ -2,6 +2,10 @@ package com.konkerlabs.platform.registry.data.core.config;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -40,4 +44,60 @@ public class RabbitMQDataConfig extends RabbitMQConfig {
 
     }
 
-}
\ No newline at end of file
+    /**
+     * Queue of this node only, removed when it disconnects, that receives
+     * every device change broadcast by the registry.
+     */
+    @Bean
+    public AnonymousQueue deviceChangedQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding deviceChangedBinding(FanoutExchange deviceChangedExchange, AnonymousQueue deviceChangedQueue) {
+        return BindingBuilder.bind(deviceChangedQueue).to(deviceChangedExchange);
+    }
+
+    /**
+     * Queue of this node only, removed when it disconnects, that receives
+     * every event route change broadcast by the registry.
+     */
+    @Bean
+    public AnonymousQueue eventRouteChangedQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding eventRouteChangedBinding(FanoutExchange eventRouteChangedExchange, AnonymousQueue eventRouteChangedQueue) {
+        return BindingBuilder.bind(eventRouteChangedQueue).to(eventRouteChangedExchange);
+    }
+
+    /**
+     * Queue of this node only, removed when it disconnects, that receives
+     * every location change broadcast by the registry.
+     */
+    @Bean
+    public AnonymousQueue locationChangedQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding locationChangedBinding(FanoutExchange locationChangedExchange, AnonymousQueue locationChangedQueue) {
+        return BindingBuilder.bind(locationChangedQueue).to(locationChangedExchange);
+    }
+
+    /**
+     * Queue of this node only, removed when it disconnects, that receives
+     * every REST destination change broadcast by the registry.
+     */
+    @Bean
+    public AnonymousQueue restDestinationChangedQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding restDestinationChangedBinding(FanoutExchange restDestinationChangedExchange, AnonymousQueue restDestinationChangedQueue) {
+        return BindingBuilder.bind(restDestinationChangedQueue).to(restDestinationChangedExchange);
+    }
+
+}
@@ -5,10 +5,12 @@ import java.util.Map;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
@@ -55,4 +57,15 @@ public class RedisConfig {
         rt.setConnectionFactory(redisConnectionFactory());
         return rt;
     }
-}
\ No newline at end of file
+
+    /**
+     * Listeners run on the subscription thread and must only hand messages over.
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer() {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory());
+        container.setTaskExecutor(new SyncTaskExecutor());
+        return container;
+    }
+}
@@ -19,7 +19,6 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.authentication.encoding.PlaintextPasswordEncoder;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
@@ -31,6 +30,8 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 import com.konkerlabs.platform.registry.business.services.api.DeviceRegisterService;
+import com.konkerlabs.platform.registry.data.core.security.DeviceAuthenticationProvider;
+import com.konkerlabs.platform.registry.data.core.security.DeviceCredentialCache;
 import com.konkerlabs.platform.registry.data.core.security.KonkerBasicAuthenticationFilter;
 import com.konkerlabs.platform.registry.data.core.security.KonkerParamsAuthenticationFilter;
 import com.konkerlabs.platform.security.managers.PasswordManager;
@@ -58,9 +59,12 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private DeviceRegisterService deviceRegisterService;
 
+    @Autowired
+    private DeviceCredentialCache deviceCredentialCache;
+
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
-        DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
+        DeviceAuthenticationProvider authenticationProvider = new DeviceAuthenticationProvider(deviceCredentialCache);
         authenticationProvider.setUserDetailsService(detailsService);
         authenticationProvider.setPasswordEncoder(new PlaintextPasswordEncoder() {
             @Override
@@ -0,0 +1,38 @@
+package com.konkerlabs.platform.registry.data.core.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import lombok.Data;
+
+@Data
+public class SilenceDetectorConfig {
+
+    private boolean enabled;
+    private int tickMillis;
+    private int wheelSize;
+    private int triggerCacheSize;
+    private int triggerTimeToLiveSeconds;
+
+    public SilenceDetectorConfig() {
+        Map<String, Object> defaultMap = new HashMap<>();
+        defaultMap.put("silenceDetector.enabled", true);
+        defaultMap.put("silenceDetector.tickMillis", 1000);
+        defaultMap.put("silenceDetector.wheelSize", 4096);
+        defaultMap.put("silenceDetector.triggerCacheSize", 10000);
+        defaultMap.put("silenceDetector.triggerTimeToLiveSeconds", 60);
+
+        Config defaultConf = ConfigFactory.parseMap(defaultMap);
+        Config config = ConfigFactory.load().withFallback(defaultConf);
+
+        setEnabled(config.getBoolean("silenceDetector.enabled"));
+        setTickMillis(config.getInt("silenceDetector.tickMillis"));
+        setWheelSize(config.getInt("silenceDetector.wheelSize"));
+        setTriggerCacheSize(config.getInt("silenceDetector.triggerCacheSize"));
+        setTriggerTimeToLiveSeconds(config.getInt("silenceDetector.triggerTimeToLiveSeconds"));
+    }
+
+}
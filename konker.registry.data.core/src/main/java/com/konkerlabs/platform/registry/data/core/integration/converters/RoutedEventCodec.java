@@ -0,0 +1,273 @@
+package com.konkerlabs.platform.registry.data.core.integration.converters;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.konkerlabs.platform.registry.business.model.Event;
+import com.konkerlabs.platform.registry.business.model.Event.EventActor;
+import com.konkerlabs.platform.registry.business.model.Event.EventGeolocation;
+
+/**
+ * Encodes the events queued on routed.events as a versioned CBOR map with short,
+ * fixed field names, so that nodes running different versions of {@link Event} can
+ * still exchange them. Unknown fields are skipped when decoding; a field is only
+ * ever added, never renamed or reused, and the version is bumped when an existing
+ * field changes meaning.
+ *
+ * Messages without the CBOR content type are read as serialized Java objects, the
+ * format used before this codec, so that events queued by older data nodes are still
+ * routed while a deploy is rolling out.
+ */
+@Service
+public class RoutedEventCodec {
+
+    public static final String CONTENT_TYPE = "application/vnd.konker.event+cbor";
+
+    public static final int VERSION = 1;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RoutedEventCodec.class);
+
+    private static final CBORFactory FACTORY = new CBORFactory();
+
+    private static final String VERSION_FIELD = "v";
+    private static final String EPOCH_TIME = "epoch";
+    private static final String CREATION_TIMESTAMP = "ts";
+    private static final String INGESTED_TIMESTAMP = "its";
+    private static final String INCOMING = "in";
+    private static final String OUTGOING = "out";
+    private static final String GEOLOCATION = "geo";
+    private static final String PAYLOAD = "payload";
+
+    private static final String TENANT_DOMAIN = "tenant";
+    private static final String APPLICATION_NAME = "app";
+    private static final String DEVICE_GUID = "guid";
+    private static final String DEVICE_ID = "id";
+    private static final String CHANNEL = "channel";
+
+    private static final String LAT = "lat";
+    private static final String LON = "lon";
+    private static final String HDOP = "hdop";
+    private static final String ELEV = "elev";
+
+    public byte[] encode(Event event) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+
+        try (JsonGenerator generator = FACTORY.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeNumberField(VERSION_FIELD, VERSION);
+            if (event.getEpochTime() != null)
+                generator.writeNumberField(EPOCH_TIME, event.getEpochTime());
+            writeInstant(generator, CREATION_TIMESTAMP, event.getCreationTimestamp());
+            writeInstant(generator, INGESTED_TIMESTAMP, event.getIngestedTimestamp());
+            writeActor(generator, INCOMING, event.getIncoming());
+            writeActor(generator, OUTGOING, event.getOutgoing());
+            writeGeolocation(generator, event.getGeolocation());
+            if (event.getPayload() != null)
+                generator.writeStringField(PAYLOAD, event.getPayload());
+            generator.writeEndObject();
+        }
+
+        return out.toByteArray();
+    }
+
+    public Event decode(byte[] bytes) throws IOException {
+        Event event = Event.builder().build();
+
+        try (JsonParser parser = FACTORY.createParser(bytes)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+
+                if (value == JsonToken.VALUE_NULL)
+                    continue;
+
+                switch (field) {
+                    case VERSION_FIELD:
+                        if (parser.getIntValue() > VERSION)
+                            throw new IOException("Unsupported routed event version: " + parser.getIntValue());
+                        break;
+                    case EPOCH_TIME:
+                        event.setEpochTime(parser.getLongValue());
+                        break;
+                    case CREATION_TIMESTAMP:
+                        event.setCreationTimestamp(readInstant(parser));
+                        break;
+                    case INGESTED_TIMESTAMP:
+                        event.setIngestedTimestamp(readInstant(parser));
+                        break;
+                    case INCOMING:
+                        event.setIncoming(readActor(parser));
+                        break;
+                    case OUTGOING:
+                        event.setOutgoing(readActor(parser));
+                        break;
+                    case GEOLOCATION:
+                        event.setGeolocation(readGeolocation(parser));
+                        break;
+                    case PAYLOAD:
+                        event.setPayload(parser.getText());
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+
+        return event;
+    }
+
+    /**
+     * Decodes a message body queued with the given content type, or returns null
+     * when it cannot be read.
+     */
+    public Event decode(byte[] bytes, String contentType) {
+        try {
+            if (CONTENT_TYPE.equals(contentType))
+                return decode(bytes);
+
+            try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                return (Event) ois.readObject();
+            }
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            LOGGER.error("Exception while converting ByteArray to Event...", e);
+            return null;
+        }
+    }
+
+    private void writeInstant(JsonGenerator generator, String field, Instant instant) throws IOException {
+        if (instant == null)
+            return;
+
+        generator.writeArrayFieldStart(field);
+        generator.writeNumber(instant.getEpochSecond());
+        generator.writeNumber(instant.getNano());
+        generator.writeEndArray();
+    }
+
+    private Instant readInstant(JsonParser parser) throws IOException {
+        expect(parser.getCurrentToken(), JsonToken.START_ARRAY);
+        parser.nextToken();
+        long seconds = parser.getLongValue();
+        parser.nextToken();
+        int nanos = parser.getIntValue();
+        expect(parser.nextToken(), JsonToken.END_ARRAY);
+
+        return Instant.ofEpochSecond(seconds, nanos);
+    }
+
+    private void writeActor(JsonGenerator generator, String field, EventActor actor) throws IOException {
+        if (actor == null)
+            return;
+
+        generator.writeObjectFieldStart(field);
+        writeString(generator, TENANT_DOMAIN, actor.getTenantDomain());
+        writeString(generator, APPLICATION_NAME, actor.getApplicationName());
+        writeString(generator, DEVICE_GUID, actor.getDeviceGuid());
+        writeString(generator, DEVICE_ID, actor.getDeviceId());
+        writeString(generator, CHANNEL, actor.getChannel());
+        generator.writeEndObject();
+    }
+
+    private EventActor readActor(JsonParser parser) throws IOException {
+        expect(parser.getCurrentToken(), JsonToken.START_OBJECT);
+        EventActor actor = new EventActor();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            if (parser.nextToken() == JsonToken.VALUE_NULL)
+                continue;
+
+            switch (field) {
+                case TENANT_DOMAIN:
+                    actor.setTenantDomain(parser.getText());
+                    break;
+                case APPLICATION_NAME:
+                    actor.setApplicationName(parser.getText());
+                    break;
+                case DEVICE_GUID:
+                    actor.setDeviceGuid(parser.getText());
+                    break;
+                case DEVICE_ID:
+                    actor.setDeviceId(parser.getText());
+                    break;
+                case CHANNEL:
+                    actor.setChannel(parser.getText());
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        return actor;
+    }
+
+    private void writeGeolocation(JsonGenerator generator, EventGeolocation geolocation) throws IOException {
+        if (geolocation == null)
+            return;
+
+        generator.writeObjectFieldStart(GEOLOCATION);
+        if (geolocation.getLat() != null)
+            generator.writeNumberField(LAT, geolocation.getLat());
+        if (geolocation.getLon() != null)
+            generator.writeNumberField(LON, geolocation.getLon());
+        if (geolocation.getHdop() != null)
+            generator.writeNumberField(HDOP, geolocation.getHdop());
+        if (geolocation.getElev() != null)
+            generator.writeNumberField(ELEV, geolocation.getElev());
+        generator.writeEndObject();
+    }
+
+    private EventGeolocation readGeolocation(JsonParser parser) throws IOException {
+        expect(parser.getCurrentToken(), JsonToken.START_OBJECT);
+        EventGeolocation geolocation = new EventGeolocation();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            if (parser.nextToken() == JsonToken.VALUE_NULL)
+                continue;
+
+            switch (field) {
+                case LAT:
+                    geolocation.setLat(parser.getDoubleValue());
+                    break;
+                case LON:
+                    geolocation.setLon(parser.getDoubleValue());
+                    break;
+                case HDOP:
+                    geolocation.setHdop(parser.getLongValue());
+                    break;
+                case ELEV:
+                    geolocation.setElev(parser.getDoubleValue());
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        return geolocation;
+    }
+
+    private void writeString(JsonGenerator generator, String field, String value) throws IOException {
+        if (value != null)
+            generator.writeStringField(field, value);
+    }
+
+    private void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected)
+            throw new IOException("Malformed routed event: expected " + expected + " but found " + actual);
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.konkerlabs.platform.registry.data.core.integration.endpoints;
+
+import java.nio.charset.StandardCharsets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.konkerlabs.platform.registry.business.services.DeviceApiKeyCache;
+import com.konkerlabs.platform.registry.config.RabbitMQConfig;
+import com.konkerlabs.platform.registry.data.core.security.DeviceCredentialCache;
+import com.konkerlabs.platform.registry.data.core.services.publishers.ModelLocationIndexCache;
+
+/**
+ * Keeps the device cache, the verified credentials and the model location indexes of
+ * this node coherent with the changes made by the registry on any other node.
+ */
+@Service
+public class DeviceChangedRabbitEndpoint {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeviceChangedRabbitEndpoint.class);
+
+    private DeviceApiKeyCache deviceApiKeyCache;
+    private DeviceCredentialCache deviceCredentialCache;
+    private ModelLocationIndexCache modelLocationIndexCache;
+
+    @Autowired
+    public DeviceChangedRabbitEndpoint(DeviceApiKeyCache deviceApiKeyCache,
+                                       DeviceCredentialCache deviceCredentialCache,
+                                       ModelLocationIndexCache modelLocationIndexCache) {
+        this.deviceApiKeyCache = deviceApiKeyCache;
+        this.deviceCredentialCache = deviceCredentialCache;
+        this.modelLocationIndexCache = modelLocationIndexCache;
+    }
+
+    @RabbitListener(queues = "#{deviceChangedQueue.name}")
+    public void onDeviceChanged(Message message) {
+
+        String apiKey = new String(message.getBody(), StandardCharsets.UTF_8);
+
+        if (!StringUtils.hasText(apiKey)) {
+            LOGGER.error("Apikey not found.");
+            return;
+        }
+
+        if (LOGGER.isDebugEnabled())
+            LOGGER.debug("Device changed, invalidating cached apikey -> " + apiKey);
+
+        deviceApiKeyCache.invalidate(apiKey);
+        deviceCredentialCache.invalidate(apiKey);
+
+        Object tenantId = message.getMessageProperties().getHeaders().get(RabbitMQConfig.MSG_HEADER_TENANT_ID);
+        Object applicationName = message.getMessageProperties().getHeaders().get(RabbitMQConfig.MSG_HEADER_APPLICATION_NAME);
+
+        // notifications from nodes that predate the headers do not say which application changed
+        if (StringUtils.hasText((String) tenantId) && StringUtils.hasText((String) applicationName)) {
+            modelLocationIndexCache.invalidate((String) tenantId, (String) applicationName);
+        } else {
+            modelLocationIndexCache.invalidateAll();
+        }
+
+    }
+
+}
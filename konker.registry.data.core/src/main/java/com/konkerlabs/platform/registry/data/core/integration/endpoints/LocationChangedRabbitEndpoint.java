@@ -0,0 +1,48 @@
+package com.konkerlabs.platform.registry.data.core.integration.endpoints;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.konkerlabs.platform.registry.config.RabbitMQConfig;
+import com.konkerlabs.platform.registry.data.core.services.routes.LocationHierarchyCache;
+
+/**
+ * Keeps the location hierarchies of this node coherent with the changes made by the
+ * registry on any other node.
+ */
+@Service
+public class LocationChangedRabbitEndpoint {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocationChangedRabbitEndpoint.class);
+
+    private LocationHierarchyCache locationHierarchyCache;
+
+    @Autowired
+    public LocationChangedRabbitEndpoint(LocationHierarchyCache locationHierarchyCache) {
+        this.locationHierarchyCache = locationHierarchyCache;
+    }
+
+    @RabbitListener(queues = "#{locationChangedQueue.name}")
+    public void onLocationChanged(Message message) {
+
+        Object tenantId = message.getMessageProperties().getHeaders().get(RabbitMQConfig.MSG_HEADER_TENANT_ID);
+        Object applicationName = message.getMessageProperties().getHeaders().get(RabbitMQConfig.MSG_HEADER_APPLICATION_NAME);
+
+        if (!StringUtils.hasText((String) tenantId) || !StringUtils.hasText((String) applicationName)) {
+            LOGGER.error("Tenant or application not found.");
+            return;
+        }
+
+        if (LOGGER.isDebugEnabled())
+            LOGGER.debug("Location changed, invalidating location hierarchy -> " + tenantId + ":" + applicationName);
+
+        locationHierarchyCache.invalidate((String) tenantId, (String) applicationName);
+
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.konkerlabs.platform.registry.data.core.integration.endpoints;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.konkerlabs.platform.registry.config.RabbitMQConfig;
+import com.konkerlabs.platform.registry.data.core.services.publishers.RestDestinationCache;
+
+/**
+ * Keeps the REST destinations cached by this node coherent with the changes made by the
+ * registry on any other node.
+ */
+@Service
+public class RestDestinationChangedRabbitEndpoint {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RestDestinationChangedRabbitEndpoint.class);
+
+    private RestDestinationCache restDestinationCache;
+
+    @Autowired
+    public RestDestinationChangedRabbitEndpoint(RestDestinationCache restDestinationCache) {
+        this.restDestinationCache = restDestinationCache;
+    }
+
+    @RabbitListener(queues = "#{restDestinationChangedQueue.name}")
+    public void onRestDestinationChanged(Message message) {
+
+        Object tenantId = message.getMessageProperties().getHeaders().get(RabbitMQConfig.MSG_HEADER_TENANT_ID);
+        Object applicationName = message.getMessageProperties().getHeaders().get(RabbitMQConfig.MSG_HEADER_APPLICATION_NAME);
+        Object guid = message.getMessageProperties().getHeaders().get(RabbitMQConfig.MSG_HEADER_REST_DESTINATION_GUID);
+
+        if (!StringUtils.hasText((String) tenantId) || !StringUtils.hasText((String) applicationName)
+                || !StringUtils.hasText((String) guid)) {
+            LOGGER.error("Tenant, application or REST destination not found.");
+            return;
+        }
+
+        if (LOGGER.isDebugEnabled())
+            LOGGER.debug("REST destination changed, invalidating destination -> " + tenantId + ":" + applicationName + ":" + guid);
+
+        restDestinationCache.invalidate((String) tenantId, (String) applicationName, (String) guid);
+
+    }
+
+}
@@ -1,12 +1,10 @@
 package com.konkerlabs.platform.registry.data.core.integration.gateway;
 
-import com.konkerlabs.platform.registry.data.core.config.IntegrationConfig;
 import com.konkerlabs.platform.registry.data.core.integration.exceptions.IntegrationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Base64Utils;
 import org.springframework.web.client.RestClientException;
@@ -23,14 +21,9 @@ public class HttpGatewayImpl implements HttpGateway {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpGatewayImpl.class);
 
-    @Autowired
-    private IntegrationConfig integrationConfig;
-    
     @Autowired
     private RestTemplate restTemplate;
 
-    private HttpHeaders defaultHeaders;
-
     @Override
     public <T> String request(
             HttpMethod method,
@@ -50,34 +43,30 @@ public class HttpGatewayImpl implements HttpGateway {
         Optional.ofNullable(restTemplate)
                 .orElseThrow(() -> new IllegalStateException("RestTemplate must be provided"));
 
-        Optional.ofNullable(headers).orElse(new HttpHeaders());
-
         if ((username != null && password == null) || username == null && password != null) {
             throw new IllegalStateException("Username and Password must be both provided together");
         }
 
         try {
 
-            Optional.ofNullable(defaultHeaders).ifPresent(item -> {
-                item.entrySet().forEach(header->{
-                    headers.put(header.getKey(), header.getValue());
-                });
-            });
+            HttpHeaders requestHeaders = new HttpHeaders();
+            Optional.ofNullable(headers).ifPresent(requestHeaders::putAll);
+            Optional.ofNullable(mediaType).ifPresent(requestHeaders::setContentType);
+            requestHeaders.set(KONKER_VERSION_HEADER, "0.1");
 
             if ((username != null && !username.trim().isEmpty()) || (password != null && !password.trim().isEmpty())) {
                 String encodedCredentials = Base64Utils
                         .encodeToString(format("{0}:{1}", username, password).getBytes());
 
-                headers.add("Authorization", format("Basic {0}", encodedCredentials));
+                requestHeaders.add("Authorization", format("Basic {0}", encodedCredentials));
             }
 
             HttpEntity<String> entity = new HttpEntity(
                     Optional.ofNullable(body).orElse(() -> null).get(),
-                    headers
+                    requestHeaders
             );
 
             LOGGER.debug("Requesting {} from {}.", method, uri);
-            setUp(null, mediaType);
             ResponseEntity<String> exchange = restTemplate.exchange(uri, method, entity, String.class);
 
             if (exchange.getStatusCode().is2xxSuccessful()) {
@@ -94,21 +83,4 @@ public class HttpGatewayImpl implements HttpGateway {
                     format("Exception while requesting {0} from {1}", method, uri), rce);
         }
     }
-
-    private void setUp(Optional<Integer> timeout, MediaType mediaType) {
-
-        defaultHeaders = new HttpHeaders();
-        defaultHeaders.setContentType(mediaType);
-        defaultHeaders.add(KONKER_VERSION_HEADER, "0.1");
-
-        Integer clientTimeout =
-                Optional.ofNullable(timeout).isPresent() ?
-                        timeout.get() :
-                        integrationConfig.getTimeoutDefault();
-
-        Optional.ofNullable(restTemplate.getRequestFactory()).ifPresent(item -> {
-            ((SimpleClientHttpRequestFactory) item).setReadTimeout(clientTimeout);
-            ((SimpleClientHttpRequestFactory) item).setConnectTimeout(clientTimeout);
-        });
-    }
 }
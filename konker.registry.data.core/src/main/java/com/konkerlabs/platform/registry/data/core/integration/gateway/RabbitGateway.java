@@ -5,16 +5,23 @@ import com.konkerlabs.platform.registry.business.model.Event;
 import com.konkerlabs.platform.registry.business.model.EventRoute;
 import com.konkerlabs.platform.registry.config.RabbitMQConfig;
 import com.konkerlabs.platform.registry.data.core.config.RabbitMQDataConfig;
+import com.konkerlabs.platform.registry.data.core.integration.converters.RoutedEventCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.*;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
 
 @Service
 public class RabbitGateway {
@@ -22,8 +29,13 @@ public class RabbitGateway {
     @Autowired
     private RabbitTemplate rabbitTemplate;
 
+    @Autowired
+    private RoutedEventCodec routedEventCodec;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(RabbitGateway.class);
 
+    private static final MessagePropertiesConverter PROPERTIES_CONVERTER = new DefaultMessagePropertiesConverter();
+
     public void sendEvent(String apiKey, String channel, byte[] payload) {
 
         try {
@@ -39,6 +51,30 @@ public class RabbitGateway {
         }
     }
 
+    /**
+     * Sends one payload per device API key to the same channel, publishing them all on
+     * a single broker channel instead of borrowing one per message.
+     */
+    public void sendEvents(String channel, Map<String, byte[]> payloadsByApiKey) {
+
+        try {
+            rabbitTemplate.execute(rabbitChannel -> {
+                for (Map.Entry<String, byte[]> payload : payloadsByApiKey.entrySet()) {
+                    MessageProperties properties = new MessageProperties();
+                    properties.setHeader(RabbitMQConfig.MSG_HEADER_APIKEY, payload.getKey());
+                    properties.setHeader(RabbitMQConfig.MSG_HEADER_CHANNEL, channel);
+
+                    rabbitChannel.basicPublish("", "data.sub", false,
+                            PROPERTIES_CONVERTER.fromMessageProperties(properties, StandardCharsets.UTF_8.name()),
+                            payload.getValue());
+                }
+                return null;
+            });
+        } catch (AmqpException ex) {
+            LOGGER.error("AmqpException while sending messages to RabbitMQ...", ex);
+        }
+    }
+
     public void sendConfig(String apiKey, String config) {
 
         try {
@@ -59,27 +95,51 @@ public class RabbitGateway {
             MessageProperties properties = new MessageProperties();
             properties.setHeader(RabbitMQDataConfig.MSG_HEADER_APIKEY, device.getApiKey());
             properties.setHeader(RabbitMQDataConfig.MSG_HEADER_EVENT_ROUTE_GUID, eventRoute.getGuid());
+            properties.setContentType(RoutedEventCodec.CONTENT_TYPE);
 
-            Message message = new Message(toByteArray(event), properties);
+            Message message = new Message(routedEventCodec.encode(event), properties);
             rabbitTemplate.convertAndSend("routed.events", message);
 
         } catch (AmqpException ex) {
             LOGGER.error("AmqpException while sending message to RabbitMQ...", ex);
+        } catch (IOException ex) {
+            LOGGER.error("Exception while converting Event to ByteArray...", ex);
         }
     }
 
-    private byte[] toByteArray(Event event) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    /**
+     * Same as {@link #queueEvent} for many routed events, publishing them all on a single
+     * broker channel; each event goes through the route at the same position, from the
+     * device at the same position.
+     */
+    public void queueEvents(List<Device> devices, List<EventRoute> eventRoutes, List<Event> events) {
+        if (events.isEmpty())
+            return;
 
         try {
-            ObjectOutputStream oos = new ObjectOutputStream(baos);
-            oos.writeObject(event);
-            oos.flush();
-
-        } catch (Exception e) {
-            LOGGER.error("Exception while converting Event to ByteArray...", e);
+            rabbitTemplate.execute(rabbitChannel -> {
+                for (int i = 0; i < events.size(); i++) {
+                    byte[] body;
+                    try {
+                        body = routedEventCodec.encode(events.get(i));
+                    } catch (IOException ex) {
+                        LOGGER.error("Exception while converting Event to ByteArray...", ex);
+                        continue;
+                    }
+
+                    MessageProperties properties = new MessageProperties();
+                    properties.setHeader(RabbitMQDataConfig.MSG_HEADER_APIKEY, devices.get(i).getApiKey());
+                    properties.setHeader(RabbitMQDataConfig.MSG_HEADER_EVENT_ROUTE_GUID, eventRoutes.get(i).getGuid());
+                    properties.setContentType(RoutedEventCodec.CONTENT_TYPE);
+
+                    rabbitChannel.basicPublish("", "routed.events", false,
+                            PROPERTIES_CONVERTER.fromMessageProperties(properties, StandardCharsets.UTF_8.name()),
+                            body);
+                }
+                return null;
+            });
+        } catch (AmqpException ex) {
+            LOGGER.error("AmqpException while sending messages to RabbitMQ...", ex);
         }
-
-        return baos.toByteArray();
     }
 }
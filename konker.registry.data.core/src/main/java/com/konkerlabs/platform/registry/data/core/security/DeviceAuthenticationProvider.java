@@ -0,0 +1,55 @@
+package com.konkerlabs.platform.registry.data.core.security;
+
+import java.util.Optional;
+
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+/**
+ * Checks device passwords through the {@link DeviceCredentialCache}: a secret verified
+ * moments ago is accepted without hashing it again, and a source address with too many
+ * recent failures on a device is refused without hashing at all. The device itself is
+ * still loaded and checked on every request, so disabled devices are refused straight away.
+ */
+public class DeviceAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final DeviceCredentialCache credentialCache;
+
+    public DeviceAuthenticationProvider(DeviceCredentialCache credentialCache) {
+        this.credentialCache = credentialCache;
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails,
+                                                  UsernamePasswordAuthenticationToken authentication)
+            throws AuthenticationException {
+
+        String apiKey = userDetails.getUsername();
+        String secret = Optional.ofNullable(authentication.getCredentials()).map(Object::toString).orElse(null);
+        String source = Optional.ofNullable(authentication.getDetails())
+                .filter(WebAuthenticationDetails.class::isInstance)
+                .map(details -> ((WebAuthenticationDetails) details).getRemoteAddress())
+                .orElse(null);
+
+        if (secret != null && credentialCache.isVerified(apiKey, userDetails.getPassword(), secret))
+            return;
+
+        if (credentialCache.isBlocked(apiKey, source))
+            throw new BadCredentialsException(messages.getMessage(
+                    "AbstractUserDetailsAuthenticationProvider.badCredentials", "Bad credentials"));
+
+        try {
+            super.additionalAuthenticationChecks(userDetails, authentication);
+        } catch (BadCredentialsException e) {
+            credentialCache.failed(apiKey, source);
+            throw e;
+        }
+
+        credentialCache.verified(apiKey, source, userDetails.getPassword(), secret);
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.konkerlabs.platform.registry.data.core.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import com.konkerlabs.platform.registry.data.core.config.DeviceCredentialCacheConfig;
+import com.konkerlabs.platform.utilities.cache.LocalCache;
+
+/**
+ * Device credentials this node has recently verified, so that a device sending one
+ * message after another pays for the password hash once per time to live. Only a
+ * SHA-256 of the stored hash and the presented secret is kept: a secret rotated by
+ * the registry no longer matches, even before the change notification invalidates it.
+ *
+ * Failed attempts are counted per API key and source address; once a source reaches
+ * the limit, its unverified attempts on that key are refused without hashing until the
+ * window ends. A failure never evicts the verified secret, so wrong secrets sent from
+ * elsewhere cannot lock the device out, and a secret matching the cached one is always
+ * accepted.
+ */
+@Component
+@ManagedResource(objectName = "com.konkerlabs.platform.registry:type=DeviceCredentialCache")
+public class DeviceCredentialCache {
+
+    private final boolean enabled;
+    private final int maxFailures;
+    private final LocalCache<String, byte[]> verified;
+    private final LocalCache<String, AtomicInteger> failures;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong refused = new AtomicLong();
+
+    public DeviceCredentialCache() {
+        this(new DeviceCredentialCacheConfig());
+    }
+
+    public DeviceCredentialCache(DeviceCredentialCacheConfig config) {
+        this.enabled = config.isEnabled();
+        this.maxFailures = config.getMaxFailures();
+        this.verified = new LocalCache<>(config.getMaximumSize(), Duration.ofSeconds(config.getTimeToLiveSeconds()));
+        this.failures = new LocalCache<>(config.getMaximumSize(), Duration.ofSeconds(config.getFailureWindowSeconds()));
+    }
+
+    public boolean isVerified(String apiKey, String securityHash, String secret) {
+        if (!enabled)
+            return false;
+
+        Optional<byte[]> fingerprint = verified.getIfPresent(apiKey);
+        if (fingerprint.isPresent() && MessageDigest.isEqual(fingerprint.get(), fingerprint(securityHash, secret))) {
+            hits.incrementAndGet();
+            return true;
+        }
+
+        misses.incrementAndGet();
+        return false;
+    }
+
+    public boolean isBlocked(String apiKey, String source) {
+        if (!enabled || maxFailures <= 0)
+            return false;
+
+        boolean blocked = failures.getIfPresent(attemptKey(apiKey, source))
+                .map(count -> count.get() >= maxFailures)
+                .orElse(false);
+        if (blocked)
+            refused.incrementAndGet();
+
+        return blocked;
+    }
+
+    public void verified(String apiKey, String source, String securityHash, String secret) {
+        if (!enabled)
+            return;
+
+        failures.invalidate(attemptKey(apiKey, source));
+        verified.put(apiKey, fingerprint(securityHash, secret));
+    }
+
+    public void failed(String apiKey, String source) {
+        if (!enabled)
+            return;
+
+        failures.get(attemptKey(apiKey, source), key -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public void invalidate(String apiKey) {
+        if (Optional.ofNullable(apiKey).isPresent())
+            verified.invalidate(apiKey);
+    }
+
+    public void invalidateAll() {
+        verified.invalidateAll();
+    }
+
+    public int size() {
+        return verified.size();
+    }
+
+    @ManagedAttribute(description = "Attempts accepted without hashing the password")
+    public long getHits() {
+        return hits.get();
+    }
+
+    @ManagedAttribute(description = "Attempts that had to hash the password")
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @ManagedAttribute(description = "Attempts refused after too many failures")
+    public long getRefused() {
+        return refused.get();
+    }
+
+    private String attemptKey(String apiKey, String source) {
+        return apiKey + '\n' + Optional.ofNullable(source).orElse("");
+    }
+
+    private byte[] fingerprint(String securityHash, String secret) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(securityHash).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(secret).getBytes(StandardCharsets.UTF_8));
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -12,6 +12,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 public class KonkerParamsAuthenticationFilter extends OncePerRequestFilter {
@@ -46,6 +47,7 @@ public class KonkerParamsAuthenticationFilter extends OncePerRequestFilter {
 
                 UsernamePasswordAuthenticationToken authRequest = new UsernamePasswordAuthenticationToken(apiKey,
                         password);
+                authRequest.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 Authentication authResult = this.authenticationManager.authenticate(authRequest);
 
                 SecurityContextHolder.getContext().setAuthentication(authResult);
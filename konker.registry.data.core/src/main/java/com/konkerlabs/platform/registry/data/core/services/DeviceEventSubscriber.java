@@ -0,0 +1,94 @@
+package com.konkerlabs.platform.registry.data.core.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Service;
+
+import com.konkerlabs.platform.registry.data.core.services.api.DeviceLogEventService;
+
+/**
+ * Waits for the notifications {@link DeviceLogEventService} publishes on Redis when an
+ * event is sent to a device, on the {@code apiKey} and {@code apiKey.channel} channels.
+ *
+ * A node holds a single pattern subscription, opened on the first wait, whatever the
+ * number of devices waiting: each wait is a future kept in memory under its channel
+ * and completed with the device guid of the next notification on that channel.
+ * Cancelled or completed futures leave the registry straight away.
+ */
+@Service
+@ManagedResource(objectName = "com.konkerlabs.platform.registry:type=DeviceEventSubscriber")
+public class DeviceEventSubscriber implements MessageListener {
+
+    private final RedisMessageListenerContainer container;
+    private final AtomicBoolean listening = new AtomicBoolean();
+    private final ConcurrentMap<String, Set<CompletableFuture<String>>> waiting = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DeviceEventSubscriber(RedisMessageListenerContainer container) {
+        this.container = container;
+    }
+
+    /**
+     * Future completed with the device guid of the next notification on the channel.
+     * Callers that stop waiting must cancel it.
+     */
+    public CompletableFuture<String> await(String channel) {
+        if (listening.compareAndSet(false, true))
+            container.addMessageListener(this, new PatternTopic("*"));
+
+        CompletableFuture<String> notification = new CompletableFuture<>();
+        waiting.compute(channel, (key, futures) -> {
+            if (futures == null)
+                futures = ConcurrentHashMap.newKeySet();
+            futures.add(notification);
+            return futures;
+        });
+        notification.whenComplete((guid, throwable) -> remove(channel, notification));
+
+        return notification;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        deliver(new String(message.getChannel(), StandardCharsets.UTF_8),
+                new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @ManagedAttribute(description = "Requests waiting for a device event")
+    public int getWaiting() {
+        return waiting.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @ManagedAttribute(description = "Channels with requests waiting for a device event")
+    public int getChannels() {
+        return waiting.size();
+    }
+
+    private void deliver(String channel, String deviceGuid) {
+        Set<CompletableFuture<String>> futures = waiting.remove(channel);
+        if (futures == null)
+            return;
+
+        futures.forEach(future -> future.complete(deviceGuid));
+    }
+
+    private void remove(String channel, CompletableFuture<String> notification) {
+        waiting.computeIfPresent(channel, (key, futures) -> {
+            futures.remove(notification);
+            return futures.isEmpty() ? null : futures;
+        });
+    }
+
+}
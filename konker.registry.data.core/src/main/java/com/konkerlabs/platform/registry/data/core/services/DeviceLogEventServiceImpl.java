@@ -3,6 +3,8 @@ package com.konkerlabs.platform.registry.data.core.services;
 import java.text.MessageFormat;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
@@ -16,7 +18,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Scope;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -35,6 +39,7 @@ import com.konkerlabs.platform.registry.data.core.services.api.DeviceLogEventSer
 import com.konkerlabs.platform.registry.type.EventStorageConfigType;
 import com.konkerlabs.platform.utilities.parsers.json.JsonParsingService;
 import com.konkerlabs.platform.utilities.parsers.json.JsonParsingService.JsonPathData;
+import com.konkerlabs.platform.utilities.parsers.json.ParsedJson;
 
 @Service
 @Scope(BeanDefinition.SCOPE_PROTOTYPE)
@@ -54,6 +59,8 @@ public class DeviceLogEventServiceImpl implements DeviceLogEventService {
     @Autowired
     private JedisTaskService jedisTaskService;
     @Autowired
+    private SilenceDetector silenceDetector;
+    @Autowired
     private JsonParsingService jsonParsingService;
     
     private final Pattern integerPattern = Pattern.compile("^[0-9]*$") ;
@@ -78,21 +85,32 @@ public class DeviceLogEventServiceImpl implements DeviceLogEventService {
 
     @Override
     public ServiceResponse<Event> logIncomingEvent(Device device, Event event) {
+        return logIncomingEvent(device, event,
+                Optional.ofNullable(event).map(e -> jsonParsingService.parse(e.getPayload())).orElse(null));
+    }
+
+    /**
+     * The event is validated and completed from its payload before it is written; its
+     * schema, last event timestamp and silence detection are only updated once it is
+     * saved, as {@link #logIncomingEvents(List, List, List)} does for a batch.
+     */
+    @Override
+    public ServiceResponse<Event> logIncomingEvent(Device device, Event event, ParsedJson payload) {
         return doLog(device,event,() -> {
             try {
-                ServiceResponse<EventSchema> schemaResponse = eventSchemaService.appendIncomingSchema(event);
-
-                jedisTaskService.registerLastEventTimestamp(event);
-                appendEventGeolocation(event, device);
-                appendCreationTimestamp(event, device);
-
-                if (schemaResponse.isOk()) {
-                    return ServiceResponseBuilder.<Event>ok()
-                            .withResult(eventRepository.saveIncoming(device.getTenant(), device.getApplication(), event)).build();
-                } else {
-                    return ServiceResponseBuilder.<Event>error()
-                        .withMessages(schemaResponse.getResponseMessages()).build();
-                }
+                ServiceResponse<Event> validated = validateIncoming(event, payload);
+                if (!validated.isOk())
+                    return validated;
+
+                Instant received = event.getCreationTimestamp();
+                appendEventGeolocation(event, device, payload);
+                appendCreationTimestamp(event, device, payload);
+
+                Event saved = eventRepository.saveIncoming(device.getTenant(), device.getApplication(), event);
+                recordIncoming(device, event, payload, received);
+
+                return ServiceResponseBuilder.<Event>ok()
+                        .withResult(saved).build();
 
             } catch (BusinessException e) {
                 return ServiceResponseBuilder.<Event>error()
@@ -101,9 +119,72 @@ public class DeviceLogEventServiceImpl implements DeviceLogEventService {
         });
     }
 
-    private void appendEventGeolocation(Event event, Device device)  {
+    /**
+     * Every event is validated and completed from its payload before anything is written.
+     * Schemas, last event timestamps and silence detection are only updated once the whole
+     * batch is saved, so a rejected or failed batch leaves no trace of its events.
+     */
+    @Override
+    public ServiceResponse<List<Event>> logIncomingEvents(List<Device> devices, List<Event> events, List<ParsedJson> payloads) {
+        if (devices.isEmpty())
+            return ServiceResponseBuilder.<List<Event>>ok().withResult(events).build();
+
+        List<Instant> received = new ArrayList<>(events.size());
+        for (int i = 0; i < devices.size(); i++) {
+            Device device = devices.get(i);
+            Event event = events.get(i);
+            ParsedJson payload = payloads.get(i);
+
+            ServiceResponse<Event> validated = doLog(device, event, () -> validateIncoming(event, payload));
+            if (!validated.isOk())
+                return ServiceResponseBuilder.<List<Event>>error()
+                        .withMessages(validated.getResponseMessages()).build();
+
+            received.add(event.getCreationTimestamp());
+            appendEventGeolocation(event, device, payload);
+            appendCreationTimestamp(event, device, payload);
+        }
+
+        Device first = devices.get(0);
+        List<Event> saved;
+        try {
+            saved = eventRepository.saveIncoming(first.getTenant(), first.getApplication(), events);
+        } catch (BusinessException e) {
+            return ServiceResponseBuilder.<List<Event>>error()
+                    .withMessage(e.getMessage()).build();
+        }
+
+        for (int i = 0; i < devices.size(); i++) {
+            recordIncoming(devices.get(i), events.get(i), payloads.get(i), received.get(i));
+        }
+
+        return ServiceResponseBuilder.<List<Event>>ok().withResult(saved).build();
+    }
+
+    /**
+     * Records the schema and last timestamp of a saved incoming event. The timestamp is
+     * the time the event was received, not the one its payload may claim.
+     */
+    private void recordIncoming(Device device, Event event, ParsedJson payload, Instant received) {
+        eventSchemaService.appendIncomingSchema(event, payload);
+        jedisTaskService.registerLastEventTimestamp(event.getIncoming().getDeviceGuid(), received);
+        silenceDetector.refresh(device, received);
+    }
+
+    private ServiceResponse<Event> validateIncoming(Event event, ParsedJson payload) {
+        ServiceResponse<EventSchema> schemaResponse = eventSchemaService.validateIncomingSchema(event, payload);
+
+        if (schemaResponse.isOk()) {
+            return ServiceResponseBuilder.<Event>ok().withResult(event).build();
+        } else {
+            return ServiceResponseBuilder.<Event>error()
+                    .withMessages(schemaResponse.getResponseMessages()).build();
+        }
+    }
+
+    private void appendEventGeolocation(Event event, Device device, ParsedJson payload)  {
     	try {
-			Map<String, JsonParsingService.JsonPathData> data = jsonParsingService.toFlatMap(event.getPayload());
+			Map<String, JsonParsingService.JsonPathData> data = payload.getFlatMap();
 
 					
 			if (isValidGeolocation(data, device)) {
@@ -123,9 +204,9 @@ public class DeviceLogEventServiceImpl implements DeviceLogEventService {
     	
 	}
 
-	private void appendCreationTimestamp(Event event, Device device) {
+	private void appendCreationTimestamp(Event event, Device device, ParsedJson payload) {
 		try {
-			Map<String, JsonPathData> data = jsonParsingService.toFlatMap(event.getPayload());
+			Map<String, JsonPathData> data = payload.getFlatMap();
 			
 			if (!data.containsKey("_ts")) {
 				return;			
@@ -259,6 +340,45 @@ public class DeviceLogEventServiceImpl implements DeviceLogEventService {
         });
     }
 
+    @Override
+    public ServiceResponse<List<Event>> logOutgoingEvents(List<Device> devices, List<Event> events) {
+        if (devices.isEmpty())
+            return ServiceResponseBuilder.<List<Event>>ok().withResult(events).build();
+
+        for (int i = 0; i < devices.size(); i++) {
+            ServiceResponse<Event> validation = doLog(devices.get(i), events.get(i),
+                    () -> ServiceResponseBuilder.<Event>ok().build());
+            if (!validation.isOk())
+                return ServiceResponseBuilder.<List<Event>>error()
+                        .withMessages(validation.getResponseMessages()).build();
+        }
+
+        Device first = devices.get(0);
+        try {
+            List<Event> saved = eventRepository.saveOutgoing(first.getTenant(), first.getApplication(), events);
+
+            // same notifications as logOutgoingEvent, sent in one pipeline
+            RedisSerializer<String> channels = redisTemplate.getStringSerializer();
+            @SuppressWarnings("unchecked")
+            RedisSerializer<String> values = (RedisSerializer<String>) redisTemplate.getValueSerializer();
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < devices.size(); i++) {
+                    Device device = devices.get(i);
+                    byte[] guid = values.serialize(device.getGuid());
+
+                    connection.publish(channels.serialize(device.getApiKey()), guid);
+                    connection.publish(channels.serialize(device.getApiKey() + '.' + events.get(i).getOutgoing().getChannel()), guid);
+                }
+                return null;
+            });
+
+            return ServiceResponseBuilder.<List<Event>>ok().withResult(saved).build();
+        } catch (BusinessException e) {
+            return ServiceResponseBuilder.<List<Event>>error()
+                    .withMessage(e.getMessage()).build();
+        }
+    }
+
     private ServiceResponse<Event> doLog(Device device, Event event, Supplier<ServiceResponse<Event>> callable) {
         if (!Optional.ofNullable(device).isPresent())
             return ServiceResponseBuilder.<Event>error()
@@ -1,75 +1,212 @@
 package com.konkerlabs.platform.registry.data.core.services;
 
-import com.konkerlabs.platform.registry.business.model.Device;
-import com.konkerlabs.platform.registry.business.model.Event;
-import com.konkerlabs.platform.registry.business.services.api.DeviceEventService;
-import com.konkerlabs.platform.registry.business.services.api.DeviceRegisterService;
-import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.stereotype.Service;
-import redis.clients.jedis.Jedis;
-import redis.clients.jedis.JedisPubSub;
-
-import java.time.Instant;
-import java.util.List;
 
+import com.konkerlabs.platform.registry.business.model.Event;
+import com.konkerlabs.platform.registry.data.core.config.LastEventTrackerConfig;
+
+/**
+ * Tracks the timestamp, in epoch seconds, of the last incoming event of every device.
+ *
+ * Events only update an in-memory map that keeps the latest timestamp per device; a
+ * flush thread writes the map to Redis every {@code lastEventTracker.flushIntervalMillis},
+ * in pipelined batches, so a chatty device costs one write per interval whatever its
+ * event rate. Devices are spread by guid over {@code lastEventTracker.shards} sorted
+ * sets named {@link #LAST_TS_KEY_PREFIX}{@code <shard>}, scored by timestamp, so the
+ * devices silent since a given time are a range query on each shard. A score is only
+ * ever raised, so a node flushing an older timestamp than another one already wrote
+ * does not make the device look silent.
+ *
+ * A batch that fails to reach Redis goes back to the map and is retried on the next
+ * flush; a newer timestamp buffered meanwhile wins.
+ */
 @Service
+@ManagedResource(objectName = "com.konkerlabs.platform.registry:type=LastEventTracker")
 public class JedisTaskService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JedisTaskService.class);
 
-	@Autowired
-	private RedisTemplate<String, String> redisTemplate;
-
-	@Autowired
-	private DeviceEventService deviceEventService;
-
-	@Autowired
-	private DeviceRegisterService deviceRegisterService;
-
-	protected ServiceResponse<List<Event>> response;
-
-	public static final String LAST_TS_HASHNAME = "lasteventts";
-
-	public JedisTaskService() {
-
-	}
-
-	public List<Event> subscribeToChannel(String channel, Instant startTimestamp, boolean asc, Integer limit) {
-		Jedis jedis = (Jedis) redisTemplate.getConnectionFactory().getConnection().getNativeConnection();
-		JedisPubSub jedisPubSub = new JedisPubSub() {
-			@Override
-			public void onMessage(String channel, String message) {
-				String deviceApiKey = channel.contains(".") ? channel.substring(0, channel.indexOf('.')) : channel;
-				String deviceChannel = channel.contains(".") ? channel.substring(channel.indexOf('.') + 1) : null;
+    public static final String LAST_TS_KEY_PREFIX = "lasteventts:";
+
+    // ZADD GT needs Redis 6.2
+    private static final byte[] ZADD_MAX_SCRIPT = ("local current = redis.call('ZSCORE', KEYS[1], ARGV[1]) "
+            + "if not current or tonumber(ARGV[2]) > tonumber(current) then "
+            + "redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1]) "
+            + "end "
+            + "return 0").getBytes(StandardCharsets.UTF_8);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final int batchSize;
+    private final int shards;
+    private final ScheduledThreadPoolExecutor flushExecutor;
+    private final ConcurrentMap<String, Long> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong registered = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @Autowired
+    public JedisTaskService(RedisTemplate<String, String> redisTemplate) {
+        this(redisTemplate, new LastEventTrackerConfig());
+    }
+
+    public JedisTaskService(RedisTemplate<String, String> redisTemplate, LastEventTrackerConfig config) {
+        this.redisTemplate = redisTemplate;
+        this.batchSize = Math.max(1, config.getBatchSize());
+        this.shards = Math.max(1, config.getShards());
+
+        this.flushExecutor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "last-event-tracker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, config.getFlushIntervalMillis());
+        this.flushExecutor.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void registerLastEventTimestamp(Event event) {
+        registerLastEventTimestamp(event.getIncoming().getDeviceGuid(), event.getCreationTimestamp());
+    }
+
+    public void registerLastEventTimestamp(String deviceGuid, Instant timestamp) {
+        registered.incrementAndGet();
+        pending.merge(deviceGuid, timestamp.getEpochSecond(), Math::max);
+    }
+
+    public Optional<Instant> getLastEventTimestamp(String deviceGuid) {
+        Long timestamp = pending.get(deviceGuid);
+        if (timestamp == null) {
+            Double score = redisTemplate.opsForZSet().score(keyOf(deviceGuid), deviceGuid);
+            timestamp = score != null ? score.longValue() : null;
+        }
 
-				Device device = deviceRegisterService.findByApiKey(deviceApiKey);
-				response = deviceEventService.findOutgoingBy(device.getTenant(), device.getApplication(), device.getGuid(),
-						deviceChannel, startTimestamp, null, asc, limit);
-				this.unsubscribe(channel);
-			}
-		};
+        return Optional.ofNullable(timestamp).map(Instant::ofEpochSecond);
+    }
 
-		jedis.subscribe(jedisPubSub, channel);
+    /**
+     * Guids of the devices whose last event is older than {@code since}. Devices that
+     * never sent an event are not tracked and never returned.
+     */
+    public Set<String> findSilentSince(Instant since) {
+        long until = since.getEpochSecond() - 1;
 
-		return response.getResult();
-	}
+        Set<String> silent = new HashSet<>();
+        for (int shard = 0; shard < shards; shard++) {
+            Optional.ofNullable(redisTemplate.opsForZSet().rangeByScore(LAST_TS_KEY_PREFIX + shard, 0, until))
+                    .ifPresent(silent::addAll);
+        }
+        silent.removeIf(deviceGuid -> Optional.ofNullable(pending.get(deviceGuid)).map(ts -> ts > until).orElse(false));
+
+        return silent;
+    }
+
+    /**
+     * Writes every buffered timestamp to Redis, as when the node shuts down.
+     */
+    public void flush() {
+        List<Map.Entry<String, Long>> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+
+        for (String deviceGuid : pending.keySet()) {
+            Long timestamp = pending.remove(deviceGuid);
+            if (timestamp == null)
+                continue;
+
+            batch.add(new AbstractMap.SimpleImmutableEntry<>(deviceGuid, timestamp));
+            if (batch.size() >= batchSize) {
+                write(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
 
-	public void registerLastEventTimestamp(Event event) {
+        if (!batch.isEmpty())
+            write(batch);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+        flushQuietly();
+    }
+
+    @ManagedAttribute(description = "Devices with a timestamp waiting to be written")
+    public int getPending() {
+        return pending.size();
+    }
+
+    @ManagedAttribute(description = "Incoming events registered")
+    public long getRegistered() {
+        return registered.get();
+    }
+
+    @ManagedAttribute(description = "Timestamps written to Redis")
+    public long getWritten() {
+        return written.get();
+    }
+
+    @ManagedAttribute(description = "Timestamps whose write to Redis failed and was deferred")
+    public long getFailed() {
+        return failed.get();
+    }
+
+    private void write(List<Map.Entry<String, Long>> batch) {
+        RedisSerializer<String> strings = redisTemplate.getStringSerializer();
+        @SuppressWarnings("unchecked")
+        RedisSerializer<String> values = (RedisSerializer<String>) redisTemplate.getValueSerializer();
+
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Map.Entry<String, Long> entry : batch) {
+                    connection.eval(ZADD_MAX_SCRIPT, ReturnType.INTEGER, 1,
+                            strings.serialize(keyOf(entry.getKey())),
+                            values.serialize(entry.getKey()),
+                            strings.serialize(String.valueOf(entry.getValue())));
+                }
+                return null;
+            });
+            written.addAndGet(batch.size());
+        } catch (RuntimeException e) {
+            failed.addAndGet(batch.size());
+            batch.forEach(entry -> pending.merge(entry.getKey(), entry.getValue(), Math::max));
+            throw e;
+        }
+    }
 
-	    try {
-            // register last timestamp
-            final String eventTimestamp = Long.toString(event.getCreationTimestamp().getEpochSecond());
-            redisTemplate.boundHashOps(LAST_TS_HASHNAME).put(event.getIncoming().getDeviceGuid(), eventTimestamp);
-	    } catch (RedisConnectionFailureException ex) {
-	        LOGGER.error("RedisConnectionFailureException: {}", ex.getMessage());
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to write last event timestamps: {}", e.getMessage());
         }
+    }
 
-	}
+    private String keyOf(String deviceGuid) {
+        return LAST_TS_KEY_PREFIX + Math.floorMod(deviceGuid.hashCode(), shards);
+    }
 
 }
@@ -0,0 +1,295 @@
+package com.konkerlabs.platform.registry.data.core.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Service;
+
+import com.konkerlabs.platform.registry.business.model.AlertTrigger;
+import com.konkerlabs.platform.registry.business.model.AlertTrigger.AlertTriggerType;
+import com.konkerlabs.platform.registry.business.model.Application;
+import com.konkerlabs.platform.registry.business.model.Device;
+import com.konkerlabs.platform.registry.business.model.HealthAlert;
+import com.konkerlabs.platform.registry.business.model.HealthAlert.HealthAlertSeverity;
+import com.konkerlabs.platform.registry.business.model.HealthAlert.Solution;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.repositories.AlertTriggerRepository;
+import com.konkerlabs.platform.registry.business.services.LocationHierarchy;
+import com.konkerlabs.platform.registry.business.services.api.HealthAlertService;
+import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
+import com.konkerlabs.platform.registry.data.core.config.SilenceDetectorConfig;
+import com.konkerlabs.platform.registry.data.core.services.routes.LocationHierarchyCache;
+import com.konkerlabs.platform.utilities.cache.LocalCache;
+import com.konkerlabs.platform.utilities.timer.TimingWheel;
+
+/**
+ * Raises and clears the health alerts of {@link AlertTriggerType#SILENCE} triggers.
+ *
+ * Every incoming event arms, or pushes back, a deadline per trigger targeting the
+ * device, {@code minutes} after the event, in a {@link TimingWheel} advanced by a timer
+ * thread. Only expired deadlines and first events after them reach the database, so
+ * the cost follows the rate at which devices go silent or come back, not the fleet.
+ *
+ * Events of a device may reach any node, so an expired deadline is checked against the
+ * last event timestamp every node shares through {@link JedisTaskService} before the
+ * alert is raised. The first event after a deadline, or the first one a node sees from
+ * a device, clears the alert left open by any node. Devices are tracked from their
+ * first event on a node.
+ *
+ * Triggers are cached per application for {@code silenceDetector.triggerTimeToLiveSeconds};
+ * an expired deadline is checked against the current triggers, so deleted triggers
+ * raise nothing and edited minutes apply on the next deadline.
+ */
+@Service
+@ManagedResource(objectName = "com.konkerlabs.platform.registry:type=SilenceDetector")
+public class SilenceDetector {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SilenceDetector.class);
+
+    private final HealthAlertService healthAlertService;
+    private final AlertTriggerRepository alertTriggerRepository;
+    private final LocationHierarchyCache locationHierarchyCache;
+    private final JedisTaskService jedisTaskService;
+
+    private final boolean enabled;
+    private final TimingWheel<Silence> wheel;
+    private final LocalCache<String, List<AlertTrigger>> triggers;
+    private final ScheduledThreadPoolExecutor timer;
+
+    private final AtomicLong raised = new AtomicLong();
+    private final AtomicLong cleared = new AtomicLong();
+    private final AtomicLong postponed = new AtomicLong();
+
+    @Autowired
+    public SilenceDetector(HealthAlertService healthAlertService,
+                           AlertTriggerRepository alertTriggerRepository,
+                           LocationHierarchyCache locationHierarchyCache,
+                           JedisTaskService jedisTaskService) {
+        this(healthAlertService, alertTriggerRepository, locationHierarchyCache, jedisTaskService,
+                new SilenceDetectorConfig());
+    }
+
+    public SilenceDetector(HealthAlertService healthAlertService,
+                           AlertTriggerRepository alertTriggerRepository,
+                           LocationHierarchyCache locationHierarchyCache,
+                           JedisTaskService jedisTaskService,
+                           SilenceDetectorConfig config) {
+        this.healthAlertService = healthAlertService;
+        this.alertTriggerRepository = alertTriggerRepository;
+        this.locationHierarchyCache = locationHierarchyCache;
+        this.jedisTaskService = jedisTaskService;
+
+        this.enabled = config.isEnabled();
+        this.wheel = new TimingWheel<>(config.getTickMillis(), config.getWheelSize(), System.currentTimeMillis());
+        this.triggers = new LocalCache<>(config.getTriggerCacheSize(),
+                Duration.ofSeconds(config.getTriggerTimeToLiveSeconds()));
+
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "silence-detector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            timer.scheduleWithFixedDelay(this::advanceQuietly,
+                    config.getTickMillis(), config.getTickMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Pushes back the silence deadlines of the device from the time it was last seen.
+     * It runs on the ingest path, so a failure to read the triggers or locations is
+     * logged and never fails the event.
+     */
+    public void refresh(Device device, Instant seenAt) {
+        if (!enabled || device.getDeviceModel() == null || device.getLocation() == null)
+            return;
+
+        try {
+            arm(device, seenAt);
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to refresh the silence of device {}: {}", device.getGuid(), e.getMessage());
+        }
+    }
+
+    private void arm(Device device, Instant seenAt) {
+        List<AlertTrigger> silenceTriggers = triggersOf(device.getTenant(), device.getApplication());
+        if (silenceTriggers.isEmpty())
+            return;
+
+        LocationHierarchy hierarchy = locationHierarchyCache.get(device.getTenant(), device.getApplication());
+
+        for (AlertTrigger trigger : silenceTriggers) {
+            if (!targets(trigger, device, hierarchy))
+                continue;
+
+            Silence silence = new Silence(device, trigger);
+            if (wheel.schedule(silence, deadlineOf(trigger, seenAt)))
+                clear(silence);
+        }
+    }
+
+    /**
+     * Handles the deadlines expired up to {@code now}; the timer thread calls it every tick.
+     */
+    public void advance(Instant now) {
+        for (Silence silence : wheel.advance(now.toEpochMilli())) {
+            try {
+                expire(silence, now);
+            } catch (RuntimeException e) {
+                LOGGER.error("Failed to check the silence of device {}: {}",
+                        silence.device.getGuid(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    @ManagedAttribute(description = "Silence deadlines armed")
+    public int getArmed() {
+        return wheel.size();
+    }
+
+    @ManagedAttribute(description = "Silence alerts raised")
+    public long getRaised() {
+        return raised.get();
+    }
+
+    @ManagedAttribute(description = "Silence alerts cleared by an incoming event")
+    public long getCleared() {
+        return cleared.get();
+    }
+
+    @ManagedAttribute(description = "Expired deadlines pushed back by an event seen on another node")
+    public long getPostponed() {
+        return postponed.get();
+    }
+
+    private void expire(Silence silence, Instant now) {
+        Optional<AlertTrigger> trigger = triggersOf(silence.tenant, silence.application).stream()
+                .filter(current -> current.getGuid().equals(silence.trigger.getGuid()))
+                .findFirst();
+        if (!trigger.isPresent())
+            return;
+
+        Optional<Instant> lastEvent = jedisTaskService.getLastEventTimestamp(silence.device.getGuid());
+        if (lastEvent.isPresent()) {
+            long deadline = deadlineOf(trigger.get(), lastEvent.get());
+            if (deadline > now.toEpochMilli()) {
+                postponed.incrementAndGet();
+                wheel.schedule(silence, deadline);
+                return;
+            }
+        }
+
+        HealthAlert alert = HealthAlert.builder()
+                .severity(HealthAlertSeverity.FAIL)
+                .description(HealthAlert.Description.NO_MESSAGED_RECEIVED.getCode())
+                .device(silence.device)
+                .alertTrigger(trigger.get())
+                .build();
+
+        ServiceResponse<HealthAlert> response = healthAlertService.register(silence.tenant, silence.application, alert);
+        if (response.isOk())
+            raised.incrementAndGet();
+    }
+
+    private void clear(Silence silence) {
+        try {
+            solve(silence);
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to clear the silence of device {}: {}", silence.device.getGuid(), e.getMessage());
+        }
+    }
+
+    private void solve(Silence silence) {
+        ServiceResponse<HealthAlert> open = healthAlertService.findByTenantApplicationTriggerAndAlertId(
+                silence.tenant, silence.application, silence.trigger, silence.device.getDeviceId());
+        if (!open.isOk() || open.getResult() == null)
+            return;
+
+        ServiceResponse<HealthAlert> response = healthAlertService.remove(
+                silence.tenant, silence.application, open.getResult().getGuid(), Solution.MESSAGE_RECEIVED);
+        if (response.getResult() != null && response.getResult().isSolved())
+            cleared.incrementAndGet();
+    }
+
+    private List<AlertTrigger> triggersOf(Tenant tenant, Application application) {
+        return triggers.get(tenant.getId() + ":" + application.getName(), key ->
+                alertTriggerRepository.listByTenantIdAndApplicationName(tenant.getId(), application.getName())
+                        .stream()
+                        .filter(trigger -> trigger.getType() == AlertTriggerType.SILENCE)
+                        .filter(trigger -> trigger.getDeviceModel() != null && trigger.getLocation() != null)
+                        .collect(Collectors.toList()));
+    }
+
+    private boolean targets(AlertTrigger trigger, Device device, LocationHierarchy hierarchy) {
+        return trigger.getDeviceModel().getGuid().equals(device.getDeviceModel().getGuid())
+                && hierarchy.isSublocationOf(trigger.getLocation().getGuid(), device.getLocation().getGuid());
+    }
+
+    private long deadlineOf(AlertTrigger trigger, Instant seenAt) {
+        return seenAt.plus(Duration.ofMinutes(trigger.getMinutes())).toEpochMilli();
+    }
+
+    private void advanceQuietly() {
+        try {
+            advance(Instant.now());
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to advance the silence deadlines: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * A device watched by a trigger, identified by their guids.
+     */
+    private static final class Silence {
+
+        private final Tenant tenant;
+        private final Application application;
+        private final Device device;
+        private final AlertTrigger trigger;
+
+        private Silence(Device device, AlertTrigger trigger) {
+            this.tenant = device.getTenant();
+            this.application = device.getApplication();
+            this.device = device;
+            this.trigger = trigger;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other)
+                return true;
+            if (!(other instanceof Silence))
+                return false;
+
+            Silence silence = (Silence) other;
+            return device.getGuid().equals(silence.device.getGuid())
+                    && trigger.getGuid().equals(silence.trigger.getGuid());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(device.getGuid(), trigger.getGuid());
+        }
+
+    }
+
+}
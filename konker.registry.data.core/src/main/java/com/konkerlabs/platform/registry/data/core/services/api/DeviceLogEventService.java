@@ -3,12 +3,30 @@ package com.konkerlabs.platform.registry.data.core.services.api;
 import com.konkerlabs.platform.registry.business.model.Device;
 import com.konkerlabs.platform.registry.business.model.Event;
 import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
+import com.konkerlabs.platform.utilities.parsers.json.ParsedJson;
+
+import java.util.List;
 
 public interface DeviceLogEventService {
 
 
     ServiceResponse<Event> logIncomingEvent(Device device, Event event);
 
+    ServiceResponse<Event> logIncomingEvent(Device device, Event event, ParsedJson payload);
+
+    /**
+     * Logs the events a gateway sent at once, with their payloads already parsed; each
+     * event came from the device at the same position. The events are written to the
+     * event store in one batch, and none is written if any of them is rejected.
+     */
+    ServiceResponse<List<Event>> logIncomingEvents(List<Device> devices, List<Event> events, List<ParsedJson> payloads);
+
     ServiceResponse<Event> logOutgoingEvent(Device device, Event event);
 
+    /**
+     * Logs the events forwarded to many devices of one application at once; each event
+     * was sent to the device at the same position.
+     */
+    ServiceResponse<List<Event>> logOutgoingEvents(List<Device> devices, List<Event> events);
+
 }
@@ -1,37 +1,30 @@
 package com.konkerlabs.platform.registry.data.core.services.publishers;
 
-import com.amazonaws.ClientConfiguration;
-import com.amazonaws.SdkClientException;
-import com.amazonaws.auth.AWSCredentials;
-import com.amazonaws.auth.AWSCredentialsProvider;
-import com.amazonaws.auth.BasicAWSCredentials;
-import com.amazonaws.services.kinesis.model.*;
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
 import com.konkerlabs.platform.registry.business.model.*;
 import com.konkerlabs.platform.registry.data.core.services.publishers.api.EventPublisher;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.net.URI;
 import java.nio.ByteBuffer;
-import java.text.MessageFormat;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 @Service(AmazonKinesis.URI_SCHEME)
 @Scope(BeanDefinition.SCOPE_SINGLETON)
 public class EventPublisherAmazonKinesis implements EventPublisher {
 
-    private final Logger LOGGER = LoggerFactory.getLogger(this.getClass());
+    private KinesisRecordAggregator kinesisRecordAggregator;
 
-    private static final String EVENT_DROPPED = "Outgoing event has been dropped: [URI: {0}] - [Message: {1}]";
-
-    private AmazonKinesisClientBuilder clientBuilder = new AmazonKinesisClientBuilderSDK();
+    @Autowired
+    public EventPublisherAmazonKinesis(KinesisRecordAggregator kinesisRecordAggregator) {
+        this.kinesisRecordAggregator = kinesisRecordAggregator;
+    }
 
     @Override
-    @Async
     public void send(Event outgoingEvent, URI destinationUri, Map<String, String> data, Tenant tenant, Application application)
             throws Exception {
         Optional.ofNullable(outgoingEvent)
@@ -58,61 +51,19 @@ public class EventPublisherAmazonKinesis implements EventPublisher {
         Optional.ofNullable(kinesisProperties.getRegion())
                 .orElseThrow(() -> new IllegalArgumentException("Region cannot be null"));
 
-        try {
-
-            com.amazonaws.services.kinesis.AmazonKinesis kinesisClient = clientBuilder.build(kinesisProperties);
-
-            PutRecordRequest putRecordRequest = new PutRecordRequest();
-            putRecordRequest.setData(ByteBuffer.wrap(outgoingEvent.getPayload().getBytes()));
-            putRecordRequest.setPartitionKey(String.format("%s-%s-%s",
-                    outgoingEvent.getIncoming().getChannel(),
-                    outgoingEvent.getIncoming().getDeviceGuid(),
-                    outgoingEvent.getCreationTimestamp().toEpochMilli()));
-            putRecordRequest.setStreamName(kinesisProperties.getStreamName());
-
-            PutRecordResult result = kinesisClient.putRecord(putRecordRequest);
-            LOGGER.info("Kinesis Result. Sequence Number: {}", result.getSequenceNumber());
-
-        } catch (SdkClientException sdkEx) {
-            LOGGER.info(
-                    MessageFormat.format(EVENT_DROPPED, destinationUri, sdkEx.getMessage()),
-                    tenant.toURI(),
-                    tenant.getLogLevel());
-            throw new Exception(sdkEx);
-        }
-
-    }
-
-    public interface AmazonKinesisClientBuilder {
-
-        com.amazonaws.services.kinesis.AmazonKinesis build(AmazonKinesis kinesisProperties);
-
-    }
-
-    public class AmazonKinesisClientBuilderSDK implements AmazonKinesisClientBuilder {
-
-        public com.amazonaws.services.kinesis.AmazonKinesis build(AmazonKinesis kinesisProperties) {
-
-            com.amazonaws.services.kinesis.AmazonKinesisClientBuilder clientBuilder = com.amazonaws.services.kinesis.AmazonKinesisClientBuilder.standard();
+        PutRecordsRequestEntry entry = new PutRecordsRequestEntry()
+                .withData(ByteBuffer.wrap(outgoingEvent.getPayload().getBytes(StandardCharsets.UTF_8)))
+                .withPartitionKey(String.format("%s-%s-%s",
+                        outgoingEvent.getIncoming().getChannel(),
+                        outgoingEvent.getIncoming().getDeviceGuid(),
+                        outgoingEvent.getCreationTimestamp().toEpochMilli()));
 
-            clientBuilder.setRegion(kinesisProperties.getRegion());
-            clientBuilder.setCredentials(new AWSCredentialsProvider() {
-                @Override
-                public AWSCredentials getCredentials() {
-                    return new BasicAWSCredentials(kinesisProperties.getKey(), kinesisProperties.getSecret());
-                }
-                @Override
-                public void refresh() {
-                }
-            });
-            clientBuilder.setClientConfiguration(new ClientConfiguration());
+        kinesisRecordAggregator.add(kinesisProperties, entry);
 
-            return clientBuilder.build();
-        }
     }
 
-    public void setClientBuilder(AmazonKinesisClientBuilder clientBuilder) {
-        this.clientBuilder = clientBuilder;
+    public void setClientBuilder(KinesisRecordAggregator.AmazonKinesisClientBuilder clientBuilder) {
+        kinesisRecordAggregator.setClientBuilder(clientBuilder);
     }
 
-}
\ No newline at end of file
+}
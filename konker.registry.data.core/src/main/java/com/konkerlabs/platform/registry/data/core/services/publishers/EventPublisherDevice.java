@@ -18,6 +18,10 @@ import org.springframework.stereotype.Service;
 
 import java.net.URI;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -91,17 +95,8 @@ public class EventPublisherDevice implements EventPublisher {
 
     public void sendMessage(Event outgoingEvent, Map<String, String> data, Device outgoingDevice) {
 
-        outgoingEvent = outgoingEvent.clone(); // sets the new outgoing to a new event instance
-        outgoingEvent.setOutgoing(
-                        Event.EventActor.builder()
-                                .deviceGuid(outgoingDevice.getGuid())
-                                .channel(data.get(DEVICE_MQTT_CHANNEL))
-                                .tenantDomain(outgoingDevice.getTenant().getDomainName())
-                                .applicationName(outgoingDevice.getApplication().getName())
-                                .deviceId(outgoingDevice.getDeviceId())
-                                .build()
-                        );
-      
+        outgoingEvent = toOutgoingEvent(outgoingEvent, data, outgoingDevice);
+
         ServiceResponse<byte[]> converterResponse = getJsonPayload(outgoingDevice, outgoingEvent.getPayload());
         if (!converterResponse.isOk())
             LOGGER.error("Failed to convert message to its destination format",
@@ -123,7 +118,62 @@ public class EventPublisherDevice implements EventPublisher {
 
     }
 
-    private ServiceResponse<byte[]> getJsonPayload(Device device, String payloadJson) {
+    /**
+     * Same as {@link #sendMessage(Event, Map, Device)} for many devices of one
+     * application. The payload is converted once per content type, the messages are
+     * published together and the outgoing events are logged in one batch.
+     */
+    public void sendMessages(Event outgoingEvent, Map<String, String> data, List<Device> outgoingDevices) {
+
+        Map<DeviceModel.ContentType, ServiceResponse<byte[]>> payloads = new EnumMap<>(DeviceModel.ContentType.class);
+        Map<String, byte[]> payloadsByApiKey = new LinkedHashMap<>();
+        List<Event> outgoingEvents = new ArrayList<>(outgoingDevices.size());
+
+        for (Device outgoingDevice : outgoingDevices) {
+            Event event = toOutgoingEvent(outgoingEvent, data, outgoingDevice);
+
+            ServiceResponse<byte[]> converterResponse = payloads.computeIfAbsent(contentTypeOf(outgoingDevice),
+                    contentType -> getJsonPayload(contentType, event.getPayload()));
+            if (!converterResponse.isOk())
+                LOGGER.error("Failed to convert message to its destination format",
+                        converterResponse.getResponseMessages(),
+                        outgoingDevice.toURI(),
+                        outgoingDevice.getLogLevel());
+
+            payloadsByApiKey.put(outgoingDevice.getApiKey(), converterResponse.getResult());
+            outgoingEvents.add(event);
+        }
+
+        rabbitGateway.sendEvents(data.get(DEVICE_MQTT_CHANNEL), payloadsByApiKey);
+
+        ServiceResponse<List<Event>> response = deviceLogEventService.logOutgoingEvents(outgoingDevices, outgoingEvents);
+
+        if (!response.isOk() && !outgoingDevices.isEmpty())
+            LOGGER.error("Failed to forward events to their destinations",
+                    response.getResponseMessages(),
+                    outgoingDevices.get(0).getTenant().toURI(),
+                    outgoingDevices.get(0).getTenant().getLogLevel());
+
+    }
+
+    private Event toOutgoingEvent(Event outgoingEvent, Map<String, String> data, Device outgoingDevice) {
+
+        outgoingEvent = outgoingEvent.clone(); // sets the new outgoing to a new event instance
+        outgoingEvent.setOutgoing(
+                        Event.EventActor.builder()
+                                .deviceGuid(outgoingDevice.getGuid())
+                                .channel(data.get(DEVICE_MQTT_CHANNEL))
+                                .tenantDomain(outgoingDevice.getTenant().getDomainName())
+                                .applicationName(outgoingDevice.getApplication().getName())
+                                .deviceId(outgoingDevice.getDeviceId())
+                                .build()
+                        );
+
+        return outgoingEvent;
+
+    }
+
+    private DeviceModel.ContentType contentTypeOf(Device device) {
 
         DeviceModel.ContentType contentType = DeviceModel.ContentType.APPLICATION_JSON;
         if (device.getDeviceModel() != null &&
@@ -131,6 +181,16 @@ public class EventPublisherDevice implements EventPublisher {
             contentType = device.getDeviceModel().getContentType();
         }
 
+        return contentType;
+
+    }
+
+    private ServiceResponse<byte[]> getJsonPayload(Device device, String payloadJson) {
+        return getJsonPayload(contentTypeOf(device), payloadJson);
+    }
+
+    private ServiceResponse<byte[]> getJsonPayload(DeviceModel.ContentType contentType, String payloadJson) {
+
         JsonConverter jsonConverter = BeanFactoryAnnotationUtils.qualifiedBeanOfType(beans, JsonConverter.class, contentType.getValue());
         ServiceResponse<byte[]> jsonConverterResponse = jsonConverter.fromJson(payloadJson);
 
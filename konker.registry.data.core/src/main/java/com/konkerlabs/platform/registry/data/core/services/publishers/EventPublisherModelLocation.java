@@ -1,14 +1,8 @@
 package com.konkerlabs.platform.registry.data.core.services.publishers;
 
 import com.konkerlabs.platform.registry.business.model.*;
-import com.konkerlabs.platform.registry.business.repositories.DeviceModelRepository;
-import com.konkerlabs.platform.registry.business.services.LocationTreeUtils;
-import com.konkerlabs.platform.registry.business.services.api.DeviceRegisterService;
-import com.konkerlabs.platform.registry.business.services.api.LocationSearchService;
-import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
-import com.konkerlabs.platform.registry.data.core.integration.gateway.RabbitGateway;
 import com.konkerlabs.platform.registry.data.core.services.publishers.api.EventPublisher;
-import com.konkerlabs.platform.registry.data.core.services.api.DeviceLogEventService;
+import com.konkerlabs.platform.registry.data.core.services.routes.LocationHierarchyCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +14,7 @@ import java.net.URI;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service(DeviceModelLocation.URI_SCHEME)
 @Scope(BeanDefinition.SCOPE_SINGLETON)
@@ -31,36 +26,23 @@ public class EventPublisherModelLocation implements EventPublisher {
 
     public static final String DEVICE_MQTT_CHANNEL = "channel";
 
-    private RabbitGateway rabbitGateway;
-    private DeviceRegisterService deviceRegisterService;
-    private DeviceLogEventService deviceLogEventService;
-    private DeviceModelRepository deviceModelRepository;
-    private LocationSearchService locationSearchService;
+    private ModelLocationIndexCache modelLocationIndexCache;
+    private LocationHierarchyCache locationHierarchyCache;
     private EventPublisherDevice eventPublisherDevice;
 
     @Autowired
-    public EventPublisherModelLocation(RabbitGateway rabbitGateway) {
-        this.rabbitGateway = rabbitGateway;
+    public EventPublisherModelLocation(ModelLocationIndexCache modelLocationIndexCache,
+                                       LocationHierarchyCache locationHierarchyCache) {
+        this.modelLocationIndexCache = modelLocationIndexCache;
+        this.locationHierarchyCache = locationHierarchyCache;
     }
 
-    @Autowired
-    public void setDeviceRegisterService(DeviceRegisterService deviceRegisterService) {
-        this.deviceRegisterService = deviceRegisterService;
-    }
-
-    @Autowired
-    public void setDeviceLogEventService(DeviceLogEventService deviceLogEventService) {
-        this.deviceLogEventService = deviceLogEventService;
+    public void setModelLocationIndexCache(ModelLocationIndexCache modelLocationIndexCache) {
+        this.modelLocationIndexCache = modelLocationIndexCache;
     }
 
-    @Autowired
-    public void setDeviceModelRepository(DeviceModelRepository deviceModelRepository) {
-        this.deviceModelRepository = deviceModelRepository;
-    }
-
-    @Autowired
-    public void setLocationSearchService(LocationSearchService locationSearchService) {
-        this.locationSearchService = locationSearchService;
+    public void setLocationHierarchyCache(LocationHierarchyCache locationHierarchyCache) {
+        this.locationHierarchyCache = locationHierarchyCache;
     }
 
     @Autowired
@@ -101,36 +83,20 @@ public class EventPublisherModelLocation implements EventPublisher {
         String deviceModelGuid = guids[0];
         String locationGuid = guids[1];
 
-        DeviceModel deviceModel = deviceModelRepository.findByTenantIdApplicationNameAndGuid(tenant.getId(), application.getName(), deviceModelGuid);
-        Optional.ofNullable(deviceModel)
-                .orElseThrow(() -> new IllegalArgumentException("Device model cannot be null"));
-
-        ServiceResponse<Location> locationService = locationSearchService.findByGuid(tenant, application, locationGuid);
-        if (!locationService.isOk()) {
-            Optional.ofNullable(deviceModel)
-                    .orElseThrow(() -> new IllegalArgumentException("Invalid location"));
+        Optional<ModelLocationIndex> index = modelLocationIndexCache.get(tenant, application);
+        if (!index.isPresent()) {
+            LOGGER.warn("Could not load the devices of the model location: {}", uriPath);
+            return;
         }
 
-        Location location = locationService.getResult();
-        locationService = locationSearchService.findByName(tenant, application, location.getName(), true);
-        if (!locationService.isOk()) {
-            Optional.ofNullable(deviceModel)
-                    .orElseThrow(() -> new IllegalArgumentException("Invalid location tree"));
-        }
+        List<Device> outgoingDevices = index.get()
+                .find(deviceModelGuid, locationGuid, () -> locationHierarchyCache.get(tenant, application))
+                .stream()
+                .filter(outgoingDevice -> !isIncomingDevice(outgoingEvent, outgoingDevice))
+                .collect(Collectors.toList());
 
-        List<Location> nodes = LocationTreeUtils.getNodesList(locationService.getResult());
-
-        ServiceResponse<List<Device>> devicesResponse = deviceRegisterService.findAll(tenant, application);
-        if (devicesResponse.isOk()) {
-            List<Device> devices = devicesResponse.getResult();
-            devices.parallelStream().forEach((outgoingDevice) -> {
-                if (matchesModelLocation(outgoingDevice, deviceModel, nodes) &&
-                        !isIncomingDevice(outgoingEvent, outgoingDevice)) {
-                    if (outgoingDevice.isActive()) {
-                        eventPublisherDevice.sendMessage(outgoingEvent, data, outgoingDevice);
-                    }
-                }
-            });
+        if (!outgoingDevices.isEmpty()) {
+            eventPublisherDevice.sendMessages(outgoingEvent, data, outgoingDevices);
         }
 
     }
@@ -139,25 +105,4 @@ public class EventPublisherModelLocation implements EventPublisher {
         return outgoingEvent.getIncoming().getDeviceGuid().equals(outgoingDevice.getGuid());
     }
 
-    private boolean matchesModelLocation(Device outgoingDevice, DeviceModel deviceModel, List<Location> nodes) {
-
-        if (outgoingDevice.getDeviceModel() == null) {
-            return false;
-        }
-
-        if (!outgoingDevice.getDeviceModel().getName().equals(deviceModel.getName())) {
-            return false;
-        }
-
-        for (Location locations: nodes) {
-            String deviceLocation = outgoingDevice.getLocation().getName();
-            if (locations.getName().equals(outgoingDevice.getLocation().getName())) {
-                return true;
-            }
-        }
-
-        return false;
-
-    }
-
 }
@@ -6,8 +6,7 @@ import com.konkerlabs.platform.registry.business.model.Event;
 import com.konkerlabs.platform.registry.business.model.RestDestination;
 import com.konkerlabs.platform.registry.business.model.Tenant;
 import com.konkerlabs.platform.registry.business.model.behaviors.RESTDestinationURIDealer;
-import com.konkerlabs.platform.registry.business.services.api.RestDestinationService;
-import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
+import com.konkerlabs.platform.registry.data.core.config.IntegrationConfig;
 import com.konkerlabs.platform.registry.data.core.integration.exceptions.IntegrationException;
 import com.konkerlabs.platform.registry.data.core.integration.gateway.HttpGateway;
 import com.konkerlabs.platform.registry.data.core.services.publishers.api.EventPublisher;
@@ -29,28 +28,49 @@ import java.net.URI;
 import java.text.MessageFormat;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
 
 @Service(RESTDestinationURIDealer.REST_DESTINATION_URI_SCHEME)
 @Scope(BeanDefinition.SCOPE_SINGLETON)
 public class EventPublisherRest implements EventPublisher {
 
     private static final String EVENT_DROPPED = "Outgoing event has been dropped: [URI: {0}] - [Message: {1}]";
+    private static final String DESTINATION_BUSY = "REST Destination has too many requests in flight: {0}";
     private static final Logger LOGGER = LoggerFactory.getLogger(EventPublisherRest.class);
 
     private HttpGateway httpGateway;
-    private RestDestinationService restDestinationService;
+    private RestDestinationCache restDestinationCache;
+    private RestDestinationBatcher restDestinationBatcher;
     private JsonParsingService jsonParsingService;
     private ExpressionEvaluationService expressionEvaluationService;
 
+    private final int maxConcurrentPerDestination;
+    private final ConcurrentMap<String, Semaphore> bulkheads = new ConcurrentHashMap<>();
+
     @Autowired
     public EventPublisherRest(HttpGateway httpGateway,
-                              RestDestinationService restDestinationService,
+                              RestDestinationCache restDestinationCache,
+                              RestDestinationBatcher restDestinationBatcher,
                               JsonParsingService jsonParsingService,
                               ExpressionEvaluationService expressionEvaluationService) {
+        this(httpGateway, restDestinationCache, restDestinationBatcher, jsonParsingService, expressionEvaluationService,
+                new IntegrationConfig());
+    }
+
+    public EventPublisherRest(HttpGateway httpGateway,
+                              RestDestinationCache restDestinationCache,
+                              RestDestinationBatcher restDestinationBatcher,
+                              JsonParsingService jsonParsingService,
+                              ExpressionEvaluationService expressionEvaluationService,
+                              IntegrationConfig integrationConfig) {
         this.httpGateway = httpGateway;
-        this.restDestinationService = restDestinationService;
+        this.restDestinationCache = restDestinationCache;
+        this.restDestinationBatcher = restDestinationBatcher;
         this.jsonParsingService = jsonParsingService;
         this.expressionEvaluationService = expressionEvaluationService;
+        this.maxConcurrentPerDestination = integrationConfig.getMaxConcurrentPerDestination();
     }
 
     @Override
@@ -66,33 +86,49 @@ public class EventPublisherRest implements EventPublisher {
         Optional.ofNullable(application)
                 .orElseThrow(() -> new IllegalArgumentException("Application cannot be null"));
 
-        ServiceResponse<RestDestination> destination = restDestinationService.getByGUID(
+        RestDestination restDestination = restDestinationCache.get(
                 tenant,
                 application,
                 destinationUri.getPath().replaceAll("/", "")
-        );
+        ).orElseThrow(() -> new IllegalArgumentException(
+                MessageFormat.format("REST Destination is unknown : {0}", destinationUri)
+        ));
 
-        Optional.ofNullable(destination)
-                .filter(response -> response.getStatus().equals(ServiceResponse.Status.OK))
-                .orElseThrow(() -> new IllegalArgumentException(
-                        MessageFormat.format("REST Destination is unknown : {0}", destinationUri)
-                ));
-
-        RestDestination restDestination = destination.getResult();
-		if (restDestination.isActive()) {
+		if (restDestination.isActive() && restDestination.isBatched()) {
             try {
-
-                String serviceURI = evaluateExpressionIfNecessary(
-                        restDestination.getServiceURI(), outgoingEvent.getPayload()
+                restDestinationBatcher.add(
+                        tenant,
+                        restDestination,
+                        getServiceURI(restDestination, outgoingEvent),
+                        getHeaders(restDestination),
+                        getBody(restDestination, outgoingEvent)
                 );
+            } catch (IllegalArgumentException | JsonProcessingException | UnsupportedEncodingException e) {
+                LOGGER.error("Failed to forward event to its destination",
+                        tenant.toURI(),
+                        tenant.getLogLevel(),
+                        e);
+                throw new Exception(e);
+            }
+        } else if (restDestination.isActive()) {
+            // a slow destination may only hold a bounded share of the consumers; the
+            // rest of its events fail fast and are retried later
+            Semaphore bulkhead = bulkheads.computeIfAbsent(restDestination.getGuid(),
+                    guid -> new Semaphore(maxConcurrentPerDestination));
+            if (!bulkhead.tryAcquire()) {
+                throw new Exception(new IntegrationException(
+                        MessageFormat.format(DESTINATION_BUSY, destinationUri)));
+            }
+
+            try {
 
                 httpGateway.request(
                         HttpMethod.resolve(
                                 Optional.ofNullable(restDestination.getMethod()).isPresent() ?
                                         restDestination.getMethod() : "POST"),
                         getHeaders(restDestination),
-                        URI.create(UriUtils.encodeQuery(serviceURI, "UTF-8")), MediaType.APPLICATION_JSON,
-                        () -> "FORWARD_MESSAGE".equals(restDestination.getType().name()) ? outgoingEvent.getPayload() : restDestination.getBody(),
+                        getServiceURI(restDestination, outgoingEvent), MediaType.APPLICATION_JSON,
+                        () -> getBody(restDestination, outgoingEvent),
                         restDestination.getServiceUsername(),
                         restDestination.getServicePassword()
                 );
@@ -103,6 +139,8 @@ public class EventPublisherRest implements EventPublisher {
                         tenant.getLogLevel(),
                         e);
                 throw new Exception(e);
+            } finally {
+                bulkhead.release();
             }
         } else {
             LOGGER.debug(
@@ -112,6 +150,20 @@ public class EventPublisherRest implements EventPublisher {
         }
     }
 
+    private URI getServiceURI(RestDestination restDestination, Event outgoingEvent)
+            throws JsonProcessingException, UnsupportedEncodingException {
+        String serviceURI = evaluateExpressionIfNecessary(
+                restDestination.getServiceURI(), outgoingEvent.getPayload()
+        );
+
+        return URI.create(UriUtils.encodeQuery(serviceURI, "UTF-8"));
+    }
+
+    private String getBody(RestDestination restDestination, Event outgoingEvent) {
+        return RestDestination.RestDestinationType.FORWARD_MESSAGE.equals(restDestination.getType()) ?
+                outgoingEvent.getPayload() : restDestination.getBody();
+    }
+
 	private HttpHeaders getHeaders(RestDestination restDestination) {
 		HttpHeaders headers = new HttpHeaders();
 		if (restDestination.getHeaders() != null) {
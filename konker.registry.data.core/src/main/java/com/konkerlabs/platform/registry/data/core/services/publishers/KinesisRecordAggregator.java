@@ -0,0 +1,445 @@
+package com.konkerlabs.platform.registry.data.core.services.publishers;
+
+import java.text.MessageFormat;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.services.kinesis.model.ProvisionedThroughputExceededException;
+import com.amazonaws.services.kinesis.model.PutRecordsRequest;
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+import com.amazonaws.services.kinesis.model.PutRecordsResult;
+import com.amazonaws.services.kinesis.model.PutRecordsResultEntry;
+import com.konkerlabs.platform.registry.business.model.AmazonKinesis;
+import com.konkerlabs.platform.registry.data.core.config.KinesisPublisherConfig;
+import com.konkerlabs.platform.utilities.cache.LocalCache;
+
+/**
+ * Aggregates the records published to Amazon Kinesis per stream and credentials, and
+ * sends them through PutRecords once a batch reaches the record or byte limit of the
+ * call, or once its first record has waited the linger time. Records the stream
+ * rejects, usually because a shard is throttled, are retried with exponential backoff;
+ * those still rejected after the last retry are logged and dropped. A call that fails
+ * altogether, whatever the exception, is logged, counted and retried the same way.
+ *
+ * Batches are sent by the flush threads from a bounded queue; once it is full, the
+ * thread that completed a batch sends it itself, so a slow stream slows its producers
+ * down instead of piling batches up in memory. Retries wait on a timer rather than on
+ * a flush thread, so a throttled stream does not hold up the others.
+ *
+ * Clients are built once per stream and credentials. A client that leaves the cache is
+ * shut down once the last send using it completes. Counters and flush latencies are
+ * exposed over JMX.
+ */
+@Component
+@ManagedResource(objectName = "com.konkerlabs.platform.registry:type=KinesisRecordAggregator")
+public class KinesisRecordAggregator {
+
+    public static final int MAX_RECORD_BYTES = 1024 * 1024;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KinesisRecordAggregator.class);
+
+    private static final String THROTTLED = "ProvisionedThroughputExceededException";
+    private static final String RECORDS_DROPPED = "{0} records to Kinesis stream {1} have been dropped after {2} attempts";
+
+    private final KinesisPublisherConfig config;
+    private final LocalCache<StreamKey, Client> clients;
+    private final ConcurrentMap<StreamKey, Batch> batches = new ConcurrentHashMap<>();
+    private final ExecutorService flushExecutor;
+    private final ScheduledExecutorService timerExecutor;
+    private final AtomicInteger sending = new AtomicInteger();
+    private final Object idle = new Object();
+
+    private volatile AmazonKinesisClientBuilder clientBuilder = new AmazonKinesisClientBuilderSDK();
+
+    private final AtomicLong recordsSent = new AtomicLong();
+    private final AtomicLong recordsRetried = new AtomicLong();
+    private final AtomicLong recordsThrottled = new AtomicLong();
+    private final AtomicLong recordsDropped = new AtomicLong();
+    private final AtomicLong failedCalls = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    public KinesisRecordAggregator() {
+        this(new KinesisPublisherConfig());
+    }
+
+    public KinesisRecordAggregator(KinesisPublisherConfig config) {
+        this.config = config;
+        this.clients = new LocalCache<>(config.getClientCacheSize(),
+                Duration.ofSeconds(config.getClientTimeToLiveSeconds()),
+                Client::release);
+
+        AtomicInteger threads = new AtomicInteger();
+        this.flushExecutor = new ThreadPoolExecutor(
+                config.getFlushThreads(),
+                config.getFlushThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getQueueSize()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "kinesis-flush-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // unlike CallerRunsPolicy, still sends once the executor is shut down
+                (runnable, executor) -> runnable.run());
+
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "kinesis-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        this.timerExecutor = timer;
+    }
+
+    public void add(AmazonKinesis stream, PutRecordsRequestEntry entry) {
+        int size = sizeOf(entry);
+        if (size > MAX_RECORD_BYTES)
+            throw new IllegalArgumentException(MessageFormat.format("Record exceeds {0} bytes", MAX_RECORD_BYTES));
+
+        StreamKey key = new StreamKey(stream);
+        Batch[] created = new Batch[1];
+        List<Batch> full = new ArrayList<>(2);
+
+        batches.compute(key, (k, batch) -> {
+            if (batch != null && batch.bytes + size > config.getMaxBytes()) {
+                full.add(batch);
+                batch = null;
+            }
+            if (batch == null) {
+                batch = new Batch();
+                created[0] = batch;
+            }
+
+            batch.entries.add(entry);
+            batch.bytes += size;
+            if (batch.entries.size() >= config.getMaxRecords()) {
+                full.add(batch);
+                created[0] = null;
+                return null;
+            }
+            return batch;
+        });
+
+        full.forEach(batch -> {
+            batch.cancelExpiry();
+            dispatch(key, batch);
+        });
+        Optional.ofNullable(created[0]).ifPresent(batch -> {
+            try {
+                batch.expiry = timerExecutor.schedule(() -> expire(key, batch),
+                        config.getLingerMillis(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // shut down, no timer would ever send this batch
+                expire(key, batch);
+            }
+        });
+    }
+
+    /**
+     * Sends every buffered batch and waits for the batches being sent, retries included,
+     * as when the node shuts down.
+     */
+    @PreDestroy
+    public void flush() throws InterruptedException {
+        for (StreamKey key : batches.keySet()) {
+            Optional.ofNullable(batches.remove(key)).ifPresent(batch -> {
+                batch.cancelExpiry();
+                dispatch(key, batch);
+            });
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getLingerMillis() + 10000L);
+        synchronized (idle) {
+            long remaining;
+            while (sending.get() > 0 && (remaining = deadline - System.nanoTime()) > 0)
+                TimeUnit.NANOSECONDS.timedWait(idle, remaining);
+        }
+
+        timerExecutor.shutdown();
+        flushExecutor.shutdown();
+        clients.invalidateAll();
+    }
+
+    public void setClientBuilder(AmazonKinesisClientBuilder clientBuilder) {
+        this.clientBuilder = clientBuilder;
+        clients.invalidateAll();
+    }
+
+    @ManagedAttribute(description = "Records accepted by Kinesis")
+    public long getRecordsSent() {
+        return recordsSent.get();
+    }
+
+    @ManagedAttribute(description = "Records sent again after Kinesis rejected them")
+    public long getRecordsRetried() {
+        return recordsRetried.get();
+    }
+
+    @ManagedAttribute(description = "Records rejected because a shard was over its throughput")
+    public long getRecordsThrottled() {
+        return recordsThrottled.get();
+    }
+
+    @ManagedAttribute(description = "Records dropped after the last retry")
+    public long getRecordsDropped() {
+        return recordsDropped.get();
+    }
+
+    @ManagedAttribute(description = "PutRecords calls that failed altogether")
+    public long getFailedCalls() {
+        return failedCalls.get();
+    }
+
+    @ManagedAttribute(description = "Batches sent, including their retries")
+    public long getFlushes() {
+        return flushes.get();
+    }
+
+    @ManagedAttribute(description = "Mean time to send a batch, including its retries, in milliseconds")
+    public double getMeanFlushMillis() {
+        long count = flushes.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(flushNanos.get() / count) / 1000.0;
+    }
+
+    @ManagedAttribute(description = "Longest time to send a batch, including its retries, in milliseconds")
+    public double getMaxFlushMillis() {
+        return TimeUnit.NANOSECONDS.toMicros(maxFlushNanos.get()) / 1000.0;
+    }
+
+    @ManagedAttribute(description = "Records waiting for their batch to be sent")
+    public int getPendingRecords() {
+        return batches.values().stream().mapToInt(batch -> batch.entries.size()).sum();
+    }
+
+    private void expire(StreamKey key, Batch batch) {
+        if (batches.remove(key, batch))
+            dispatch(key, batch);
+    }
+
+    private void dispatch(StreamKey key, Batch batch) {
+        sending.incrementAndGet();
+        batch.pending = batch.entries;
+        batch.start = System.nanoTime();
+        flushExecutor.execute(() -> send(key, batch));
+    }
+
+    private void send(StreamKey key, Batch batch) {
+        try {
+            batch.pending = rejected(batch.pending, putRecords(key, batch.pending));
+        } catch (RuntimeException e) {
+            failedCalls.incrementAndGet();
+            if (e instanceof ProvisionedThroughputExceededException)
+                recordsThrottled.addAndGet(batch.pending.size());
+            LOGGER.warn("Failed to put {} records to Kinesis stream {}: {}", batch.pending.size(), key.streamName, e.toString());
+        }
+
+        if (batch.pending.isEmpty() || batch.retries >= config.getMaxRetries()) {
+            complete(key, batch);
+            return;
+        }
+
+        batch.retries++;
+        recordsRetried.addAndGet(batch.pending.size());
+        try {
+            timerExecutor.schedule(() -> flushExecutor.execute(() -> send(key, batch)),
+                    (long) config.getRetryBackoffMillis() << (batch.retries - 1), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // shut down, the remaining records are dropped
+            complete(key, batch);
+        }
+    }
+
+    private void complete(StreamKey key, Batch batch) {
+        if (!batch.pending.isEmpty()) {
+            recordsDropped.addAndGet(batch.pending.size());
+            LOGGER.error(MessageFormat.format(RECORDS_DROPPED, batch.pending.size(), key.streamName, batch.retries + 1));
+        }
+
+        long elapsed = System.nanoTime() - batch.start;
+        flushes.incrementAndGet();
+        flushNanos.addAndGet(elapsed);
+        maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+
+        if (sending.decrementAndGet() == 0) {
+            synchronized (idle) {
+                idle.notifyAll();
+            }
+        }
+    }
+
+    private List<PutRecordsRequestEntry> rejected(List<PutRecordsRequestEntry> sent, PutRecordsResult result) {
+        if (Optional.ofNullable(result.getFailedRecordCount()).orElse(0) == 0) {
+            recordsSent.addAndGet(sent.size());
+            return new ArrayList<>();
+        }
+
+        List<PutRecordsRequestEntry> rejected = new ArrayList<>();
+        List<PutRecordsResultEntry> records = result.getRecords();
+        for (int i = 0; i < sent.size(); i++) {
+            PutRecordsResultEntry record = records.get(i);
+            if (record.getErrorCode() == null)
+                continue;
+
+            rejected.add(sent.get(i));
+            if (THROTTLED.equals(record.getErrorCode()))
+                recordsThrottled.incrementAndGet();
+        }
+
+        recordsSent.addAndGet(sent.size() - rejected.size());
+        return rejected;
+    }
+
+    private PutRecordsResult putRecords(StreamKey key, List<PutRecordsRequestEntry> entries) {
+        Client client = retain(key);
+        try {
+            return client.kinesis.putRecords(new PutRecordsRequest()
+                    .withStreamName(key.streamName)
+                    .withRecords(entries));
+        } finally {
+            client.release();
+        }
+    }
+
+    private Client retain(StreamKey key) {
+        while (true) {
+            Client client = clients.get(key, k -> new Client(clientBuilder.build(k.stream)));
+            if (client.retain())
+                return client;
+        }
+    }
+
+    private static void shutdown(com.amazonaws.services.kinesis.AmazonKinesis client) {
+        try {
+            client.shutdown();
+        } catch (RuntimeException e) {
+            LOGGER.debug("Failed to shut down a Kinesis client: {}", e.getMessage());
+        }
+    }
+
+    private static int sizeOf(PutRecordsRequestEntry entry) {
+        return entry.getData().remaining() + entry.getPartitionKey().length();
+    }
+
+    public interface AmazonKinesisClientBuilder {
+
+        com.amazonaws.services.kinesis.AmazonKinesis build(AmazonKinesis kinesisProperties);
+
+    }
+
+    public static class AmazonKinesisClientBuilderSDK implements AmazonKinesisClientBuilder {
+
+        public com.amazonaws.services.kinesis.AmazonKinesis build(AmazonKinesis kinesisProperties) {
+
+            return com.amazonaws.services.kinesis.AmazonKinesisClientBuilder.standard()
+                    .withRegion(kinesisProperties.getRegion())
+                    .withCredentials(new AWSStaticCredentialsProvider(
+                            new BasicAWSCredentials(kinesisProperties.getKey(), kinesisProperties.getSecret())))
+                    .withClientConfiguration(new ClientConfiguration())
+                    .build();
+        }
+    }
+
+    /**
+     * Kinesis client shared by the sends to one stream. The cache holds one reference and
+     * every send in progress another; the client is shut down when the last one is released.
+     */
+    private static class Client {
+        private final com.amazonaws.services.kinesis.AmazonKinesis kinesis;
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        private Client(com.amazonaws.services.kinesis.AmazonKinesis kinesis) {
+            this.kinesis = kinesis;
+        }
+
+        private boolean retain() {
+            int count;
+            do {
+                count = references.get();
+                if (count == 0)
+                    return false;
+            } while (!references.compareAndSet(count, count + 1));
+            return true;
+        }
+
+        private void release() {
+            if (references.decrementAndGet() == 0)
+                shutdown(kinesis);
+        }
+    }
+
+    private static class Batch {
+        private final List<PutRecordsRequestEntry> entries = new ArrayList<>();
+        private long bytes;
+        private volatile ScheduledFuture<?> expiry;
+
+        // set once the batch is dispatched, then only touched by one send at a time
+        private volatile List<PutRecordsRequestEntry> pending;
+        private volatile int retries;
+        private volatile long start;
+
+        private void cancelExpiry() {
+            Optional.ofNullable(expiry).ifPresent(future -> future.cancel(false));
+        }
+    }
+
+    private static class StreamKey {
+        private final AmazonKinesis stream;
+        private final String region;
+        private final String key;
+        private final String secret;
+        private final String streamName;
+
+        private StreamKey(AmazonKinesis stream) {
+            this.stream = stream;
+            this.region = stream.getRegion();
+            this.key = stream.getKey();
+            this.secret = stream.getSecret();
+            this.streamName = stream.getStreamName();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            StreamKey other = (StreamKey) o;
+            return Objects.equals(region, other.region)
+                    && Objects.equals(key, other.key)
+                    && Objects.equals(secret, other.secret)
+                    && Objects.equals(streamName, other.streamName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(region, key, secret, streamName);
+        }
+    }
+
+}
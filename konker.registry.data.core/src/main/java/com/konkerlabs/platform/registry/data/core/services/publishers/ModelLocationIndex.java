@@ -0,0 +1,64 @@
+package com.konkerlabs.platform.registry.data.core.services.publishers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.konkerlabs.platform.registry.business.model.Device;
+import com.konkerlabs.platform.registry.business.services.LocationHierarchy;
+
+/**
+ * Active devices of one application indexed by model guid and location guid, so the
+ * devices targeted by a model location destination are found without loading and
+ * scanning every device of the application. A device is targeted when its location
+ * lies under the destination location in the {@link LocationHierarchy} of the
+ * application. Indexes are immutable; devices without a model or a location are left
+ * out, as no destination can target them.
+ */
+public class ModelLocationIndex {
+
+    private final Map<String, Map<String, List<Device>>> devices = new HashMap<>();
+    private final int size;
+
+    public ModelLocationIndex(List<Device> allDevices) {
+        int indexed = 0;
+
+        for (Device device : allDevices) {
+            if (!device.isActive() || device.getDeviceModel() == null || device.getLocation() == null)
+                continue;
+
+            devices.computeIfAbsent(device.getDeviceModel().getGuid(), k -> new HashMap<>())
+                    .computeIfAbsent(device.getLocation().getGuid(), k -> new ArrayList<>())
+                    .add(device);
+            indexed++;
+        }
+
+        this.size = indexed;
+    }
+
+    /**
+     * Active devices of the model placed at the location or anywhere below it. The
+     * location hierarchy is only requested when the model has active devices.
+     */
+    public List<Device> find(String deviceModelGuid, String locationGuid, Supplier<LocationHierarchy> locations) {
+        Map<String, List<Device>> byLocation = devices.get(deviceModelGuid);
+        if (byLocation == null)
+            return new ArrayList<>();
+
+        LocationHierarchy hierarchy = locations.get();
+        List<Device> found = new ArrayList<>();
+        for (Map.Entry<String, List<Device>> entry : byLocation.entrySet()) {
+            if (hierarchy.isSublocationOf(locationGuid, entry.getKey()))
+                found.addAll(entry.getValue());
+        }
+
+        return found;
+    }
+
+    public int size() {
+        return size;
+    }
+
+}
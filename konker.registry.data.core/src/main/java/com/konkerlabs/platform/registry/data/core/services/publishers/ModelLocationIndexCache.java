@@ -0,0 +1,92 @@
+package com.konkerlabs.platform.registry.data.core.services.publishers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.konkerlabs.platform.registry.business.model.Application;
+import com.konkerlabs.platform.registry.business.model.Device;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.services.api.DeviceRegisterService;
+import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
+import com.konkerlabs.platform.registry.data.core.config.ModelLocationIndexConfig;
+import com.konkerlabs.platform.utilities.cache.LocalCache;
+
+/**
+ * Model location indexes of this node, one per application, built on first use.
+ * Changes made through the device service invalidate them on every node listening to
+ * {@code RabbitMQConfig.DEVICE_CHANGED_EXCHANGE}, with the same versioning as
+ * {@code EventRouteTableCache}. Location changes need no invalidation, as devices are
+ * indexed by location guid and the hierarchy is cached on its own.
+ */
+@Component
+public class ModelLocationIndexCache {
+
+    @Autowired
+    private DeviceRegisterService deviceRegisterService;
+
+    private final boolean enabled;
+    private final LocalCache<String, ModelLocationIndex> indexes;
+    private final AtomicLong version = new AtomicLong();
+
+    public ModelLocationIndexCache() {
+        this(new ModelLocationIndexConfig());
+    }
+
+    public ModelLocationIndexCache(ModelLocationIndexConfig config) {
+        this.enabled = config.isEnabled();
+        this.indexes = new LocalCache<>(config.getMaximumSize(), Duration.ofSeconds(config.getTimeToLiveSeconds()));
+    }
+
+    public Optional<ModelLocationIndex> get(Tenant tenant, Application application) {
+        if (!enabled)
+            return Optional.ofNullable(build(tenant, application));
+
+        String key = key(tenant.getId(), application.getName());
+
+        Optional<ModelLocationIndex> cached = indexes.getIfPresent(key);
+        if (cached.isPresent())
+            return cached;
+
+        long current = version.get();
+        ModelLocationIndex index = build(tenant, application);
+        if (index != null) {
+            indexes.put(key, index);
+            if (version.get() != current)
+                indexes.invalidate(key);
+        }
+
+        return Optional.ofNullable(index);
+    }
+
+    public void invalidate(String tenantId, String applicationName) {
+        version.incrementAndGet();
+        indexes.invalidate(key(tenantId, applicationName));
+    }
+
+    public void invalidateAll() {
+        version.incrementAndGet();
+        indexes.invalidateAll();
+    }
+
+    public int size() {
+        return indexes.size();
+    }
+
+    private String key(String tenantId, String applicationName) {
+        return tenantId + ":" + applicationName;
+    }
+
+    private ModelLocationIndex build(Tenant tenant, Application application) {
+        ServiceResponse<List<Device>> devices = deviceRegisterService.findAll(tenant, application);
+        if (!devices.isOk())
+            return null;
+
+        return new ModelLocationIndex(devices.getResult());
+    }
+
+}
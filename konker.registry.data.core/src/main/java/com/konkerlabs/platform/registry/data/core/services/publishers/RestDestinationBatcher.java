@@ -0,0 +1,231 @@
+package com.konkerlabs.platform.registry.data.core.services.publishers;
+
+import java.io.IOException;
+import java.net.URI;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.konkerlabs.platform.registry.business.model.RestDestination;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.data.core.config.IntegrationConfig;
+import com.konkerlabs.platform.registry.data.core.integration.exceptions.IntegrationException;
+import com.konkerlabs.platform.registry.data.core.integration.gateway.HttpGateway;
+
+/**
+ * Buffers the events of batched REST destinations and sends them as one JSON array per
+ * request. A batch is handed to the flush threads as soon as it is full or once the
+ * first event in it has waited the timeout of its destination. The flush threads take
+ * a bounded queue of batches; once it is full, the thread that completed the batch
+ * sends it itself, so a slow destination slows down the consumer instead of piling
+ * batches up in memory. Events whose destination URL resolves differently are kept in
+ * separate batches.
+ *
+ * A batch carries many events but no single owner, so a failed request is logged and
+ * its events are not retried: batching trades per-event redelivery for throughput.
+ */
+@Component
+public class RestDestinationBatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RestDestinationBatcher.class);
+
+    private static final String BATCH_FAILED = "Failed to forward a batch of {0} events to {1}";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpGateway httpGateway;
+    private final ExecutorService flushExecutor;
+    private final ScheduledExecutorService timeoutExecutor;
+    private final ConcurrentMap<BatchKey, Batch> batches = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RestDestinationBatcher(HttpGateway httpGateway) {
+        this(httpGateway, new IntegrationConfig());
+    }
+
+    public RestDestinationBatcher(HttpGateway httpGateway, IntegrationConfig integrationConfig) {
+        this.httpGateway = httpGateway;
+
+        AtomicInteger threads = new AtomicInteger();
+        this.flushExecutor = new ThreadPoolExecutor(
+                integrationConfig.getBatchFlushThreads(),
+                integrationConfig.getBatchFlushThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(integrationConfig.getBatchQueueSize()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "rest-destination-batch-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // unlike CallerRunsPolicy, still sends once the executor is shut down
+                (runnable, executor) -> runnable.run());
+
+        ScheduledThreadPoolExecutor timeouts = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "rest-destination-batch-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timeouts.setRemoveOnCancelPolicy(true);
+        this.timeoutExecutor = timeouts;
+    }
+
+    public void add(Tenant tenant, RestDestination destination, URI serviceURI, HttpHeaders headers, String body) {
+        BatchKey key = new BatchKey(destination.getGuid(), serviceURI);
+        Batch[] created = new Batch[1];
+        Batch[] full = new Batch[1];
+
+        batches.compute(key, (k, batch) -> {
+            if (batch == null) {
+                batch = new Batch(tenant, destination, serviceURI, headers);
+                created[0] = batch;
+            }
+
+            batch.bodies.add(body);
+            if (batch.bodies.size() >= destination.getBatchSize()) {
+                full[0] = batch;
+                return null;
+            }
+            return batch;
+        });
+
+        if (full[0] != null) {
+            dispatch(full[0]);
+        } else if (created[0] != null) {
+            try {
+                timeoutExecutor.schedule(() -> expire(key, created[0]),
+                        destination.getBatchTimeoutMillis(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // shut down, no timeout would ever send this batch
+                expire(key, created[0]);
+            }
+        }
+    }
+
+    /**
+     * Sends every buffered batch at once, as when the node shuts down.
+     */
+    @PreDestroy
+    public void flush() {
+        for (BatchKey key : batches.keySet()) {
+            Optional.ofNullable(batches.remove(key)).ifPresent(this::send);
+        }
+        timeoutExecutor.shutdown();
+        flushExecutor.shutdown();
+    }
+
+    public int pending() {
+        return batches.values().stream().mapToInt(batch -> batch.bodies.size()).sum();
+    }
+
+    private void dispatch(Batch batch) {
+        flushExecutor.execute(() -> send(batch));
+    }
+
+    private void expire(BatchKey key, Batch batch) {
+        if (batches.remove(key, batch))
+            dispatch(batch);
+    }
+
+    private void send(Batch batch) {
+        RestDestination destination = batch.destination;
+
+        try {
+            httpGateway.request(
+                    HttpMethod.resolve(Optional.ofNullable(destination.getMethod()).orElse("POST")),
+                    batch.headers,
+                    batch.serviceURI,
+                    MediaType.APPLICATION_JSON,
+                    () -> toJsonArray(batch.bodies),
+                    destination.getServiceUsername(),
+                    destination.getServicePassword()
+            );
+        } catch (IntegrationException | RuntimeException e) {
+            LOGGER.error(MessageFormat.format(BATCH_FAILED, batch.bodies.size(), batch.serviceURI),
+                    batch.tenant.toURI(),
+                    batch.tenant.getLogLevel(),
+                    e);
+        }
+    }
+
+    private String toJsonArray(List<String> bodies) {
+        ArrayNode array = MAPPER.createArrayNode();
+
+        for (String body : bodies) {
+            JsonNode node = null;
+            if (body != null) {
+                try {
+                    node = MAPPER.readTree(body);
+                } catch (IOException e) {
+                    node = null;
+                }
+            }
+            array.add(node != null ? node : MAPPER.getNodeFactory().textNode(body));
+        }
+
+        return array.toString();
+    }
+
+    private static class Batch {
+        private final Tenant tenant;
+        private final RestDestination destination;
+        private final URI serviceURI;
+        private final HttpHeaders headers;
+        private final List<String> bodies = new ArrayList<>();
+
+        private Batch(Tenant tenant, RestDestination destination, URI serviceURI, HttpHeaders headers) {
+            this.tenant = tenant;
+            this.destination = destination;
+            this.serviceURI = serviceURI;
+            this.headers = headers;
+        }
+    }
+
+    private static class BatchKey {
+        private final String guid;
+        private final URI serviceURI;
+
+        private BatchKey(String guid, URI serviceURI) {
+            this.guid = guid;
+            this.serviceURI = serviceURI;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            BatchKey other = (BatchKey) o;
+            return Objects.equals(guid, other.guid) && Objects.equals(serviceURI, other.serviceURI);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(guid, serviceURI);
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.konkerlabs.platform.registry.data.core.services.publishers;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.konkerlabs.platform.registry.business.model.Application;
+import com.konkerlabs.platform.registry.business.model.RestDestination;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.services.api.RestDestinationService;
+import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
+import com.konkerlabs.platform.registry.data.core.config.EventRouteCacheConfig;
+import com.konkerlabs.platform.utilities.cache.LocalCache;
+
+/**
+ * REST destinations of this node, looked up once instead of on every routed event.
+ * Sized like the route tables that point to them. Changes made through the REST
+ * destination service invalidate them on every node listening to
+ * {@code RabbitMQConfig.REST_DESTINATION_CHANGED_EXCHANGE}, with the same versioning
+ * as {@code EventRouteTableCache}. Unknown destinations are not cached.
+ */
+@Component
+public class RestDestinationCache {
+
+    private final RestDestinationService restDestinationService;
+
+    private final boolean enabled;
+    private final LocalCache<String, RestDestination> destinations;
+    private final AtomicLong version = new AtomicLong();
+
+    @Autowired
+    public RestDestinationCache(RestDestinationService restDestinationService) {
+        this(restDestinationService, new EventRouteCacheConfig());
+    }
+
+    public RestDestinationCache(RestDestinationService restDestinationService, EventRouteCacheConfig config) {
+        this.restDestinationService = restDestinationService;
+        this.enabled = config.isEnabled();
+        this.destinations = new LocalCache<>(config.getMaximumSize(), Duration.ofSeconds(config.getTimeToLiveSeconds()));
+    }
+
+    public Optional<RestDestination> get(Tenant tenant, Application application, String guid) {
+        if (!enabled)
+            return find(tenant, application, guid);
+
+        String key = key(tenant.getId(), application.getName(), guid);
+
+        Optional<RestDestination> cached = destinations.getIfPresent(key);
+        if (cached.isPresent())
+            return cached;
+
+        long current = version.get();
+        Optional<RestDestination> destination = find(tenant, application, guid);
+        destination.ifPresent(found -> {
+            destinations.put(key, found);
+            if (version.get() != current)
+                destinations.invalidate(key);
+        });
+
+        return destination;
+    }
+
+    public void invalidate(String tenantId, String applicationName, String guid) {
+        version.incrementAndGet();
+        destinations.invalidate(key(tenantId, applicationName, guid));
+    }
+
+    public void invalidateAll() {
+        version.incrementAndGet();
+        destinations.invalidateAll();
+    }
+
+    public int size() {
+        return destinations.size();
+    }
+
+    private String key(String tenantId, String applicationName, String guid) {
+        return tenantId + ":" + applicationName + ":" + guid;
+    }
+
+    private Optional<RestDestination> find(Tenant tenant, Application application, String guid) {
+        ServiceResponse<RestDestination> response = restDestinationService.getByGUID(tenant, application, guid);
+
+        return Optional.ofNullable(response)
+                .filter(ServiceResponse::isOk)
+                .map(ServiceResponse::getResult);
+    }
+
+}
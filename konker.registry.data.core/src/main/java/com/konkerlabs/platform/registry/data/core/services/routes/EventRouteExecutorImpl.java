@@ -2,17 +2,13 @@ package com.konkerlabs.platform.registry.data.core.services.routes;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.konkerlabs.platform.registry.business.model.*;
-import com.konkerlabs.platform.registry.business.repositories.DeviceModelRepository;
-import com.konkerlabs.platform.registry.business.services.LocationTreeUtils;
-import com.konkerlabs.platform.registry.business.services.api.EventRouteService;
-import com.konkerlabs.platform.registry.business.services.api.LocationSearchService;
-import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
 import com.konkerlabs.platform.registry.data.core.integration.gateway.RabbitGateway;
 import com.konkerlabs.platform.registry.data.core.services.publishers.api.EventPublisher;
 import com.konkerlabs.platform.registry.data.core.services.routes.api.EventRouteExecutor;
 import com.konkerlabs.platform.registry.data.core.services.routes.api.EventTransformationService;
 import com.konkerlabs.platform.utilities.expressions.ExpressionEvaluationService;
 import com.konkerlabs.platform.utilities.parsers.json.JsonParsingService;
+import com.konkerlabs.platform.utilities.parsers.json.ParsedJson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -34,7 +30,9 @@ public class EventRouteExecutorImpl implements EventRouteExecutor {
     private static final Logger LOGGER = LoggerFactory.getLogger(EventRouteExecutorImpl.class);
 
     @Autowired
-    private EventRouteService eventRouteService;
+    private EventRouteTableCache eventRouteTableCache;
+    @Autowired
+    private LocationHierarchyCache locationHierarchyCache;
     @Autowired
     private ApplicationContext applicationContext;
     @Autowired
@@ -44,10 +42,6 @@ public class EventRouteExecutorImpl implements EventRouteExecutor {
     @Autowired
     private EventTransformationService eventTransformationService;
     @Autowired
-    private LocationSearchService locationSearchService;
-    @Autowired
-    private DeviceModelRepository deviceModelRepository;
-    @Autowired
     private RabbitGateway rabbitGateway;
 
     @Override
@@ -55,8 +49,8 @@ public class EventRouteExecutorImpl implements EventRouteExecutor {
 
         List<Event> outEvents = new ArrayList<>();
 
-        ServiceResponse<List<EventRoute>> serviceRoutes = eventRouteService.getAll(device.getTenant(), device.getApplication());
-        if (!serviceRoutes.isOk()) {
+        Optional<EventRouteTable> routeTable = eventRouteTableCache.get(device.getTenant(), device.getApplication());
+        if (!routeTable.isPresent()) {
             LOGGER.error("Error listing application events routes", device.toURI(), device.getTenant().getLogLevel());
             return new AsyncResult<>(outEvents);
         }
@@ -65,18 +59,52 @@ public class EventRouteExecutorImpl implements EventRouteExecutor {
             rabbitGateway.queueEvent(device, EventRoute.builder().build(), event);
         }
 
-        List<EventRoute> eventRoutes = serviceRoutes.getResult();
-        if (eventRoutes.isEmpty()) {
-            return new AsyncResult<>(outEvents);
+        List<EventRoute> eventRoutes = routeTable.get().match(device, event.getIncoming().getChannel(),
+                () -> locationHierarchyCache.get(device.getTenant(), device.getApplication()));
+
+        for (EventRoute eventRoute : eventRoutes) {
+            rabbitGateway.queueEvent(device, eventRoute, event);
         }
 
-        eventRoutes.parallelStream().forEach((eventRoute) -> {
-            if (isEventRouteDeviceMatch(eventRoute, device, event)) {
-                rabbitGateway.queueEvent(device, eventRoute, event);
+        return new AsyncResult<>(outEvents);
+    }
+
+    @Override
+    public Future<List<Event>> execute(List<Event> events, List<Device> devices) {
+
+        List<Device> routedDevices = new ArrayList<>();
+        List<EventRoute> routes = new ArrayList<>();
+        List<Event> routedEvents = new ArrayList<>();
+
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            Device device = devices.get(i);
+
+            Optional<EventRouteTable> routeTable = eventRouteTableCache.get(device.getTenant(), device.getApplication());
+            if (!routeTable.isPresent()) {
+                LOGGER.error("Error listing application events routes", device.toURI(), device.getTenant().getLogLevel());
+                continue;
             }
-        });
 
-        return new AsyncResult<>(outEvents);
+            if (event.getIncoming().getChannel().equals(EventRouteExecutor.ECHO_CHANNEL)) {
+                routedDevices.add(device);
+                routes.add(EventRoute.builder().build());
+                routedEvents.add(event);
+            }
+
+            List<EventRoute> eventRoutes = routeTable.get().match(device, event.getIncoming().getChannel(),
+                    () -> locationHierarchyCache.get(device.getTenant(), device.getApplication()));
+
+            for (EventRoute eventRoute : eventRoutes) {
+                routedDevices.add(device);
+                routes.add(eventRoute);
+                routedEvents.add(event);
+            }
+        }
+
+        rabbitGateway.queueEvents(routedDevices, routes, routedEvents);
+
+        return new AsyncResult<>(new ArrayList<>());
     }
 
     @Override
@@ -100,11 +128,13 @@ public class EventRouteExecutorImpl implements EventRouteExecutor {
             return;
         }
 
+        ParsedJson payload = jsonParsingService.parse(incomingPayload);
+
         try {
-            if (isFilterExpressionMatch(event, eventRoute)) {
+            if (isFilterExpressionMatch(payload, eventRoute)) {
                 if (Optional.ofNullable(eventRoute.getTransformation()).isPresent()) {
                     Optional<Event> transformed = eventTransformationService.transform(
-                            event, eventRoute.getTransformation());
+                            event, eventRoute.getTransformation(), payload);
                     if (transformed.isPresent()) {
                         forwardEvent(eventRoute, transformed.get());
                         outEvents.add(transformed.get());
@@ -129,78 +159,12 @@ public class EventRouteExecutorImpl implements EventRouteExecutor {
 
     }
 
-    private boolean isEventRouteDeviceMatch(EventRoute eventRoute, Device device, Event event) {
-
-        if (event.getIncoming().getChannel().equals(DEBUG_CHANNEL)) {
-            return false;
-        }
-
-        // match device actor
-        if (eventRoute.getIncoming().getUri().equals(device.toURI())) {
-            return true;
-        }
-
-        // match model location actor
-        if (eventRoute.getIncoming().isModelLocation()) {
-
-            if (device.getDeviceModel() == null || device.getLocation() == null){
-                return false;
-            }
-
-            String uriPath = eventRoute.getIncoming().getUri().getPath();
-            if (uriPath.startsWith("/")) {
-                uriPath = uriPath.substring(1);
-            }
-
-            String guids[] = uriPath.split("/");
-            if (guids.length < 2) {
-                LOGGER.warn("Invalid model location URI: {}", uriPath);
-                return false;
-            }
-
-            Tenant tenant = device.getTenant();
-            Application application = device.getApplication();
-
-            // match device model?
-            DeviceModel deviceModel = deviceModelRepository.findByTenantIdApplicationNameAndGuid(tenant.getId(), application.getName(), guids[0]);
-            if (deviceModel == null || !deviceModel.getGuid().equals(device.getDeviceModel().getGuid())) {
-                return false;
-            }
-
-            // match location?
-            ServiceResponse<Location> locationService = locationSearchService.findByGuid(tenant, application, guids[1]);
-            if (!locationService.isOk()) {
-                return false;
-            }
-
-            Location location = locationService.getResult();
-            locationService = locationSearchService.findByName(tenant, application, location.getName(), true);
-            if (!locationService.isOk()) {
-                return false;
-            }
-
-            List<Location> nodes = LocationTreeUtils.getNodesList(locationService.getResult());
-            for (Location node : nodes) {
-                if (node.getGuid().equals(device.getLocation().getGuid())) {
-                    return true;
-                }
-            }
-        }
-        
-        // match application actor
-        if (eventRoute.getIncoming().isApplication()) {
-        	return true;
-        }
-
-        return false;
-    }
-
-    private boolean isFilterExpressionMatch(Event event, EventRoute eventRoute) throws JsonProcessingException {
+    private boolean isFilterExpressionMatch(ParsedJson payload, EventRoute eventRoute) throws JsonProcessingException {
         Optional<String> expression = Optional.ofNullable(eventRoute.getFilteringExpression())
                 .filter(filter -> !filter.isEmpty());
 
         if (expression.isPresent()) {
-            Map<String, Object> objectMap = jsonParsingService.toMap(event.getPayload());
+            Map<String, Object> objectMap = payload.getMap();
             return evaluationService.evaluateConditional(expression.get(), objectMap);
         } else
             return true;
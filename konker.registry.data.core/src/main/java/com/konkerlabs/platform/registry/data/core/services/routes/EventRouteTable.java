@@ -0,0 +1,151 @@
+package com.konkerlabs.platform.registry.data.core.services.routes;
+
+import static com.konkerlabs.platform.registry.data.core.services.publishers.EventPublisherDevice.DEVICE_MQTT_CHANNEL;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.konkerlabs.platform.registry.business.model.Device;
+import com.konkerlabs.platform.registry.business.model.EventRoute;
+import com.konkerlabs.platform.registry.business.services.LocationHierarchy;
+import com.konkerlabs.platform.registry.data.core.services.routes.api.EventRouteExecutor;
+
+/**
+ * Routes of one application indexed by their incoming actor, so matching an event
+ * costs a few map lookups instead of a scan over every route of the application.
+ *
+ * Device routes are keyed by device URI and channel. Model location routes are keyed
+ * by model guid and channel, and match when the device location lies under the route
+ * location in the {@link LocationHierarchy} of the application. Application routes
+ * match every event. Only active routes are indexed; {@link #getByGuid(String)} sees
+ * them all. Tables are immutable and carry the version they were built from.
+ */
+public class EventRouteTable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventRouteTable.class);
+
+    private final long version;
+    private final Map<String, EventRoute> routesByGuid = new HashMap<>();
+    private final Map<URI, Map<String, List<EventRoute>>> deviceRoutes = new HashMap<>();
+    private final Map<String, Map<String, List<ModelLocationRoute>>> modelLocationRoutes = new HashMap<>();
+    private final List<EventRoute> applicationRoutes = new ArrayList<>();
+
+    public EventRouteTable(long version, List<EventRoute> routes) {
+        this.version = version;
+
+        for (EventRoute route : routes) {
+            routesByGuid.putIfAbsent(route.getGuid(), route);
+
+            if (!route.isActive() || route.getIncoming() == null || route.getIncoming().getUri() == null)
+                continue;
+
+            EventRoute.RouteActor incoming = route.getIncoming();
+            if (incoming.isDevice()) {
+                index(deviceRoutes, incoming.getUri(), channelOf(route), route);
+            } else if (incoming.isModelLocation()) {
+                String uriPath = incoming.getUri().getPath();
+                if (uriPath.startsWith("/")) {
+                    uriPath = uriPath.substring(1);
+                }
+
+                String guids[] = uriPath.split("/");
+                if (guids.length < 2) {
+                    LOGGER.warn("Invalid model location URI: {}", uriPath);
+                    continue;
+                }
+
+                index(modelLocationRoutes, guids[0], channelOf(route), new ModelLocationRoute(route, guids[1]));
+            } else if (incoming.isApplication()) {
+                applicationRoutes.add(route);
+            }
+        }
+    }
+
+    /**
+     * Active routes whose incoming actor matches the device and channel. Events on the
+     * echo channel match the routes of the device on every channel, as the router does
+     * not check their channel either. The location hierarchy is only requested when a
+     * model location route of the device model could match.
+     */
+    public List<EventRoute> match(Device device, String channel, Supplier<LocationHierarchy> locations) {
+        if (EventRouteExecutor.DEBUG_CHANNEL.equals(channel))
+            return Collections.emptyList();
+
+        boolean echo = EventRouteExecutor.ECHO_CHANNEL.equals(channel);
+        List<EventRoute> matches = new ArrayList<>(applicationRoutes);
+
+        collect(deviceRoutes.get(device.toURI()), channel, echo, matches);
+
+        if (device.getDeviceModel() != null && device.getLocation() != null) {
+            List<ModelLocationRoute> candidates = new ArrayList<>();
+            collect(modelLocationRoutes.get(device.getDeviceModel().getGuid()), channel, echo, candidates);
+
+            if (!candidates.isEmpty()) {
+                LocationHierarchy hierarchy = locations.get();
+                String locationGuid = device.getLocation().getGuid();
+
+                for (ModelLocationRoute candidate : candidates) {
+                    if (hierarchy.isSublocationOf(candidate.locationGuid, locationGuid))
+                        matches.add(candidate.route);
+                }
+            }
+        }
+
+        return matches;
+    }
+
+    public Optional<EventRoute> getByGuid(String guid) {
+        return Optional.ofNullable(routesByGuid.get(guid));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return routesByGuid.size();
+    }
+
+    private static String channelOf(EventRoute route) {
+        return Optional.ofNullable(route.getIncoming().getData())
+                .map(data -> data.get(DEVICE_MQTT_CHANNEL))
+                .orElse(null);
+    }
+
+    private static <K, V> void index(Map<K, Map<String, List<V>>> index, K key, String channel, V route) {
+        index.computeIfAbsent(key, k -> new HashMap<>())
+             .computeIfAbsent(channel, c -> new ArrayList<>())
+             .add(route);
+    }
+
+    private static <V> void collect(Map<String, List<V>> byChannel, String channel, boolean echo, List<V> matches) {
+        if (byChannel == null)
+            return;
+
+        if (echo) {
+            byChannel.values().forEach(matches::addAll);
+        } else {
+            Optional.ofNullable(byChannel.get(channel)).ifPresent(matches::addAll);
+        }
+    }
+
+    private static class ModelLocationRoute {
+        private final EventRoute route;
+        private final String locationGuid;
+
+        private ModelLocationRoute(EventRoute route, String locationGuid) {
+            this.route = route;
+            this.locationGuid = locationGuid;
+        }
+    }
+
+}
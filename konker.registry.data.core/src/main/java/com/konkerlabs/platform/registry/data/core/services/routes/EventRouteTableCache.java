@@ -0,0 +1,94 @@
+package com.konkerlabs.platform.registry.data.core.services.routes;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.konkerlabs.platform.registry.business.model.Application;
+import com.konkerlabs.platform.registry.business.model.EventRoute;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.services.api.EventRouteService;
+import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
+import com.konkerlabs.platform.registry.data.core.config.EventRouteCacheConfig;
+import com.konkerlabs.platform.utilities.cache.LocalCache;
+
+/**
+ * Route tables of this node, one per application, built on first use. Changes made
+ * through the event route service invalidate them on every node listening to
+ * {@code RabbitMQConfig.EVENT_ROUTE_CHANGED_EXCHANGE}; the time to live bounds how
+ * long a table misses a lost notification or a change to a transformation.
+ *
+ * Each invalidation bumps the version; a table built from a version that has been
+ * invalidated meanwhile is dropped instead of being kept.
+ */
+@Component
+public class EventRouteTableCache {
+
+    @Autowired
+    private EventRouteService eventRouteService;
+
+    private final boolean enabled;
+    private final LocalCache<String, EventRouteTable> tables;
+    private final AtomicLong version = new AtomicLong();
+
+    public EventRouteTableCache() {
+        this(new EventRouteCacheConfig());
+    }
+
+    public EventRouteTableCache(EventRouteCacheConfig config) {
+        this.enabled = config.isEnabled();
+        this.tables = new LocalCache<>(config.getMaximumSize(), Duration.ofSeconds(config.getTimeToLiveSeconds()));
+    }
+
+    public Optional<EventRouteTable> get(Tenant tenant, Application application) {
+        if (!enabled)
+            return Optional.ofNullable(build(tenant, application, version.get()));
+
+        String key = key(tenant.getId(), application.getName());
+
+        Optional<EventRouteTable> cached = tables.getIfPresent(key);
+        if (cached.isPresent())
+            return cached;
+
+        long current = version.get();
+        EventRouteTable table = build(tenant, application, current);
+        if (table != null) {
+            tables.put(key, table);
+            if (version.get() != current)
+                tables.invalidate(key);
+        }
+
+        return Optional.ofNullable(table);
+    }
+
+    public void invalidate(String tenantId, String applicationName) {
+        version.incrementAndGet();
+        tables.invalidate(key(tenantId, applicationName));
+    }
+
+    public void invalidateAll() {
+        version.incrementAndGet();
+        tables.invalidateAll();
+    }
+
+    public int size() {
+        return tables.size();
+    }
+
+    private String key(String tenantId, String applicationName) {
+        return tenantId + ":" + applicationName;
+    }
+
+    private EventRouteTable build(Tenant tenant, Application application, long version) {
+        ServiceResponse<List<EventRoute>> serviceRoutes = eventRouteService.getAll(tenant, application);
+        if (!serviceRoutes.isOk())
+            return null;
+
+        return new EventRouteTable(version, serviceRoutes.getResult());
+    }
+
+}
@@ -10,6 +10,7 @@ import com.konkerlabs.platform.registry.data.core.integration.gateway.HttpGatewa
 import com.konkerlabs.platform.registry.data.core.services.routes.api.EventTransformationService;
 import com.konkerlabs.platform.utilities.expressions.ExpressionEvaluationService;
 import com.konkerlabs.platform.utilities.parsers.json.JsonParsingService;
+import com.konkerlabs.platform.utilities.parsers.json.ParsedJson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,6 +41,12 @@ public class EventTransformationServiceImpl implements EventTransformationServic
 
     @Override
     public Optional<Event> transform(Event original, Transformation transformation) {
+        return transform(original, transformation,
+                Optional.ofNullable(original).map(event -> jsonParsingService.parse(event.getPayload())).orElse(null));
+    }
+
+    @Override
+    public Optional<Event> transform(Event original, Transformation transformation, ParsedJson payload) {
         Optional.ofNullable(original)
             .orElseThrow(() -> new IllegalArgumentException("Event cannot be null"));
         Optional.ofNullable(transformation)
@@ -53,26 +60,28 @@ public class EventTransformationServiceImpl implements EventTransformationServic
                 .build()
         );
 
+        ParsedJson stepPayload = payload;
         for (TransformationStep step : transformation.getSteps()) {
-            if (transformed.isPresent())
-                transformed = Optional.ofNullable(applyStep(transformed.get(),step));
-            else break;
+            if (transformed.isPresent()) {
+                transformed = Optional.ofNullable(applyStep(transformed.get(), stepPayload, step));
+                stepPayload = transformed.map(event -> jsonParsingService.parse(event.getPayload())).orElse(null);
+            } else break;
         }
 
         return transformed;
     }
 
-    private Event applyStep(Event event, TransformationStep step) {
+    private Event applyStep(Event event, ParsedJson payload, TransformationStep step) {
         try {
             String stepUrl = evaluationService
                     .evaluateTemplate(
                             (String) step.getAttributes().get(RestTransformationStep.REST_URL_ATTRIBUTE_NAME),
-                            jsonParsingService.toMap(event.getPayload()));
+                            payload.getMap());
 
             String stepMethod = evaluationService
                     .evaluateTemplate(
                             (String) step.getAttributes().get(RestTransformationStep.REST_ATTRIBUTE_METHOD),
-                            jsonParsingService.toMap(event.getPayload()));
+                            payload.getMap());
 
             if(StringUtils.isEmpty(stepMethod)){
                 stepMethod = HttpMethod.POST.name();
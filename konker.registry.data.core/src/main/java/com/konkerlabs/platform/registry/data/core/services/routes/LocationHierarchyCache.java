@@ -0,0 +1,85 @@
+package com.konkerlabs.platform.registry.data.core.services.routes;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.konkerlabs.platform.registry.business.model.Application;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.repositories.LocationRepository;
+import com.konkerlabs.platform.registry.business.services.LocationHierarchy;
+import com.konkerlabs.platform.registry.data.core.config.EventRouteCacheConfig;
+import com.konkerlabs.platform.utilities.cache.LocalCache;
+
+/**
+ * Location hierarchies of this node, one per application, used to match model
+ * location routes. Sized like the route tables they serve. Changes made through the
+ * location service invalidate them on every node listening to
+ * {@code RabbitMQConfig.LOCATION_CHANGED_EXCHANGE}, with the same versioning as
+ * {@link EventRouteTableCache}.
+ */
+@Component
+public class LocationHierarchyCache {
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    private final boolean enabled;
+    private final LocalCache<String, LocationHierarchy> hierarchies;
+    private final AtomicLong version = new AtomicLong();
+
+    public LocationHierarchyCache() {
+        this(new EventRouteCacheConfig());
+    }
+
+    public LocationHierarchyCache(EventRouteCacheConfig config) {
+        this.enabled = config.isEnabled();
+        this.hierarchies = new LocalCache<>(config.getMaximumSize(), Duration.ofSeconds(config.getTimeToLiveSeconds()));
+    }
+
+    public LocationHierarchy get(Tenant tenant, Application application) {
+        if (!enabled)
+            return build(tenant, application);
+
+        String key = key(tenant.getId(), application.getName());
+
+        Optional<LocationHierarchy> cached = hierarchies.getIfPresent(key);
+        if (cached.isPresent())
+            return cached.get();
+
+        long current = version.get();
+        LocationHierarchy hierarchy = build(tenant, application);
+        hierarchies.put(key, hierarchy);
+        if (version.get() != current)
+            hierarchies.invalidate(key);
+
+        return hierarchy;
+    }
+
+    public void invalidate(String tenantId, String applicationName) {
+        version.incrementAndGet();
+        hierarchies.invalidate(key(tenantId, applicationName));
+    }
+
+    public void invalidateAll() {
+        version.incrementAndGet();
+        hierarchies.invalidateAll();
+    }
+
+    public int size() {
+        return hierarchies.size();
+    }
+
+    private String key(String tenantId, String applicationName) {
+        return tenantId + ":" + applicationName;
+    }
+
+    private LocationHierarchy build(Tenant tenant, Application application) {
+        return new LocationHierarchy(
+                locationRepository.findAllByTenantIdAndApplicationName(tenant.getId(), application.getName()));
+    }
+
+}
@@ -17,6 +17,14 @@ public interface EventRouteExecutor {
     @Async
     Future<List<Event>> execute(Event incomingEvent, Device device);
 
+    /**
+     * Same as {@link #execute(Event, Device)} for the events a gateway sent at once; each
+     * event came from the device at the same position. The routed events of the whole
+     * group are queued together.
+     */
+    @Async
+    Future<List<Event>> execute(List<Event> incomingEvents, List<Device> devices);
+
     void execute(Event event, Device device, EventRoute eventRoute) throws Exception;
 
 }
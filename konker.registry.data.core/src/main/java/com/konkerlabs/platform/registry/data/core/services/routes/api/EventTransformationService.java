@@ -2,6 +2,7 @@ package com.konkerlabs.platform.registry.data.core.services.routes.api;
 
 import com.konkerlabs.platform.registry.business.model.Event;
 import com.konkerlabs.platform.registry.business.model.Transformation;
+import com.konkerlabs.platform.utilities.parsers.json.ParsedJson;
 
 import java.util.Optional;
 
@@ -9,4 +10,6 @@ public interface EventTransformationService {
 
     Optional<Event> transform(Event original, Transformation transformation);
 
+    Optional<Event> transform(Event original, Transformation transformation, ParsedJson payload);
+
 }
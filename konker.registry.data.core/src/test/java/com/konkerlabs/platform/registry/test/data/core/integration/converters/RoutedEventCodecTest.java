@@ -0,0 +1,103 @@
+package com.konkerlabs.platform.registry.test.data.core.integration.converters;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.time.Instant;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.konkerlabs.platform.registry.business.model.Event;
+import com.konkerlabs.platform.registry.business.model.Event.EventActor;
+import com.konkerlabs.platform.registry.business.model.Event.EventGeolocation;
+import com.konkerlabs.platform.registry.data.core.integration.converters.RoutedEventCodec;
+
+public class RoutedEventCodecTest {
+
+    private RoutedEventCodec subject;
+    private Event event;
+
+    @Before
+    public void setUp() {
+        subject = new RoutedEventCodec();
+
+        event = Event.builder()
+                .epochTime(1500000000123456789L)
+                .creationTimestamp(Instant.ofEpochSecond(1500000000L, 123456789))
+                .ingestedTimestamp(Instant.ofEpochMilli(1500000000200L))
+                .incoming(EventActor.builder()
+                        .tenantDomain("konker")
+                        .applicationName("smartffkonker")
+                        .deviceGuid("1af9be20-441e-419b-84a9-cb84efd4f49d")
+                        .deviceId("SN1234567890")
+                        .channel("temperature")
+                        .build())
+                .geolocation(EventGeolocation.builder().lat(-23.5746571).lon(-46.6910183).hdop(10L).build())
+                .payload("{\"metric\":\"temperature\",\"value\":30,\"ts\":1454900000}")
+                .build();
+    }
+
+    @Test
+    public void shouldDecodeWhatItEncodes() throws Exception {
+        Event decoded = subject.decode(subject.encode(event), RoutedEventCodec.CONTENT_TYPE);
+
+        assertThat(decoded, equalTo(event));
+    }
+
+    @Test
+    public void shouldBeSmallerThanJavaSerialization() throws Exception {
+        assertThat(subject.encode(event).length, lessThan(serialize(event).length));
+    }
+
+    @Test
+    public void shouldDecodeJavaSerializedEventsWithoutContentType() throws Exception {
+        assertThat(subject.decode(serialize(event), null), equalTo(event));
+    }
+
+    @Test
+    public void shouldSkipFieldsItDoesNotKnow() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = new CBORFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeNumberField("v", 1);
+            generator.writeObjectFieldStart("future");
+            generator.writeStringField("field", "value");
+            generator.writeEndObject();
+            generator.writeStringField("payload", "{}");
+            generator.writeEndObject();
+        }
+
+        assertThat(subject.decode(out.toByteArray(), RoutedEventCodec.CONTENT_TYPE).getPayload(), equalTo("{}"));
+    }
+
+    @Test
+    public void shouldNotDecodeNewerVersions() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = new CBORFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeNumberField("v", RoutedEventCodec.VERSION + 1);
+            generator.writeEndObject();
+        }
+
+        assertThat(subject.decode(out.toByteArray(), RoutedEventCodec.CONTENT_TYPE), nullValue());
+    }
+
+    private byte[] serialize(Event event) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(event);
+        oos.flush();
+
+        return baos.toByteArray();
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.konkerlabs.platform.registry.test.data.core.integration.converters.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.konkerlabs.platform.registry.business.model.Event;
+import com.konkerlabs.platform.registry.business.model.Event.EventActor;
+import com.konkerlabs.platform.registry.business.model.Event.EventGeolocation;
+import com.konkerlabs.platform.registry.data.core.integration.converters.RoutedEventCodec;
+
+/**
+ * Compares the Java serialization formerly used on routed.events with the CBOR
+ * codec, encoding and decoding a typical telemetry event.
+ *
+ * Not part of the test suite; run its main method, or org.openjdk.jmh.Main, on the
+ * test classpath after mvn test-compile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutedEventCodecBenchmark {
+
+    private RoutedEventCodec codec;
+    private Event event;
+    private byte[] serialized;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        codec = new RoutedEventCodec();
+
+        event = Event.builder()
+                .epochTime(1500000000123456789L)
+                .creationTimestamp(Instant.ofEpochSecond(1500000000L, 123456789))
+                .ingestedTimestamp(Instant.ofEpochMilli(1500000000200L))
+                .incoming(EventActor.builder()
+                        .tenantDomain("konker")
+                        .applicationName("smartffkonker")
+                        .deviceGuid("1af9be20-441e-419b-84a9-cb84efd4f49d")
+                        .deviceId("SN1234567890")
+                        .channel("temperature")
+                        .build())
+                .geolocation(EventGeolocation.builder().lat(-23.5746571).lon(-46.6910183).hdop(10L).build())
+                .payload("{\"metric\":\"temperature\",\"deviceGuid\":\"1af9be20-441e-419b-84a9-cb84efd4f49d\",\"value\":30,\"ts\":1454900000,\"data\":{\"sn\":1234,\"test\":1,\"foo\":2}}")
+                .build();
+
+        serialized = serialize(event);
+        encoded = codec.encode(event);
+    }
+
+    @Benchmark
+    public byte[] javaSerializationEncode() throws IOException {
+        return serialize(event);
+    }
+
+    @Benchmark
+    public Object javaSerializationDecode() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return ois.readObject();
+        }
+    }
+
+    @Benchmark
+    public byte[] cborEncode() throws IOException {
+        return codec.encode(event);
+    }
+
+    @Benchmark
+    public Event cborDecode() throws IOException {
+        return codec.decode(encoded);
+    }
+
+    private static byte[] serialize(Event event) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(event);
+        }
+
+        return baos.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RoutedEventCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
@@ -0,0 +1,202 @@
+package com.konkerlabs.platform.registry.test.data.core.security;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.encoding.PlaintextPasswordEncoder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import com.konkerlabs.platform.registry.business.model.Device;
+import com.konkerlabs.platform.registry.data.core.config.DeviceCredentialCacheConfig;
+import com.konkerlabs.platform.registry.data.core.security.DeviceAuthenticationProvider;
+import com.konkerlabs.platform.registry.data.core.security.DeviceCredentialCache;
+
+public class DeviceAuthenticationProviderTest {
+
+    private static final String API_KEY = "e4399b2ed998";
+    private static final String SECRET = "sEcReT";
+    private static final String DEVICE_ADDRESS = "10.0.0.1";
+    private static final String OTHER_ADDRESS = "10.0.0.2";
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private UserDetailsService userDetailsService;
+    private DeviceCredentialCacheConfig config;
+    private DeviceCredentialCache credentialCache;
+    private DeviceAuthenticationProvider subject;
+    private AtomicInteger hashes;
+
+    @Before
+    public void setUp() throws Exception {
+        userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername(API_KEY)).thenReturn(device(SECRET));
+
+        config = new DeviceCredentialCacheConfig();
+        config.setMaxFailures(3);
+        hashes = new AtomicInteger();
+
+        subject = provider();
+    }
+
+    @Test
+    public void shouldHashTheSecretOnlyOnceWhileItIsCached() {
+        authenticate(SECRET);
+        Authentication authentication = authenticate(SECRET);
+
+        assertThat(authentication.isAuthenticated(), equalTo(true));
+        assertThat(hashes.get(), equalTo(1));
+        assertThat(credentialCache.getHits(), equalTo(1L));
+    }
+
+    @Test
+    public void shouldHashAgainOnceTheSecretIsRotated() {
+        authenticate(SECRET);
+        when(userDetailsService.loadUserByUsername(API_KEY)).thenReturn(device("rotated"));
+
+        authenticate("rotated");
+
+        assertThat(hashes.get(), equalTo(2));
+
+        thrown.expect(BadCredentialsException.class);
+        authenticate(SECRET);
+    }
+
+    @Test
+    public void shouldHashAgainOnceTheDeviceIsInvalidated() {
+        authenticate(SECRET);
+        credentialCache.invalidate(API_KEY);
+
+        authenticate(SECRET);
+
+        assertThat(hashes.get(), equalTo(2));
+    }
+
+    @Test
+    public void shouldRefuseADisabledDeviceWithACachedSecret() {
+        authenticate(SECRET);
+        // as DeviceUserDetailsService does for disabled devices
+        when(userDetailsService.loadUserByUsername(API_KEY))
+                .thenThrow(new UsernameNotFoundException("authentication.credentials.invalid"));
+
+        thrown.expect(BadCredentialsException.class);
+        authenticate(SECRET);
+    }
+
+    @Test
+    public void shouldRefuseWithoutHashingAfterTooManyFailures() {
+        for (int i = 0; i < 3; i++) {
+            try {
+                authenticate("wrong");
+            } catch (BadCredentialsException e) {
+                // expected
+            }
+        }
+
+        try {
+            authenticate(SECRET);
+        } catch (BadCredentialsException e) {
+            assertThat(hashes.get(), equalTo(3));
+            assertThat(credentialCache.getRefused(), equalTo(1L));
+            return;
+        }
+
+        throw new AssertionError("A blocked device must be refused");
+    }
+
+    @Test
+    public void shouldKeepAcceptingTheCachedSecretWhileAnotherSourceFails() {
+        authenticate(SECRET, DEVICE_ADDRESS);
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                authenticate("wrong", OTHER_ADDRESS);
+            } catch (BadCredentialsException e) {
+                // expected
+            }
+        }
+
+        assertThat(authenticate(SECRET, DEVICE_ADDRESS).isAuthenticated(), equalTo(true));
+        assertThat(authenticate(SECRET, OTHER_ADDRESS).isAuthenticated(), equalTo(true));
+        assertThat(hashes.get(), equalTo(4));
+        assertThat(credentialCache.getHits(), equalTo(2L));
+        assertThat(credentialCache.getRefused(), equalTo(0L));
+    }
+
+    @Test
+    public void shouldOnlyRefuseTheSourceWithTooManyFailures() {
+        for (int i = 0; i < 3; i++) {
+            try {
+                authenticate("wrong", OTHER_ADDRESS);
+            } catch (BadCredentialsException e) {
+                // expected
+            }
+        }
+
+        assertThat(authenticate(SECRET, DEVICE_ADDRESS).isAuthenticated(), equalTo(true));
+        assertThat(hashes.get(), equalTo(4));
+        assertThat(credentialCache.getRefused(), equalTo(0L));
+    }
+
+    @Test
+    public void shouldHashEveryAttemptWhenDisabled() {
+        config.setEnabled(false);
+        subject = provider();
+
+        authenticate(SECRET);
+        authenticate(SECRET);
+
+        assertThat(hashes.get(), equalTo(2));
+    }
+
+    private DeviceAuthenticationProvider provider() {
+        credentialCache = new DeviceCredentialCache(config);
+
+        DeviceAuthenticationProvider provider = new DeviceAuthenticationProvider(credentialCache);
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(new PlaintextPasswordEncoder() {
+            @Override
+            public boolean isPasswordValid(String encPass, String rawPass, Object salt) {
+                hashes.incrementAndGet();
+                return super.isPasswordValid(encPass, rawPass, salt);
+            }
+        });
+        return provider;
+    }
+
+    private Authentication authenticate(String secret) {
+        return authenticate(secret, DEVICE_ADDRESS);
+    }
+
+    private Authentication authenticate(String secret, String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddress);
+
+        UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(API_KEY, secret);
+        token.setDetails(new WebAuthenticationDetails(request));
+        return subject.authenticate(token);
+    }
+
+    private Device device(String securityHash) {
+        return Device.builder()
+                .apiKey(API_KEY)
+                .securityHash(securityHash)
+                .active(true)
+                .build();
+    }
+
+}
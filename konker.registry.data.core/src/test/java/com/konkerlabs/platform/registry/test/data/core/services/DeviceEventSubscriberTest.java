@@ -0,0 +1,93 @@
+package com.konkerlabs.platform.registry.test.data.core.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import com.konkerlabs.platform.registry.data.core.services.DeviceEventSubscriber;
+
+public class DeviceEventSubscriberTest {
+
+    private static final String API_KEY = "e4399b2ed998";
+    private static final String DEVICE_GUID = "7d51c242-81db-11e6-a8c2-0746f010e945";
+
+    private RedisMessageListenerContainer container;
+    private DeviceEventSubscriber subject;
+
+    @Before
+    public void setUp() {
+        container = mock(RedisMessageListenerContainer.class);
+        subject = new DeviceEventSubscriber(container);
+    }
+
+    @Test
+    public void shouldSubscribeOnceForEveryWait() {
+        subject.await(API_KEY);
+        subject.await(API_KEY + ".data");
+        subject.await("other");
+
+        verify(container, times(1)).addMessageListener(any(MessageListener.class), eq(new PatternTopic("*")));
+        assertThat(subject.getWaiting(), equalTo(3));
+        assertThat(subject.getChannels(), equalTo(3));
+    }
+
+    @Test
+    public void shouldCompleteEveryWaitOnTheChannel() {
+        CompletableFuture<String> first = subject.await(API_KEY);
+        CompletableFuture<String> second = subject.await(API_KEY);
+        CompletableFuture<String> otherChannel = subject.await(API_KEY + ".data");
+
+        publish(API_KEY, DEVICE_GUID);
+
+        assertThat(first.getNow(null), equalTo(DEVICE_GUID));
+        assertThat(second.getNow(null), equalTo(DEVICE_GUID));
+        assertThat(otherChannel.isDone(), equalTo(false));
+        assertThat(subject.getWaiting(), equalTo(1));
+    }
+
+    @Test
+    public void shouldForgetCancelledWaits() {
+        CompletableFuture<String> cancelled = subject.await(API_KEY);
+        CompletableFuture<String> waiting = subject.await(API_KEY);
+
+        cancelled.cancel(false);
+
+        assertThat(subject.getWaiting(), equalTo(1));
+
+        waiting.cancel(false);
+
+        assertThat(subject.getWaiting(), equalTo(0));
+        assertThat(subject.getChannels(), equalTo(0));
+    }
+
+    @Test
+    public void shouldIgnoreNotificationsNobodyWaitsFor() {
+        publish(API_KEY, DEVICE_GUID);
+
+        CompletableFuture<String> notification = subject.await(API_KEY);
+
+        assertThat(notification.isDone(), equalTo(false));
+        assertThat(subject.getWaiting(), equalTo(1));
+    }
+
+    private void publish(String channel, String body) {
+        subject.onMessage(new DefaultMessage(
+                channel.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8)), "*".getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -10,6 +10,7 @@ import com.konkerlabs.platform.registry.business.repositories.DeviceRepository;
 import com.konkerlabs.platform.registry.business.repositories.TenantRepository;
 import com.konkerlabs.platform.registry.business.repositories.events.api.EventRepository;
 import com.konkerlabs.platform.registry.business.services.api.DeviceEventService;
+import com.konkerlabs.platform.registry.business.services.api.EventSchemaService;
 import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
 import com.konkerlabs.platform.registry.config.EmailConfig;
 import com.konkerlabs.platform.registry.config.EventStorageConfig;
@@ -17,6 +18,7 @@ import com.konkerlabs.platform.registry.config.PubServerConfig;
 import com.konkerlabs.platform.registry.data.core.services.JedisTaskService;
 import com.konkerlabs.platform.registry.data.core.services.api.DeviceLogEventService;
 import com.konkerlabs.platform.registry.test.data.core.base.*;
+import com.konkerlabs.platform.utilities.parsers.json.ParsedJson;
 import com.lordofthejars.nosqlunit.annotation.UsingDataSet;
 import org.hamcrest.MatcherAssert;
 import org.junit.Before;
@@ -37,10 +39,14 @@ import org.thymeleaf.spring4.SpringTemplateEngine;
 import java.text.MessageFormat;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 @RunWith(SpringJUnit4ClassRunner.class)
 @ContextConfiguration(classes = {
@@ -78,6 +84,7 @@ public class DeviceLogEventServiceTest extends BusinessLayerTestSupport {
     private EventRepository eventRepository;
 
     private final String userDefinedDeviceGuid = "7d51c242-81db-11e6-a8c2-0746f010e945";
+    private final String otherDeviceGuid = "8363c556-84ea-11e6-92a2-4b01fea7e243";
     private String guid = "71fc0d48-674a-4d62-b3e5-0216abca63af";
     private final String apiKey = "84399b2e-d99e-11e5-86bc-34238775bac9";
     private final String payload = "{\n" +
@@ -235,6 +242,18 @@ public class DeviceLogEventServiceTest extends BusinessLayerTestSupport {
 
         assertThat(gap, not(greaterThan(60L)));
 
+        verify(jedisTaskService).registerLastEventTimestamp(device.getGuid(), event.getCreationTimestamp());
+    }
+
+    @Test
+    public void shouldNotRecordAnIncomingEventThatIsRejected() throws Exception {
+        event.getIncoming().setChannel(null);
+
+        ServiceResponse<Event> response = deviceEventService.logIncomingEvent(device, event);
+
+        MatcherAssert.assertThat(response, ServiceResponseMatchers.hasErrorMessage(
+                EventSchemaService.Validations.EVENT_INCOMING_CHANNEL_NULL.getCode()));
+        verify(jedisTaskService, never()).registerLastEventTimestamp(device.getGuid(), event.getCreationTimestamp());
     }
     
     @Test
@@ -305,6 +324,57 @@ public class DeviceLogEventServiceTest extends BusinessLayerTestSupport {
 
     }
 
+    @Test
+    public void shouldLogManyIncomingEventsAtOnce() throws Exception {
+        Device otherDevice = deviceRepository.findByTenantAndGuid(tenant.getId(), otherDeviceGuid);
+        Event otherEvent = incoming(otherDevice, payloadValidGeo);
+
+        ServiceResponse<List<Event>> response = deviceEventService.logIncomingEvents(
+                Arrays.asList(device, otherDevice),
+                Arrays.asList(event, otherEvent),
+                Arrays.asList(new ParsedJson(payload), new ParsedJson(payloadValidGeo)));
+
+        MatcherAssert.assertThat(response, ServiceResponseMatchers.isResponseOk());
+        assertThat(eventRepository.findIncomingBy(tenant, application, device.getGuid(), channel,
+                event.getCreationTimestamp().minusSeconds(1L), null, false, 1), hasSize(1));
+        Event last = eventRepository.findIncomingBy(tenant, application, otherDevice.getGuid(), channel,
+                otherEvent.getCreationTimestamp().minusSeconds(1L), null, false, 1).get(0);
+        assertThat(last.getGeolocation(), notNullValue());
+
+        verify(jedisTaskService).registerLastEventTimestamp(device.getGuid(), event.getCreationTimestamp());
+        verify(jedisTaskService).registerLastEventTimestamp(otherDevice.getGuid(), otherEvent.getCreationTimestamp());
+    }
+
+    @Test
+    public void shouldNotLogAnyIncomingEventIfOneIsRejected() throws Exception {
+        Device otherDevice = deviceRepository.findByTenantAndGuid(tenant.getId(), otherDeviceGuid);
+        Event otherEvent = incoming(otherDevice, "");
+
+        ServiceResponse<List<Event>> response = deviceEventService.logIncomingEvents(
+                Arrays.asList(device, otherDevice),
+                Arrays.asList(event, otherEvent),
+                Arrays.asList(new ParsedJson(payload), new ParsedJson("")));
+
+        MatcherAssert.assertThat(response, ServiceResponseMatchers.hasErrorMessage(DeviceEventService.Validations.EVENT_PAYLOAD_NULL.getCode()));
+        assertThat(eventRepository.findIncomingBy(tenant, application, device.getGuid(), channel,
+                event.getCreationTimestamp().minusSeconds(1L), null, false, 1), empty());
+        verify(jedisTaskService, never()).registerLastEventTimestamp(device.getGuid(), event.getCreationTimestamp());
+    }
+
+    private Event incoming(Device device, String payload) {
+        return Event.builder()
+                .incoming(
+                        Event.EventActor.builder()
+                                .channel(channel)
+                                .deviceGuid(device.getGuid())
+                                .tenantDomain(tenant.getDomainName())
+                                .applicationName(application.getName())
+                                .build()
+                )
+                .ingestedTimestamp(Instant.now())
+                .payload(payload).build();
+    }
+
     @Configuration
     static class DeviceLogEventServiceTestConfig {
 
@@ -10,6 +10,8 @@ import com.konkerlabs.platform.registry.config.EmailConfig;
 import com.konkerlabs.platform.registry.config.EventStorageConfig;
 import com.konkerlabs.platform.registry.config.PubServerConfig;
 import com.konkerlabs.platform.registry.data.core.integration.gateway.HttpGateway;
+import com.konkerlabs.platform.registry.data.core.services.routes.EventRouteTableCache;
+import com.konkerlabs.platform.registry.data.core.services.routes.LocationHierarchyCache;
 import com.konkerlabs.platform.registry.data.core.services.routes.api.EventRouteExecutor;
 import com.konkerlabs.platform.registry.test.data.core.base.BusinessLayerTestSupport;
 import com.konkerlabs.platform.registry.test.data.core.base.BusinessTestConfiguration;
@@ -17,14 +19,18 @@ import com.konkerlabs.platform.registry.test.data.core.base.MongoTestConfigurati
 import com.konkerlabs.platform.registry.test.data.core.base.RedisTestConfiguration;
 import com.konkerlabs.platform.utilities.config.UtilitiesConfig;
 import com.lordofthejars.nosqlunit.annotation.UsingDataSet;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -41,6 +47,7 @@ import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.net.URI;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Future;
 import java.util.function.Supplier;
@@ -89,6 +96,10 @@ public class EventRouteExecutorTest extends BusinessLayerTestSupport {
     private DeviceModelRepository deviceModelRepository;
     @Autowired
     private LocationRepository locationRepository;
+    @Autowired
+    private EventRouteTableCache eventRouteTableCache;
+    @Autowired
+    private LocationHierarchyCache locationHierarchyCache;
 
     private Tenant tenant;
     private Application application;
@@ -109,6 +120,9 @@ public class EventRouteExecutorTest extends BusinessLayerTestSupport {
 
     @Before
     public void setUp() throws Exception {
+        eventRouteTableCache.invalidateAll();
+        locationHierarchyCache.invalidateAll();
+
         event = spy(Event.builder()
                 .incoming(
                         Event.EventActor.builder()
@@ -226,6 +240,50 @@ public class EventRouteExecutorTest extends BusinessLayerTestSupport {
         verify(rabbitTemplate, times(1)).convertAndSend(Mockito.anyString(), Mockito.any(Message.class));
     }
 
+    @Test
+    @UsingDataSet(locations = {
+            "/fixtures/tenants.json",
+            "/fixtures/applications.json",
+            "/fixtures/devices.json",
+            "/fixtures/transformations.json",
+            "/fixtures/event-routes.json"})
+    public void shouldQueueTheEventsOfAGroupTogether() throws Exception {
+        Device device = Device.builder()
+                .tenant(tenant)
+                .application(application)
+                .guid(matchingRouteDeviceGuid)
+                .build();
+        Device echoDevice = Device.builder()
+                .tenant(tenant)
+                .application(application)
+                .deviceModel(deviceModel)
+                .guid(nonMatchingFilterDeviceId)
+                .build();
+        Event echo = Event.builder()
+                .incoming(Event.EventActor.builder()
+                        .channel("_echo")
+                        .deviceGuid(nonMatchingFilterDeviceId).build())
+                .creationTimestamp(Instant.now()).payload(payload).build();
+
+        subject.execute(event, device).get();
+        subject.execute(echo, echoDevice).get();
+        ArgumentCaptor<Message> queued = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate, atLeastOnce()).convertAndSend(Mockito.anyString(), queued.capture());
+        Mockito.reset(rabbitTemplate);
+
+        Future<List<Event>> eventFuture = subject.execute(Arrays.asList(event, echo), Arrays.asList(device, echoDevice));
+        assertThat(eventFuture.get(), notNullValue());
+
+        ArgumentCaptor<ChannelCallback> callback = ArgumentCaptor.forClass(ChannelCallback.class);
+        verify(rabbitTemplate, times(1)).execute(callback.capture());
+        verify(rabbitTemplate, never()).convertAndSend(Mockito.anyString(), Mockito.any(Message.class));
+
+        Channel channel = mock(Channel.class);
+        callback.getValue().doInRabbit(channel);
+        verify(channel, times(queued.getAllValues().size())).basicPublish(eq(""), eq("routed.events"), eq(false),
+                Mockito.any(AMQP.BasicProperties.class), Mockito.any(byte[].class));
+    }
+
     private byte[] toByteArray(Event event) throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
 
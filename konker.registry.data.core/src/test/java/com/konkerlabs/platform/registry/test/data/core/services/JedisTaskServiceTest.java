@@ -0,0 +1,143 @@
+package com.konkerlabs.platform.registry.test.data.core.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import com.konkerlabs.platform.registry.business.model.Event;
+import com.konkerlabs.platform.registry.data.core.config.LastEventTrackerConfig;
+import com.konkerlabs.platform.registry.data.core.services.JedisTaskService;
+
+public class JedisTaskServiceTest {
+
+    private static final String DEVICE_GUID = "7d51c242-81db-11e6-a8c2-0746f010e945";
+    private static final String OTHER_DEVICE_GUID = "8363c556-84ea-11e6-92a2-4b01fea7e243";
+
+    private RedisTemplate<String, String> redisTemplate;
+    private RedisConnection pipeline;
+    private ZSetOperations<String, String> zSetOperations;
+    private JedisTaskService subject;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        pipeline = mock(RedisConnection.class);
+        zSetOperations = mock(ZSetOperations.class);
+
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.getStringSerializer()).thenReturn(new StringRedisSerializer());
+        doReturn(new StringRedisSerializer()).when(redisTemplate).getValueSerializer();
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            ((RedisCallback<Object>) invocation.getArguments()[0]).doInRedis(pipeline);
+            return Collections.emptyList();
+        });
+
+        LastEventTrackerConfig config = new LastEventTrackerConfig();
+        config.setFlushIntervalMillis(60 * 60 * 1000);
+        config.setBatchSize(2);
+        config.setShards(1);
+
+        subject = new JedisTaskService(redisTemplate, config);
+    }
+
+    @After
+    public void tearDown() {
+        subject.shutdown();
+    }
+
+    @Test
+    public void shouldWriteTheLatestTimestampOfEachDeviceOnFlush() {
+        subject.registerLastEventTimestamp(event(DEVICE_GUID, 100));
+        subject.registerLastEventTimestamp(event(DEVICE_GUID, 300));
+        subject.registerLastEventTimestamp(event(DEVICE_GUID, 200));
+        subject.registerLastEventTimestamp(event(OTHER_DEVICE_GUID, 150));
+
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+        assertThat(subject.getPending(), equalTo(2));
+
+        subject.flush();
+
+        verifyWritten(DEVICE_GUID, 300);
+        verifyWritten(OTHER_DEVICE_GUID, 150);
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        assertThat(subject.getPending(), equalTo(0));
+        assertThat(subject.getWritten(), equalTo(2L));
+    }
+
+    @Test
+    public void shouldKeepTimestampsWhenRedisIsUnavailable() {
+        doThrow(new RedisConnectionFailureException("down"))
+                .when(redisTemplate).executePipelined(any(RedisCallback.class));
+
+        subject.registerLastEventTimestamp(event(DEVICE_GUID, 100));
+        subject.shutdown();
+
+        assertThat(subject.getPending(), equalTo(1));
+        assertThat(subject.getFailed(), equalTo(1L));
+        assertThat(subject.getLastEventTimestamp(DEVICE_GUID), equalTo(Optional.of(Instant.ofEpochSecond(100))));
+        verify(zSetOperations, never()).score(anyString(), anyString());
+    }
+
+    @Test
+    public void shouldReadTheLastTimestampFromRedisOnceWritten() {
+        when(zSetOperations.score("lasteventts:0", DEVICE_GUID)).thenReturn(100d);
+        when(zSetOperations.score("lasteventts:0", OTHER_DEVICE_GUID)).thenReturn(null);
+
+        assertThat(subject.getLastEventTimestamp(DEVICE_GUID), equalTo(Optional.of(Instant.ofEpochSecond(100))));
+        assertThat(subject.getLastEventTimestamp(OTHER_DEVICE_GUID), equalTo(Optional.empty()));
+    }
+
+    @Test
+    public void shouldFindDevicesSilentSinceAnInstant() {
+        when(zSetOperations.rangeByScore(eq("lasteventts:0"), anyDouble(), anyDouble()))
+                .thenReturn(new HashSet<>(Arrays.asList(DEVICE_GUID, OTHER_DEVICE_GUID)));
+
+        subject.registerLastEventTimestamp(event(OTHER_DEVICE_GUID, 500));
+
+        assertThat(subject.findSilentSince(Instant.ofEpochSecond(400)),
+                equalTo(Collections.singleton(DEVICE_GUID)));
+        verify(zSetOperations).rangeByScore("lasteventts:0", 0, 399);
+    }
+
+    private void verifyWritten(String deviceGuid, long epochSecond) {
+        verify(pipeline).eval(any(byte[].class), eq(ReturnType.INTEGER), eq(1),
+                aryEq("lasteventts:0".getBytes()), aryEq(deviceGuid.getBytes()), aryEq(String.valueOf(epochSecond).getBytes()));
+    }
+
+    private Event event(String deviceGuid, long epochSecond) {
+        return Event.builder()
+                .creationTimestamp(Instant.ofEpochSecond(epochSecond))
+                .incoming(Event.EventActor.builder().deviceGuid(deviceGuid).channel("data").build())
+                .build();
+    }
+
+}
@@ -0,0 +1,190 @@
+package com.konkerlabs.platform.registry.test.data.core.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.konkerlabs.platform.registry.business.model.AlertTrigger;
+import com.konkerlabs.platform.registry.business.model.AlertTrigger.AlertTriggerType;
+import com.konkerlabs.platform.registry.business.model.Application;
+import com.konkerlabs.platform.registry.business.model.Device;
+import com.konkerlabs.platform.registry.business.model.DeviceModel;
+import com.konkerlabs.platform.registry.business.model.HealthAlert;
+import com.konkerlabs.platform.registry.business.model.HealthAlert.HealthAlertSeverity;
+import com.konkerlabs.platform.registry.business.model.HealthAlert.Solution;
+import com.konkerlabs.platform.registry.business.model.Location;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.repositories.AlertTriggerRepository;
+import com.konkerlabs.platform.registry.business.services.LocationHierarchy;
+import com.konkerlabs.platform.registry.business.services.api.HealthAlertService;
+import com.konkerlabs.platform.registry.business.services.api.ServiceResponseBuilder;
+import com.konkerlabs.platform.registry.data.core.config.SilenceDetectorConfig;
+import com.konkerlabs.platform.registry.data.core.services.JedisTaskService;
+import com.konkerlabs.platform.registry.data.core.services.SilenceDetector;
+import com.konkerlabs.platform.registry.data.core.services.routes.LocationHierarchyCache;
+
+public class SilenceDetectorTest {
+
+    private static final Duration SILENCE = Duration.ofMinutes(10);
+
+    private HealthAlertService healthAlertService;
+    private JedisTaskService jedisTaskService;
+    private SilenceDetector subject;
+
+    private Tenant tenant;
+    private Application application;
+    private AlertTrigger trigger;
+    private Device device;
+    private Instant seenAt;
+
+    @Before
+    public void setUp() {
+        tenant = Tenant.builder().id("tenant").domainName("konker").build();
+        application = Application.builder().name("smartffkonker").tenant(tenant).build();
+
+        DeviceModel deviceModel = DeviceModel.builder().guid("model").build();
+        Location location = Location.builder().guid("br").build();
+
+        trigger = AlertTrigger.builder()
+                .id("trigger-id")
+                .guid("trigger")
+                .type(AlertTriggerType.SILENCE)
+                .minutes((int) SILENCE.toMinutes())
+                .deviceModel(deviceModel)
+                .location(location)
+                .build();
+        device = Device.builder()
+                .guid("device")
+                .deviceId("sensor")
+                .tenant(tenant)
+                .application(application)
+                .deviceModel(deviceModel)
+                .location(Location.builder().guid("sp").build())
+                .build();
+
+        AlertTriggerRepository alertTriggerRepository = mock(AlertTriggerRepository.class);
+        when(alertTriggerRepository.listByTenantIdAndApplicationName("tenant", "smartffkonker"))
+                .thenReturn(Collections.singletonList(trigger));
+
+        LocationHierarchy hierarchy = mock(LocationHierarchy.class);
+        when(hierarchy.isSublocationOf("br", "sp")).thenReturn(true);
+        LocationHierarchyCache locationHierarchyCache = mock(LocationHierarchyCache.class);
+        when(locationHierarchyCache.get(tenant, application)).thenReturn(hierarchy);
+
+        healthAlertService = mock(HealthAlertService.class);
+        when(healthAlertService.findByTenantApplicationTriggerAndAlertId(tenant, application, trigger, "sensor"))
+                .thenReturn(ServiceResponseBuilder.<HealthAlert>error()
+                        .withMessage(HealthAlertService.Validations.HEALTH_ALERT_DOES_NOT_EXIST.getCode()).build());
+        when(healthAlertService.register(eq(tenant), eq(application), any(HealthAlert.class)))
+                .thenAnswer(invocation -> ServiceResponseBuilder.<HealthAlert>ok()
+                        .withResult((HealthAlert) invocation.getArguments()[2]).build());
+
+        seenAt = Instant.now();
+        jedisTaskService = mock(JedisTaskService.class);
+        when(jedisTaskService.getLastEventTimestamp("device")).thenReturn(Optional.of(seenAt));
+
+        // deadlines lie minutes ahead, so the timer thread never reaches them
+        subject = new SilenceDetector(healthAlertService, alertTriggerRepository, locationHierarchyCache,
+                jedisTaskService, new SilenceDetectorConfig());
+    }
+
+    @After
+    public void tearDown() {
+        subject.shutdown();
+    }
+
+    @Test
+    public void shouldRaiseAnAlertOnceTheDeviceIsSilent() {
+        subject.refresh(device, seenAt);
+
+        subject.advance(seenAt.plus(SILENCE).minusSeconds(5));
+        verify(healthAlertService, never()).register(any(Tenant.class), any(Application.class), any(HealthAlert.class));
+
+        subject.advance(seenAt.plus(SILENCE).plusSeconds(1));
+        ArgumentCaptor<HealthAlert> alert = ArgumentCaptor.forClass(HealthAlert.class);
+        verify(healthAlertService).register(eq(tenant), eq(application), alert.capture());
+        assertThat(alert.getValue().getSeverity(), equalTo(HealthAlertSeverity.FAIL));
+        assertThat(alert.getValue().getDescription(), equalTo(HealthAlert.Description.NO_MESSAGED_RECEIVED.getCode()));
+        assertThat(alert.getValue().getDevice(), equalTo(device));
+        assertThat(alert.getValue().getAlertTrigger(), equalTo(trigger));
+        assertThat(subject.getRaised(), equalTo(1L));
+        assertThat(subject.getArmed(), equalTo(0));
+    }
+
+    @Test
+    public void shouldPushBackTheDeadlineOfADeviceSeenByAnotherNode() {
+        subject.refresh(device, seenAt);
+        when(jedisTaskService.getLastEventTimestamp("device")).thenReturn(Optional.of(seenAt.plus(Duration.ofMinutes(5))));
+
+        subject.advance(seenAt.plus(SILENCE).plusSeconds(1));
+        verify(healthAlertService, never()).register(any(Tenant.class), any(Application.class), any(HealthAlert.class));
+        assertThat(subject.getPostponed(), equalTo(1L));
+
+        subject.advance(seenAt.plus(SILENCE).plus(Duration.ofMinutes(5)).plusSeconds(1));
+        verify(healthAlertService, times(1)).register(eq(tenant), eq(application), any(HealthAlert.class));
+    }
+
+    @Test
+    public void shouldClearTheAlertOnTheNextEvent() {
+        HealthAlert open = HealthAlert.builder().guid("alert").build();
+        HealthAlert solved = HealthAlert.builder().guid("alert").solved(true).build();
+
+        subject.refresh(device, seenAt);
+        subject.advance(seenAt.plus(SILENCE).plusSeconds(1));
+
+        when(healthAlertService.findByTenantApplicationTriggerAndAlertId(tenant, application, trigger, "sensor"))
+                .thenReturn(ServiceResponseBuilder.<HealthAlert>ok().withResult(open).build());
+        when(healthAlertService.remove(tenant, application, "alert", Solution.MESSAGE_RECEIVED))
+                .thenReturn(ServiceResponseBuilder.<HealthAlert>ok().withResult(solved).build());
+
+        Instant back = seenAt.plus(SILENCE).plusSeconds(30);
+        subject.refresh(device, back);
+        subject.refresh(device, back.plusSeconds(1));
+
+        verify(healthAlertService, times(1)).remove(tenant, application, "alert", Solution.MESSAGE_RECEIVED);
+        assertThat(subject.getCleared(), equalTo(1L));
+        assertThat(subject.getArmed(), equalTo(1));
+    }
+
+    @Test
+    public void shouldNotWatchDevicesOutsideTheTriggerLocation() {
+        device.setLocation(Location.builder().guid("us").build());
+
+        subject.refresh(device, seenAt);
+
+        assertThat(subject.getArmed(), equalTo(0));
+    }
+
+    @Test
+    public void shouldNotFailTheEventWhenTheTriggersCannotBeRead() {
+        AlertTriggerRepository unavailable = mock(AlertTriggerRepository.class);
+        when(unavailable.listByTenantIdAndApplicationName("tenant", "smartffkonker"))
+                .thenThrow(new DataAccessResourceFailureException("mongo unavailable"));
+
+        subject.shutdown();
+        subject = new SilenceDetector(healthAlertService, unavailable, mock(LocationHierarchyCache.class),
+                jedisTaskService, new SilenceDetectorConfig());
+
+        subject.refresh(device, seenAt);
+
+        assertThat(subject.getArmed(), equalTo(0));
+    }
+
+}
@@ -1,8 +1,8 @@
 package com.konkerlabs.platform.registry.test.data.core.services.publishers;
 
 import com.amazonaws.services.kinesis.AbstractAmazonKinesis;
-import com.amazonaws.services.kinesis.model.PutRecordRequest;
-import com.amazonaws.services.kinesis.model.PutRecordResult;
+import com.amazonaws.services.kinesis.model.PutRecordsRequest;
+import com.amazonaws.services.kinesis.model.PutRecordsResult;
 import com.konkerlabs.platform.registry.business.model.*;
 import com.konkerlabs.platform.registry.business.model.behaviors.URIDealer;
 import com.konkerlabs.platform.registry.business.repositories.DeviceModelRepository;
@@ -12,6 +12,7 @@ import com.konkerlabs.platform.registry.config.PubServerConfig;
 import com.konkerlabs.platform.registry.data.core.services.api.DeviceLogEventService;
 import com.konkerlabs.platform.registry.data.core.services.publishers.EventPublisherAmazonKinesis;
 import com.konkerlabs.platform.registry.data.core.services.publishers.EventPublisherDevice;
+import com.konkerlabs.platform.registry.data.core.services.publishers.KinesisRecordAggregator;
 import com.konkerlabs.platform.registry.data.core.services.publishers.api.EventPublisher;
 import com.konkerlabs.platform.registry.test.data.core.base.BusinessLayerTestSupport;
 import com.konkerlabs.platform.registry.test.data.core.base.BusinessTestConfiguration;
@@ -199,13 +200,13 @@ public class EventPublisherAmazonKinesisTest extends BusinessLayerTestSupport {
         subject.send(event,destinationUri,data,tenant,application);
     }
 
-    public class AmazonKinesisClientBuilderMock implements EventPublisherAmazonKinesis.AmazonKinesisClientBuilder {
+    public class AmazonKinesisClientBuilderMock implements KinesisRecordAggregator.AmazonKinesisClientBuilder {
 
         public com.amazonaws.services.kinesis.AmazonKinesis build(AmazonKinesis kinesisProperties) {
             return new AbstractAmazonKinesis() {
-                public PutRecordResult putRecord(PutRecordRequest request) {
+                public PutRecordsResult putRecords(PutRecordsRequest request) {
                     // do nothing
-                    return new PutRecordResult();
+                    return new PutRecordsResult().withFailedRecordCount(0);
                 }
             };
         }
@@ -22,6 +22,8 @@ import com.konkerlabs.platform.registry.test.data.core.base.BusinessTestConfigur
 import com.konkerlabs.platform.registry.test.data.core.base.MongoTestConfiguration;
 import com.konkerlabs.platform.registry.test.data.core.base.RedisTestConfiguration;
 import com.lordofthejars.nosqlunit.annotation.UsingDataSet;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
@@ -34,6 +36,7 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -46,11 +49,14 @@ import org.thymeleaf.spring4.SpringTemplateEngine;
 import java.net.URI;
 import java.text.MessageFormat;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import static com.konkerlabs.platform.registry.data.core.services.publishers.EventPublisherDevice.DEVICE_MQTT_CHANNEL;
+import static info.solidsoft.mockito.java8.LambdaMatcher.argLambda;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.Matchers.eq;
@@ -297,6 +303,32 @@ public class EventPublisherDeviceTest extends BusinessLayerTestSupport{
         inOrder.verify(deviceLogEventService).logOutgoingEvent(eq(device), Mockito.any(Event.class));
     }
     
+    @Test
+    public void shouldSendManyEventsThroughOneChannel() throws Exception {
+        when(deviceLogEventService.logOutgoingEvents(Mockito.any(List.class), Mockito.any(List.class))).thenReturn(
+                ServiceResponseBuilder.<List<Event>>ok().build()
+        );
+
+        Channel channel = mock(Channel.class);
+        when(rabbitTemplate.execute(Mockito.any(ChannelCallback.class))).thenAnswer(
+                invocation -> ((ChannelCallback<?>) invocation.getArguments()[0]).doInRabbit(channel)
+        );
+
+        ((EventPublisherDevice)subject).sendMessages(event, data, Collections.singletonList(device));
+
+        InOrder inOrder = inOrder(channel, deviceLogEventService);
+
+        inOrder.verify(channel).basicPublish(eq(""), eq("data.sub"), eq(false),
+                argLambda((AMQP.BasicProperties properties) ->
+                        device.getApiKey().equals(properties.getHeaders().get(RabbitMQDataConfig.MSG_HEADER_APIKEY).toString())
+                        && OUTPUT_CHANNEL.equals(properties.getHeaders().get(RabbitMQDataConfig.MSG_HEADER_CHANNEL).toString())),
+                Mockito.any(byte[].class));
+        inOrder.verify(deviceLogEventService).logOutgoingEvents(
+                eq(Collections.singletonList(device)),
+                argLambda((List<Event> events) -> events.size() == 1
+                        && events.get(0).getOutgoing().getDeviceGuid().equals(device.getGuid())));
+    }
+
     static class EventPublisherDeviceTestConfig {
     	@Bean
     	public TenantDailyUsageRepository tenantDailyUsageRepository() {
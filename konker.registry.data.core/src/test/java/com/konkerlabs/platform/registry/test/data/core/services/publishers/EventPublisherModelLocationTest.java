@@ -4,18 +4,17 @@ import com.konkerlabs.platform.registry.billing.repositories.TenantDailyUsageRep
 import com.konkerlabs.platform.registry.business.model.*;
 import com.konkerlabs.platform.registry.business.model.behaviors.URIDealer;
 import com.konkerlabs.platform.registry.business.repositories.ApplicationRepository;
-import com.konkerlabs.platform.registry.business.repositories.DeviceModelRepository;
 import com.konkerlabs.platform.registry.business.repositories.TenantRepository;
-import com.konkerlabs.platform.registry.business.services.api.DeviceRegisterService;
-import com.konkerlabs.platform.registry.business.services.api.LocationSearchService;
-import com.konkerlabs.platform.registry.business.services.api.ServiceResponseBuilder;
+import com.konkerlabs.platform.registry.business.services.LocationHierarchy;
 import com.konkerlabs.platform.registry.config.EmailConfig;
 import com.konkerlabs.platform.registry.config.EventStorageConfig;
 import com.konkerlabs.platform.registry.config.PubServerConfig;
-import com.konkerlabs.platform.registry.data.core.services.api.DeviceLogEventService;
 import com.konkerlabs.platform.registry.data.core.services.publishers.EventPublisherDevice;
 import com.konkerlabs.platform.registry.data.core.services.publishers.EventPublisherModelLocation;
+import com.konkerlabs.platform.registry.data.core.services.publishers.ModelLocationIndex;
+import com.konkerlabs.platform.registry.data.core.services.publishers.ModelLocationIndexCache;
 import com.konkerlabs.platform.registry.data.core.services.publishers.api.EventPublisher;
+import com.konkerlabs.platform.registry.data.core.services.routes.LocationHierarchyCache;
 import com.konkerlabs.platform.registry.test.data.core.base.BusinessLayerTestSupport;
 import com.konkerlabs.platform.registry.test.data.core.base.BusinessTestConfiguration;
 import com.konkerlabs.platform.registry.test.data.core.base.MongoTestConfiguration;
@@ -42,11 +41,15 @@ import org.thymeleaf.spring4.SpringTemplateEngine;
 import java.net.URI;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static com.konkerlabs.platform.registry.data.core.services.publishers.EventPublisherModelLocation.DEVICE_MQTT_CHANNEL;
+import static info.solidsoft.mockito.java8.LambdaMatcher.argLambda;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -84,16 +87,10 @@ public class EventPublisherModelLocationTest extends BusinessLayerTestSupport {
     private EventPublisher subject;
 
     @Mock
-    private DeviceRegisterService deviceRegisterService;
+    private ModelLocationIndexCache modelLocationIndexCache;
 
     @Mock
-    private DeviceLogEventService deviceLogEventService;
-
-    @Mock
-    private DeviceModelRepository deviceModelRepository;
-
-    @Mock
-    private LocationSearchService locationSearchService;
+    private LocationHierarchyCache locationHierarchyCache;
 
     @Mock
     private EventPublisherDevice eventPublisherDevice;
@@ -125,10 +122,8 @@ public class EventPublisherModelLocationTest extends BusinessLayerTestSupport {
     public void setUp() {
         MockitoAnnotations.initMocks(this);
 
-        ((EventPublisherModelLocation)subject).setDeviceRegisterService(deviceRegisterService);
-        ((EventPublisherModelLocation)subject).setDeviceLogEventService(deviceLogEventService);
-        ((EventPublisherModelLocation)subject).setDeviceModelRepository(deviceModelRepository);
-        ((EventPublisherModelLocation)subject).setLocationSearchService(locationSearchService);
+        ((EventPublisherModelLocation)subject).setModelLocationIndexCache(modelLocationIndexCache);
+        ((EventPublisherModelLocation)subject).setLocationHierarchyCache(locationHierarchyCache);
         ((EventPublisherModelLocation)subject).setEventPublisherDevice(eventPublisherDevice);
 
         tenant = Tenant.builder()
@@ -178,9 +173,8 @@ public class EventPublisherModelLocationTest extends BusinessLayerTestSupport {
 
     @After
     public void tearDown() {
-        Mockito.reset(deviceLogEventService);
-        Mockito.reset(deviceModelRepository);
-        Mockito.reset(locationSearchService);
+        Mockito.reset(modelLocationIndexCache);
+        Mockito.reset(locationHierarchyCache);
         Mockito.reset(eventPublisherDevice);
         Mockito.reset(rabbitTemplate);
     }
@@ -240,48 +234,64 @@ public class EventPublisherModelLocationTest extends BusinessLayerTestSupport {
     @Test
     public void shouldSendMessages() throws Exception {
 
-        List<Location> children = new ArrayList<>();
-        children.add(locationSP);
-        locationBR.setChildren(children);
+        locationSP.setParent(locationBR);
+        Location locationJP = Location.builder().guid("jp").name("JP").build();
 
         List<Device> devices = new ArrayList<>();
 
-        devices.add(Device.builder().deviceModel(deviceModel).location(locationBR).active(true).build());
-        devices.add(Device.builder().deviceModel(deviceModel).location(locationBR).active(true).build());
+        devices.add(Device.builder().guid("br-1").deviceModel(deviceModel).location(locationBR).active(true).build());
+        devices.add(Device.builder().guid("br-2").deviceModel(deviceModel).location(locationBR).active(true).build());
+        // sublocation
+        devices.add(Device.builder().guid("sp-1").deviceModel(deviceModel).location(locationSP).active(true).build());
         // inactive device
-        devices.add(Device.builder().deviceModel(deviceModel).location(locationBR).active(false).build());
+        devices.add(Device.builder().guid("br-3").deviceModel(deviceModel).location(locationBR).active(false).build());
         // same device
         devices.add(Device.builder().deviceModel(deviceModel).location(locationBR).guid(event.getIncoming().getDeviceGuid()).active(true).build());
         // other location
-        devices.add(Device.builder().deviceModel(deviceModel).location(Location.builder().guid("jp").name("JP").build()).active(true).build());
+        devices.add(Device.builder().guid("jp-1").deviceModel(deviceModel).location(locationJP).active(true).build());
         // other model
-        devices.add(Device.builder().deviceModel(DeviceModel.builder().guid("dqfAnF7b").name("dqfAnF7b").build()).location(locationBR).active(true).build());
+        devices.add(Device.builder().guid("br-4").deviceModel(DeviceModel.builder().guid("dqfAnF7b").name("dqfAnF7b").build()).location(locationBR).active(true).build());
 
         when(
-                deviceModelRepository.findByTenantIdApplicationNameAndGuid(Mockito.anyString(), Mockito.anyString(), Mockito.anyString())
+                modelLocationIndexCache.get(Mockito.any(Tenant.class), Mockito.any(Application.class))
         ).thenReturn(
-                deviceModel
+                Optional.of(new ModelLocationIndex(devices))
         );
 
         when(
-                locationSearchService.findByGuid(Mockito.any(Tenant.class), Mockito.any(Application.class), Mockito.anyString())
+                locationHierarchyCache.get(Mockito.any(Tenant.class), Mockito.any(Application.class))
         ).thenReturn(
-                ServiceResponseBuilder.<Location>ok().withResult(locationBR).build()
+                new LocationHierarchy(Arrays.asList(locationBR, locationSP, locationJP))
         );
 
-        when(
-                locationSearchService.findByName(Mockito.any(Tenant.class), Mockito.any(Application.class), Mockito.anyString(), Mockito.anyBoolean())
-        ).thenReturn(
-                ServiceResponseBuilder.<Location>ok().withResult(locationBR).build()
-        );
+        destinationUri = modelLocationUri(deviceModel.getGuid(), locationBR.getGuid());
+
+        subject.send(event,destinationUri,data,tenant,application);
+
+        verify(eventPublisherDevice).sendMessages(Mockito.any(Event.class), Mockito.any(Map.class),
+                argLambda(outgoing -> outgoing.size() == 3
+                        && outgoing.stream().allMatch(device -> Arrays.asList("br-1", "br-2", "sp-1").contains(device.getGuid()))));
+    }
+
+    @Test
+    public void shouldNotLoadTheLocationsWithoutDevicesOfTheModel() throws Exception {
 
         when(
-                deviceRegisterService.findAll(Mockito.any(Tenant.class), Mockito.any(Application.class))
+                modelLocationIndexCache.get(Mockito.any(Tenant.class), Mockito.any(Application.class))
         ).thenReturn(
-                ServiceResponseBuilder.<List<Device>>ok().withResult(devices).build()
+                Optional.of(new ModelLocationIndex(new ArrayList<>()))
         );
 
-        destinationUri = new URIDealer() {
+        destinationUri = modelLocationUri(deviceModel.getGuid(), locationBR.getGuid());
+
+        subject.send(event,destinationUri,data,tenant,application);
+
+        verify(locationHierarchyCache, never()).get(Mockito.any(Tenant.class), Mockito.any(Application.class));
+        verify(eventPublisherDevice, never()).sendMessages(Mockito.any(Event.class), Mockito.any(Map.class), Mockito.any(List.class));
+    }
+
+    private URI modelLocationUri(String deviceModelGuid, String locationGuid) {
+        return new URIDealer() {
             @Override
             public String getUriScheme() {
                 return DeviceModelLocation.URI_SCHEME;
@@ -294,15 +304,11 @@ public class EventPublisherModelLocationTest extends BusinessLayerTestSupport {
 
             @Override
             public String getGuid() {
-                return deviceModel.getGuid() + '/' + locationBR.getGuid();
+                return deviceModelGuid + '/' + locationGuid;
             }
         }.toURI();
-
-        subject.send(event,destinationUri,data,tenant,application);
-
-        verify(eventPublisherDevice, Mockito.times(2)).sendMessage(Mockito.any(Event.class), Mockito.any(Map.class), Mockito.any(Device.class));
     }
-    
+
     static class EventPublisherModelLocationTestConfig {
     	@Bean
     	public TenantDailyUsageRepository tenantDailyUsageRepository() {
@@ -0,0 +1,132 @@
+package com.konkerlabs.platform.registry.test.data.core.services.publishers;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+
+import com.konkerlabs.platform.registry.business.model.Application;
+import com.konkerlabs.platform.registry.business.model.Event;
+import com.konkerlabs.platform.registry.business.model.RestDestination;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.services.api.RestDestinationService;
+import com.konkerlabs.platform.registry.business.services.api.ServiceResponseBuilder;
+import com.konkerlabs.platform.registry.data.core.config.IntegrationConfig;
+import com.konkerlabs.platform.registry.data.core.integration.exceptions.IntegrationException;
+import com.konkerlabs.platform.registry.data.core.integration.gateway.HttpGateway;
+import com.konkerlabs.platform.registry.data.core.services.publishers.EventPublisherRest;
+import com.konkerlabs.platform.registry.data.core.services.publishers.RestDestinationBatcher;
+import com.konkerlabs.platform.registry.data.core.services.publishers.RestDestinationCache;
+import com.konkerlabs.platform.utilities.expressions.ExpressionEvaluationService;
+import com.konkerlabs.platform.utilities.parsers.json.JsonParsingService;
+
+public class EventPublisherRestTest {
+
+    private static final String DESTINATION_GUID = "dd7b4db0-2a11-4b05-9c6a-b4ac7d3d0a1c";
+
+    private HttpGateway httpGateway;
+    private RestDestinationService restDestinationService;
+    private RestDestinationBatcher restDestinationBatcher;
+    private IntegrationConfig integrationConfig;
+
+    private Tenant tenant;
+    private Application application;
+    private Event event;
+    private URI destinationUri;
+    private RestDestination destination;
+
+    @Before
+    public void setUp() {
+        httpGateway = mock(HttpGateway.class);
+        restDestinationService = mock(RestDestinationService.class);
+        restDestinationBatcher = mock(RestDestinationBatcher.class);
+        integrationConfig = new IntegrationConfig();
+
+        tenant = Tenant.builder().domainName("konker").build();
+        application = Application.builder().name("konker").build();
+        event = Event.builder().payload("{\"temperature\": 21}").build();
+        destinationUri = URI.create("rest://konker/" + DESTINATION_GUID);
+
+        destination = RestDestination.builder()
+                .guid(DESTINATION_GUID)
+                .serviceURI("http://my.server/events")
+                .method("POST")
+                .type(RestDestination.RestDestinationType.FORWARD_MESSAGE)
+                .active(true)
+                .build();
+
+        when(restDestinationService.getByGUID(tenant, application, DESTINATION_GUID))
+                .thenReturn(ServiceResponseBuilder.<RestDestination>ok().withResult(destination).build());
+    }
+
+    @Test
+    public void shouldReleaseTheDestinationAfterEachRequest() throws Exception {
+        integrationConfig.setMaxConcurrentPerDestination(1);
+        EventPublisherRest subject = newSubject();
+
+        subject.send(event, destinationUri, Collections.emptyMap(), tenant, application);
+        subject.send(event, destinationUri, Collections.emptyMap(), tenant, application);
+
+        verify(httpGateway, times(2)).request(eq(HttpMethod.POST), any(), eq(URI.create("http://my.server/events")),
+                eq(MediaType.APPLICATION_JSON), any(), anyString(), anyString());
+    }
+
+    @Test
+    public void shouldFailFastWhenTheDestinationIsBusy() {
+        integrationConfig.setMaxConcurrentPerDestination(0);
+        EventPublisherRest subject = newSubject();
+
+        try {
+            subject.send(event, destinationUri, Collections.emptyMap(), tenant, application);
+            fail("should not send to a busy destination");
+        } catch (Exception e) {
+            assertThat(e.getCause(), instanceOf(IntegrationException.class));
+        }
+
+        verifyZeroInteractions(httpGateway);
+    }
+
+    @Test
+    public void shouldBufferEventsOfBatchedDestinations() throws Exception {
+        destination.setBatchSize(100);
+        destination.setBatchTimeoutMillis(1000);
+        EventPublisherRest subject = newSubject();
+
+        subject.send(event, destinationUri, Collections.emptyMap(), tenant, application);
+
+        verify(restDestinationBatcher).add(eq(tenant), eq(destination), eq(URI.create("http://my.server/events")),
+                any(), eq(event.getPayload()));
+        verifyZeroInteractions(httpGateway);
+    }
+
+    @Test
+    public void shouldLookUpTheDestinationOnce() throws Exception {
+        EventPublisherRest subject = newSubject();
+
+        subject.send(event, destinationUri, Collections.emptyMap(), tenant, application);
+        subject.send(event, destinationUri, Collections.emptyMap(), tenant, application);
+
+        verify(restDestinationService, times(1)).getByGUID(tenant, application, DESTINATION_GUID);
+    }
+
+    private EventPublisherRest newSubject() {
+        return new EventPublisherRest(httpGateway, new RestDestinationCache(restDestinationService), restDestinationBatcher,
+                mock(JsonParsingService.class), mock(ExpressionEvaluationService.class), integrationConfig);
+    }
+
+}
@@ -0,0 +1,368 @@
+package com.konkerlabs.platform.registry.test.data.core.services.publishers;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.amazonaws.services.kinesis.AbstractAmazonKinesis;
+import com.amazonaws.services.kinesis.model.PutRecordsRequest;
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+import com.amazonaws.services.kinesis.model.PutRecordsResult;
+import com.amazonaws.services.kinesis.model.PutRecordsResultEntry;
+import com.konkerlabs.platform.registry.business.model.AmazonKinesis;
+import com.konkerlabs.platform.registry.data.core.config.KinesisPublisherConfig;
+import com.konkerlabs.platform.registry.data.core.services.publishers.KinesisRecordAggregator;
+
+public class KinesisRecordAggregatorTest {
+
+    private static final String THROTTLED = "ProvisionedThroughputExceededException";
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private KinesisPublisherConfig config;
+    private KinesisRecordAggregator subject;
+
+    private InMemoryKinesis kinesis;
+    private AtomicInteger clientsBuilt;
+    private AmazonKinesis stream;
+
+    @Before
+    public void setUp() {
+        config = new KinesisPublisherConfig();
+        config.setMaxRecords(3);
+        config.setLingerMillis(60000);
+        config.setRetryBackoffMillis(1);
+
+        kinesis = new InMemoryKinesis();
+        clientsBuilt = new AtomicInteger();
+
+        stream = AmazonKinesis.builder()
+                .key("key-test")
+                .secret("secret-test")
+                .region("us-east-1")
+                .streamName("stream-test")
+                .build();
+
+        subject = aggregator();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        subject.flush();
+    }
+
+    @Test
+    public void shouldSendAFullBatchInOnePutRecordsCall() throws Exception {
+        subject.add(stream, record("1"));
+        subject.add(stream, record("2"));
+
+        assertThat(subject.getPendingRecords(), equalTo(2));
+
+        subject.add(stream, record("3"));
+        subject.add(stream, record("4"));
+        subject.flush();
+
+        assertThat(kinesis.requests.stream().map(this::payloads).collect(Collectors.toList()),
+                containsInAnyOrder(Arrays.asList("1", "2", "3"), Collections.singletonList("4")));
+        assertThat(kinesis.requests.get(0).getStreamName(), equalTo("stream-test"));
+        assertThat(subject.getRecordsSent(), equalTo(4L));
+        assertThat(subject.getFlushes(), equalTo(2L));
+    }
+
+    @Test
+    public void shouldSendAPartialBatchAfterTheLingerTime() throws Exception {
+        config.setLingerMillis(50);
+        subject = aggregator();
+        kinesis.latch = new CountDownLatch(1);
+
+        subject.add(stream, record("1"));
+
+        assertThat(kinesis.latch.await(5, TimeUnit.SECONDS), equalTo(true));
+        assertThat(payloads(kinesis.requests.get(0)), contains("1"));
+    }
+
+    @Test
+    public void shouldStartANewBatchBeforeItExceedsTheByteLimit() throws Exception {
+        config.setMaxBytes(6);
+        subject = aggregator();
+
+        subject.add(stream, record("aaa"));
+        subject.add(stream, record("bbb"));
+        subject.flush();
+
+        assertThat(kinesis.requests, hasSize(2));
+    }
+
+    @Test
+    public void shouldRetryOnlyTheRejectedRecords() throws Exception {
+        kinesis.failures.add(Arrays.asList(null, THROTTLED, null));
+
+        subject.add(stream, record("1"));
+        subject.add(stream, record("2"));
+        subject.add(stream, record("3"));
+        subject.flush();
+
+        assertThat(kinesis.requests, hasSize(2));
+        assertThat(payloads(kinesis.requests.get(1)), contains("2"));
+        assertThat(subject.getRecordsSent(), equalTo(3L));
+        assertThat(subject.getRecordsRetried(), equalTo(1L));
+        assertThat(subject.getRecordsThrottled(), equalTo(1L));
+        assertThat(subject.getRecordsDropped(), equalTo(0L));
+    }
+
+    @Test
+    public void shouldDropTheRecordsStillRejectedAfterTheLastRetry() throws Exception {
+        config.setMaxRetries(2);
+        subject = aggregator();
+        for (int i = 0; i < 3; i++)
+            kinesis.failures.add(Collections.singletonList(THROTTLED));
+
+        subject.add(stream, record("1"));
+        subject.flush();
+
+        assertThat(kinesis.requests, hasSize(3));
+        assertThat(subject.getRecordsSent(), equalTo(0L));
+        assertThat(subject.getRecordsThrottled(), equalTo(3L));
+        assertThat(subject.getRecordsDropped(), equalTo(1L));
+    }
+
+    @Test
+    public void shouldRetryAfterAnyFailedCall() throws Exception {
+        kinesis.errors.add(new IllegalStateException("connection pool shut down"));
+
+        subject.add(stream, record("1"));
+        subject.flush();
+
+        assertThat(kinesis.requests, hasSize(2));
+        assertThat(subject.getFailedCalls(), equalTo(1L));
+        assertThat(subject.getRecordsRetried(), equalTo(1L));
+        assertThat(subject.getRecordsSent(), equalTo(1L));
+        assertThat(subject.getRecordsDropped(), equalTo(0L));
+    }
+
+    @Test
+    public void shouldShutDownAnEvictedClientOnlyOnceItsSendCompletes() throws Exception {
+        config.setClientCacheSize(1);
+        config.setFlushThreads(2);
+
+        InMemoryKinesis busy = new InMemoryKinesis();
+        busy.entered = new CountDownLatch(1);
+        busy.resume = new CountDownLatch(1);
+
+        subject = new KinesisRecordAggregator(config);
+        subject.setClientBuilder(properties -> "stream-test".equals(properties.getStreamName()) ? busy : kinesis);
+
+        AmazonKinesis otherStream = otherStream();
+
+        for (int i = 0; i < 3; i++)
+            subject.add(stream, record(String.valueOf(i)));
+        assertThat(busy.entered.await(5, TimeUnit.SECONDS), equalTo(true));
+
+        kinesis.latch = new CountDownLatch(1);
+        for (int i = 0; i < 3; i++)
+            subject.add(otherStream, record(String.valueOf(i)));
+        assertThat(kinesis.latch.await(5, TimeUnit.SECONDS), equalTo(true));
+
+        assertThat(busy.shutdown, equalTo(false));
+
+        busy.resume.countDown();
+        subject.flush();
+
+        assertThat(busy.requests, hasSize(1));
+        assertThat(busy.shutdown, equalTo(true));
+        assertThat(subject.getRecordsSent(), equalTo(6L));
+    }
+
+    @Test
+    public void shouldKeepSendingOtherStreamsWhileOneWaitsToRetry() throws Exception {
+        config.setFlushThreads(1);
+        config.setRetryBackoffMillis(200);
+        subject = aggregator();
+        kinesis.failures.add(Arrays.asList(THROTTLED, THROTTLED, THROTTLED));
+        kinesis.latch = new CountDownLatch(1);
+
+        for (int i = 0; i < 3; i++)
+            subject.add(stream, record("a" + i));
+        assertThat(kinesis.latch.await(5, TimeUnit.SECONDS), equalTo(true));
+
+        for (int i = 0; i < 3; i++)
+            subject.add(otherStream(), record("b" + i));
+        subject.flush();
+
+        assertThat(kinesis.requests.stream().map(PutRecordsRequest::getStreamName).collect(Collectors.toList()),
+                contains("stream-test", "other-stream", "stream-test"));
+        assertThat(subject.getRecordsSent(), equalTo(6L));
+        assertThat(subject.getRecordsRetried(), equalTo(3L));
+    }
+
+    @Test
+    public void shouldSendOnTheCallerOnceTheQueueIsFull() throws Exception {
+        config.setFlushThreads(1);
+        config.setQueueSize(1);
+
+        InMemoryKinesis busy = new InMemoryKinesis();
+        busy.entered = new CountDownLatch(1);
+        busy.resume = new CountDownLatch(1);
+
+        subject = new KinesisRecordAggregator(config);
+        subject.setClientBuilder(properties -> "stream-test".equals(properties.getStreamName()) ? busy : kinesis);
+
+        for (int i = 0; i < 3; i++)
+            subject.add(stream, record("a" + i));
+        assertThat(busy.entered.await(5, TimeUnit.SECONDS), equalTo(true));
+
+        for (int i = 0; i < 6; i++)
+            subject.add(otherStream(), record("b" + i));
+
+        assertThat(kinesis.threads, contains(Thread.currentThread().getName()));
+
+        busy.resume.countDown();
+        subject.flush();
+
+        assertThat(kinesis.threads, hasSize(2));
+        assertThat(subject.getRecordsSent(), equalTo(9L));
+    }
+
+    @Test
+    public void shouldBuildOneClientPerStream() throws Exception {
+        AmazonKinesis otherStream = AmazonKinesis.builder()
+                .key("key-test")
+                .secret("secret-test")
+                .region("us-east-1")
+                .streamName("other-stream")
+                .build();
+
+        for (int i = 0; i < 6; i++) {
+            subject.add(stream, record(String.valueOf(i)));
+            subject.add(otherStream, record(String.valueOf(i)));
+        }
+        subject.flush();
+
+        assertThat(kinesis.requests, hasSize(4));
+        assertThat(clientsBuilt.get(), equalTo(2));
+    }
+
+    @Test
+    public void shouldRejectRecordsOverTheKinesisLimit() throws Exception {
+        thrown.expect(IllegalArgumentException.class);
+
+        subject.add(stream, new PutRecordsRequestEntry()
+                .withData(ByteBuffer.allocate(KinesisRecordAggregator.MAX_RECORD_BYTES))
+                .withPartitionKey("partition"));
+    }
+
+    @Test
+    public void shouldNotSendAnythingWithoutRecords() throws Exception {
+        subject.flush();
+
+        assertThat(kinesis.requests, empty());
+        assertThat(clientsBuilt.get(), equalTo(0));
+    }
+
+    private KinesisRecordAggregator aggregator() {
+        KinesisRecordAggregator aggregator = new KinesisRecordAggregator(config);
+        aggregator.setClientBuilder(properties -> {
+            clientsBuilt.incrementAndGet();
+            return kinesis;
+        });
+        return aggregator;
+    }
+
+    private AmazonKinesis otherStream() {
+        return AmazonKinesis.builder()
+                .key("key-test")
+                .secret("secret-test")
+                .region("us-east-1")
+                .streamName("other-stream")
+                .build();
+    }
+
+    private PutRecordsRequestEntry record(String payload) {
+        return new PutRecordsRequestEntry()
+                .withData(ByteBuffer.wrap(payload.getBytes(StandardCharsets.UTF_8)))
+                .withPartitionKey("p");
+    }
+
+    private List<String> payloads(PutRecordsRequest request) {
+        return request.getRecords().stream()
+                .map(entry -> StandardCharsets.UTF_8.decode(entry.getData().duplicate()).toString())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Stands in for a Kinesis stream: it keeps every PutRecords request and rejects
+     * records with the error codes queued in failures, one list per call, or fails the
+     * whole call with the exceptions queued in errors. A call can be held until resumed.
+     */
+    private static class InMemoryKinesis extends AbstractAmazonKinesis {
+
+        private final List<PutRecordsRequest> requests = Collections.synchronizedList(new ArrayList<>());
+        private final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        private final Queue<List<String>> failures = new LinkedList<>();
+        private final Queue<RuntimeException> errors = new LinkedList<>();
+        private volatile CountDownLatch latch = new CountDownLatch(0);
+        private volatile CountDownLatch entered = new CountDownLatch(0);
+        private volatile CountDownLatch resume = new CountDownLatch(0);
+        private volatile boolean shutdown;
+
+        @Override
+        public synchronized PutRecordsResult putRecords(PutRecordsRequest request) {
+            requests.add(request.clone().withRecords(new ArrayList<>(request.getRecords())));
+            threads.add(Thread.currentThread().getName());
+
+            entered.countDown();
+            try {
+                resume.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            RuntimeException error = errors.poll();
+            if (error != null)
+                throw error;
+
+            List<String> errorCodes = failures.poll();
+            List<PutRecordsResultEntry> records = new ArrayList<>();
+            int failed = 0;
+            for (int i = 0; i < request.getRecords().size(); i++) {
+                String errorCode = errorCodes == null ? null : errorCodes.get(i);
+                records.add(new PutRecordsResultEntry().withErrorCode(errorCode));
+                if (errorCode != null)
+                    failed++;
+            }
+
+            latch.countDown();
+            return new PutRecordsResult().withFailedRecordCount(failed).withRecords(records);
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+    }
+
+}
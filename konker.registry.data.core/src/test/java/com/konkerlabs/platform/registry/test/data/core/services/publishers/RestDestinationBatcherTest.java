@@ -0,0 +1,171 @@
+package com.konkerlabs.platform.registry.test.data.core.services.publishers;
+
+import static info.solidsoft.mockito.java8.LambdaMatcher.argLambda;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+
+import com.konkerlabs.platform.registry.business.model.RestDestination;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.data.core.config.IntegrationConfig;
+import com.konkerlabs.platform.registry.data.core.integration.gateway.HttpGateway;
+import com.konkerlabs.platform.registry.data.core.services.publishers.RestDestinationBatcher;
+
+public class RestDestinationBatcherTest {
+
+    private static final URI SERVICE_URI = URI.create("http://my.server/events");
+
+    private HttpGateway httpGateway;
+    private RestDestinationBatcher subject;
+
+    private Tenant tenant;
+    private RestDestination destination;
+
+    @Before
+    public void setUp() {
+        httpGateway = mock(HttpGateway.class);
+        subject = new RestDestinationBatcher(httpGateway);
+
+        tenant = Tenant.builder().domainName("konker").build();
+        destination = RestDestination.builder()
+                .guid("dd7b4db0-2a11-4b05-9c6a-b4ac7d3d0a1c")
+                .method("POST")
+                .batchSize(3)
+                .batchTimeoutMillis(60000)
+                .active(true)
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        subject.flush();
+    }
+
+    @Test
+    public void shouldSendAFullBatchAsAJsonArray() throws Exception {
+        subject.add(tenant, destination, SERVICE_URI, new HttpHeaders(), "{\"temperature\":21}");
+        subject.add(tenant, destination, SERVICE_URI, new HttpHeaders(), "{\"temperature\":22}");
+
+        verifyZeroInteractions(httpGateway);
+        assertThat(subject.pending(), equalTo(2));
+
+        subject.add(tenant, destination, SERVICE_URI, new HttpHeaders(), "not json");
+
+        verify(httpGateway, timeout(5000)).request(eq(HttpMethod.POST), any(), eq(SERVICE_URI), eq(MediaType.APPLICATION_JSON),
+                argLambda(body -> "[{\"temperature\":21},{\"temperature\":22},\"not json\"]".equals(body.get())),
+                any(), any());
+        assertThat(subject.pending(), equalTo(0));
+    }
+
+    @Test
+    public void shouldSendAFullBatchFromTheFlushThreads() throws Exception {
+        List<String> senders = new CopyOnWriteArrayList<>();
+        CountDownLatch sent = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            senders.add(Thread.currentThread().getName());
+            sent.countDown();
+            return null;
+        }).when(httpGateway).request(any(), any(), any(), any(), any(), any(), any());
+
+        subject.add(tenant, destination, SERVICE_URI, new HttpHeaders(), "{\"temperature\":21}");
+        subject.add(tenant, destination, SERVICE_URI, new HttpHeaders(), "{\"temperature\":22}");
+        subject.add(tenant, destination, SERVICE_URI, new HttpHeaders(), "{\"temperature\":23}");
+
+        assertThat(sent.await(5, TimeUnit.SECONDS), equalTo(true));
+        assertThat(senders, hasSize(1));
+        assertThat(senders.get(0), startsWith("rest-destination-batch-"));
+    }
+
+    @Test
+    public void shouldSendOnTheCallerOnceTheQueueIsFull() throws Exception {
+        IntegrationConfig config = new IntegrationConfig();
+        config.setBatchFlushThreads(1);
+        config.setBatchQueueSize(1);
+        subject.flush();
+        subject = new RestDestinationBatcher(httpGateway, config);
+        destination.setBatchSize(1);
+
+        List<String> senders = new CopyOnWriteArrayList<>();
+        AtomicInteger requests = new AtomicInteger();
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            senders.add(Thread.currentThread().getName());
+            if (requests.incrementAndGet() == 1) {
+                sending.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return null;
+        }).when(httpGateway).request(any(), any(), any(), any(), any(), any(), any());
+
+        subject.add(tenant, destination, SERVICE_URI, new HttpHeaders(), "{\"temperature\":21}");
+        assertThat(sending.await(5, TimeUnit.SECONDS), equalTo(true));
+
+        subject.add(tenant, destination, SERVICE_URI, new HttpHeaders(), "{\"temperature\":22}");
+        subject.add(tenant, destination, SERVICE_URI, new HttpHeaders(), "{\"temperature\":23}");
+
+        assertThat(senders, hasSize(2));
+        assertThat(senders.get(1), equalTo(Thread.currentThread().getName()));
+
+        release.countDown();
+        verify(httpGateway, timeout(5000).times(3)).request(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void shouldSendABatchStartedAfterShutdownRightAway() throws Exception {
+        subject.flush();
+
+        subject.add(tenant, destination, SERVICE_URI, new HttpHeaders(), "{\"temperature\":21}");
+
+        verify(httpGateway).request(eq(HttpMethod.POST), any(), eq(SERVICE_URI), eq(MediaType.APPLICATION_JSON),
+                argLambda(body -> "[{\"temperature\":21}]".equals(body.get())),
+                any(), any());
+        assertThat(subject.pending(), equalTo(0));
+    }
+
+    @Test
+    public void shouldSendAPartialBatchAfterItsTimeout() throws Exception {
+        destination.setBatchTimeoutMillis(50);
+
+        subject.add(tenant, destination, SERVICE_URI, new HttpHeaders(), "{\"temperature\":21}");
+
+        verify(httpGateway, timeout(5000)).request(eq(HttpMethod.POST), any(), eq(SERVICE_URI), eq(MediaType.APPLICATION_JSON),
+                argLambda(body -> "[{\"temperature\":21}]".equals(body.get())),
+                any(), any());
+    }
+
+    @Test
+    public void shouldKeepEventsForDifferentUrlsApart() throws Exception {
+        URI otherServiceURI = URI.create("http://my.server/events?device=other");
+
+        subject.add(tenant, destination, SERVICE_URI, new HttpHeaders(), "{\"temperature\":21}");
+        subject.add(tenant, destination, otherServiceURI, new HttpHeaders(), "{\"temperature\":22}");
+        subject.add(tenant, destination, SERVICE_URI, new HttpHeaders(), "{\"temperature\":23}");
+
+        verifyZeroInteractions(httpGateway);
+        assertThat(subject.pending(), equalTo(3));
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.konkerlabs.platform.registry.test.data.core.services.routes;
+
+import static com.konkerlabs.platform.registry.data.core.services.publishers.EventPublisherDevice.DEVICE_MQTT_CHANNEL;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.konkerlabs.platform.registry.business.model.Device;
+import com.konkerlabs.platform.registry.business.model.DeviceModel;
+import com.konkerlabs.platform.registry.business.model.EventRoute;
+import com.konkerlabs.platform.registry.business.model.EventRoute.RouteActor;
+import com.konkerlabs.platform.registry.business.model.Location;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.services.LocationHierarchy;
+import com.konkerlabs.platform.registry.data.core.services.routes.EventRouteTable;
+import com.konkerlabs.platform.registry.data.core.services.routes.api.EventRouteExecutor;
+
+public class EventRouteTableTest {
+
+    private Device device;
+
+    private EventRoute deviceRoute;
+    private EventRoute otherChannelRoute;
+    private EventRoute inactiveRoute;
+    private EventRoute modelLocationRoute;
+    private EventRoute applicationRoute;
+
+    private LocationHierarchy locations;
+    private EventRouteTable subject;
+
+    @Before
+    public void setUp() {
+        device = Device.builder()
+                .tenant(Tenant.builder().domainName("konker").build())
+                .guid("1af9be20-441e-419b-84a9-cb84efd4f49d")
+                .deviceModel(DeviceModel.builder().guid("model").build())
+                .location(Location.builder().guid("5th-ave").build())
+                .build();
+
+        deviceRoute = route("device-route", device.toURI(), "data", true);
+        otherChannelRoute = route("other-channel-route", device.toURI(), "command", true);
+        inactiveRoute = route("inactive-route", device.toURI(), "data", false);
+        modelLocationRoute = route("model-location-route", URI.create("modelLocation://konker/model/ny"), "data", true);
+        applicationRoute = route("application-route", URI.create("application://konker/konker"), null, true);
+
+        Location ny = Location.builder().guid("ny").build();
+        locations = new LocationHierarchy(Arrays.asList(
+                ny,
+                Location.builder().guid("5th-ave").parent(ny).build(),
+                Location.builder().guid("london").build()));
+
+        subject = new EventRouteTable(1L,
+                Arrays.asList(deviceRoute, otherChannelRoute, inactiveRoute, modelLocationRoute, applicationRoute));
+    }
+
+    @Test
+    public void shouldMatchActiveRoutesOfTheDeviceChannel() {
+        assertThat(subject.match(device, "data", () -> locations),
+                containsInAnyOrder(deviceRoute, modelLocationRoute, applicationRoute));
+    }
+
+    @Test
+    public void shouldMatchEveryChannelOfTheDeviceOnEcho() {
+        assertThat(subject.match(device, EventRouteExecutor.ECHO_CHANNEL, () -> locations),
+                containsInAnyOrder(deviceRoute, otherChannelRoute, modelLocationRoute, applicationRoute));
+    }
+
+    @Test
+    public void shouldNotMatchAnyRouteOnDebug() {
+        assertThat(subject.match(device, EventRouteExecutor.DEBUG_CHANNEL, () -> locations), empty());
+    }
+
+    @Test
+    public void shouldNotMatchModelLocationRoutesOutsideTheLocationTree() {
+        device.setLocation(Location.builder().guid("london").build());
+
+        assertThat(subject.match(device, "data", () -> locations), containsInAnyOrder(deviceRoute, applicationRoute));
+    }
+
+    @Test
+    public void shouldNotLoadTheLocationsWithoutModelLocationRoutesForTheModel() {
+        device.setDeviceModel(DeviceModel.builder().guid("other-model").build());
+
+        assertThat(subject.match(device, "data", () -> {
+            throw new IllegalStateException("should not load the locations");
+        }), containsInAnyOrder(deviceRoute, applicationRoute));
+    }
+
+    @Test
+    public void shouldFindInactiveRoutesByGuid() {
+        assertThat(subject.getByGuid("inactive-route").get(), equalTo(inactiveRoute));
+        assertThat(subject.getByGuid("unknown").isPresent(), equalTo(false));
+        assertThat(subject.size(), equalTo(5));
+    }
+
+    private EventRoute route(String guid, URI incoming, String channel, boolean active) {
+        Map<String, String> data = channel == null
+                ? Collections.emptyMap()
+                : new HashMap<String, String>() {{ put(DEVICE_MQTT_CHANNEL, channel); }};
+
+        return EventRoute.builder()
+                .guid(guid)
+                .incoming(RouteActor.builder().uri(incoming).data(data).build())
+                .active(active)
+                .build();
+    }
+
+}
@@ -14,7 +14,7 @@ import com.konkerlabs.platform.registry.business.services.api.DeviceConfigSetupS
 import com.konkerlabs.platform.registry.business.services.api.DeviceEventService;
 import com.konkerlabs.platform.registry.business.services.api.DeviceRegisterService;
 import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
-import com.konkerlabs.platform.registry.data.core.services.JedisTaskService;
+import com.konkerlabs.platform.registry.data.core.services.DeviceEventSubscriber;
 import com.konkerlabs.platform.registry.data.core.integration.gateway.HttpGateway;
 import com.konkerlabs.platform.registry.business.model.enumerations.FirmwareUpdateStatus;
 import com.konkerlabs.platform.registry.business.services.api.*;
@@ -23,6 +23,7 @@ import com.konkerlabs.platform.registry.integration.processors.DeviceEventProces
 import com.konkerlabs.platform.registry.integration.serializers.EventJsonView;
 import com.konkerlabs.platform.registry.integration.serializers.EventVO;
 import com.konkerlabs.platform.utilities.parsers.json.JsonParsingService;
+import com.konkerlabs.platform.utilities.parsers.json.ParsedJson;
 import lombok.Builder;
 import lombok.Data;
 import org.bson.types.Binary;
@@ -82,7 +83,7 @@ public class DeviceEventRestEndpoint {
     private final DeviceEventService deviceEventService;
     private final DeviceRegisterService deviceRegisterService;
     private final Executor executor;
-    private final JedisTaskService jedisTaskService;
+    private final DeviceEventSubscriber deviceEventSubscriber;
     private final DeviceConfigSetupService deviceConfigSetupService;
     private final DeviceFirmwareUpdateService deviceFirmwareUpdateService;
 
@@ -94,7 +95,7 @@ public class DeviceEventRestEndpoint {
                                    DeviceRegisterService deviceRegisterService,
                                    DeviceFirmwareUpdateService deviceFirmwareUpdateService,
                                    Executor executor,
-                                   JedisTaskService jedisTaskService,
+                                   DeviceEventSubscriber deviceEventSubscriber,
                                    DeviceConfigSetupService deviceConfigSetupService) {
         this.applicationContext = applicationContext;
         this.deviceEventProcessor = deviceEventProcessor;
@@ -103,7 +104,7 @@ public class DeviceEventRestEndpoint {
         this.deviceRegisterService = deviceRegisterService;
         this.deviceFirmwareUpdateService = deviceFirmwareUpdateService;
         this.executor = executor;
-        this.jedisTaskService = jedisTaskService;
+        this.deviceEventSubscriber = deviceEventSubscriber;
         this.deviceConfigSetupService = deviceConfigSetupService;
     }
 
@@ -154,19 +155,25 @@ public class DeviceEventRestEndpoint {
     	Instant startTimestamp = offset.isPresent() ? Instant.ofEpochMilli(offset.get()) : null;
     	boolean asc = offset.isPresent();
     	Integer limit = offset.isPresent() ? 50 : 1;
+    	boolean wait = waitTime.isPresent() && !waitTime.get().equals(new Long("0"));
+
+    	// waits before the first lookup, so an event sent in between is not missed
+    	String subChannel = Optional.ofNullable(channel).isPresent() ? apiKey+ '.' +channel : apiKey;
+    	CompletableFuture<String> notification = wait ? deviceEventSubscriber.await(subChannel) : null;
 
     	ServiceResponse<List<Event>> response = deviceEventService.findOutgoingBy(device.getTenant(), device.getApplication(), device.getGuid(),
     			channel, startTimestamp, null, asc, limit);
 
-    	if (!response.getResult().isEmpty() || !waitTime.isPresent() || (waitTime.isPresent() && waitTime.get().equals(new Long("0")))) {
+    	if (!response.getResult().isEmpty() || !wait) {
+    		Optional.ofNullable(notification).ifPresent(future -> future.cancel(false));
             deferredResult.setResult(EventVO.from(response.getResult()));
 
     	} else {
-    		CompletableFuture.supplyAsync(() -> {
-    			String subChannel = Optional.ofNullable(channel).isPresent() ? apiKey+ '.' +channel : apiKey;
-    			return jedisTaskService.subscribeToChannel(subChannel, startTimestamp, asc, limit);
-    		}, executor)
-    		.whenCompleteAsync((result, throwable) -> deferredResult.setResult(EventVO.from(result)), executor);
+    		deferredResult.onCompletion(() -> notification.cancel(false));
+    		notification.thenApplyAsync(deviceGuid ->
+    				deviceEventService.findOutgoingBy(device.getTenant(), device.getApplication(), device.getGuid(),
+    						channel, startTimestamp, null, asc, limit).getResult(), executor)
+    		.thenAccept(result -> deferredResult.setResult(EventVO.from(result)));
     	}
 
     	return deferredResult;
@@ -186,7 +193,8 @@ public class DeviceEventRestEndpoint {
                                                  @AuthenticationPrincipal Device principal,
                                                  @RequestBody String body,
                                                  Locale locale) {
-        if (!jsonParsingService.isValid(body))
+        ParsedJson payload = jsonParsingService.parse(body);
+        if (!payload.isValid())
             return new ResponseEntity<EventResponse>(buildResponse(Messages.INVALID_REQUEST_BODY.getCode(),locale), HttpStatus.BAD_REQUEST);
 
         if (!principal.getApiKey().equals(apiKey))
@@ -199,7 +207,7 @@ public class DeviceEventRestEndpoint {
             return new ResponseEntity<EventResponse>(buildResponse(Messages.INVALID_REQUEST_ORIGIN.getCode(), locale), HttpStatus.FORBIDDEN);
 
         try {
-            deviceEventProcessor.process(apiKey, String.format("mgmt/%s", channel),body);
+            deviceEventProcessor.process(apiKey, String.format("mgmt/%s", channel), payload);
         } catch (BusinessException e) {
             return new ResponseEntity<EventResponse>(buildResponse(e.getMessage(),locale),HttpStatus.BAD_REQUEST);
         }
@@ -222,7 +230,8 @@ public class DeviceEventRestEndpoint {
                                                  @AuthenticationPrincipal Device principal,
                                                  @RequestBody String body,
                                                  Locale locale) {
-        if (!jsonParsingService.isValid(body))
+        ParsedJson payload = jsonParsingService.parse(body);
+        if (!payload.isValid())
             return new ResponseEntity<EventResponse>(buildResponse(Messages.INVALID_REQUEST_BODY.getCode(),locale), HttpStatus.BAD_REQUEST);
 
         if (!principal.getApiKey().equals(apiKey))
@@ -237,7 +246,7 @@ public class DeviceEventRestEndpoint {
         }
 
         try {
-            deviceEventProcessor.process(apiKey,channel,body);
+            deviceEventProcessor.process(apiKey, channel, payload);
 
             if (principal.isDebug()) {
                 deviceEventProcessor.process(apiKey,
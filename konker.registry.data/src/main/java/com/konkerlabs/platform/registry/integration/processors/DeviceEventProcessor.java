@@ -1,17 +1,21 @@
 package com.konkerlabs.platform.registry.integration.processors;
 
+import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeType;
 import com.konkerlabs.platform.registry.business.exceptions.BusinessException;
 import com.konkerlabs.platform.registry.business.model.*;
 import com.konkerlabs.platform.registry.business.model.Event.EventActor;
-import com.konkerlabs.platform.registry.business.services.LocationTreeUtils;
+import com.konkerlabs.platform.registry.business.services.LocationHierarchy;
 import com.konkerlabs.platform.registry.business.services.api.DeviceRegisterService;
 import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
 import com.konkerlabs.platform.registry.data.core.services.api.DeviceLogEventService;
+import com.konkerlabs.platform.registry.data.core.services.routes.LocationHierarchyCache;
 import com.konkerlabs.platform.registry.data.core.services.routes.api.EventRouteExecutor;
 import com.konkerlabs.platform.registry.data.core.integration.converters.JsonConverter;
 import com.konkerlabs.platform.utilities.parsers.json.JsonParsingService;
+import com.konkerlabs.platform.utilities.parsers.json.ParsedJson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.BeanFactory;
@@ -23,10 +27,14 @@ import org.springframework.stereotype.Component;
 
 import java.text.MessageFormat;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Component
 @Scope(BeanDefinition.SCOPE_PROTOTYPE)
@@ -60,6 +68,7 @@ public class DeviceEventProcessor {
     private DeviceRegisterService deviceRegisterService;
     private DeviceLogEventService deviceLogEventService;
     private JsonParsingService jsonParsingService;
+    private LocationHierarchyCache locationHierarchyCache;
     private BeanFactory beans;
 
     @Autowired
@@ -67,11 +76,13 @@ public class DeviceEventProcessor {
                                 EventRouteExecutor eventRouteExecutor,
                                 DeviceRegisterService deviceRegisterService,
                                 JsonParsingService jsonParsingService,
+                                LocationHierarchyCache locationHierarchyCache,
                                 BeanFactory beans) {
         this.deviceLogEventService = deviceLogEventService;
         this.eventRouteExecutor = eventRouteExecutor;
         this.deviceRegisterService = deviceRegisterService;
         this.jsonParsingService = jsonParsingService;
+        this.locationHierarchyCache = locationHierarchyCache;
         this.beans = beans;
     }
 
@@ -79,6 +90,25 @@ public class DeviceEventProcessor {
         process(apiKey, channel,  payload, Instant.now());
     }
 
+    /**
+     * Processes an event data already parsed by the caller, so the payload is not read again
+     *
+     * @param apiKey
+     * @param channel
+     * @param payload
+     * @throws BusinessException
+     */
+    public void process(String apiKey, String channel, ParsedJson payload) throws BusinessException {
+        Optional.ofNullable(apiKey).filter(s -> !s.isEmpty())
+                .orElseThrow(() -> new BusinessException(Messages.APIKEY_MISSING.getCode()));
+
+        Device device = Optional.ofNullable(deviceRegisterService.findByApiKey(apiKey))
+                .orElseThrow(() -> new BusinessException(Messages.DEVICE_NOT_FOUND.getCode()));
+
+        Instant timestamp = Instant.now();
+        process(device, channel, payload, timestamp, timestamp);
+    }
+
     /**
      * Processes a data bytes content. The bytes will be converted to a JSON according to the device model.
      *
@@ -119,135 +149,211 @@ public class DeviceEventProcessor {
         process(device, channel, jsonPayload, timestamp, timestamp);
     }
     
-    private Boolean isValidAuthority(Gateway gateway, Device device) throws BusinessException {
-        return LocationTreeUtils.isSublocationOf(gateway.getLocation(), device.getLocation());
-    }
-    
-    @SuppressWarnings("unchecked")
-	public void process(Gateway gateway, String payloadList) throws BusinessException, JsonProcessingException {
-    	List<Map<String, Object>> payloadsGateway = jsonParsingService.toListMap(payloadList);
-    	
-    	for (Map<String, Object> payloadGateway : payloadsGateway) {
-    		ServiceResponse<Device> result = deviceRegisterService.findByDeviceId(
-    				gateway.getTenant(), 
-    				gateway.getApplication(),
-    				payloadGateway.get("deviceId").toString());
-
-    		if (result.isOk() && Optional.ofNullable(result.getResult()).isPresent()) {
-    			Device device = result.getResult();
-    			
-    			if (isValidAuthority(gateway, device)) {
-    				Map<String, Object> devicePayload = (Map<String, Object>) payloadGateway.get("payload");
-    				
-    				Instant ingestedTimestamp = Instant.now();
-					Instant creationTimestamp = payloadGateway.containsKey("ts") 
-    						&& integerPattern.matcher(payloadGateway.get("ts").toString()).matches() ? 
-    								Instant.ofEpochMilli(new Long(payloadGateway.get("ts").toString())) : 
-    								ingestedTimestamp;
-    				
-    				process(
-    						device,
-    						payloadGateway.get("channel").toString(),
-    						jsonParsingService.toJsonString(devicePayload),
-    						ingestedTimestamp,
-    						creationTimestamp);
-    			} else {
-    				LOGGER.warn(MessageFormat.format("The gateway does not have authority over the device: {0}",
-                            device.getName()),
-                    		gateway.toURI(),
-                    		gateway.getTenant().getLogLevel());
-                }
-    		} else {
+    /**
+     * Processes the events a gateway sent for its devices as one group: the devices are
+     * found in a single query, and the events are logged in one batch and routed together.
+     * Nothing is logged if any event is rejected.
+     *
+     * @param gateway
+     * @param payloadList array of objects with the device id, channel, payload and optional ts
+     * @throws BusinessException
+     * @throws JsonProcessingException
+     */
+    public void process(Gateway gateway, String payloadList) throws BusinessException, JsonProcessingException {
+        List<JsonNode> payloadsGateway = toPayloadList(payloadList);
+        Map<String, Device> devices = findDevices(gateway, payloadsGateway, "deviceId");
+        GatewayAuthority authority = new GatewayAuthority(gateway);
+
+        Instant ingestedTimestamp = Instant.now();
+        GatewayEvents events = new GatewayEvents();
+
+        for (JsonNode payloadGateway : payloadsGateway) {
+            Device device = devices.get(payloadGateway.path("deviceId").asText());
+
+            if (device == null) {
                 LOGGER.debug(MessageFormat.format(GATEWAY_EVENT_DROPPED,
                         gateway.toURI(),
-                        payloadList),
-                		gateway.toURI(),
-                		gateway.getTenant().getLogLevel());
+                        payloadGateway),
+                        gateway.toURI(),
+                        gateway.getTenant().getLogLevel());
+            } else if (!payloadGateway.hasNonNull("payload")) {
+                LOGGER.error(MessageFormat.format("Gateway event without payload: [Gateway: {0}] - [Device: {1}]",
+                        gateway.toURI(),
+                        device.getName()),
+                        gateway.toURI(),
+                        gateway.getTenant().getLogLevel());
+                throw new BusinessException(Messages.INVALID_PAYLOAD.getCode());
+            } else if (authority.isValidFor(device)) {
+                events.add(device,
+                        textOf(payloadGateway, "channel"),
+                        new ParsedJson(payloadGateway.get("payload")),
+                        ingestedTimestamp,
+                        creationTimestampOf(payloadGateway, ingestedTimestamp));
+            } else {
+                LOGGER.warn(MessageFormat.format("The gateway does not have authority over the device: {0}",
+                        device.getName()),
+                        gateway.toURI(),
+                        gateway.getTenant().getLogLevel());
             }
-    		
-		}
-    	
+        }
+
+        process(gateway, events);
     }
 
+    /**
+     * Same as {@link #process(Gateway, String)} for flat objects naming the device id and
+     * channel fields; each whole object is the payload. Unknown devices are registered.
+     *
+     * @param gateway
+     * @param payloadList
+     * @param deviceIdFieldName
+     * @param deviceChannelFieldName
+     * @throws BusinessException
+     * @throws JsonProcessingException
+     */
     public void process(Gateway gateway, String payloadList, String deviceIdFieldName, String deviceChannelFieldName) throws BusinessException, JsonProcessingException {
-        List<Map<String, Object>> payloadsGateway = jsonParsingService.toListMap(payloadList);
+        List<JsonNode> payloadsGateway = toPayloadList(payloadList);
+        Map<String, Device> devices = findDevices(gateway, payloadsGateway, deviceIdFieldName);
+        GatewayAuthority authority = new GatewayAuthority(gateway);
 
-        for (Map<String, Object> payloadDevice : payloadsGateway) {
-            ServiceResponse<Device> result = deviceRegisterService.findByDeviceId(
-                    gateway.getTenant(),
-                    gateway.getApplication(),
-                    payloadDevice.get(deviceIdFieldName).toString());
+        Instant ingestedTimestamp = Instant.now();
+        GatewayEvents events = new GatewayEvents();
 
-            if (!result.isOk()) {
-                result = deviceRegisterService.register(
+        for (JsonNode payloadDevice : payloadsGateway) {
+            String deviceId = payloadDevice.path(deviceIdFieldName).asText();
+            Device device = devices.get(deviceId);
+
+            if (device == null) {
+                ServiceResponse<Device> result = deviceRegisterService.register(
                         gateway.getTenant(),
                         gateway.getApplication(),
                         Device.builder()
-                                .deviceId(payloadDevice.get(deviceIdFieldName).toString())
-                                .name(payloadDevice.get(deviceIdFieldName).toString())
+                                .deviceId(deviceId)
+                                .name(deviceId)
                                 .active(true)
                                 .build());
-            }
 
-            if (result.isOk() && Optional.ofNullable(result.getResult()).isPresent()) {
-                Device device = result.getResult();
-
-                if (isValidAuthority(gateway, device)) {
-                    Instant ingestedTimestamp = Instant.now();
-                    Instant creationTimestamp = payloadDevice.containsKey("ts")
-                            && integerPattern.matcher(payloadDevice.get("ts").toString()).matches() ?
-                            Instant.ofEpochMilli(new Long(payloadDevice.get("ts").toString())) :
-                            ingestedTimestamp;
-
-                    process(
-                            device,
-                            payloadDevice.get(deviceChannelFieldName).toString(),
-                            jsonParsingService.toJsonString(payloadDevice),
-                            ingestedTimestamp,
-                            creationTimestamp);
-                } else {
-                    LOGGER.warn(MessageFormat.format("The gateway does not have authority over the device: {0}",
-                            device.getName()),
-                            gateway.toURI(),
-                            gateway.getTenant().getLogLevel());
+                if (result.isOk() && Optional.ofNullable(result.getResult()).isPresent()) {
+                    device = result.getResult();
+                    devices.put(deviceId, device);
                 }
-            } else {
+            }
+
+            if (device == null) {
                 LOGGER.debug(MessageFormat.format(GATEWAY_EVENT_DROPPED,
                         gateway.toURI(),
-                        payloadList),
+                        payloadDevice),
+                        gateway.toURI(),
+                        gateway.getTenant().getLogLevel());
+            } else if (authority.isValidFor(device)) {
+                events.add(device,
+                        textOf(payloadDevice, deviceChannelFieldName),
+                        new ParsedJson(payloadDevice),
+                        ingestedTimestamp,
+                        creationTimestampOf(payloadDevice, ingestedTimestamp));
+            } else {
+                LOGGER.warn(MessageFormat.format("The gateway does not have authority over the device: {0}",
+                        device.getName()),
                         gateway.toURI(),
                         gateway.getTenant().getLogLevel());
             }
+        }
+
+        process(gateway, events);
+    }
 
+    private void process(Gateway gateway, GatewayEvents events) throws BusinessException {
+        if (events.devices.isEmpty())
+            return;
+
+        ServiceResponse<List<Event>> logResponse = deviceLogEventService.logIncomingEvents(
+                events.devices, events.events, events.payloads);
+        if (!logResponse.isOk()) {
+            LOGGER.error(MessageFormat.format("Could not log incoming messages. Probably invalid payload.: [Gateway: {0}] - [Events: {1}]",
+                    gateway.toURI(),
+                    events.events.size()),
+                    gateway.toURI(),
+                    gateway.getTenant().getLogLevel()
+            );
+            throw new BusinessException(Messages.INVALID_PAYLOAD.getCode());
         }
 
+        eventRouteExecutor.execute(events.events, events.devices);
+
+        // check management keywords (mgmt channel)
+        for (int i = 0; i < events.devices.size(); i++) {
+            Event event = events.events.get(i);
+            try {
+                routeBatteryLevel(events.devices.get(i), event.getIngestedTimestamp(), event.getCreationTimestamp(),
+                        events.payloads.get(i).getFlatMap());
+            } catch (JsonProcessingException e) {
+                throw new BusinessException(Messages.INVALID_PAYLOAD.getCode());
+            }
+        }
     }
-    
+
+    private List<JsonNode> toPayloadList(String payloadList) throws JsonProcessingException {
+        JsonNode root = jsonParsingService.parse(payloadList).getTree();
+        if (!root.isArray())
+            throw new JsonParseException("JSON root is not an array", null);
+
+        List<JsonNode> payloads = new ArrayList<>(root.size());
+        root.forEach(payloads::add);
+        return payloads;
+    }
+
+    private Map<String, Device> findDevices(Gateway gateway, List<JsonNode> payloads, String deviceIdFieldName) {
+        Set<String> deviceIds = payloads.stream()
+                .map(payload -> payload.path(deviceIdFieldName).asText())
+                .collect(Collectors.toSet());
+
+        ServiceResponse<List<Device>> result = deviceRegisterService.findAllByDeviceIds(
+                gateway.getTenant(),
+                gateway.getApplication(),
+                deviceIds);
+
+        Map<String, Device> devices = new HashMap<>();
+        if (result.isOk() && Optional.ofNullable(result.getResult()).isPresent()) {
+            for (Device device : result.getResult()) {
+                devices.put(device.getDeviceId(), device);
+            }
+        }
+        return devices;
+    }
+
+    private String textOf(JsonNode payload, String fieldName) {
+        return Optional.ofNullable(payload.get(fieldName)).map(JsonNode::asText).orElse(null);
+    }
+
+    private Instant creationTimestampOf(JsonNode payload, Instant ingestedTimestamp) {
+        return payload.has("ts") && integerPattern.matcher(payload.get("ts").asText()).matches() ?
+                Instant.ofEpochMilli(new Long(payload.get("ts").asText())) :
+                ingestedTimestamp;
+    }
+
     public void process(Device device, String channel, String jsonPayload, Instant ingestedTimestamp, Instant creationTimestamp) throws BusinessException {
+        process(device, channel, jsonParsingService.parse(jsonPayload), ingestedTimestamp, creationTimestamp);
+    }
 
-        Optional.ofNullable(channel).filter(s -> !s.isEmpty())
-                .orElseThrow(() -> new BusinessException(Messages.CHANNEL_MISSING.getCode()));
+    /**
+     * Processes an event data, sharing the parsed payload with every step of the ingestion
+     *
+     * @param device
+     * @param channel
+     * @param payload
+     * @param ingestedTimestamp
+     * @param creationTimestamp
+     * @throws BusinessException
+     */
+    public void process(Device device, String channel, ParsedJson payload, Instant ingestedTimestamp, Instant creationTimestamp) throws BusinessException {
 
-        Event event = Event.builder()
-                .incoming(
-                        Event.EventActor.builder()
-                                .deviceGuid(device.getGuid())
-                                .channel(channel)
-                                .deviceId(device.getDeviceId())
-                                .tenantDomain(Optional.ofNullable(device.getTenant()).isPresent()
-                                        ? device.getTenant().getDomainName() : null)
-                                .applicationName(Optional.ofNullable(device.getApplication()).isPresent()
-                                        ? device.getApplication().getName(): null)
-                                .build()
-                )
-                .creationTimestamp(creationTimestamp)
-                .ingestedTimestamp(ingestedTimestamp)
-                .payload(jsonPayload)
-                .build();
+        String jsonPayload = payload.getSource();
+
+        Event event = toEvent(device, channel, jsonPayload, ingestedTimestamp, creationTimestamp);
 
         if (device.isActive()) {
 
-            ServiceResponse<Event> logResponse = deviceLogEventService.logIncomingEvent(device, event);
+            ServiceResponse<Event> logResponse = deviceLogEventService.logIncomingEvent(device, event, payload);
             if (logResponse.isOk()) {
                 eventRouteExecutor.execute(event, device);
             } else {
@@ -262,7 +368,7 @@ public class DeviceEventProcessor {
 
             // check management keywords (mgmt channel)
             try {
-                Map<String, JsonParsingService.JsonPathData> payloadsMap = jsonParsingService.toFlatMap(jsonPayload);
+                Map<String, JsonParsingService.JsonPathData> payloadsMap = payload.getFlatMap();
                 routeBatteryLevel(device, ingestedTimestamp, creationTimestamp, payloadsMap);
             } catch (JsonProcessingException e) {
                 throw new BusinessException(Messages.INVALID_PAYLOAD.getCode());
@@ -278,6 +384,28 @@ public class DeviceEventProcessor {
 
     }
 
+    private Event toEvent(Device device, String channel, String jsonPayload, Instant ingestedTimestamp, Instant creationTimestamp) throws BusinessException {
+        Optional.ofNullable(channel).filter(s -> !s.isEmpty())
+                .orElseThrow(() -> new BusinessException(Messages.CHANNEL_MISSING.getCode()));
+
+        return Event.builder()
+                .incoming(
+                        Event.EventActor.builder()
+                                .deviceGuid(device.getGuid())
+                                .channel(channel)
+                                .deviceId(device.getDeviceId())
+                                .tenantDomain(Optional.ofNullable(device.getTenant()).isPresent()
+                                        ? device.getTenant().getDomainName() : null)
+                                .applicationName(Optional.ofNullable(device.getApplication()).isPresent()
+                                        ? device.getApplication().getName(): null)
+                                .build()
+                )
+                .creationTimestamp(creationTimestamp)
+                .ingestedTimestamp(ingestedTimestamp)
+                .payload(jsonPayload)
+                .build();
+    }
+
     private void routeBatteryLevel(Device device, Instant ingestedTimestamp, Instant creationTimestamp, Map<String, JsonParsingService.JsonPathData> payloadsMap) throws BusinessException {
         String BATTERY = "_battery";
 
@@ -331,4 +459,66 @@ public class DeviceEventProcessor {
 		eventRouteExecutor.execute(event, device);
 	}
 
+    /**
+     * Events of a gateway payload list, each from the device and with the parsed payload
+     * at the same position. Events of inactive devices are dropped here.
+     */
+    private class GatewayEvents {
+
+        private final List<Device> devices = new ArrayList<>();
+        private final List<Event> events = new ArrayList<>();
+        private final List<ParsedJson> payloads = new ArrayList<>();
+
+        private void add(Device device, String channel, ParsedJson payload,
+                         Instant ingestedTimestamp, Instant creationTimestamp) throws BusinessException {
+            Event event = toEvent(device, channel, payload.getSource(), ingestedTimestamp, creationTimestamp);
+
+            if (device.isActive()) {
+                devices.add(device);
+                events.add(event);
+                payloads.add(payload);
+            } else {
+                LOGGER.debug(MessageFormat.format(EVENT_DROPPED,
+                        device.toURI(),
+                        event.getPayload()),
+                        event.getIncoming().toURI(),
+                        device.getLogLevel());
+            }
+        }
+
+    }
+
+    /**
+     * Whether devices lie at or under the location of a gateway, by guid. The location
+     * hierarchy of the application is read from its cache once, and only when a device
+     * is not at the gateway's own location.
+     */
+    private class GatewayAuthority {
+
+        private final Gateway gateway;
+        private LocationHierarchy hierarchy;
+
+        private GatewayAuthority(Gateway gateway) {
+            this.gateway = gateway;
+        }
+
+        private boolean isValidFor(Device device) {
+            if (gateway.getLocation() == null || device.getLocation() == null)
+                return false;
+
+            String gatewayLocation = gateway.getLocation().getGuid();
+            String deviceLocation = device.getLocation().getGuid();
+            if (gatewayLocation == null || deviceLocation == null)
+                return false;
+            if (gatewayLocation.equals(deviceLocation))
+                return true;
+
+            if (hierarchy == null)
+                hierarchy = locationHierarchyCache.get(gateway.getTenant(), gateway.getApplication());
+
+            return hierarchy.isSublocationOf(gatewayLocation, deviceLocation);
+        }
+
+    }
+
 }
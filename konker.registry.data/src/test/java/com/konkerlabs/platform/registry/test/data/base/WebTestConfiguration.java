@@ -23,6 +23,7 @@ import com.konkerlabs.platform.registry.business.repositories.TenantRepository;
 import com.konkerlabs.platform.registry.business.repositories.UserRepository;
 import com.konkerlabs.platform.registry.business.services.api.DeviceRegisterService;
 import com.konkerlabs.platform.registry.business.services.api.LoginAuditService;
+import com.konkerlabs.platform.registry.data.core.security.DeviceCredentialCache;
 import com.konkerlabs.platform.registry.data.core.security.DeviceUserDetailsService;
 
 @Configuration
@@ -61,6 +62,11 @@ public class WebTestConfiguration {
         return instance;
     }
 
+    @Bean
+    public DeviceCredentialCache deviceCredentialCache() {
+        return new DeviceCredentialCache();
+    }
+
     @Bean
     public DeviceRepository deviceRepository(){
     	return Mockito.mock(DeviceRepository.class);
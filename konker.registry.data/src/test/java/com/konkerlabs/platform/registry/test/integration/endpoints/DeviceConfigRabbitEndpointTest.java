@@ -25,6 +25,7 @@ import com.konkerlabs.platform.registry.business.services.api.DeviceConfigSetupS
 import com.konkerlabs.platform.registry.business.services.api.DeviceRegisterService;
 import com.konkerlabs.platform.registry.business.services.api.ServiceResponseBuilder;
 import com.konkerlabs.platform.registry.integration.endpoints.DeviceConfigRabbitEndpoint;
+import com.konkerlabs.platform.registry.data.core.integration.converters.RoutedEventCodec;
 import com.konkerlabs.platform.registry.data.core.integration.gateway.RabbitGateway;
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -134,6 +135,11 @@ public class DeviceConfigRabbitEndpointTest {
             return Mockito.mock(RabbitTemplate.class);
         }
 
+        @Bean
+        public RoutedEventCodec routedEventCodec() {
+            return new RoutedEventCodec();
+        }
+
         @Bean
         public RabbitGateway rabbitGateway() {
             return Mockito.spy(RabbitGateway.class);
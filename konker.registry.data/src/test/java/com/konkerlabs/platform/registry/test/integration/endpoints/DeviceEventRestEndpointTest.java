@@ -5,7 +5,7 @@ import com.konkerlabs.platform.registry.business.model.enumerations.FirmwareUpda
 import com.konkerlabs.platform.registry.business.services.api.*;
 import com.konkerlabs.platform.registry.business.services.api.DeviceConfigSetupService.Validations;
 import com.konkerlabs.platform.registry.data.config.WebMvcConfig;
-import com.konkerlabs.platform.registry.data.core.services.JedisTaskService;
+import com.konkerlabs.platform.registry.data.core.services.DeviceEventSubscriber;
 import com.konkerlabs.platform.registry.integration.endpoints.DeviceEventRestEndpoint;
 import com.konkerlabs.platform.registry.integration.processors.DeviceEventProcessor;
 import com.konkerlabs.platform.registry.test.data.base.BusinessDataTestConfiguration;
@@ -13,6 +13,7 @@ import com.konkerlabs.platform.registry.test.data.base.SecurityTestConfiguration
 import com.konkerlabs.platform.registry.test.data.base.WebLayerTestContext;
 import com.konkerlabs.platform.registry.test.data.base.WebTestConfiguration;
 import com.konkerlabs.platform.utilities.parsers.json.JsonParsingService;
+import com.konkerlabs.platform.utilities.parsers.json.ParsedJson;
 import org.bson.types.Binary;
 import org.junit.After;
 import org.junit.Before;
@@ -90,7 +91,7 @@ public class DeviceEventRestEndpointTest extends WebLayerTestContext {
     private Executor executor;
 
     @Autowired
-    private JedisTaskService jedisTaskService;
+    private DeviceEventSubscriber deviceEventSubscriber;
 
     private final String DEVICE_USER = "tug6g6essh4m";
     private final String VALID_CHANNEL = "data";
@@ -111,7 +112,7 @@ public class DeviceEventRestEndpointTest extends WebLayerTestContext {
                 deviceRegisterService,
                 deviceFirmwareUpdateService,
                 executor,
-                jedisTaskService,
+                deviceEventSubscriber,
                 deviceConfigSetupService);
     }
 
@@ -120,7 +121,7 @@ public class DeviceEventRestEndpointTest extends WebLayerTestContext {
 		Mockito.reset(jsonParsingService);
 		Mockito.reset(deviceEventService);
 		Mockito.reset(deviceRegisterService);
-		Mockito.reset(jedisTaskService);
+		Mockito.reset(deviceEventSubscriber);
 		Mockito.reset(deviceConfigSetupService);
 		Mockito.reset(deviceFirmwareUpdateService);
 	}
@@ -174,7 +175,7 @@ public class DeviceEventRestEndpointTest extends WebLayerTestContext {
         Authentication auth = new UsernamePasswordAuthenticationToken(device, null);
         context.setAuthentication(auth);
 
-        when(jsonParsingService.isValid(json)).thenReturn(true);
+        when(jsonParsingService.parse(json)).thenReturn(new ParsedJson(json));
 
 		getMockMvc().perform(
                 post("/pub/"+ device.getApiKey() + '/' + VALID_CHANNEL)
@@ -494,8 +495,8 @@ public class DeviceEventRestEndpointTest extends WebLayerTestContext {
         }
 
         @Bean
-        public JedisTaskService jedisTaskService() {
-            return Mockito.mock(JedisTaskService.class);
+        public DeviceEventSubscriber deviceEventSubscriber() {
+            return Mockito.mock(DeviceEventSubscriber.class);
         }
 
         @Bean
@@ -3,6 +3,7 @@ package com.konkerlabs.platform.registry.test.integration.processors;
 import com.fasterxml.jackson.databind.node.JsonNodeType;
 import com.konkerlabs.platform.registry.business.exceptions.BusinessException;
 import com.konkerlabs.platform.registry.business.model.*;
+import com.konkerlabs.platform.registry.business.services.LocationHierarchy;
 import com.konkerlabs.platform.registry.business.services.api.DeviceEventService;
 import com.konkerlabs.platform.registry.business.services.api.DeviceRegisterService;
 import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
@@ -12,18 +13,21 @@ import com.konkerlabs.platform.registry.data.core.config.RedisConfig;
 import com.konkerlabs.platform.registry.data.core.integration.converters.DefaultJsonConverter;
 import com.konkerlabs.platform.registry.data.core.integration.converters.MessagePackJsonConverter;
 import com.konkerlabs.platform.registry.data.core.services.api.DeviceLogEventService;
+import com.konkerlabs.platform.registry.data.core.services.routes.LocationHierarchyCache;
 import com.konkerlabs.platform.registry.data.core.services.routes.api.EventRouteExecutor;
 import com.konkerlabs.platform.registry.integration.processors.DeviceEventProcessor;
 import com.konkerlabs.platform.registry.test.data.base.BusinessDataTestConfiguration;
 import com.konkerlabs.platform.registry.test.data.base.IntegrationTestConfiguration;
 import com.konkerlabs.platform.registry.test.data.base.MongoDataTestConfiguration;
 import com.konkerlabs.platform.utilities.parsers.json.JsonParsingService;
+import com.konkerlabs.platform.utilities.parsers.json.ParsedJson;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,7 +39,13 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import java.time.Instant;
 import java.util.*;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -79,18 +89,27 @@ public class DeviceEventProcessorTest {
     @Autowired
     private JsonParsingService jsonParsingService;
     @Autowired
+    private LocationHierarchyCache locationHierarchyCache;
+    @Autowired
     private DefaultJsonConverter defaultJsonConverter;
     @Autowired
     private MessagePackJsonConverter messagePackJsonConverter;
 
     private Instant firstEventTimestamp;
     private Instant secondEventTimestamp;
-    private List<Map<String, Object>> devicesEvent;
-    private List<Map<String, Object>> devicesDataEvent;
     private Gateway gateway;
+    private Device currentSensor;
+    private Device tempSensor;
 
 	@Before
     public void setUp() {
+        doAnswer(invocation -> {
+            String json = (String) invocation.getArguments()[0];
+            ParsedJson parsed = spy(new ParsedJson(json));
+            doAnswer(flatMap -> jsonParsingService.toFlatMap(json)).when(parsed).getFlatMap();
+            return parsed;
+        }).when(jsonParsingService).parse(anyString());
+
         firstEventTimestamp = Instant.ofEpochMilli(1474562670340L);
         secondEventTimestamp = Instant.ofEpochMilli(1474562672395L);
 
@@ -206,67 +225,38 @@ public class DeviceEventProcessorTest {
                 "} "+
                 ']';
         
-        devicesEvent = new ArrayList<>();
-        Map<String, Object> map1 = new LinkedHashMap<>();
-        map1.put("deviceId", "CurrentSensor");
-        map1.put("channel", "in");
-        Map<String, Object> payloadMap1 = new LinkedHashMap<>();
-        payloadMap1.put("_lon", -46.6910183);
-        payloadMap1.put("_lat", -23.5746571);
-        payloadMap1.put("_hdop", 10);
-        payloadMap1.put("_elev", 3.66);
-        payloadMap1.put("volts", 12);
-        map1.put("payload", payloadMap1);
-        
-        Map<String, Object> map2 = new LinkedHashMap<>();
-        map2.put("deviceId", "TempSensor");
-        map2.put("channel", "temp");
-        Map<String, Object> payloadMap2 = new LinkedHashMap<>();
-        payloadMap2.put("_lon", -46.6910183);
-        payloadMap2.put("_lat", -23.5746571);
-        payloadMap2.put("_hdop", 10);
-        payloadMap2.put("_elev", 3.66);
-        payloadMap2.put("temperature", 27);
-        map2.put("payload", payloadMap2);
-		devicesEvent.add(map1);
-        devicesEvent.add(map2);
-
-        devicesDataEvent = new ArrayList<>();
-        Map<String, Object> map3 = new LinkedHashMap<>();
-        map3.put("imei", "CurrentSensor");
-        map3.put("canal", "in");
-        map3.put("_lon", -46.6910183);
-        map3.put("_lat", -23.5746571);
-        map3.put("_hdop", 10);
-        map3.put("_elev", 3.66);
-        map3.put("volts", 12);
-
-        Map<String, Object> map4 = new LinkedHashMap<>();
-        map4.put("imei", "TempSensor");
-        map4.put("canal", "temp");
-        map4.put("_lon", -46.6910183);
-        map4.put("_lat", -23.5746571);
-        map4.put("_hdop", 10);
-        map4.put("_elev", 3.66);
-        map4.put("temperature", 27);
-        devicesDataEvent.add(map3);
-        devicesDataEvent.add(map4);
-        
         gateway = Gateway.builder()
         		.active(true)
         		.application(Application.builder().name("default").build())
         		.description("GW smart")
         		.guid("7d51c242-81db-11e6-a8c2-0746f010e945")
         		.id("gateway1")
-        		.location(Location.builder().defaultLocation(true).id("BR").name("default").build())
+        		.location(Location.builder().defaultLocation(true).id("BR").guid("br").name("default").build())
         		.name("Gateway 1")
         		.tenant(Tenant.builder().id("commonTenant").domainName("common").build())
         		.build();
+
+        currentSensor = Device.builder()
+                .tenant(gateway.getTenant())
+                .application(gateway.getApplication())
+                .guid("current_sensor_guid")
+                .deviceId("CurrentSensor")
+                .name("CurrentSensor")
+                .active(true)
+                .build();
+        tempSensor = Device.builder()
+                .tenant(gateway.getTenant())
+                .application(gateway.getApplication())
+                .guid("temp_sensor_guid")
+                .deviceId("TempSensor")
+                .name("TempSensor")
+                .active(true)
+                .build();
     }
 
     @After
     public void tearDown() {
-        reset(deviceEventService, eventRouteExecutor, deviceRegisterService, deviceLogEventService);
+        reset(deviceEventService, eventRouteExecutor, deviceRegisterService, deviceLogEventService, locationHierarchyCache);
     }
 
     @Test
@@ -313,89 +303,131 @@ public class DeviceEventProcessorTest {
 
         when(deviceRegisterService.findByApiKey(sourceApiKey)).thenReturn(device);
 
-        when(deviceLogEventService.logIncomingEvent(eq(device), eq(event))).thenReturn(
+        when(deviceLogEventService.logIncomingEvent(eq(device), eq(event), any(ParsedJson.class))).thenReturn(
                 ServiceResponseBuilder.<Event>ok().withResult(event).build()
         );
 
         subject.process(sourceApiKey, incomingChannel, originalPayload, timestamp);
 
         verify(eventRouteExecutor, times(1)).execute(any(Event.class), any(Device.class));
-        verify(deviceLogEventService, times(1)).logIncomingEvent(any(Device.class), any(Event.class));
+        verify(deviceLogEventService, times(1)).logIncomingEvent(any(Device.class), any(Event.class), any(ParsedJson.class));
     }
 
     @Test
     public void shouldRaiseAnExceptionNoDeviceProcessGateway() throws Exception {
-
-        when(jsonParsingService.toListMap(listJson)).thenReturn(devicesEvent);
-        when(deviceRegisterService.findByDeviceId(gateway.getTenant(), gateway.getApplication(), "CurrentSensor"))
-                .thenReturn(ServiceResponseBuilder.<Device>error().build());
-        when(deviceRegisterService.findByDeviceId(gateway.getTenant(), gateway.getApplication(), "TempSensor"))
-                .thenReturn(ServiceResponseBuilder.<Device>error().build());
-        when(deviceLogEventService.logIncomingEvent(eq(device), any()))
-                .thenReturn(ServiceResponseBuilder.<Event>ok().withResult(event).build());
+        when(deviceRegisterService.findAllByDeviceIds(eq(gateway.getTenant()), eq(gateway.getApplication()), any()))
+                .thenReturn(ServiceResponseBuilder.<List<Device>>ok().withResult(Collections.emptyList()).build());
 
         subject.process(gateway, listJson);
 
-        verify(eventRouteExecutor, times(0)).execute(any(Event.class), any(Device.class));
-        verify(deviceLogEventService, times(0)).logIncomingEvent(any(Device.class), any(Event.class));
+        verify(eventRouteExecutor, times(0)).execute(anyListOf(Event.class), anyListOf(Device.class));
+        verify(deviceLogEventService, times(0)).logIncomingEvents(anyListOf(Device.class), anyListOf(Event.class), anyListOf(ParsedJson.class));
+        verify(deviceLogEventService, times(0)).logIncomingEvent(any(Device.class), any(Event.class), any(ParsedJson.class));
     }
 
     @Test
     public void shouldRaiseAnExceptionDiferentLocationProcessGateway() throws Exception {
-        when(jsonParsingService.toListMap(listJson)).thenReturn(devicesEvent);
-        when(deviceRegisterService.findByDeviceId(gateway.getTenant(), gateway.getApplication(), "CurrentSensor"))
-                .thenReturn(ServiceResponseBuilder.<Device>ok().withResult(device).build());
-        when(deviceRegisterService.findByDeviceId(gateway.getTenant(), gateway.getApplication(), "TempSensor"))
-                .thenReturn(ServiceResponseBuilder.<Device>ok().withResult(device).build());
-        when(deviceLogEventService.logIncomingEvent(eq(device), any()))
-                .thenReturn(ServiceResponseBuilder.<Event>ok().withResult(event).build());
+        when(deviceRegisterService.findAllByDeviceIds(eq(gateway.getTenant()), eq(gateway.getApplication()), any()))
+                .thenReturn(ServiceResponseBuilder.<List<Device>>ok().withResult(Arrays.asList(currentSensor, tempSensor)).build());
 
         subject.process(gateway, listJson);
 
-        verify(eventRouteExecutor, times(0)).execute(any(Event.class), any(Device.class));
-        verify(deviceLogEventService, times(0)).logIncomingEvent(any(Device.class), any(Event.class));
+        verify(eventRouteExecutor, times(0)).execute(anyListOf(Event.class), anyListOf(Device.class));
+        verify(deviceLogEventService, times(0)).logIncomingEvents(anyListOf(Device.class), anyListOf(Event.class), anyListOf(ParsedJson.class));
     }
 
     @SuppressWarnings("unchecked")
 	@Test
     public void shouldProcessGatewayEvent() throws Exception {
-    	device.setLocation(gateway.getLocation());
-    	
-    	when(jsonParsingService.toListMap(listJson)).thenReturn(devicesEvent);
-    	when(jsonParsingService.toJsonString((Map<String, Object>) devicesEvent.get(0).get("payload"))).thenReturn("{ "+
-    			" 	\"_lon\": -46.6910183, "+ 
-    			"	\"_lat\": -23.5746571,  "+
-    			"	\"_hdop\": 10,  "+
-    			"	\"_elev\": 3.66,  "+
-    			"	\"_ts\": \"1510847419000\", "+ 
-    			"	\"volts\": 12  "+
-    			"	}");
-    	when(jsonParsingService.toJsonString((Map<String, Object>) devicesEvent.get(1).get("payload"))).thenReturn(" { "+
-    			"	\"_lon\": -46.6910183, "+ 
-    			"	\"_lat\": -23.5746571,  "+
-    			"	\"_hdop\": 10,  "+
-    			"	\"_elev\": 3.66,  "+
-    			"	\"_ts\": \"1510847419000\", "+ 
-    			"	\"temperature\": 27  "+
-    			"	}");
-    	when(deviceRegisterService.findByDeviceId(gateway.getTenant(), gateway.getApplication(), "CurrentSensor"))
-    		.thenReturn(ServiceResponseBuilder.<Device>ok().withResult(device).build());
-    	when(deviceRegisterService.findByDeviceId(gateway.getTenant(), gateway.getApplication(), "TempSensor"))
-			.thenReturn(ServiceResponseBuilder.<Device>ok().withResult(device).build());
-    	when(deviceLogEventService.logIncomingEvent(eq(device), any()))
-    		.thenReturn(ServiceResponseBuilder.<Event>ok().withResult(event).build());
-    	
-    	subject.process(gateway, listJson);
-    	
-    	verify(eventRouteExecutor, times(2)).execute(any(Event.class), any(Device.class));
-        verify(deviceLogEventService, times(2)).logIncomingEvent(any(Device.class), any(Event.class));
+        currentSensor.setLocation(gateway.getLocation());
+        tempSensor.setLocation(gateway.getLocation());
+
+        when(deviceRegisterService.findAllByDeviceIds(eq(gateway.getTenant()), eq(gateway.getApplication()), any()))
+                .thenReturn(ServiceResponseBuilder.<List<Device>>ok().withResult(Arrays.asList(currentSensor, tempSensor)).build());
+        when(deviceLogEventService.logIncomingEvents(anyListOf(Device.class), anyListOf(Event.class), anyListOf(ParsedJson.class)))
+                .thenAnswer(invocation -> ServiceResponseBuilder.<List<Event>>ok()
+                        .withResult((List<Event>) invocation.getArguments()[1]).build());
+
+        subject.process(gateway, listJson);
+
+        ArgumentCaptor<List<Device>> devices = ArgumentCaptor.forClass((Class) List.class);
+        ArgumentCaptor<List<Event>> events = ArgumentCaptor.forClass((Class) List.class);
+        verify(deviceRegisterService, times(1)).findAllByDeviceIds(eq(gateway.getTenant()), eq(gateway.getApplication()), any());
+        verify(deviceRegisterService, never()).findByDeviceId(any(), any(), anyString());
+        verify(deviceLogEventService, times(1)).logIncomingEvents(devices.capture(), events.capture(), anyListOf(ParsedJson.class));
+        verify(eventRouteExecutor, times(1)).execute(anyListOf(Event.class), anyListOf(Device.class));
+        verify(eventRouteExecutor, never()).execute(any(Event.class), any(Device.class));
+
+        assertThat(devices.getValue(), contains(currentSensor, tempSensor));
+        List<Event> logged = events.getValue();
+        assertThat(logged.get(0).getIncoming().getChannel(), equalTo("in"));
+        assertThat(logged.get(1).getIncoming().getChannel(), equalTo("temp"));
+        assertThat(new ParsedJson(logged.get(1).getPayload()).getFlatMap().get("temperature").getValue(), equalTo(27L));
+    }
+
+    @Test
+    public void shouldProcessGatewayEventOfASublocation() throws Exception {
+        Location sublocation = Location.builder().guid("sp").name("sp").build();
+        currentSensor.setLocation(sublocation);
+        tempSensor.setLocation(Location.builder().guid("us").name("us").build());
+
+        LocationHierarchy hierarchy = mock(LocationHierarchy.class);
+        when(hierarchy.isSublocationOf(gateway.getLocation().getGuid(), "sp")).thenReturn(true);
+        when(locationHierarchyCache.get(gateway.getTenant(), gateway.getApplication())).thenReturn(hierarchy);
+        when(deviceRegisterService.findAllByDeviceIds(eq(gateway.getTenant()), eq(gateway.getApplication()), any()))
+                .thenReturn(ServiceResponseBuilder.<List<Device>>ok().withResult(Arrays.asList(currentSensor, tempSensor)).build());
+        when(deviceLogEventService.logIncomingEvents(anyListOf(Device.class), anyListOf(Event.class), anyListOf(ParsedJson.class)))
+                .thenReturn(ServiceResponseBuilder.<List<Event>>ok().withResult(Collections.emptyList()).build());
+
+        subject.process(gateway, listJson);
+
+        verify(deviceLogEventService, times(1)).logIncomingEvents(eq(Collections.singletonList(currentSensor)),
+                anyListOf(Event.class), anyListOf(ParsedJson.class));
+        verify(locationHierarchyCache, times(1)).get(gateway.getTenant(), gateway.getApplication());
+    }
+
+    @Test
+    public void shouldRaiseAnExceptionIfGatewayEventsCouldNotBeLogged() throws Exception {
+        thrown.expect(BusinessException.class);
+        thrown.expectMessage(DeviceEventProcessor.Messages.INVALID_PAYLOAD.getCode());
+
+        currentSensor.setLocation(gateway.getLocation());
+        tempSensor.setLocation(gateway.getLocation());
+
+        when(deviceRegisterService.findAllByDeviceIds(eq(gateway.getTenant()), eq(gateway.getApplication()), any()))
+                .thenReturn(ServiceResponseBuilder.<List<Device>>ok().withResult(Arrays.asList(currentSensor, tempSensor)).build());
+        when(deviceLogEventService.logIncomingEvents(anyListOf(Device.class), anyListOf(Event.class), anyListOf(ParsedJson.class)))
+                .thenReturn(ServiceResponseBuilder.<List<Event>>error().build());
+
+        try {
+            subject.process(gateway, listJson);
+        } finally {
+            verify(eventRouteExecutor, never()).execute(anyListOf(Event.class), anyListOf(Device.class));
+        }
+    }
+
+    @Test
+    public void shouldRejectGatewayEventsWithAnElementWithoutPayload() throws Exception {
+        thrown.expect(BusinessException.class);
+        thrown.expectMessage(DeviceEventProcessor.Messages.INVALID_PAYLOAD.getCode());
+
+        currentSensor.setLocation(gateway.getLocation());
+
+        when(deviceRegisterService.findAllByDeviceIds(eq(gateway.getTenant()), eq(gateway.getApplication()), any()))
+                .thenReturn(ServiceResponseBuilder.<List<Device>>ok().withResult(Collections.singletonList(currentSensor)).build());
+
+        try {
+            subject.process(gateway, "[{ \"deviceId\": \"CurrentSensor\", \"channel\": \"in\" }]");
+        } finally {
+            verify(deviceLogEventService, never()).logIncomingEvents(anyListOf(Device.class), anyListOf(Event.class), anyListOf(ParsedJson.class));
+            verify(eventRouteExecutor, never()).execute(anyListOf(Event.class), anyListOf(Device.class));
+        }
     }
 
     @Test
     public void shouldRaiseAnExceptionNoDeviceProcessGatewayData() throws Exception {
-        when(jsonParsingService.toListMap(listDataJson)).thenReturn(devicesDataEvent);
-        when(deviceRegisterService.findByDeviceId(gateway.getTenant(), gateway.getApplication(), "CurrentSensor"))
-                .thenReturn(ServiceResponseBuilder.<Device>error().build());
+        when(deviceRegisterService.findAllByDeviceIds(eq(gateway.getTenant()), eq(gateway.getApplication()), any()))
+                .thenReturn(ServiceResponseBuilder.<List<Device>>ok().withResult(Collections.emptyList()).build());
         when(deviceRegisterService
                 .register(
                         gateway.getTenant(),
@@ -406,8 +438,6 @@ public class DeviceEventProcessorTest {
                                 .active(true)
                                 .build()))
                 .thenReturn(ServiceResponseBuilder.<Device>error().build());
-        when(deviceRegisterService.findByDeviceId(gateway.getTenant(), gateway.getApplication(), "TempSensor"))
-                .thenReturn(ServiceResponseBuilder.<Device>error().build());
         when(deviceRegisterService
                 .register(
                         gateway.getTenant(),
@@ -418,22 +448,17 @@ public class DeviceEventProcessorTest {
                                 .active(true)
                                 .build()))
                 .thenReturn(ServiceResponseBuilder.<Device>error().build());
-        when(deviceLogEventService.logIncomingEvent(eq(device), any()))
-                .thenReturn(ServiceResponseBuilder.<Event>ok().withResult(event).build());
 
         subject.process(gateway, listDataJson, "imei", "canal");
 
-        verify(eventRouteExecutor, times(0)).execute(any(Event.class), any(Device.class));
-        verify(deviceLogEventService, times(0)).logIncomingEvent(any(Device.class), any(Event.class));
+        verify(eventRouteExecutor, times(0)).execute(anyListOf(Event.class), anyListOf(Device.class));
+        verify(deviceLogEventService, times(0)).logIncomingEvents(anyListOf(Device.class), anyListOf(Event.class), anyListOf(ParsedJson.class));
     }
 
     @Test
     public void shouldRaiseAnExceptionDiferentLocationProcessGatewayData() throws Exception {
-        when(jsonParsingService.toListMap(listDataJson)).thenReturn(devicesDataEvent);
-        when(deviceRegisterService.findByDeviceId(gateway.getTenant(), gateway.getApplication(), "CurrentSensor"))
-                .thenReturn(ServiceResponseBuilder.<Device>error().build());
-        when(deviceRegisterService.findByDeviceId(gateway.getTenant(), gateway.getApplication(), "TempSensor"))
-                .thenReturn(ServiceResponseBuilder.<Device>error().build());
+        when(deviceRegisterService.findAllByDeviceIds(eq(gateway.getTenant()), eq(gateway.getApplication()), any()))
+                .thenReturn(ServiceResponseBuilder.<List<Device>>ok().withResult(Collections.emptyList()).build());
         when(deviceRegisterService
                 .register(
                         gateway.getTenant(),
@@ -443,7 +468,7 @@ public class DeviceEventProcessorTest {
                                 .name("CurrentSensor")
                                 .active(true)
                                 .build()))
-                .thenReturn(ServiceResponseBuilder.<Device>error().build());
+                .thenReturn(ServiceResponseBuilder.<Device>ok().withResult(currentSensor).build());
         when(deviceRegisterService
                 .register(
                         gateway.getTenant(),
@@ -453,51 +478,55 @@ public class DeviceEventProcessorTest {
                                 .name("TempSensor")
                                 .active(true)
                                 .build()))
-                .thenReturn(ServiceResponseBuilder.<Device>error().build());
-        when(deviceLogEventService.logIncomingEvent(eq(device), any()))
-                .thenReturn(ServiceResponseBuilder.<Event>ok().withResult(event).build());
+                .thenReturn(ServiceResponseBuilder.<Device>ok().withResult(tempSensor).build());
 
         subject.process(gateway, listDataJson, "imei", "canal");
 
-        verify(eventRouteExecutor, times(0)).execute(any(Event.class), any(Device.class));
-        verify(deviceLogEventService, times(0)).logIncomingEvent(any(Device.class), any(Event.class));
+        verify(eventRouteExecutor, times(0)).execute(anyListOf(Event.class), anyListOf(Device.class));
+        verify(deviceLogEventService, times(0)).logIncomingEvents(anyListOf(Device.class), anyListOf(Event.class), anyListOf(ParsedJson.class));
     }
 
     @SuppressWarnings("unchecked")
     @Test
     public void shouldProcessGatewayEventData() throws Exception {
-        device.setLocation(gateway.getLocation());
-
-        when(jsonParsingService.toListMap(listDataJson)).thenReturn(devicesDataEvent);
-        when(jsonParsingService.toJsonString((Map<String, Object>) devicesEvent.get(0).get("payload"))).thenReturn("{ "+
-                " 	\"_lon\": -46.6910183, "+
-                "	\"_lat\": -23.5746571,  "+
-                "	\"_hdop\": 10,  "+
-                "	\"_elev\": 3.66,  "+
-                "	\"_ts\": \"1510847419000\", "+
-                "	\"volts\": 12  "+
-                "	}");
-        when(jsonParsingService.toJsonString((Map<String, Object>) devicesEvent.get(1).get("payload"))).thenReturn(" { "+
-                "	\"_lon\": -46.6910183, "+
-                "	\"_lat\": -23.5746571,  "+
-                "	\"_hdop\": 10,  "+
-                "	\"_elev\": 3.66,  "+
-                "	\"_ts\": \"1510847419000\", "+
-                "	\"temperature\": 27  "+
-                "	}");
-        when(deviceRegisterService.findByDeviceId(gateway.getTenant(), gateway.getApplication(), "CurrentSensor"))
-                .thenReturn(ServiceResponseBuilder.<Device>ok().withResult(device).build());
-        when(deviceRegisterService.findByDeviceId(gateway.getTenant(), gateway.getApplication(), "TempSensor"))
-                .thenReturn(ServiceResponseBuilder.<Device>ok().withResult(device).build());
-        when(deviceLogEventService.logIncomingEvent(eq(device), any()))
-                .thenReturn(ServiceResponseBuilder.<Event>ok().withResult(event).build());
+        currentSensor.setLocation(gateway.getLocation());
+        tempSensor.setLocation(gateway.getLocation());
+
+        when(deviceRegisterService.findAllByDeviceIds(eq(gateway.getTenant()), eq(gateway.getApplication()), any()))
+                .thenReturn(ServiceResponseBuilder.<List<Device>>ok().withResult(Arrays.asList(currentSensor, tempSensor)).build());
+        when(deviceLogEventService.logIncomingEvents(anyListOf(Device.class), anyListOf(Event.class), anyListOf(ParsedJson.class)))
+                .thenAnswer(invocation -> ServiceResponseBuilder.<List<Event>>ok()
+                        .withResult((List<Event>) invocation.getArguments()[1]).build());
 
         subject.process(gateway, listDataJson, "imei", "canal");
 
-        verify(eventRouteExecutor, times(2)).execute(any(Event.class), any(Device.class));
-        verify(deviceLogEventService, times(2)).logIncomingEvent(any(Device.class), any(Event.class));
+        ArgumentCaptor<List<Event>> events = ArgumentCaptor.forClass((Class) List.class);
+        verify(deviceRegisterService, never()).register(any(), any(), any());
+        verify(deviceLogEventService, times(1)).logIncomingEvents(anyListOf(Device.class), events.capture(), anyListOf(ParsedJson.class));
+        verify(eventRouteExecutor, times(1)).execute(anyListOf(Event.class), anyListOf(Device.class));
+
+        List<Event> logged = events.getValue();
+        assertThat(logged, hasSize(2));
+        assertThat(logged.get(0).getIncoming().getChannel(), equalTo("in"));
+        assertThat(new ParsedJson(logged.get(0).getPayload()).getFlatMap().get("imei").getValue(), equalTo("CurrentSensor"));
     }
-    
+
+    @Test
+    public void shouldRegisterUnknownGatewayDevicesOnce() throws Exception {
+        gateway.setLocation(null);
+
+        when(deviceRegisterService.findAllByDeviceIds(eq(gateway.getTenant()), eq(gateway.getApplication()), any()))
+                .thenReturn(ServiceResponseBuilder.<List<Device>>ok().withResult(Collections.emptyList()).build());
+        when(deviceRegisterService.register(eq(gateway.getTenant()), eq(gateway.getApplication()), any(Device.class)))
+                .thenReturn(ServiceResponseBuilder.<Device>ok().withResult(currentSensor).build());
+
+        String repeated = "[ { \"imei\": \"CurrentSensor\", \"canal\": \"in\", \"volts\": 12 }, " +
+                "{ \"imei\": \"CurrentSensor\", \"canal\": \"in\", \"volts\": 13 } ]";
+        subject.process(gateway, repeated, "imei", "canal");
+
+        verify(deviceRegisterService, times(1)).register(eq(gateway.getTenant()), eq(gateway.getApplication()), any(Device.class));
+    }
+
     @Test
     public void shouldRaiseAnExceptionNoChannelProcessDevice() throws Exception {
         thrown.expect(BusinessException.class);
@@ -511,14 +540,14 @@ public class DeviceEventProcessorTest {
     
     @Test
     public void shouldProcessDevice() throws Exception {
-    	when(deviceLogEventService.logIncomingEvent(eq(device), any()))
+    	when(deviceLogEventService.logIncomingEvent(eq(device), any(), any()))
     		.thenReturn(ServiceResponseBuilder.<Event>ok().withResult(event).build());
     	
     	Instant ingestedTimestamp = Instant.now();
     	subject.process(device, incomingChannel, originalPayload, ingestedTimestamp, ingestedTimestamp);
     	
     	verify(eventRouteExecutor, times(1)).execute(any(Event.class), any(Device.class));
-        verify(deviceLogEventService, times(1)).logIncomingEvent(any(Device.class), any(Event.class));
+        verify(deviceLogEventService, times(1)).logIncomingEvent(any(Device.class), any(Event.class), any(ParsedJson.class));
     }
 
     @Test
@@ -534,13 +563,13 @@ public class DeviceEventProcessorTest {
 
         when(deviceRegisterService.findByApiKey(sourceApiKey)).thenReturn(device);
         when(messagePackJsonConverter.toJson(messagePackBytes)).thenReturn(ServiceResponseBuilder.<String>ok().build());
-        when(deviceLogEventService.logIncomingEvent(eq(device), any()))
+        when(deviceLogEventService.logIncomingEvent(eq(device), any(), any()))
                 .thenReturn(ServiceResponseBuilder.<Event>ok().withResult(event).build());
 
         subject.process(sourceApiKey, incomingChannel, messagePackBytes, Instant.now());
 
         verify(messagePackJsonConverter, times(1)).toJson(messagePackBytes);
-        verify(deviceLogEventService, times(1)).logIncomingEvent(any(Device.class), any(Event.class));
+        verify(deviceLogEventService, times(1)).logIncomingEvent(any(Device.class), any(Event.class), any(ParsedJson.class));
 
 	}
 
@@ -558,19 +587,19 @@ public class DeviceEventProcessorTest {
 
         when(deviceRegisterService.findByApiKey(sourceApiKey)).thenReturn(device);
         when(defaultJsonConverter.toJson(messagePackBytes)).thenReturn(ServiceResponseBuilder.<String>ok().build());
-        when(deviceLogEventService.logIncomingEvent(eq(device), any()))
+        when(deviceLogEventService.logIncomingEvent(eq(device), any(), any()))
                 .thenReturn(ServiceResponseBuilder.<Event>ok().withResult(event).build());
 
         subject.process(sourceApiKey, incomingChannel, messagePackBytes, Instant.now());
 
         verify(defaultJsonConverter, times(1)).toJson(messagePackBytes);
-        verify(deviceLogEventService, times(1)).logIncomingEvent(any(Device.class), any(Event.class));
+        verify(deviceLogEventService, times(1)).logIncomingEvent(any(Device.class), any(Event.class), any(ParsedJson.class));
 
     }
 
     @Test
     public void shouldRouteBatteryToMgmtChannel() throws Exception {
-        when(deviceLogEventService.logIncomingEvent(eq(device), any()))
+        when(deviceLogEventService.logIncomingEvent(eq(device), any(), any()))
                 .thenReturn(ServiceResponseBuilder.<Event>ok().withResult(event).build());
 
         String payloadWithBattery = "{\"_battery\":50.0}";
@@ -590,12 +619,40 @@ public class DeviceEventProcessorTest {
         subject.process(device, incomingChannel, payloadWithBattery, ingestedTimestamp, ingestedTimestamp);
 
         verify(eventRouteExecutor, times(2)).execute(any(Event.class), any(Device.class));
-        verify(deviceLogEventService, times(2)).logIncomingEvent(any(Device.class), any(Event.class));
+        verify(deviceLogEventService, times(2)).logIncomingEvent(any(Device.class), any(Event.class), any(ParsedJson.class));
+    }
+
+    @Test
+    public void shouldShareTheParsedPayloadWithTheEventLog() throws Exception {
+        ParsedJson payload = new ParsedJson("{\"command\": \"LEDSwitch\"}");
+
+        when(deviceLogEventService.logIncomingEvent(eq(device), any(), eq(payload)))
+                .thenReturn(ServiceResponseBuilder.<Event>ok().withResult(event).build());
+
+        Instant ingestedTimestamp = Instant.now();
+        subject.process(device, incomingChannel, payload, ingestedTimestamp, ingestedTimestamp);
+
+        verify(eventRouteExecutor, times(1)).execute(any(Event.class), any(Device.class));
+        verify(deviceLogEventService, times(1)).logIncomingEvent(any(Device.class), any(Event.class), eq(payload));
+    }
+
+    @Test
+    public void shouldRouteBatteryOfAParsedPayloadToMgmtChannel() throws Exception {
+        when(deviceLogEventService.logIncomingEvent(eq(device), any(), any()))
+                .thenReturn(ServiceResponseBuilder.<Event>ok().withResult(event).build());
+
+        Instant ingestedTimestamp = Instant.now();
+        subject.process(device, incomingChannel, new ParsedJson("{\"_battery\":50.0}"), ingestedTimestamp, ingestedTimestamp);
+
+        verify(eventRouteExecutor, times(2)).execute(any(Event.class), any(Device.class));
+        ArgumentCaptor<Event> logged = ArgumentCaptor.forClass(Event.class);
+        verify(deviceLogEventService, times(2)).logIncomingEvent(eq(device), logged.capture(), any(ParsedJson.class));
+        assertThat(logged.getAllValues().get(1).getIncoming().getChannel(), equalTo("mgmt/battery"));
     }
 
     @Test
     public void shouldProcessDeviceDeactivated() throws Exception {
-    	when(deviceLogEventService.logIncomingEvent(eq(device), any()))
+    	when(deviceLogEventService.logIncomingEvent(eq(device), any(), any()))
     		.thenReturn(ServiceResponseBuilder.<Event>ok().withResult(event).build());
     	
     	Instant ingestedTimestamp = Instant.now();
@@ -603,7 +660,7 @@ public class DeviceEventProcessorTest {
     	subject.process(device, incomingChannel, originalPayload, ingestedTimestamp, ingestedTimestamp);
     	
     	verify(eventRouteExecutor, times(0)).execute(any(Event.class), any(Device.class));
-        verify(deviceLogEventService, times(0)).logIncomingEvent(any(Device.class), any(Event.class));
+        verify(deviceLogEventService, times(0)).logIncomingEvent(any(Device.class), any(Event.class), any(ParsedJson.class));
     }
     
     @Test
@@ -611,14 +668,14 @@ public class DeviceEventProcessorTest {
     	thrown.expect(BusinessException.class);
         thrown.expectMessage(DeviceEventProcessor.Messages.INVALID_PAYLOAD.getCode());
         
-    	when(deviceLogEventService.logIncomingEvent(eq(device), any()))
+    	when(deviceLogEventService.logIncomingEvent(eq(device), any(), any()))
     		.thenReturn(ServiceResponseBuilder.<Event>error().build());
     	
     	Instant ingestedTimestamp = Instant.now();
     	subject.process(device, incomingChannel, originalPayload, ingestedTimestamp, ingestedTimestamp);
     	
     	verify(eventRouteExecutor, times(0)).execute(any(Event.class), any(Device.class));
-        verify(deviceLogEventService, times(1)).logIncomingEvent(any(Device.class), any(Event.class));
+        verify(deviceLogEventService, times(1)).logIncomingEvent(any(Device.class), any(Event.class), any(ParsedJson.class));
     }
     
     @Test
@@ -659,6 +716,11 @@ public class DeviceEventProcessorTest {
             return mock(JsonParsingService.class);
         }
 
+        @Bean
+        public LocationHierarchyCache locationHierarchyCache() {
+            return mock(LocationHierarchyCache.class);
+        }
+
         @Bean
         public MessagePackJsonConverter messagePackJsonConverter() {
             return mock(MessagePackJsonConverter.class);
@@ -1,12 +1,19 @@
 package com.konkerlabs.platform.registry.router.config;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import com.konkerlabs.platform.registry.data.core.config.RabbitMQDataConfig;
+import com.konkerlabs.platform.registry.data.core.integration.converters.RoutedEventCodec;
+import com.konkerlabs.platform.registry.router.integration.eventsqueue.RoutedEventsRecoverer;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import org.aopalliance.aop.Advice;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
@@ -21,6 +28,8 @@ public class RabbitMQRouterConfig extends RabbitMQDataConfig {
 
     private final Logger LOGGER = LoggerFactory.getLogger(this.getClass());
 
+    private final RoutedEventsConsumerConfig routedEventsConfig = new RoutedEventsConsumerConfig();
+
     @Bean
     public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
@@ -34,6 +43,34 @@ public class RabbitMQRouterConfig extends RabbitMQDataConfig {
         return factory;
     }
 
+    /**
+     * Consumers of routed.events: each one keeps a window of prefetched events and
+     * acknowledges them in batches. A failed event is handed to the retry queue at
+     * once instead of holding the consumer while it backs off. The recoverer never
+     * throws, since an exception would roll back every delivery of the batch.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory routedEventsContainerFactory(ConnectionFactory connectionFactory,
+                                                                              AmqpTemplate amqpTemplate,
+                                                                              RoutedEventCodec routedEventCodec) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        factory.setConcurrentConsumers(routedEventsConfig.getMinConsumers());
+        factory.setMaxConcurrentConsumers(routedEventsConfig.getMaxConsumers());
+        factory.setPrefetchCount(routedEventsConfig.getPrefetch());
+        factory.setTxSize(routedEventsConfig.getAckBatchSize());
+
+        Advice[] adviceChain = new Advice[] {
+                RetryInterceptorBuilder.stateless()
+                        .maxAttempts(1)
+                        .recoverer(new RoutedEventsRecoverer(amqpTemplate, routedEventCodec, routedEventsConfig.getMaxAttempts()))
+                        .build()
+        };
+        factory.setAdviceChain(adviceChain);
+        return factory;
+    }
+
     @Bean
     public RetryOperationsInterceptor interceptor() {
         return RetryInterceptorBuilder.stateless()
@@ -42,4 +79,27 @@ public class RabbitMQRouterConfig extends RabbitMQDataConfig {
                 .build();
     }
 
-}
\ No newline at end of file
+    @Bean
+    public Queue routedEventsRetryQueue() {
+        boolean durable = true;
+        boolean exclusive = false;
+        boolean autoDelete = false;
+
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put("x-message-ttl", routedEventsConfig.getRetryDelayMillis());
+        arguments.put("x-dead-letter-exchange", "");
+        arguments.put("x-dead-letter-routing-key", "routed.events");
+
+        return new Queue(RoutedEventsRecoverer.RETRY_QUEUE, durable, exclusive, autoDelete, arguments);
+    }
+
+    @Bean
+    public Queue routedEventsDeadLetterQueue() {
+        boolean durable = true;
+        boolean exclusive = false;
+        boolean autoDelete = false;
+
+        return new Queue(RoutedEventsRecoverer.DEAD_LETTER_QUEUE, durable, exclusive, autoDelete);
+    }
+
+}
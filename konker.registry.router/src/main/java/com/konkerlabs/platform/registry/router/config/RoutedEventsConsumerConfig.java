@@ -0,0 +1,41 @@
+package com.konkerlabs.platform.registry.router.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import lombok.Data;
+
+@Data
+public class RoutedEventsConsumerConfig {
+
+    private int minConsumers;
+    private int maxConsumers;
+    private int prefetch;
+    private int ackBatchSize;
+    private int maxAttempts;
+    private int retryDelayMillis;
+
+    public RoutedEventsConsumerConfig() {
+        Map<String, Object> defaultMap = new HashMap<>();
+        defaultMap.put("routedEvents.minConsumers", 1);
+        defaultMap.put("routedEvents.maxConsumers", 20);
+        defaultMap.put("routedEvents.prefetch", 250);
+        defaultMap.put("routedEvents.ackBatchSize", 50);
+        defaultMap.put("routedEvents.maxAttempts", 5);
+        defaultMap.put("routedEvents.retryDelayMillis", 5000);
+
+        Config defaultConf = ConfigFactory.parseMap(defaultMap);
+        Config config = ConfigFactory.load().withFallback(defaultConf);
+
+        setMinConsumers(config.getInt("routedEvents.minConsumers"));
+        setMaxConsumers(config.getInt("routedEvents.maxConsumers"));
+        setPrefetch(config.getInt("routedEvents.prefetch"));
+        setAckBatchSize(config.getInt("routedEvents.ackBatchSize"));
+        setMaxAttempts(config.getInt("routedEvents.maxAttempts"));
+        setRetryDelayMillis(config.getInt("routedEvents.retryDelayMillis"));
+    }
+
+}
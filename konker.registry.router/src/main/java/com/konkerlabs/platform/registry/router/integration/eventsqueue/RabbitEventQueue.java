@@ -4,9 +4,9 @@ import com.konkerlabs.platform.registry.business.model.Device;
 import com.konkerlabs.platform.registry.business.model.Event;
 import com.konkerlabs.platform.registry.business.model.EventRoute;
 import com.konkerlabs.platform.registry.business.services.api.DeviceRegisterService;
-import com.konkerlabs.platform.registry.business.services.api.EventRouteService;
-import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
 import com.konkerlabs.platform.registry.data.core.config.RabbitMQDataConfig;
+import com.konkerlabs.platform.registry.data.core.integration.converters.RoutedEventCodec;
+import com.konkerlabs.platform.registry.data.core.services.routes.EventRouteTableCache;
 import com.konkerlabs.platform.registry.data.core.services.routes.api.EventRouteExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,10 +16,9 @@ import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayInputStream;
-import java.io.ObjectInputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class RabbitEventQueue {
@@ -33,12 +32,18 @@ public class RabbitEventQueue {
     private DeviceRegisterService deviceRegisterService;
 
     @Autowired
-    private EventRouteService eventRouteService;
+    private EventRouteTableCache eventRouteTableCache;
 
-    @RabbitListener(queues = "routed.events")
+    @Autowired
+    private RoutedEventCodec routedEventCodec;
+
+    @RabbitListener(queues = "routed.events", containerFactory = "routedEventsContainerFactory")
     public void onReadEvents(Message message) throws Exception {
         MessageProperties properties = message.getMessageProperties();
-        Event event = fromByteArray(message.getBody());
+        Event event = routedEventCodec.decode(message.getBody(), properties.getContentType());
+        if (event == null)
+            return;
+
         String apiKey = (String) properties.getHeaders().get(RabbitMQDataConfig.MSG_HEADER_APIKEY);
         String eventRouteGuid = (String) properties.getHeaders().get(RabbitMQDataConfig.MSG_HEADER_EVENT_ROUTE_GUID);
 
@@ -54,13 +59,11 @@ public class RabbitEventQueue {
             }
 
             // event route
-            ServiceResponse<EventRoute> response = eventRouteService.getByGUID(
-                    device.getTenant(),
-                    device.getApplication(),
-                    eventRouteGuid);
+            Optional<EventRoute> eventRoute = eventRouteTableCache.get(device.getTenant(), device.getApplication())
+                    .flatMap(routeTable -> routeTable.getByGuid(eventRouteGuid));
 
-            if (response.isOk()) {
-                eventRouteExecutor.execute(event, device, response.getResult());
+            if (eventRoute.isPresent()) {
+                eventRouteExecutor.execute(event, device, eventRoute.get());
             }
         }
 
@@ -99,19 +102,4 @@ public class RabbitEventQueue {
         }
     }
 
-    private Event fromByteArray(byte[] bytes) {
-        Event event = null;
-        ByteArrayInputStream baos = new ByteArrayInputStream(bytes);
-
-        try {
-            ObjectInputStream oos = new ObjectInputStream(baos);
-            event = (Event) oos.readObject();
-
-        } catch (Exception e) {
-            LOGGER.error("Exception while converting ByteArray to Event...", e);
-        }
-
-        return event;
-    }
-
 }
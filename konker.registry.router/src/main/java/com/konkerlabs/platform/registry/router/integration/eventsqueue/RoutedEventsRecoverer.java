@@ -0,0 +1,95 @@
+package com.konkerlabs.platform.registry.router.integration.eventsqueue;
+
+import java.util.Base64;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.retry.MessageRecoverer;
+
+import com.konkerlabs.platform.registry.business.model.Event;
+import com.konkerlabs.platform.registry.data.core.config.RabbitMQDataConfig;
+import com.konkerlabs.platform.registry.data.core.integration.converters.RoutedEventCodec;
+
+/**
+ * Takes routed events whose delivery failed off the consumer thread. The event goes
+ * to the retry queue, which dead letters it back to routed.events once its delay
+ * expires, until it has been attempted the maximum number of times; it is then
+ * parked on the dead letter queue with the last failure.
+ *
+ * Failures to republish never reach the container: with several deliveries
+ * acknowledged together, the container would roll back the whole batch. An event
+ * that cannot be sent to the retry queue is dead lettered instead, and one that
+ * cannot be dead lettered either is logged, with its device and route headers and
+ * the decoded event, and dropped.
+ */
+public class RoutedEventsRecoverer implements MessageRecoverer {
+
+    public static final String RETRY_QUEUE = "routed.events.retry";
+
+    public static final String DEAD_LETTER_QUEUE = "routed.events.dlq";
+
+    public static final String MSG_HEADER_ATTEMPTS = "x-attempts";
+
+    public static final String MSG_HEADER_FAILURE = "x-failure";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RoutedEventsRecoverer.class);
+
+    private final AmqpTemplate amqpTemplate;
+    private final RoutedEventCodec routedEventCodec;
+    private final int maxAttempts;
+
+    public RoutedEventsRecoverer(AmqpTemplate amqpTemplate, RoutedEventCodec routedEventCodec, int maxAttempts) {
+        this.amqpTemplate = amqpTemplate;
+        this.routedEventCodec = routedEventCodec;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public void recover(Message message, Throwable cause) {
+        int attempts = Optional.ofNullable(message.getMessageProperties().getHeaders().get(MSG_HEADER_ATTEMPTS))
+                .map(value -> ((Number) value).intValue())
+                .orElse(0) + 1;
+
+        message.getMessageProperties().setHeader(MSG_HEADER_ATTEMPTS, attempts);
+
+        if (attempts < maxAttempts) {
+            try {
+                amqpTemplate.send("", RETRY_QUEUE, message);
+                return;
+            } catch (AmqpException e) {
+                LOGGER.error("Routed event could not be sent to the retry queue, dead lettering it", e);
+            }
+        }
+
+        deadLetter(message, cause, attempts);
+    }
+
+    private void deadLetter(Message message, Throwable cause, int attempts) {
+        Throwable failure = Optional.ofNullable(cause.getCause()).orElse(cause);
+        message.getMessageProperties().setHeader(MSG_HEADER_FAILURE, failure.toString());
+
+        try {
+            amqpTemplate.send("", DEAD_LETTER_QUEUE, message);
+            LOGGER.warn("Routed event dead lettered after {} attempts", attempts, cause);
+        } catch (AmqpException e) {
+            MessageProperties properties = message.getMessageProperties();
+            LOGGER.error("Routed event dropped after {} attempts, it could not be dead lettered: apiKey={} eventRoute={} event={}",
+                    attempts,
+                    properties.getHeaders().get(RabbitMQDataConfig.MSG_HEADER_APIKEY),
+                    properties.getHeaders().get(RabbitMQDataConfig.MSG_HEADER_EVENT_ROUTE_GUID),
+                    describe(message),
+                    e);
+        }
+    }
+
+    private String describe(Message message) {
+        Event event = routedEventCodec.decode(message.getBody(), message.getMessageProperties().getContentType());
+        return event != null ? event.toString() : Base64.getEncoder().encodeToString(message.getBody());
+    }
+
+}
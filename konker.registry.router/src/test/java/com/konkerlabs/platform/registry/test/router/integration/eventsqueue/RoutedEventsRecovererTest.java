@@ -0,0 +1,102 @@
+package com.konkerlabs.platform.registry.test.router.integration.eventsqueue;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import com.konkerlabs.platform.registry.business.model.Event;
+import com.konkerlabs.platform.registry.data.core.integration.converters.RoutedEventCodec;
+import com.konkerlabs.platform.registry.router.integration.eventsqueue.RoutedEventsRecoverer;
+
+public class RoutedEventsRecovererTest {
+
+    private AmqpTemplate amqpTemplate;
+    private RoutedEventCodec routedEventCodec;
+    private RoutedEventsRecoverer subject;
+
+    @Before
+    public void setUp() {
+        amqpTemplate = mock(AmqpTemplate.class);
+        routedEventCodec = spy(new RoutedEventCodec());
+        subject = new RoutedEventsRecoverer(amqpTemplate, routedEventCodec, 3);
+    }
+
+    @Test
+    public void shouldSendFailedEventToRetryQueue() {
+        Message message = new Message(new byte[0], new MessageProperties());
+
+        subject.recover(message, new IllegalStateException("route failed"));
+
+        verify(amqpTemplate).send("", RoutedEventsRecoverer.RETRY_QUEUE, message);
+        verify(amqpTemplate, never()).send(eq(""), eq(RoutedEventsRecoverer.DEAD_LETTER_QUEUE), any(Message.class));
+        assertThat(message.getMessageProperties().getHeaders().get(RoutedEventsRecoverer.MSG_HEADER_ATTEMPTS), equalTo(1));
+    }
+
+    @Test
+    public void shouldDeadLetterEventAfterMaxAttempts() {
+        MessageProperties properties = new MessageProperties();
+        properties.setHeader(RoutedEventsRecoverer.MSG_HEADER_ATTEMPTS, 2);
+        Message message = new Message(new byte[0], properties);
+
+        subject.recover(message, new IllegalStateException("route failed"));
+
+        verify(amqpTemplate).send("", RoutedEventsRecoverer.DEAD_LETTER_QUEUE, message);
+        verify(amqpTemplate, never()).send(eq(""), eq(RoutedEventsRecoverer.RETRY_QUEUE), any(Message.class));
+        assertThat(properties.getHeaders().get(RoutedEventsRecoverer.MSG_HEADER_ATTEMPTS), equalTo(3));
+        assertThat(properties.getHeaders().get(RoutedEventsRecoverer.MSG_HEADER_FAILURE), notNullValue());
+    }
+
+    @Test
+    public void shouldDeadLetterEventThatCannotBeSentToRetryQueue() {
+        Message message = new Message(new byte[0], new MessageProperties());
+        doThrow(new AmqpException("retry queue unavailable"))
+                .when(amqpTemplate).send(eq(""), eq(RoutedEventsRecoverer.RETRY_QUEUE), any(Message.class));
+
+        subject.recover(message, new IllegalStateException("route failed"));
+
+        verify(amqpTemplate).send("", RoutedEventsRecoverer.DEAD_LETTER_QUEUE, message);
+        assertThat(message.getMessageProperties().getHeaders().get(RoutedEventsRecoverer.MSG_HEADER_FAILURE), notNullValue());
+    }
+
+    @Test
+    public void shouldNotPropagateFailureToRepublish() throws Exception {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(RoutedEventCodec.CONTENT_TYPE);
+        byte[] body = routedEventCodec.encode(Event.builder().payload("{}").build());
+        Message message = new Message(body, properties);
+        doThrow(new AmqpException("broker unavailable"))
+                .when(amqpTemplate).send(eq(""), any(String.class), any(Message.class));
+
+        subject.recover(message, new IllegalStateException("route failed"));
+
+        verify(amqpTemplate).send("", RoutedEventsRecoverer.RETRY_QUEUE, message);
+        verify(amqpTemplate).send("", RoutedEventsRecoverer.DEAD_LETTER_QUEUE, message);
+        verify(routedEventCodec).decode(body, RoutedEventCodec.CONTENT_TYPE);
+    }
+
+    @Test
+    public void shouldNotPropagateFailureToRepublishAnEventThatCannotBeDecoded() {
+        Message message = new Message("{}".getBytes(), new MessageProperties());
+        doThrow(new AmqpException("broker unavailable"))
+                .when(amqpTemplate).send(eq(""), any(String.class), any(Message.class));
+
+        subject.recover(message, new IllegalStateException("route failed"));
+
+        verify(amqpTemplate).send("", RoutedEventsRecoverer.DEAD_LETTER_QUEUE, message);
+    }
+
+}
@@ -3,11 +3,16 @@ package com.konkerlabs.platform.registry.business.model;
 import com.fasterxml.jackson.databind.node.JsonNodeType;
 import com.konkerlabs.platform.registry.business.model.behaviors.URIDealer;
 import com.konkerlabs.platform.utilities.parsers.json.JsonParsingService;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.Singular;
+import lombok.ToString;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
@@ -17,7 +22,8 @@ import java.net.URI;
 import java.util.*;
 
 @Data
-@Builder
+@EqualsAndHashCode(exclude = "fieldsByPath")
+@ToString(exclude = "fieldsByPath")
 @Document
 @CompoundIndexes({
         @CompoundIndex(name = "device_channel_idx", def = "{'deviceGuid': 1, 'channel': 1}", unique = true)
@@ -29,11 +35,32 @@ public class EventSchema implements URIDealer {
     @Indexed
     private String deviceGuid;
     private String channel;
-    @Singular
     private Set<SchemaField> fields = new HashSet<>();
 
+    /**
+     * Fields by path, built on first lookup and kept up to date by
+     * {@link #upsertTypeFor}; rebuilt when fields were added some other way.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient Map<String, SchemaField> fieldsByPath;
+
     public static final String URI_SCHEME = "eventschema";
 
+    @Builder
+    public EventSchema(String id, String deviceGuid, String channel, @Singular Set<SchemaField> fields) {
+        this.id = id;
+        this.deviceGuid = deviceGuid;
+        this.channel = channel;
+        this.fields = fields;
+    }
+
+    public void setFields(Set<SchemaField> fields) {
+        this.fields = fields;
+        this.fieldsByPath = null;
+    }
+
 
     public URI toURI() {
         return URI.create(
@@ -57,16 +84,30 @@ public class EventSchema implements URIDealer {
     }
 
     public Optional<SchemaField> getByPath(String path) {
-        return getFields().stream().filter(schemaField -> schemaField.getPath().equals(path)).findFirst();
+        return Optional.ofNullable(fieldsByPath().get(path));
     }
 
     public void upsertTypeFor(String path, JsonParsingService.JsonPathData pathData) {
-        Optional<SchemaField> field = getByPath(path);
+        SchemaField field = fieldsByPath().get(path);
+
+        if (field != null) {
+            field.getKnownTypes().add(pathData.getTypes().get(pathData.getTypes().size()-1));
+        } else {
+            field = SchemaField.builder().path(path).build();
+            field.setKnownTypes(new HashSet<>(pathData.getTypes()));
+            getFields().add(field);
+            fieldsByPath.put(path, field);
+        }
+    }
+
+    private Map<String, SchemaField> fieldsByPath() {
+        if (fieldsByPath == null || fieldsByPath.size() != getFields().size()) {
+            Map<String, SchemaField> index = new HashMap<>();
+            getFields().forEach(field -> index.put(field.getPath(), field));
+            fieldsByPath = index;
+        }
 
-        if (field.isPresent())
-            field.get().getKnownTypes().add(pathData.getTypes().get(pathData.getTypes().size()-1));
-        else
-            getFields().add(SchemaField.builder().path(path).knownTypes(new HashSet<>(pathData.getTypes())).build());
+        return fieldsByPath;
     }
 
     @Data
@@ -30,7 +30,9 @@ public class RestDestination implements URIDealer, Validatable {
         URL_NULL("model.rest_destination.url.not_null"),
         GUID_NOT_EMPTY("model.rest_destination.guid.not_empty"),
         SERVICE_USERNAME_WITHOUT_PASSWORD("model.rest_destination.service.user_without_password"),
-        CUSTOM_BODY_INVALID("model.rest_destination.custom.body.invalid");
+        CUSTOM_BODY_INVALID("model.rest_destination.custom.body.invalid"),
+        BATCH_SIZE_INVALID("model.rest_destination.batch_size.invalid"),
+        BATCH_TIMEOUT_INVALID("model.rest_destination.batch_timeout.invalid");
 
         private String code;
 
@@ -43,6 +45,9 @@ public class RestDestination implements URIDealer, Validatable {
         }
     }
 
+    public static final int MAX_BATCH_SIZE = 1000;
+    public static final int MAX_BATCH_TIMEOUT_MILLIS = 60000;
+
     public enum RestDestinationType {
     	FORWARD_MESSAGE,
     	CUSTOM_BODY
@@ -64,6 +69,8 @@ public class RestDestination implements URIDealer, Validatable {
     private RestDestinationType type;
     private String body;
     private boolean active;
+    private Integer batchSize;
+    private Integer batchTimeoutMillis;
 
     public static final String URI_SCHEME = "rest";
 
@@ -86,6 +93,15 @@ public class RestDestination implements URIDealer, Validatable {
         return type == null ? RestDestinationType.FORWARD_MESSAGE : type;
     }
 
+    /**
+     * Whether events are buffered and sent to this destination as a JSON array of up to
+     * {@link #getBatchSize()} bodies, at most {@link #getBatchTimeoutMillis()} after the
+     * first one was buffered, instead of one request per event.
+     */
+    public boolean isBatched() {
+        return batchSize != null && batchSize > 1;
+    }
+
     public Optional<Map<String, Object[]>> applyValidations() {
         Map<String, Object[]> validations = new HashMap<>();
 
@@ -121,6 +137,14 @@ public class RestDestination implements URIDealer, Validatable {
         	validations.put(Validations.CUSTOM_BODY_INVALID.getCode(), null);
         }
 
+        if (batchSize != null && (batchSize < 0 || batchSize > MAX_BATCH_SIZE)) {
+            validations.put(Validations.BATCH_SIZE_INVALID.getCode(), new Object[] {MAX_BATCH_SIZE});
+        }
+
+        if (isBatched() && (batchTimeoutMillis == null || batchTimeoutMillis < 1 || batchTimeoutMillis > MAX_BATCH_TIMEOUT_MILLIS)) {
+            validations.put(Validations.BATCH_TIMEOUT_INVALID.getCode(), new Object[] {MAX_BATCH_TIMEOUT_MILLIS});
+        }
+
         return Optional.of(validations).filter(stringMap -> !stringMap.isEmpty());
     }
 
@@ -5,6 +5,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -30,5 +31,7 @@ public interface DeviceRepository extends MongoRepository<Device, String> {
 	List<Device> findAllByTenantIdApplicationNameAndDeviceModel(String tenantId, String applicationName, String deviceModelId);
     @Query("{ 'tenant.id' : ?0, 'application.name' : ?1, 'deviceId' : ?2 }")
 	Device findAllByTenantIdApplicationNameDeviceId(String tenantId, String applicationName, String deviceId);
+    @Query("{ 'tenant.id' : ?0, 'application.name' : ?1, 'deviceId' : { $in : ?2 } }")
+    List<Device> findAllByTenantIdApplicationNameAndDeviceIds(String tenantId, String applicationName, Collection<String> deviceIds);
 
 }
\ No newline at end of file
@@ -9,8 +9,12 @@ import com.konkerlabs.platform.registry.business.model.validation.CommonValidati
 
 import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public abstract class BaseEventRepositoryImpl implements EventRepository {
 
@@ -70,23 +74,29 @@ public abstract class BaseEventRepositoryImpl implements EventRepository {
         Instant endInstant = ZonedDateTime.now().plusYears(100L).toInstant();
 
         // incoming
-        List<Event> incomingEvents = findIncomingBy(tenant, originDevice.getApplication(), originDevice.getGuid(), null, startInstant, endInstant, false, null);
-        for (Event event : incomingEvents) {
-            event.getIncoming().setApplicationName(destDevice.getApplication().getName());
-            event.getIncoming().setDeviceGuid(destDevice.getGuid());
-            event.getIncoming().setDeviceId(destDevice.getDeviceId());
-
-            saveIncoming(tenant, destDevice.getApplication(), event);
+        try (Stream<Event> incomingEvents = streamIncomingBy(tenant, originDevice.getApplication(), originDevice.getGuid(), null, startInstant, endInstant, false, null)) {
+            Iterator<Event> events = incomingEvents.iterator();
+            while (events.hasNext()) {
+                Event event = events.next();
+                event.getIncoming().setApplicationName(destDevice.getApplication().getName());
+                event.getIncoming().setDeviceGuid(destDevice.getGuid());
+                event.getIncoming().setDeviceId(destDevice.getDeviceId());
+
+                saveIncoming(tenant, destDevice.getApplication(), event);
+            }
         }
 
         // outgoing
-        List<Event> outgoingEvents = findOutgoingBy(tenant, originDevice.getApplication(), originDevice.getGuid(), null, startInstant, endInstant, false, null);
-        for (Event event : outgoingEvents) {
-            event.getOutgoing().setApplicationName(destDevice.getApplication().getName());
-            event.getOutgoing().setDeviceGuid(destDevice.getGuid());
-            event.getOutgoing().setDeviceId(destDevice.getDeviceId());
-
-            saveOutgoing(tenant, destDevice.getApplication(), event);
+        try (Stream<Event> outgoingEvents = streamOutgoingBy(tenant, originDevice.getApplication(), originDevice.getGuid(), null, startInstant, endInstant, false, null)) {
+            Iterator<Event> events = outgoingEvents.iterator();
+            while (events.hasNext()) {
+                Event event = events.next();
+                event.getOutgoing().setApplicationName(destDevice.getApplication().getName());
+                event.getOutgoing().setDeviceGuid(destDevice.getGuid());
+                event.getOutgoing().setDeviceId(destDevice.getDeviceId());
+
+                saveOutgoing(tenant, destDevice.getApplication(), event);
+            }
         }
     }
 
@@ -116,29 +126,125 @@ public abstract class BaseEventRepositoryImpl implements EventRepository {
                 Type.OUTGOING, false);
     }
 
+    @Override
+    public Stream<Event> streamIncomingBy(Tenant tenant,
+                                          Application application,
+                                          String deviceGuid,
+                                          String channel,
+                                          Instant startInstant,
+                                          Instant endInstant,
+                                          boolean ascending,
+                                          Integer limit) throws BusinessException {
+        return doStreamByCommon(tenant, application, deviceGuid, channel, startInstant, endInstant, ascending, limit,
+                Type.INCOMING, false);
+    }
+
+    @Override
+    public Stream<Event> streamOutgoingBy(Tenant tenant,
+                                          Application application,
+                                          String deviceGuid,
+                                          String channel,
+                                          Instant startInstant,
+                                          Instant endInstant,
+                                          boolean ascending,
+                                          Integer limit) throws BusinessException {
+        return doStreamByCommon(tenant, application, deviceGuid, channel, startInstant, endInstant, ascending, limit,
+                Type.OUTGOING, false);
+    }
+
+
+    @Override
+    public EventPage findIncomingPageBy(Tenant tenant,
+                                        Application application,
+                                        String deviceGuid,
+                                        String channel,
+                                        Instant startInstant,
+                                        Instant endInstant,
+                                        boolean ascending,
+                                        int limit,
+                                        EventCursor after) throws BusinessException {
+        return doFindPageByCommon(tenant, application, deviceGuid, channel, startInstant, endInstant, ascending, limit,
+                after, Type.INCOMING);
+    }
+
+    @Override
+    public EventPage findOutgoingPageBy(Tenant tenant,
+                                        Application application,
+                                        String deviceGuid,
+                                        String channel,
+                                        Instant startInstant,
+                                        Instant endInstant,
+                                        boolean ascending,
+                                        int limit,
+                                        EventCursor after) throws BusinessException {
+        return doFindPageByCommon(tenant, application, deviceGuid, channel, startInstant, endInstant, ascending, limit,
+                after, Type.OUTGOING);
+    }
 
     @Override
     public Event saveIncoming(Tenant tenant, Application application, Event event) throws BusinessException {
         return doSaveCommon(tenant, application, event, Type.INCOMING);
     }
 
+    @Override
+    public List<Event> saveIncoming(Tenant tenant, Application application, List<Event> events) throws BusinessException {
+        for (Event event : events) {
+            validate(tenant, event);
+        }
+
+        return doSaveAll(tenant, application, events, Type.INCOMING);
+    }
+
     @Override
     public Event saveOutgoing(Tenant tenant, Application application, Event event) throws BusinessException {
         return doSaveCommon(tenant, application, event, Type.OUTGOING);
     }
 
+    @Override
+    public List<Event> saveOutgoing(Tenant tenant, Application application, List<Event> events) throws BusinessException {
+        for (Event event : events) {
+            validate(tenant, event);
+        }
+
+        return doSaveAll(tenant, application, events, Type.OUTGOING);
+    }
+
     protected abstract Event doSave(Tenant tenant, Application application, Event event, Type incoming) throws BusinessException;
 
+    /**
+     * Saves the events one by one; stores that can write many events in one round trip
+     * override it.
+     */
+    protected List<Event> doSaveAll(Tenant tenant, Application application, List<Event> events, Type type) throws BusinessException {
+        List<Event> saved = new ArrayList<>(events.size());
+        for (Event event : events) {
+            saved.add(doSave(tenant, application, event, type));
+        }
+        return saved;
+    }
+
     protected abstract void doRemoveBy(Tenant tenant, Application application, String deviceGuid, Type incoming) throws Exception;
     
     protected abstract void doRemoveBy(Tenant tenant, Application application, String deviceGuid, List<Event> events, Type incoming) throws Exception;
 
-    protected abstract List<Event> doFindBy(Tenant tenant, Application application, String deviceGuid, String channel,
+    protected abstract Stream<Event> doStreamBy(Tenant tenant, Application application, String deviceGuid, String channel,
             Instant startInstant, Instant endInstant, boolean ascending,
             Integer limit, Type incoming, boolean b) throws BusinessException;
 
+    protected abstract EventPage doFindPageBy(Tenant tenant, Application application, String deviceGuid, String channel,
+            Instant startInstant, Instant endInstant, boolean ascending,
+            int limit, EventCursor after, Type incoming) throws BusinessException;
+
     private Event doSaveCommon(Tenant tenant, Application application, Event event, Type incoming) throws BusinessException {
 
+        validate(tenant, event);
+
+        return doSave(tenant, application, event, incoming);
+
+    }
+
+    private void validate(Tenant tenant, Event event) throws BusinessException {
+
         Optional.ofNullable(tenant)
                 .filter(tenant1 -> Optional.ofNullable(tenant1.getDomainName()).filter(s -> !s.isEmpty()).isPresent())
                 .orElseThrow(() -> new BusinessException(CommonValidations.TENANT_NULL.getCode()));
@@ -151,8 +257,6 @@ public abstract class BaseEventRepositoryImpl implements EventRepository {
         Optional.ofNullable(event.getIncoming().getChannel()).filter(s -> !s.isEmpty())
                 .orElseThrow(() -> new BusinessException(Validations.EVENT_INCOMING_CHANNEL_NULL.getCode()));
 
-        return doSave(tenant, application, event, incoming);
-
     }
 
     private void doRemoveByCommon(Tenant tenant, Application application, String deviceGuid, Type type) throws Exception {
@@ -183,6 +287,18 @@ public abstract class BaseEventRepositoryImpl implements EventRepository {
             Instant startInstant, Instant endInstant, boolean ascending,
             Integer limit, Type incoming, boolean isDeleted) throws BusinessException {
 
+        try (Stream<Event> events = doStreamByCommon(tenant, application, deviceGuid, channel,
+                startInstant, endInstant, ascending,
+                limit, incoming, isDeleted)) {
+            return events.collect(Collectors.toList());
+        }
+
+    }
+
+    private Stream<Event> doStreamByCommon(Tenant tenant, Application application, String deviceGuid, String channel,
+            Instant startInstant, Instant endInstant, boolean ascending,
+            Integer limit, Type incoming, boolean isDeleted) throws BusinessException {
+
         Optional.ofNullable(tenant)
                 .filter(tenant1 -> Optional.ofNullable(tenant1.getDomainName()).filter(s -> !s.isEmpty()).isPresent())
                 .orElseThrow(() -> new IllegalArgumentException("Tenant cannot be null"));
@@ -191,13 +307,27 @@ public abstract class BaseEventRepositoryImpl implements EventRepository {
                 !Optional.ofNullable(limit).isPresent())
             throw new IllegalArgumentException("Limit cannot be null when start instant isn't provided");
 
-        return doFindBy(tenant, application, deviceGuid, channel,
+        return doStreamBy(tenant, application, deviceGuid, channel,
                 startInstant, endInstant, ascending,
                 limit, incoming, isDeleted);
 
     }
 
+    private EventPage doFindPageByCommon(Tenant tenant, Application application, String deviceGuid, String channel,
+            Instant startInstant, Instant endInstant, boolean ascending,
+            int limit, EventCursor after, Type incoming) throws BusinessException {
 
-}
+        Optional.ofNullable(tenant)
+                .filter(tenant1 -> Optional.ofNullable(tenant1.getDomainName()).filter(s -> !s.isEmpty()).isPresent())
+                .orElseThrow(() -> new IllegalArgumentException("Tenant cannot be null"));
 
+        if (limit <= 0)
+            throw new IllegalArgumentException("Limit must be greater than zero");
+
+        return doFindPageBy(tenant, application, deviceGuid, channel,
+                startInstant, endInstant, ascending,
+                limit, after, incoming);
 
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.konkerlabs.platform.registry.business.repositories.events.api;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import lombok.Value;
+
+/**
+ * Position right after the last event of a page. The timestamp is the sort key
+ * of the store and the id, when the store needs one, breaks the tie between
+ * events stored with the same timestamp, so resuming a query from a cursor
+ * neither repeats nor skips events.
+ */
+@Value
+public class EventCursor {
+
+    private long timestamp;
+    private String id;
+
+    public String encode() {
+        String text = id != null ? timestamp + ":" + id : String.valueOf(timestamp);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static EventCursor decode(String cursor) throws IllegalArgumentException {
+        try {
+            String text = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] tokens = text.split(":", 2);
+
+            return new EventCursor(Long.parseLong(tokens[0]), tokens.length > 1 ? tokens[1] : null);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid event cursor: " + cursor, e);
+        }
+    }
+
+}
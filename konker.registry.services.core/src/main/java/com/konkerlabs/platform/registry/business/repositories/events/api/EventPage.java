@@ -0,0 +1,19 @@
+package com.konkerlabs.platform.registry.business.repositories.events.api;
+
+import java.util.List;
+
+import com.konkerlabs.platform.registry.business.model.Event;
+
+import lombok.Value;
+
+/**
+ * A page of events and the cursor to resume the query after it, null when the
+ * query has no more events.
+ */
+@Value
+public class EventPage {
+
+    private List<Event> events;
+    private EventCursor next;
+
+}
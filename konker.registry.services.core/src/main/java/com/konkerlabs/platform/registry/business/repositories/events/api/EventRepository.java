@@ -8,6 +8,7 @@ import com.konkerlabs.platform.registry.business.model.Tenant;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface EventRepository {
 
@@ -23,7 +24,8 @@ public interface EventRepository {
         EVENT_INCOMING_CHANNEL_NULL("repository.events.incoming_channel.not_null"),
         EVENT_OUTGOING_NULL("repository.events.outgoing.not_null"),
         EVENT_OUTGOING_CHANNEL_NULL("repository.events.outgoing_channel.not_null"),
-        EVENT_TIMESTAMP_NULL("repository.events.timestamp.not_null");
+        EVENT_TIMESTAMP_NULL("repository.events.timestamp.not_null"),
+        EVENT_CURSOR_INVALID("repository.events.cursor.invalid");
 
         private String code;
 
@@ -39,8 +41,22 @@ public interface EventRepository {
 
     Event saveIncoming(Tenant tenant, Application application, Event event) throws BusinessException;
 
+    /**
+     * Same as {@link #saveIncoming(Tenant, Application, Event)} for events a gateway sent
+     * at once. Stores may write them in a single round trip; the events are validated
+     * before any of them is written.
+     */
+    List<Event> saveIncoming(Tenant tenant, Application application, List<Event> events) throws BusinessException;
+
     Event saveOutgoing(Tenant tenant, Application application, Event event) throws BusinessException;
 
+    /**
+     * Same as {@link #saveOutgoing(Tenant, Application, Event)} for events forwarded to
+     * many devices at once. Stores may write them in a single round trip; the events
+     * are validated before any of them is written.
+     */
+    List<Event> saveOutgoing(Tenant tenant, Application application, List<Event> events) throws BusinessException;
+
     List<Event> findIncomingBy(Tenant tenant,
                                Application application,
                                String deviceGuid,
@@ -59,6 +75,60 @@ public interface EventRepository {
                                boolean ascending,
                                Integer limit) throws BusinessException;
 
+    /**
+     * Same as {@link #findIncomingBy}, but events are read from the store page by page
+     * as the stream is consumed. The stream holds a server cursor and must be closed.
+     */
+    Stream<Event> streamIncomingBy(Tenant tenant,
+                                   Application application,
+                                   String deviceGuid,
+                                   String channel,
+                                   Instant startInstant,
+                                   Instant endInstant,
+                                   boolean ascending,
+                                   Integer limit) throws BusinessException;
+
+    /**
+     * Same as {@link #findOutgoingBy}, but events are read from the store page by page
+     * as the stream is consumed. The stream holds a server cursor and must be closed.
+     */
+    Stream<Event> streamOutgoingBy(Tenant tenant,
+                                   Application application,
+                                   String deviceGuid,
+                                   String channel,
+                                   Instant startInstant,
+                                   Instant endInstant,
+                                   boolean ascending,
+                                   Integer limit) throws BusinessException;
+
+    /**
+     * Returns at most `limit` incoming events, starting right after the `after` cursor
+     * when given, and the cursor of the next page.
+     */
+    EventPage findIncomingPageBy(Tenant tenant,
+                                 Application application,
+                                 String deviceGuid,
+                                 String channel,
+                                 Instant startInstant,
+                                 Instant endInstant,
+                                 boolean ascending,
+                                 int limit,
+                                 EventCursor after) throws BusinessException;
+
+    /**
+     * Returns at most `limit` outgoing events, starting right after the `after` cursor
+     * when given, and the cursor of the next page.
+     */
+    EventPage findOutgoingPageBy(Tenant tenant,
+                                 Application application,
+                                 String deviceGuid,
+                                 String channel,
+                                 Instant startInstant,
+                                 Instant endInstant,
+                                 boolean ascending,
+                                 int limit,
+                                 EventCursor after) throws BusinessException;
+
     void removeBy(Tenant tenant, Application application, String deviceGuid) throws BusinessException;
     
     void removeIncomingBy(Tenant tenant, Application application, String deviceGuid, List<Event> events) throws BusinessException;
@@ -0,0 +1,57 @@
+package com.konkerlabs.platform.registry.business.services;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import com.konkerlabs.platform.registry.business.model.Device;
+import com.konkerlabs.platform.registry.config.DeviceCacheConfig;
+import com.konkerlabs.platform.utilities.cache.LocalCache;
+
+/**
+ * Devices of this node looked up by API key, with their tenant, application, model
+ * and location already resolved. Entries expire after the configured time to live;
+ * changes made through {@link DeviceRegisterServiceImpl} invalidate them right away,
+ * locally and on every node listening to {@code RabbitMQConfig.DEVICE_CHANGED_EXCHANGE},
+ * and a device loaded while an invalidation ran is returned but not kept.
+ *
+ * Cached devices are shared between threads and must be treated as read only.
+ */
+@Component
+public class DeviceApiKeyCache {
+
+    private final boolean enabled;
+    private final LocalCache<String, Device> devices;
+
+    public DeviceApiKeyCache() {
+        this(new DeviceCacheConfig());
+    }
+
+    public DeviceApiKeyCache(DeviceCacheConfig config) {
+        this.enabled = config.isEnabled();
+        this.devices = new LocalCache<>(config.getMaximumSize(), Duration.ofSeconds(config.getTimeToLiveSeconds()));
+    }
+
+    public Device get(String apiKey, Function<String, Device> loader) {
+        if (!enabled || !Optional.ofNullable(apiKey).isPresent())
+            return loader.apply(apiKey);
+
+        return devices.get(apiKey, loader);
+    }
+
+    public void invalidate(String apiKey) {
+        if (Optional.ofNullable(apiKey).isPresent())
+            devices.invalidate(apiKey);
+    }
+
+    public void invalidateAll() {
+        devices.invalidateAll();
+    }
+
+    public int size() {
+        return devices.size();
+    }
+
+}
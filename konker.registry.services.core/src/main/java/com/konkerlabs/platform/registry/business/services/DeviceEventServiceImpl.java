@@ -5,6 +5,8 @@ import com.konkerlabs.platform.registry.business.model.Application;
 import com.konkerlabs.platform.registry.business.model.Event;
 import com.konkerlabs.platform.registry.business.model.Tenant;
 import com.konkerlabs.platform.registry.business.model.validation.CommonValidations;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventCursor;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventPage;
 import com.konkerlabs.platform.registry.business.repositories.events.api.EventRepository;
 import com.konkerlabs.platform.registry.business.services.api.ApplicationService;
 import com.konkerlabs.platform.registry.business.services.api.DeviceEventService;
@@ -139,4 +141,91 @@ public class DeviceEventServiceImpl implements DeviceEventService {
                     .build();
         }
     }
+
+    @Override
+    public ServiceResponse<EventPage> findIncomingPageBy(Tenant tenant,
+                                                         Application application,
+                                                         String deviceGuid,
+                                                         String channel,
+                                                         Instant startingTimestamp,
+                                                         Instant endTimestamp,
+                                                         boolean ascending,
+                                                         Integer limit,
+                                                         String cursor) {
+        return findPageBy(tenant, application, limit, cursor, after ->
+                eventRepository.findIncomingPageBy(tenant,
+                        application,
+                        deviceGuid,
+                        channel,
+                        startingTimestamp,
+                        endTimestamp,
+                        ascending,
+                        limit,
+                        after));
+    }
+
+    @Override
+    public ServiceResponse<EventPage> findOutgoingPageBy(Tenant tenant,
+                                                         Application application,
+                                                         String deviceGuid,
+                                                         String channel,
+                                                         Instant startingTimestamp,
+                                                         Instant endTimestamp,
+                                                         boolean ascending,
+                                                         Integer limit,
+                                                         String cursor) {
+        return findPageBy(tenant, application, limit, cursor, after ->
+                eventRepository.findOutgoingPageBy(tenant,
+                        application,
+                        deviceGuid,
+                        channel,
+                        startingTimestamp,
+                        endTimestamp,
+                        ascending,
+                        limit,
+                        after));
+    }
+
+    private interface PageQuery {
+        EventPage find(EventCursor after) throws BusinessException;
+    }
+
+    private ServiceResponse<EventPage> findPageBy(Tenant tenant, Application application, Integer limit, String cursor,
+                                                  PageQuery query) {
+        if (!Optional.ofNullable(tenant).isPresent())
+            return ServiceResponseBuilder.<EventPage>error()
+                    .withMessage(CommonValidations.TENANT_NULL.getCode())
+                    .build();
+
+        if (!Optional.ofNullable(application).isPresent())
+            return ServiceResponseBuilder.<EventPage>error()
+                    .withMessage(ApplicationService.Validations.APPLICATION_DOES_NOT_EXIST.getCode())
+                    .build();
+
+        if (!Optional.ofNullable(limit).filter(value -> value > 0).isPresent())
+            return ServiceResponseBuilder.<EventPage>error()
+                    .withMessage(Validations.LIMIT_NULL.getCode())
+                    .build();
+
+        EventCursor after = null;
+        try {
+            if (Optional.ofNullable(cursor).filter(s -> !s.isEmpty()).isPresent())
+                after = EventCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ServiceResponseBuilder.<EventPage>error()
+                    .withMessage(Validations.CURSOR_INVALID.getCode())
+                    .build();
+        }
+
+        try {
+            return ServiceResponseBuilder.<EventPage>ok()
+                    .withResult(query.find(after)).build();
+        } catch (BusinessException e) {
+            String code = EventRepository.Validations.EVENT_CURSOR_INVALID.getCode().equals(e.getMessage()) ?
+                    Validations.CURSOR_INVALID.getCode() : e.getMessage();
+            return ServiceResponseBuilder.<EventPage>error()
+                    .withMessage(code)
+                    .build();
+        }
+    }
 }
@@ -12,12 +12,14 @@ import com.konkerlabs.platform.registry.business.repositories.*;
 import com.konkerlabs.platform.registry.business.repositories.events.api.EventRepository;
 import com.konkerlabs.platform.registry.business.services.api.*;
 import com.konkerlabs.platform.registry.config.EventStorageConfig;
+import com.konkerlabs.platform.registry.config.RabbitMQConfig;
 import com.konkerlabs.platform.registry.type.EventStorageConfigType;
 import com.konkerlabs.platform.security.exceptions.SecurityException;
 import com.konkerlabs.platform.security.managers.PasswordManager;
 import org.apache.commons.codec.binary.Base64OutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
@@ -68,6 +70,9 @@ public class DeviceRegisterServiceImpl implements DeviceRegisterService {
     @Autowired
     private RabbitTemplate rabbitTemplate;
 
+    @Autowired
+    private DeviceApiKeyCache deviceApiKeyCache;
+
     @PostConstruct
     public void init() {
         try {
@@ -166,6 +171,7 @@ public class DeviceRegisterServiceImpl implements DeviceRegisterService {
         LOGGER.info("Device created. Id: {}", device.getDeviceId(), tenant.toURI(), tenant.getLogLevel());
 
         Device saved = deviceRepository.save(device);
+        evict(saved.getApiKey(), tenant, application);
 
         return ServiceResponseBuilder.<Device>ok().withResult(saved).build();
     }
@@ -238,7 +244,7 @@ public class DeviceRegisterServiceImpl implements DeviceRegisterService {
 
     @Override
     public Device findByApiKey(String apiKey) {
-        return deviceRepository.findByApiKey(apiKey);
+        return deviceApiKeyCache.get(apiKey, deviceRepository::findByApiKey);
     }
 
     @Override
@@ -266,6 +272,7 @@ public class DeviceRegisterServiceImpl implements DeviceRegisterService {
         found.setActive(!found.isActive());
 
         Device updated = deviceRepository.save(found);
+        evict(updated.getApiKey(), tenant, application);
 
         return ServiceResponseBuilder.<Device>ok()
                 .withResult(updated)
@@ -279,11 +286,13 @@ public class DeviceRegisterServiceImpl implements DeviceRegisterService {
         if (serviceResponse.isOk()) {
             try {
                 Device existingDevice = serviceResponse.getResult();
+                String previousApiKey = existingDevice.getApiKey();
                 PasswordManager passwordManager = new PasswordManager();
                 String randomPassword = passwordManager.generateRandomPassword(12);
                 existingDevice.setSecurityHash(passwordManager.createHash(randomPassword));
                 existingDevice.regenerateApiKey();
                 Device saved = deviceRepository.save(existingDevice);
+                evict(previousApiKey, tenant, application);
 
                 LOGGER.info("Password generated for device id: {}", existingDevice.getDeviceId(), tenant.toURI(), tenant.getLogLevel());
 
@@ -346,6 +355,7 @@ public class DeviceRegisterServiceImpl implements DeviceRegisterService {
         }
 
         Device saved = deviceRepository.save(deviceFromDB);
+        evict(saved.getApiKey(), tenant, application);
 
         LOGGER.info("Device updated. Id: {}", deviceFromDB.getDeviceId(), tenant.toURI(), tenant.getLogLevel());
 
@@ -388,6 +398,7 @@ public class DeviceRegisterServiceImpl implements DeviceRegisterService {
         deviceRemovedMap.put("deviceGuid", device.getGuid());
        	rabbitTemplate.convertAndSend("device.removed", deviceRemovedMap);
         deviceRepository.delete(device);
+        evict(device.getApiKey(), tenant, application);
 
         LOGGER.info("Device removed. Id: {}", device.getDeviceId(), tenant.toURI(), tenant.getLogLevel());
 
@@ -397,6 +408,24 @@ public class DeviceRegisterServiceImpl implements DeviceRegisterService {
                 .build();
     }
 
+    /**
+     * Drops the device from the API key cache of this node and asks the other nodes to
+     * do the same, and to drop what they derived from the devices of its application.
+     * A lost notification is only stale until the cache entry expires.
+     */
+    private void evict(String apiKey, Tenant tenant, Application application) {
+        deviceApiKeyCache.invalidate(apiKey);
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.DEVICE_CHANGED_EXCHANGE, "", apiKey, message -> {
+                message.getMessageProperties().setHeader(RabbitMQConfig.MSG_HEADER_TENANT_ID, tenant.getId());
+                message.getMessageProperties().setHeader(RabbitMQConfig.MSG_HEADER_APPLICATION_NAME, application.getName());
+                return message;
+            });
+        } catch (AmqpException e) {
+            LOGGER.warn("Could not notify the change of a device: {}", e.getMessage());
+        }
+    }
+
     private ServiceResponse<Device> findDeviceDependencies(Device device) {
 
         List<EventRoute> incomingEventsRoutes =
@@ -566,8 +595,10 @@ public class DeviceRegisterServiceImpl implements DeviceRegisterService {
 
         // changes the origin key to stop receiving messages from the old device
         originDevice = deviceRepository.findByTenantAndApplicationAndGuid(tenant.getId(), originApplication.getName(), guid);
-        originDevice.setApiKey(String.format("%s-TOBEDELETED", originDevice.getApiKey()));
+        String originApiKey = originDevice.getApiKey();
+        originDevice.setApiKey(String.format("%s-TOBEDELETED", originApiKey));
         deviceRepository.save(originDevice);
+        evict(originApiKey, tenant, originApplication);
 
         // copy the events to the new device
         Device newDevice = cloneResponse.getResult();
@@ -708,4 +739,21 @@ public class DeviceRegisterServiceImpl implements DeviceRegisterService {
         }
 	}
 
+	@Override
+	public ServiceResponse<List<Device>> findAllByDeviceIds(Tenant tenant, Application application, Collection<String> deviceIds) {
+		ServiceResponse<List<Device>> validationResponse = validate(tenant, application);
+		if (!validationResponse.isOk()) {
+			return validationResponse;
+		}
+
+		if (deviceIds.isEmpty()) {
+			return ServiceResponseBuilder.<List<Device>>ok().withResult(Collections.emptyList()).build();
+		}
+
+		List<Device> devices = deviceRepository.findAllByTenantIdApplicationNameAndDeviceIds(
+				tenant.getId(), application.getName(), deviceIds);
+
+		return ServiceResponseBuilder.<List<Device>>ok().withResult(devices).build();
+	}
+
 }
\ No newline at end of file
@@ -19,6 +19,10 @@ import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
@@ -36,6 +40,7 @@ import com.konkerlabs.platform.registry.business.repositories.LocationRepository
 import com.konkerlabs.platform.registry.business.repositories.RestDestinationRepository;
 import com.konkerlabs.platform.registry.business.repositories.TenantRepository;
 import com.konkerlabs.platform.registry.business.services.api.ServiceResponseBuilder;
+import com.konkerlabs.platform.registry.config.RabbitMQConfig;
 import org.springframework.util.StringUtils;
 
 @Service
@@ -58,6 +63,8 @@ public class EventRouteServiceImpl implements EventRouteService {
     private LocationRepository locationRepository;
     @Autowired
     private RestDestinationRepository restRepository;
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
 
     @Override
     public ServiceResponse<EventRoute> save(Tenant tenant, Application application, EventRoute route) {
@@ -99,6 +106,7 @@ public class EventRouteServiceImpl implements EventRouteService {
         }
 
         EventRoute saved = eventRouteRepository.save(route);
+        notifyChange(tenant, application);
 
         LOGGER.info("Route created. Name: {}", route.getName(), tenant.toURI(), tenant.getLogLevel());
 
@@ -169,6 +177,7 @@ public class EventRouteServiceImpl implements EventRouteService {
         }
 
         EventRoute saved = eventRouteRepository.save(current);
+        notifyChange(tenant, application);
 
         LOGGER.info("Route updated. Name: {}", saved.getName(), tenant.toURI(), tenant.getLogLevel());
 
@@ -376,6 +385,7 @@ public class EventRouteServiceImpl implements EventRouteService {
                     .build();
 
         eventRouteRepository.delete(route);
+        notifyChange(tenant, application);
 
         LOGGER.info("Route removed. Name: {}", route.getName(), tenant.toURI(), tenant.getLogLevel());
 
@@ -384,6 +394,18 @@ public class EventRouteServiceImpl implements EventRouteService {
                 .build();
     }
 
+    private void notifyChange(Tenant tenant, Application application) {
+        try {
+            MessageProperties properties = new MessageProperties();
+            properties.setHeader(RabbitMQConfig.MSG_HEADER_TENANT_ID, tenant.getId());
+            properties.setHeader(RabbitMQConfig.MSG_HEADER_APPLICATION_NAME, application.getName());
+
+            rabbitTemplate.send(RabbitMQConfig.EVENT_ROUTE_CHANGED_EXCHANGE, "", new Message(new byte[0], properties));
+        } catch (AmqpException e) {
+            LOGGER.warn("Could not notify the change of an event route: {}", e.getMessage());
+        }
+    }
+
     private <T> ServiceResponse<T> validate(Tenant tenant, Application application) {
 
         if (!Optional.ofNullable(tenant).isPresent())
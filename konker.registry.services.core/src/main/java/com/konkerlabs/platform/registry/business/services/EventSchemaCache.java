@@ -0,0 +1,65 @@
+package com.konkerlabs.platform.registry.business.services;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import com.konkerlabs.platform.registry.business.model.EventSchema;
+import com.konkerlabs.platform.registry.config.EventSchemaCacheConfig;
+import com.konkerlabs.platform.utilities.cache.LocalCache;
+
+/**
+ * Incoming event schemas of this node by device and channel, as far as this node knows
+ * them. {@link EventSchemaServiceImpl} replaces an entry whenever an event adds a path
+ * or a type to it, so that events with a known shape are checked without going to
+ * MongoDB. Schemas only ever grow: an entry missing what another node has written is
+ * merged again by the next event that carries it.
+ *
+ * Cached schemas are shared between threads and must be treated as read only.
+ */
+@Component
+public class EventSchemaCache {
+
+    private final boolean enabled;
+    private final LocalCache<String, EventSchema> schemas;
+
+    public EventSchemaCache() {
+        this(new EventSchemaCacheConfig());
+    }
+
+    public EventSchemaCache(EventSchemaCacheConfig config) {
+        this.enabled = config.isEnabled();
+        this.schemas = new LocalCache<>(config.getMaximumSize(), Duration.ofSeconds(config.getTimeToLiveSeconds()));
+    }
+
+    public EventSchema get(String deviceGuid, String channel, Function<String, EventSchema> loader) {
+        String key = key(deviceGuid, channel);
+        if (!enabled)
+            return loader.apply(key);
+
+        return schemas.get(key, loader);
+    }
+
+    public void put(String deviceGuid, String channel, EventSchema schema) {
+        if (enabled)
+            schemas.put(key(deviceGuid, channel), schema);
+    }
+
+    public void invalidate(String deviceGuid, String channel) {
+        schemas.invalidate(key(deviceGuid, channel));
+    }
+
+    public void invalidateAll() {
+        schemas.invalidateAll();
+    }
+
+    public int size() {
+        return schemas.size();
+    }
+
+    private String key(String deviceGuid, String channel) {
+        return deviceGuid + ":" + channel;
+    }
+
+}
@@ -2,11 +2,14 @@ package com.konkerlabs.platform.registry.business.services;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
@@ -18,6 +21,7 @@ import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Scope;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
@@ -35,9 +39,7 @@ import com.konkerlabs.platform.registry.business.model.EventSchema;
 import com.konkerlabs.platform.registry.business.model.EventSchema.SchemaField;
 import com.konkerlabs.platform.registry.business.model.Tenant;
 import com.konkerlabs.platform.registry.business.model.validation.CommonValidations;
-import com.konkerlabs.platform.registry.business.repositories.ApplicationRepository;
 import com.konkerlabs.platform.registry.business.repositories.DeviceRepository;
-import com.konkerlabs.platform.registry.business.repositories.TenantRepository;
 import com.konkerlabs.platform.registry.business.repositories.events.api.EventRepository;
 import com.konkerlabs.platform.registry.business.services.api.DeviceRegisterService;
 import com.konkerlabs.platform.registry.business.services.api.EventSchemaService;
@@ -46,6 +48,8 @@ import com.konkerlabs.platform.registry.business.services.api.ServiceResponseBui
 import com.konkerlabs.platform.registry.config.EventStorageConfig;
 import com.konkerlabs.platform.registry.type.EventStorageConfigType;
 import com.konkerlabs.platform.utilities.parsers.json.JsonParsingService;
+import com.konkerlabs.platform.utilities.parsers.json.ParsedJson;
+import com.mongodb.DBObject;
 
 @Service
 @Scope(BeanDefinition.SCOPE_PROTOTYPE)
@@ -76,10 +80,10 @@ public class EventSchemaServiceImpl implements EventSchemaService {
     private MongoTemplate mongoTemplate;
 
     @Autowired
-    private TenantRepository tenantRepository;
+    private EventSchemaCache eventSchemaCache;
 
     @Autowired
-    private ApplicationRepository applicationRepository;
+    private EventSchemaWriter eventSchemaWriter;
 
     @Autowired
     private DeviceRepository deviceRepository;
@@ -111,6 +115,51 @@ public class EventSchemaServiceImpl implements EventSchemaService {
 
     @Override
     public ServiceResponse<EventSchema> appendIncomingSchema(Event event) {
+        return appendIncomingSchema(event,
+                Optional.ofNullable(event).map(e -> jsonParsingService.parse(e.getPayload())).orElse(null));
+    }
+
+    @Override
+    public ServiceResponse<EventSchema> appendIncomingSchema(Event event, ParsedJson payload) {
+
+        ServiceResponse<EventSchema> validation = validateIncomingSchema(event, payload);
+
+        if (!validation.isOk())
+            return validation;
+
+        EventActor incoming = event.getIncoming();
+        String deviceGuid = incoming.getDeviceGuid();
+        String channel = incoming.getChannel();
+
+        Map<String, JsonParsingService.JsonPathData> data;
+        try {
+            data = payload.getFlatMap();
+        } catch (JsonProcessingException e) {
+            return ServiceResponseBuilder.<EventSchema>error()
+                    .withMessage(Validations.EVENT_INVALID_PAYLOAD.getCode()).build();
+        }
+
+        EventSchema known = eventSchemaCache.get(deviceGuid, channel, key -> findIncomingSchema(deviceGuid, channel));
+        Map<String, Set<JsonNodeType>> additions = additionsTo(known, data);
+
+        if (additions.isEmpty())
+            return ServiceResponseBuilder.<EventSchema>ok().withResult(known).build();
+
+        EventSchema merged = copyOf(known);
+        data.forEach(merged::upsertTypeFor);
+        eventSchemaCache.put(deviceGuid, channel, merged);
+
+        eventSchemaWriter.appendFields(SchemaType.INCOMING.getCollectionName(), deviceGuid, channel, additions);
+
+        return ServiceResponseBuilder.<EventSchema>ok().withResult(merged).build();
+    }
+
+    /**
+     * Checks that the schema of an incoming event could be appended, without reading or
+     * writing any schema.
+     */
+    @Override
+    public ServiceResponse<EventSchema> validateIncomingSchema(Event event, ParsedJson payload) {
 
         Optional<Validations> invalid = validateForSchemaAppending(event, SchemaType.INCOMING);
 
@@ -118,18 +167,14 @@ public class EventSchemaServiceImpl implements EventSchemaService {
             return ServiceResponseBuilder.<EventSchema>error()
                 .withMessage(invalid.get().getCode()).build();
 
-        EventSchema toBeSaved;
         try {
-            EventActor incoming = event.getIncoming();
-            toBeSaved = prepareSchemaFor(incoming.getTenantDomain(), incoming.getApplicationName(), incoming.getDeviceGuid(), incoming.getChannel(),event.getPayload());
+            payload.getFlatMap();
         } catch (JsonProcessingException e) {
             return ServiceResponseBuilder.<EventSchema>error()
                     .withMessage(Validations.EVENT_INVALID_PAYLOAD.getCode()).build();
         }
 
-        mongoTemplate.save(toBeSaved, SchemaType.INCOMING.getCollectionName());
-
-        return ServiceResponseBuilder.<EventSchema>ok().withResult(toBeSaved).build();
+        return ServiceResponseBuilder.<EventSchema>ok().build();
     }
 
     @Override
@@ -137,26 +182,60 @@ public class EventSchemaServiceImpl implements EventSchemaService {
         return ServiceResponseBuilder.<EventSchema>ok().build();
     }
 
-    private EventSchema prepareSchemaFor(String tenantDomain, String applicationName, String deviceId, String channel, String payload) throws JsonProcessingException {
-        Tenant tenant = tenantRepository.findByDomainName(tenantDomain);
-        Application application = applicationRepository.findByTenantAndName(tenant.getId(), applicationName);
-        ServiceResponse<EventSchema> existing = findIncomingBy(tenant, application, deviceId, channel);
+    private EventSchema findIncomingSchema(String deviceGuid, String channel) {
+        EventSchema existing = mongoTemplate.findOne(
+                Query.query(Criteria.where("deviceGuid")
+                        .is(deviceGuid).andOperator(Criteria.where("channel").is(channel))),
+                EventSchema.class, SchemaType.INCOMING.getCollectionName()
+        );
 
-        Map<String,JsonParsingService.JsonPathData> data = jsonParsingService.toFlatMap(payload);
+        return Optional.ofNullable(existing).orElseGet(() -> {
+            EventSchema schema = EventSchema.builder()
+                    .deviceGuid(deviceGuid).channel(channel).build();
+            schema.setFields(new LinkedHashSet<>());
+            return schema;
+        });
+    }
 
-        EventSchema eventSchema = Optional.of(existing)
-                .filter(ServiceResponse::isOk)
-                .map(eventSchemaServiceResponse -> eventSchemaServiceResponse.getResult())
-                .orElseGet(() -> {
-                    EventSchema schema = EventSchema.builder()
-                            .deviceGuid(deviceId).channel(channel).build();
-                    schema.setFields(new LinkedHashSet<>());
-                    return schema;
-                });
+    /**
+     * Types each path of the payload would add to the schema, following
+     * {@link EventSchema#upsertTypeFor}; empty when the payload has a known shape.
+     */
+    private Map<String, Set<JsonNodeType>> additionsTo(EventSchema schema, Map<String, JsonParsingService.JsonPathData> data) {
+        Map<String, Set<JsonNodeType>> additions = new LinkedHashMap<>();
 
-        data.forEach(eventSchema::upsertTypeFor);
+        data.forEach((path, pathData) -> {
+            Optional<SchemaField> field = schema.getByPath(path);
+            List<JsonNodeType> types = pathData.getTypes();
 
-        return eventSchema;
+            Set<JsonNodeType> added = field.isPresent()
+                    ? EnumSet.of(types.get(types.size() - 1))
+                    : EnumSet.copyOf(types);
+            field.ifPresent(known -> added.removeAll(known.getKnownTypes()));
+
+            if (!added.isEmpty())
+                additions.put(path, added);
+        });
+
+        return additions;
+    }
+
+    private EventSchema copyOf(EventSchema schema) {
+        EventSchema copy = EventSchema.builder()
+                .deviceGuid(schema.getDeviceGuid())
+                .channel(schema.getChannel())
+                .build();
+        copy.setId(schema.getId());
+        copy.setFields(schema.getFields().stream()
+                .map(field -> {
+                    // the builder would make the known types read only
+                    SchemaField fieldCopy = SchemaField.builder().path(field.getPath()).build();
+                    fieldCopy.setKnownTypes(new HashSet<>(field.getKnownTypes()));
+                    return fieldCopy;
+                })
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+
+        return copy;
     }
 
     private Optional<Validations> validateForSchemaAppending(Event event, SchemaType type) {
@@ -189,28 +268,43 @@ public class EventSchemaServiceImpl implements EventSchemaService {
         return Optional.empty();
     }
 
-    private ServiceResponse<List<EventSchema>> findIncomingBy(Tenant tenant, String deviceGuid) {
+    /**
+     * Paths of the incoming schema fields matching the criteria that have ever carried
+     * the node type, read as one row per path instead of whole schema documents.
+     */
+    private ServiceResponse<List<String>> findIncomingMetricsBy(Tenant tenant, String deviceGuid, Criteria criteria, JsonNodeType nodeType) {
 
         if (!Optional.ofNullable(tenant).isPresent()) {
-            return ServiceResponseBuilder.<List<EventSchema>>error()
+            return ServiceResponseBuilder.<List<String>>error()
                     .withMessage(CommonValidations.TENANT_NULL.getCode())
                     .build();
         }
 
         Device device = deviceRepository.findByTenantAndGuid(tenant.getId(), deviceGuid);
         if (!Optional.ofNullable(device).isPresent()) {
-            return ServiceResponseBuilder.<List<EventSchema>> error()
+            return ServiceResponseBuilder.<List<String>> error()
                     .withMessage(DeviceRegisterService.Validations.DEVICE_GUID_DOES_NOT_EXIST.getCode())
                     .build();
         }
 
-        List<EventSchema> existing = mongoTemplate.find(
-                Query.query(Criteria.where("deviceGuid").is(deviceGuid)),
-                EventSchema.class, SchemaType.INCOMING.getCollectionName()
+        if (nodeType == null) {
+            return ServiceResponseBuilder.<List<String>>ok()
+                    .withResult(new ArrayList<>()).build();
+        }
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.unwind("fields"),
+                Aggregation.match(Criteria.where("fields.knownTypes").is(nodeType.name())),
+                Aggregation.project().and("fields.path").as("path")
         );
 
-        return ServiceResponseBuilder.<List<EventSchema>>ok()
-            .withResult(existing).build();
+        List<String> metrics = mongoTemplate.aggregate(aggregation, SchemaType.INCOMING.getCollectionName(), DBObject.class)
+                .getMappedResults()
+                .stream().map(row -> (String) row.get("path")).collect(Collectors.toList());
+
+        return ServiceResponseBuilder.<List<String>>ok()
+            .withResult(metrics).build();
     }
 
     @Override
@@ -273,10 +367,9 @@ public class EventSchemaServiceImpl implements EventSchemaService {
         ServiceResponse<Device> deviceServiceResponse = deviceRegisterService.getByDeviceGuid(tenant, application, deviceGuid);
 
         if (deviceServiceResponse.isOk()) {
-            List<String> channelList = mongoTemplate.find(Query.query(Criteria.where("deviceGuid").is(deviceGuid)),
-                                                          EventSchema.class,
-                                                          SchemaType.INCOMING.getCollectionName())
-                    .stream().map(EventSchema::getChannel).distinct().sorted().collect(Collectors.toList());
+            List<?> channels = mongoTemplate.getCollection(SchemaType.INCOMING.getCollectionName())
+                    .distinct("channel", Query.query(Criteria.where("deviceGuid").is(deviceGuid)).getQueryObject());
+            List<String> channelList = channels.stream().map(String::valueOf).sorted().collect(Collectors.toList());
 
             return ServiceResponseBuilder.<List<String>>ok()
                 .withResult(channelList).build();
@@ -288,55 +381,15 @@ public class EventSchemaServiceImpl implements EventSchemaService {
 
 	@Override
 	public ServiceResponse<List<String>> findKnownIncomingMetricsBy(Tenant tenant, Application application, String deviceGuid, String channel, JsonNodeType nodeType) {
-
-        ServiceResponse<EventSchema> metricsResponse = findIncomingBy(tenant, application, deviceGuid, channel);
-        if (metricsResponse.isOk()) {
-
-            EventSchema schema = metricsResponse.getResult();
-            List<String> listMetrics = filterMetricsByJsonType(schema, nodeType);
-
-            return ServiceResponseBuilder.<List<String>>ok().withResult(listMetrics).build();
-        } else {
-            return ServiceResponseBuilder.<List<String>>error().withMessages(metricsResponse.getResponseMessages())
-                    .build();
-        }
-
+        return findIncomingMetricsBy(tenant, deviceGuid,
+                Criteria.where("deviceGuid").is(deviceGuid).and("channel").is(channel), nodeType);
     }
 
 	@Override
 	public ServiceResponse<List<String>> findKnownIncomingMetricsBy(Tenant tenant, Application application, String deviceGuid, JsonNodeType nodeType) {
-
-        ServiceResponse<List<EventSchema>> metricsResponse = findIncomingBy(tenant, deviceGuid);
-        if (metricsResponse.isOk()) {
-            List<String> listMetrics = new ArrayList<>();
-
-            for (EventSchema schema : metricsResponse.getResult()) {
-                List<String> result = filterMetricsByJsonType(schema, nodeType);
-                listMetrics.addAll(result);
-            }
-
-            return ServiceResponseBuilder.<List<String>>ok().withResult(listMetrics).build();
-        } else {
-            return ServiceResponseBuilder.<List<String>>error().withMessages(metricsResponse.getResponseMessages())
-                    .build();
-        }
-
+        return findIncomingMetricsBy(tenant, deviceGuid, Criteria.where("deviceGuid").is(deviceGuid), nodeType);
 	}
 
-    private List<String> filterMetricsByJsonType(EventSchema metricsResponse, JsonNodeType nodeType) {
-
-        if (metricsResponse == null) {
-            return Collections.emptyList();
-        }
-
-        List<String> listMetrics = metricsResponse.getFields().stream()
-                .filter(schemaField -> schemaField.getKnownTypes().contains(nodeType)).map(SchemaField::getPath)
-                .collect(Collectors.toList());
-
-        return listMetrics;
-
-    }
-
 	@Override
 	public ServiceResponse<EventSchema> findLastIncomingBy(Tenant tenant, Application application, String deviceGuid, JsonNodeType nodeType, Integer limit) {
 
@@ -0,0 +1,83 @@
+package com.konkerlabs.platform.registry.business.services;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import com.mongodb.BasicDBObject;
+import com.mongodb.WriteResult;
+
+/**
+ * Merges the paths and types an event adds to a schema into its MongoDB document,
+ * with one update per changed path instead of rewriting the whole document. Updates
+ * only add, so they can be applied in any order and more than once; a failed merge
+ * drops the cached schema, and the next event carrying the change merges it again.
+ */
+@Component
+public class EventSchemaWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventSchemaWriter.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private EventSchemaCache eventSchemaCache;
+
+    @Async
+    public void appendFields(String collectionName, String deviceGuid, String channel,
+                             Map<String, Set<JsonNodeType>> additions) {
+        try {
+            additions.forEach((path, types) -> appendField(collectionName, deviceGuid, channel, path, types));
+        } catch (DataAccessException e) {
+            eventSchemaCache.invalidate(deviceGuid, channel);
+            LOGGER.error("Could not merge the schema of device {} on channel {}", deviceGuid, channel, e);
+        }
+    }
+
+    private void appendField(String collectionName, String deviceGuid, String channel,
+                             String path, Set<JsonNodeType> types) {
+        Object[] typeNames = types.stream().map(JsonNodeType::name).toArray();
+
+        if (addKnownTypes(collectionName, deviceGuid, channel, path, typeNames))
+            return;
+
+        try {
+            // creates the document as well, when the channel is new
+            mongoTemplate.upsert(
+                    Query.query(schemaOf(deviceGuid, channel).and("fields.path").ne(path)),
+                    new Update().push("fields", new BasicDBObject("path", path).append("knownTypes", typeNames)),
+                    collectionName);
+        } catch (DuplicateKeyException e) {
+            // another node added the path in between
+            addKnownTypes(collectionName, deviceGuid, channel, path, typeNames);
+        }
+    }
+
+    private boolean addKnownTypes(String collectionName, String deviceGuid, String channel,
+                                  String path, Object[] typeNames) {
+        WriteResult result = mongoTemplate.updateFirst(
+                Query.query(schemaOf(deviceGuid, channel).and("fields.path").is(path)),
+                new Update().addToSet("fields.$.knownTypes").each(typeNames),
+                collectionName);
+
+        return result.getN() > 0;
+    }
+
+    private Criteria schemaOf(String deviceGuid, String channel) {
+        return Criteria.where("deviceGuid").is(deviceGuid).and("channel").is(channel);
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.konkerlabs.platform.registry.business.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.konkerlabs.platform.registry.business.model.Application;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.config.RabbitMQConfig;
+
+/**
+ * Tells every node listening to {@code RabbitMQConfig.LOCATION_CHANGED_EXCHANGE} that
+ * the locations of an application changed, whichever service saved them.
+ */
+@Component
+public class LocationChangeNotifier {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocationChangeNotifier.class);
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    public void notifyChange(Tenant tenant, Application application) {
+        try {
+            MessageProperties properties = new MessageProperties();
+            properties.setHeader(RabbitMQConfig.MSG_HEADER_TENANT_ID, tenant.getId());
+            properties.setHeader(RabbitMQConfig.MSG_HEADER_APPLICATION_NAME, application.getName());
+
+            rabbitTemplate.send(RabbitMQConfig.LOCATION_CHANGED_EXCHANGE, "", new Message(new byte[0], properties));
+        } catch (AmqpException e) {
+            LOGGER.warn("Could not notify the change of a location: {}", e.getMessage());
+        }
+    }
+
+}
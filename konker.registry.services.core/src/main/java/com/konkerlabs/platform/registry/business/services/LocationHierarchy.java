@@ -0,0 +1,94 @@
+package com.konkerlabs.platform.registry.business.services;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.konkerlabs.platform.registry.business.model.Location;
+
+/**
+ * Immutable ancestry of the locations of one application, numbered in pre-order so
+ * the locations below a node are exactly those numbered from the node up to the last
+ * number of its subtree. Checking whether a location lies under another is then two
+ * map lookups and two comparisons, instead of loading and walking the tree.
+ */
+public class LocationHierarchy {
+
+    private final Map<String, Integer> order = new HashMap<>();
+    private final int[] subtreeEnd;
+
+    public LocationHierarchy(List<Location> allNodes) {
+        Map<String, List<Location>> children = new HashMap<>();
+        List<Location> roots = new ArrayList<>();
+        Map<String, Location> byGuid = new HashMap<>();
+
+        for (Location location : allNodes) {
+            byGuid.put(location.getGuid(), location);
+        }
+
+        for (Location location : allNodes) {
+            String parentGuid = Optional.ofNullable(location.getParent()).map(Location::getGuid).orElse(null);
+            if (parentGuid == null || !byGuid.containsKey(parentGuid)) {
+                roots.add(location);
+            } else {
+                children.computeIfAbsent(parentGuid, k -> new ArrayList<>()).add(location);
+            }
+        }
+
+        subtreeEnd = new int[byGuid.size()];
+
+        // iterative pre-order walk; a node is pushed again as a marker to close its subtree
+        Deque<Object[]> stack = new ArrayDeque<>();
+        for (int i = roots.size() - 1; i >= 0; i--) {
+            stack.push(new Object[] {roots.get(i), Boolean.FALSE});
+        }
+
+        int next = 0;
+        while (!stack.isEmpty()) {
+            Object[] frame = stack.pop();
+            Location location = (Location) frame[0];
+
+            if ((Boolean) frame[1]) {
+                subtreeEnd[order.get(location.getGuid())] = next - 1;
+                continue;
+            }
+
+            if (order.containsKey(location.getGuid()))
+                continue;
+
+            order.put(location.getGuid(), next++);
+            stack.push(new Object[] {location, Boolean.TRUE});
+
+            List<Location> nodeChildren = children.getOrDefault(location.getGuid(), new ArrayList<>());
+            for (int i = nodeChildren.size() - 1; i >= 0; i--) {
+                stack.push(new Object[] {nodeChildren.get(i), Boolean.FALSE});
+            }
+        }
+    }
+
+    /**
+     * Whether the location is the ancestor itself or lies anywhere below it.
+     */
+    public boolean isSublocationOf(String ancestorGuid, String locationGuid) {
+        Integer ancestor = order.get(ancestorGuid);
+        Integer location = order.get(locationGuid);
+
+        if (ancestor == null || location == null)
+            return false;
+
+        return ancestor <= location && location <= subtreeEnd[ancestor];
+    }
+
+    public boolean contains(String locationGuid) {
+        return order.containsKey(locationGuid);
+    }
+
+    public int size() {
+        return order.size();
+    }
+
+}
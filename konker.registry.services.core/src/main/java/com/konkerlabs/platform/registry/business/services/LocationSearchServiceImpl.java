@@ -36,6 +36,9 @@ public class LocationSearchServiceImpl implements LocationSearchService {
     @Autowired
     private DeviceRepository deviceRepository;
 
+    @Autowired
+    private LocationChangeNotifier locationChangeNotifier;
+
     @Override
     public ServiceResponse<Location> findByName(Tenant tenant, Application application, String locationName, boolean loadTree) {
 
@@ -117,6 +120,7 @@ public class LocationSearchServiceImpl implements LocationSearchService {
                                 .build();
 
         locationRepository.save(root);
+        locationChangeNotifier.notifyChange(tenant, application);
 
         return root;
 
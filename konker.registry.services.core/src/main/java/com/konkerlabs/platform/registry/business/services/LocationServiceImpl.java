@@ -52,6 +52,9 @@ public class LocationServiceImpl implements LocationService {
     @Autowired
     private MongoTemplate mongoTemplate;
 
+    @Autowired
+    private LocationChangeNotifier locationChangeNotifier;
+
     @Override
     public ServiceResponse<Location> save(Tenant tenant, Application application, Location location) {
 
@@ -93,6 +96,7 @@ public class LocationServiceImpl implements LocationService {
         }
 
         Location saved = locationRepository.save(location);
+        locationChangeNotifier.notifyChange(tenant, application);
 
         LOGGER.info("Location created. Id: {}", location.getId(), tenant.toURI(), tenant.getLogLevel());
 
@@ -153,6 +157,7 @@ public class LocationServiceImpl implements LocationService {
         locationFromDB.setParent(updatingLocation.getParent());
 
         Location saved = locationRepository.save(locationFromDB);
+        locationChangeNotifier.notifyChange(tenant, application);
 
         LOGGER.info("Location updated. Id: {}", locationFromDB.getId(), tenant.toURI(), tenant.getLogLevel());
 
@@ -231,6 +236,7 @@ public class LocationServiceImpl implements LocationService {
         for (Location node: allTreeNodes) {
             locationRepository.delete(node);
         }
+        locationChangeNotifier.notifyChange(tenant, application);
 
         LOGGER.info("Location removed. Id: {}", location.getId(), tenant.toURI(), tenant.getLogLevel());
 
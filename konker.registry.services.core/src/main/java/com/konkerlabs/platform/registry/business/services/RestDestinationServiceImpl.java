@@ -8,6 +8,10 @@ import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
@@ -27,6 +31,7 @@ import com.konkerlabs.platform.registry.business.services.api.ApplicationService
 import com.konkerlabs.platform.registry.business.services.api.RestDestinationService;
 import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
 import com.konkerlabs.platform.registry.business.services.api.ServiceResponseBuilder;
+import com.konkerlabs.platform.registry.config.RabbitMQConfig;
 
 @Service
 @Scope(BeanDefinition.SCOPE_PROTOTYPE)
@@ -42,6 +47,8 @@ public class RestDestinationServiceImpl extends AbstractURLBlacklistValidation i
 	private RestDestinationRepository restRepository;
     @Autowired
     private EventRouteRepository eventRouteRepository;
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
 
     private List<String> methods = Arrays.asList("GET", "POST", "PUT", "DELETE", "PATCH");
 
@@ -235,6 +242,11 @@ public class RestDestinationServiceImpl extends AbstractURLBlacklistValidation i
 			destination.setBody(null);
 		}
 
+		if (!Optional.ofNullable(destination.getBatchSize()).isPresent()) {
+			destination.setBatchSize(existingDestination.getBatchSize());
+			destination.setBatchTimeoutMillis(existingDestination.getBatchTimeoutMillis());
+		}
+
 		Optional<Map<String, Object[]>> validations = destination.applyValidations();
 
 		if (validations.isPresent()) {
@@ -249,6 +261,8 @@ public class RestDestinationServiceImpl extends AbstractURLBlacklistValidation i
 
 		RestDestination saved = restRepository.save(destination);
 
+		notifyChange(existingTenant, application, destination.getGuid());
+
         LOGGER.info("REST destination updated. Name: {}", destination.getName(), tenant.toURI(), tenant.getLogLevel());
 
 		return ServiceResponseBuilder.<RestDestination> ok().withResult(saved).build();
@@ -293,6 +307,8 @@ public class RestDestinationServiceImpl extends AbstractURLBlacklistValidation i
 
 		restRepository.delete(existingDestination);
 
+		notifyChange(existingTenant, application, existingDestination.getGuid());
+
         LOGGER.info("REST destination removed. Name: {}", existingDestination.getName(), tenant.toURI(), tenant.getLogLevel());
 
         return ServiceResponseBuilder.<RestDestination>ok()
@@ -301,4 +317,17 @@ public class RestDestinationServiceImpl extends AbstractURLBlacklistValidation i
                 .build();
 	}
 
+	private void notifyChange(Tenant tenant, Application application, String guid) {
+		try {
+			MessageProperties properties = new MessageProperties();
+			properties.setHeader(RabbitMQConfig.MSG_HEADER_TENANT_ID, tenant.getId());
+			properties.setHeader(RabbitMQConfig.MSG_HEADER_APPLICATION_NAME, application.getName());
+			properties.setHeader(RabbitMQConfig.MSG_HEADER_REST_DESTINATION_GUID, guid);
+
+			rabbitTemplate.send(RabbitMQConfig.REST_DESTINATION_CHANGED_EXCHANGE, "", new Message(new byte[0], properties));
+		} catch (AmqpException e) {
+			LOGGER.warn("Could not notify the change of a REST destination: {}", e.getMessage());
+		}
+	}
+
 }
@@ -6,6 +6,7 @@ import java.util.List;
 import com.konkerlabs.platform.registry.business.model.Application;
 import com.konkerlabs.platform.registry.business.model.Event;
 import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventPage;
 
 public interface DeviceEventService {
 
@@ -14,7 +15,8 @@ public interface DeviceEventService {
         CHANNEL_NULL("service.device_events.channel.not_null"),
         EVENT_NULL("service.device_events.event.not_null"),
         EVENT_PAYLOAD_NULL("service.device_events.event_payload.not_null"),
-        LIMIT_NULL("service.device_events.limit.not_null");
+        LIMIT_NULL("service.device_events.limit.not_null"),
+        CURSOR_INVALID("service.device_events.cursor.invalid");
 
         public String getCode() {
             return code;
@@ -66,4 +68,50 @@ public interface DeviceEventService {
                                                 Instant endTimestamp,
                                                 boolean ascending,
                                                 Integer limit);
+
+    /**
+     * Return a page of incoming device events by provided arguments, resuming
+     * right after the provided cursor
+     *
+     * @param tenant
+     * @param application
+     * @param deviceGuid
+     * @param startingTimestamp
+     * @param endTimestamp
+     * @param limit
+     * @param cursor the next cursor of the previous page, or null for the first page
+     * @return Found events and the cursor of the next page
+     */
+    ServiceResponse<EventPage> findIncomingPageBy(Tenant tenant,
+                                                  Application application,
+                                                  String deviceGuid,
+                                                  String channel,
+                                                  Instant startingTimestamp,
+                                                  Instant endTimestamp,
+                                                  boolean ascending,
+                                                  Integer limit,
+                                                  String cursor);
+
+    /**
+     * Return a page of outgoing device events by provided arguments, resuming
+     * right after the provided cursor
+     *
+     * @param tenant
+     * @param application
+     * @param deviceGuid
+     * @param startingTimestamp
+     * @param endTimestamp
+     * @param limit
+     * @param cursor the next cursor of the previous page, or null for the first page
+     * @return Found events and the cursor of the next page
+     */
+    ServiceResponse<EventPage> findOutgoingPageBy(Tenant tenant,
+                                                  Application application,
+                                                  String deviceGuid,
+                                                  String channel,
+                                                  Instant startingTimestamp,
+                                                  Instant endTimestamp,
+                                                  boolean ascending,
+                                                  Integer limit,
+                                                  String cursor);
 }
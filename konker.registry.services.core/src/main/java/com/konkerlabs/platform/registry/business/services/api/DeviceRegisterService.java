@@ -8,6 +8,7 @@ import com.konkerlabs.platform.registry.config.PubServerConfig;
 import lombok.*;
 
 import java.text.MessageFormat;
+import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
 
@@ -276,4 +277,15 @@ public interface DeviceRegisterService {
 	
 	ServiceResponse<Device> findByDeviceId(Tenant tenant, Application application, String deviceId);
 
+	/**
+	 * Finds the devices of the application with any of the device ids in a single query;
+	 * ids without a device are left out
+	 *
+	 * @param tenant
+	 * @param application
+	 * @param deviceIds
+	 * @return The devices found, in no particular order
+	 */
+	ServiceResponse<List<Device>> findAllByDeviceIds(Tenant tenant, Application application, Collection<String> deviceIds);
+
 }
\ No newline at end of file
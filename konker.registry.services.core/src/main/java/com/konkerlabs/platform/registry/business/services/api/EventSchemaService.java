@@ -5,6 +5,7 @@ import com.konkerlabs.platform.registry.business.model.Application;
 import com.konkerlabs.platform.registry.business.model.Event;
 import com.konkerlabs.platform.registry.business.model.EventSchema;
 import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.utilities.parsers.json.ParsedJson;
 
 import java.util.List;
 
@@ -34,6 +35,8 @@ public interface EventSchemaService {
     }
 
     ServiceResponse<EventSchema> appendIncomingSchema(Event event);
+    ServiceResponse<EventSchema> appendIncomingSchema(Event event, ParsedJson payload);
+    ServiceResponse<EventSchema> validateIncomingSchema(Event event, ParsedJson payload);
     ServiceResponse<EventSchema> appendOutgoingSchema(Event event);
     ServiceResponse<EventSchema> findIncomingBy(Tenant tenant, Application application, String deviceGuid, String channel);
     ServiceResponse<EventSchema> findOutgoingBy(Tenant tenant, Application application, String deviceGuid, String channel);
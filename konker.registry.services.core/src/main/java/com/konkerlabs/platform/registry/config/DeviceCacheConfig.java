@@ -0,0 +1,32 @@
+package com.konkerlabs.platform.registry.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import lombok.Data;
+
+@Data
+public class DeviceCacheConfig {
+
+    private boolean enabled;
+    private int maximumSize;
+    private int timeToLiveSeconds;
+
+    public DeviceCacheConfig() {
+        Map<String, Object> defaultMap = new HashMap<>();
+        defaultMap.put("deviceCache.enabled", true);
+        defaultMap.put("deviceCache.maximumSize", 100000);
+        defaultMap.put("deviceCache.timeToLiveSeconds", 300);
+
+        Config defaultConf = ConfigFactory.parseMap(defaultMap);
+        Config config = ConfigFactory.load().withFallback(defaultConf);
+
+        setEnabled(config.getBoolean("deviceCache.enabled"));
+        setMaximumSize(config.getInt("deviceCache.maximumSize"));
+        setTimeToLiveSeconds(config.getInt("deviceCache.timeToLiveSeconds"));
+    }
+
+}
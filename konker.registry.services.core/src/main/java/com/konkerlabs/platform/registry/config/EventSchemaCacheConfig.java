@@ -0,0 +1,32 @@
+package com.konkerlabs.platform.registry.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import lombok.Data;
+
+@Data
+public class EventSchemaCacheConfig {
+
+    private boolean enabled;
+    private int maximumSize;
+    private int timeToLiveSeconds;
+
+    public EventSchemaCacheConfig() {
+        Map<String, Object> defaultMap = new HashMap<>();
+        defaultMap.put("eventSchemaCache.enabled", true);
+        defaultMap.put("eventSchemaCache.maximumSize", 100000);
+        defaultMap.put("eventSchemaCache.timeToLiveSeconds", 600);
+
+        Config defaultConf = ConfigFactory.parseMap(defaultMap);
+        Config config = ConfigFactory.load().withFallback(defaultConf);
+
+        setEnabled(config.getBoolean("eventSchemaCache.enabled"));
+        setMaximumSize(config.getInt("eventSchemaCache.maximumSize"));
+        setTimeToLiveSeconds(config.getInt("eventSchemaCache.timeToLiveSeconds"));
+    }
+
+}
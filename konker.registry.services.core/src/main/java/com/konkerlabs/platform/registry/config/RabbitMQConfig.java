@@ -6,6 +6,7 @@ import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
@@ -39,6 +40,20 @@ public class RabbitMQConfig {
 
     public static final String MSG_HEADER_EVENT_ROUTE_GUID = "eventRouteGuid";
 
+    public static final String MSG_HEADER_TENANT_ID = "tenantId";
+
+    public static final String MSG_HEADER_APPLICATION_NAME = "applicationName";
+
+    public static final String MSG_HEADER_REST_DESTINATION_GUID = "restDestinationGuid";
+
+    public static final String DEVICE_CHANGED_EXCHANGE = "device.changed";
+
+    public static final String EVENT_ROUTE_CHANGED_EXCHANGE = "eventroute.changed";
+
+    public static final String LOCATION_CHANGED_EXCHANGE = "location.changed";
+
+    public static final String REST_DESTINATION_CHANGED_EXCHANGE = "restdestination.changed";
+
     public RabbitMQConfig() {
         Map<String, Object> defaultMap = new HashMap<>();
         defaultMap.put("rabbitmq.hostname", "localhost");
@@ -93,6 +108,38 @@ public class RabbitMQConfig {
 
     }
 
+    @Bean
+    public FanoutExchange deviceChangedExchange() {
+        boolean durable = true;
+        boolean autoDelete = false;
+
+        return new FanoutExchange(DEVICE_CHANGED_EXCHANGE, durable, autoDelete);
+    }
+
+    @Bean
+    public FanoutExchange eventRouteChangedExchange() {
+        boolean durable = true;
+        boolean autoDelete = false;
+
+        return new FanoutExchange(EVENT_ROUTE_CHANGED_EXCHANGE, durable, autoDelete);
+    }
+
+    @Bean
+    public FanoutExchange locationChangedExchange() {
+        boolean durable = true;
+        boolean autoDelete = false;
+
+        return new FanoutExchange(LOCATION_CHANGED_EXCHANGE, durable, autoDelete);
+    }
+
+    @Bean
+    public FanoutExchange restDestinationChangedExchange() {
+        boolean durable = true;
+        boolean autoDelete = false;
+
+        return new FanoutExchange(REST_DESTINATION_CHANGED_EXCHANGE, durable, autoDelete);
+    }
+
     @Bean
     public Queue eventRoutesQueue() {
         boolean durable = true;
@@ -1,8 +1,12 @@
 package com.konkerlabs.platform.registry.test.base;
 
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 
+import static org.mockito.Mockito.mock;
+
 @Configuration
 @ComponentScan(basePackages = {
     "com.konkerlabs.platform.registry.business",
@@ -12,4 +16,9 @@ import org.springframework.context.annotation.Configuration;
 },lazyInit = true)
 public class BusinessTestConfiguration {
 
+    @Bean
+    public RabbitTemplate rabbitTemplate() {
+        return mock(RabbitTemplate.class);
+    }
+
 }
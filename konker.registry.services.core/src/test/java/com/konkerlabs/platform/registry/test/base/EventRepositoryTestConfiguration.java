@@ -1,7 +1,9 @@
 package com.konkerlabs.platform.registry.test.base;
 
 import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.springframework.context.annotation.Configuration;
 import org.springframework.stereotype.Repository;
@@ -11,6 +13,8 @@ import com.konkerlabs.platform.registry.business.model.Application;
 import com.konkerlabs.platform.registry.business.model.Event;
 import com.konkerlabs.platform.registry.business.model.Tenant;
 import com.konkerlabs.platform.registry.business.repositories.events.api.BaseEventRepositoryImpl;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventCursor;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventPage;
 import com.konkerlabs.platform.registry.config.MongoConfig;
 
 @Configuration
@@ -30,8 +34,13 @@ public class EventRepositoryTestConfiguration extends MongoConfig {
         }
 
         @Override
-        protected List<Event> doFindBy(Tenant tenant, Application application, String deviceGuid, String channel, Instant startInstant, Instant endInstant, boolean ascending, Integer limit, Type incoming, boolean b) throws BusinessException {
-            return null;
+        protected Stream<Event> doStreamBy(Tenant tenant, Application application, String deviceGuid, String channel, Instant startInstant, Instant endInstant, boolean ascending, Integer limit, Type incoming, boolean b) throws BusinessException {
+            return Stream.empty();
+        }
+
+        @Override
+        protected EventPage doFindPageBy(Tenant tenant, Application application, String deviceGuid, String channel, Instant startInstant, Instant endInstant, boolean ascending, int limit, EventCursor after, Type incoming) throws BusinessException {
+            return new EventPage(Collections.emptyList(), null);
         }
 
 		@Override
@@ -226,4 +226,31 @@ public class RestDestinationTest {
         assertThat(uri, nullValue());
     }
 
+    @Test
+    public void shouldReturnAValidationMessageIfBatchSizeIsTooLarge() throws Exception {
+        subject.setBatchSize(RestDestination.MAX_BATCH_SIZE + 1);
+        subject.setBatchTimeoutMillis(1000);
+
+        String expectedMessage = RestDestination.Validations.BATCH_SIZE_INVALID.getCode();
+
+        assertThat(subject.applyValidations().get(), hasKey(expectedMessage));
+    }
+
+    @Test
+    public void shouldReturnAValidationMessageIfBatchedWithoutTimeout() throws Exception {
+        subject.setBatchSize(100);
+
+        String expectedMessage = RestDestination.Validations.BATCH_TIMEOUT_INVALID.getCode();
+
+        assertThat(subject.applyValidations().get(), hasKey(expectedMessage));
+    }
+
+    @Test
+    public void shouldNotBeBatchedForSingleEventBatches() throws Exception {
+        subject.setBatchSize(1);
+
+        assertThat(subject.isBatched(), equalTo(false));
+        assertThat(subject.applyValidations().isPresent(), equalTo(false));
+    }
+
 }
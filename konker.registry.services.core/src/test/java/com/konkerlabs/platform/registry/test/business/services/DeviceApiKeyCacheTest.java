@@ -0,0 +1,65 @@
+package com.konkerlabs.platform.registry.test.business.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.konkerlabs.platform.registry.business.model.Device;
+import com.konkerlabs.platform.registry.business.services.DeviceApiKeyCache;
+import com.konkerlabs.platform.registry.config.DeviceCacheConfig;
+
+public class DeviceApiKeyCacheTest {
+
+    private static final String API_KEY = "84399b2e-d99e-11e5-86bc-34238775bac9";
+
+    private DeviceApiKeyCache subject;
+    private AtomicInteger loads;
+
+    @Before
+    public void setUp() {
+        DeviceCacheConfig config = new DeviceCacheConfig();
+        config.setEnabled(true);
+
+        subject = new DeviceApiKeyCache(config);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void shouldLoadADeviceOnlyOnce() {
+        Device device = Device.builder().apiKey(API_KEY).active(true).build();
+
+        subject.get(API_KEY, apiKey -> load(device));
+        Device cached = subject.get(API_KEY, apiKey -> load(device));
+
+        assertThat(cached, sameInstance(device));
+        assertThat(loads.get(), equalTo(1));
+    }
+
+    @Test
+    public void shouldNotKeepADeviceLoadedWhileItWasInvalidated() {
+        Device stale = Device.builder().apiKey(API_KEY).active(true).build();
+        Device disabled = Device.builder().apiKey(API_KEY).active(false).build();
+
+        Device loaded = subject.get(API_KEY, apiKey -> {
+            // the device is disabled on another node while this one reads it
+            subject.invalidate(apiKey);
+            return load(stale);
+        });
+
+        assertThat(loaded, sameInstance(stale));
+        assertThat(subject.size(), equalTo(0));
+        assertThat(subject.get(API_KEY, apiKey -> load(disabled)), sameInstance(disabled));
+        assertThat(loads.get(), equalTo(2));
+    }
+
+    private Device load(Device device) {
+        loads.incrementAndGet();
+        return device;
+    }
+
+}
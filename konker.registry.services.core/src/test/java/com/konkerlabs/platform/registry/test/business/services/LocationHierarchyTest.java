@@ -0,0 +1,54 @@
+package com.konkerlabs.platform.registry.test.business.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.konkerlabs.platform.registry.business.model.Location;
+import com.konkerlabs.platform.registry.business.services.LocationHierarchy;
+
+public class LocationHierarchyTest {
+
+    private LocationHierarchy subject;
+
+    @Before
+    public void setUp() {
+        Location root = Location.builder().guid("root").build();
+        Location br = Location.builder().guid("br").parent(root).build();
+        Location sp = Location.builder().guid("sp").parent(br).build();
+        Location rj = Location.builder().guid("rj").parent(br).build();
+        Location us = Location.builder().guid("us").parent(root).build();
+        Location ny = Location.builder().guid("ny").parent(us).build();
+
+        subject = new LocationHierarchy(Arrays.asList(ny, sp, root, us, rj, br));
+    }
+
+    @Test
+    public void shouldFindLocationsUnderAnAncestor() {
+        assertThat(subject.isSublocationOf("root", "ny"), equalTo(true));
+        assertThat(subject.isSublocationOf("br", "sp"), equalTo(true));
+        assertThat(subject.isSublocationOf("br", "rj"), equalTo(true));
+        assertThat(subject.isSublocationOf("br", "br"), equalTo(true));
+    }
+
+    @Test
+    public void shouldNotFindLocationsOutsideAnAncestor() {
+        assertThat(subject.isSublocationOf("br", "ny"), equalTo(false));
+        assertThat(subject.isSublocationOf("br", "us"), equalTo(false));
+        assertThat(subject.isSublocationOf("sp", "br"), equalTo(false));
+        assertThat(subject.isSublocationOf("sp", "rj"), equalTo(false));
+    }
+
+    @Test
+    public void shouldNotFindUnknownLocations() {
+        assertThat(subject.isSublocationOf("br", "london"), equalTo(false));
+        assertThat(subject.isSublocationOf("london", "br"), equalTo(false));
+        assertThat(subject.contains("london"), equalTo(false));
+        assertThat(subject.size(), equalTo(6));
+    }
+
+}
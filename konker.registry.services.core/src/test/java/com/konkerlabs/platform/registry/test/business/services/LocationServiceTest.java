@@ -6,6 +6,7 @@ import com.konkerlabs.platform.registry.business.repositories.*;
 import com.konkerlabs.platform.registry.business.services.LocationTreeUtils;
 import com.konkerlabs.platform.registry.business.services.api.*;
 import com.konkerlabs.platform.registry.business.services.api.LocationService.Validations;
+import com.konkerlabs.platform.registry.config.RabbitMQConfig;
 import com.konkerlabs.platform.registry.test.base.BusinessLayerTestSupport;
 import com.konkerlabs.platform.registry.test.base.BusinessTestConfiguration;
 import com.konkerlabs.platform.registry.test.base.MongoTestConfiguration;
@@ -16,6 +17,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
@@ -29,6 +32,10 @@ import static com.konkerlabs.platform.registry.test.base.matchers.ServiceRespons
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.rules.ExpectedException.none;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
 
 @RunWith(SpringJUnit4ClassRunner.class)
 @ContextConfiguration(classes = { MongoTestConfiguration.class, BusinessTestConfiguration.class})
@@ -62,6 +69,9 @@ public class LocationServiceTest extends BusinessLayerTestSupport {
     @Autowired
     private ApplicationRepository applicationRepository;
 
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
     private Tenant tenant;
 
     private Application application;
@@ -464,10 +474,14 @@ public class LocationServiceTest extends BusinessLayerTestSupport {
 
     @Test
     public void shouldFindRootWithoutRoot() {
+        reset(rabbitTemplate);
+
         ServiceResponse<Location> response = locationSearchService.findRoot(tenant, otherApplication);
         assertThat(response.isOk(), is(true));
         assertThat(response.getResult().getName(), is("default"));
         assertThat(response.getResult().getParent(), nullValue());
+
+        verify(rabbitTemplate).send(eq(RabbitMQConfig.LOCATION_CHANGED_EXCHANGE), eq(""), any(Message.class));
     }
 
 
@@ -25,6 +25,24 @@ public class CassandraRegistryConfig {
     private String username;
     private String password;
     private int seedPort;
+    private int writerQueueSize;
+    private int writerMaxInFlight;
+    private int writerBatchSize;
+    private int readerFetchSize;
+
+    public CassandraRegistryConfig() {
+        Map<String, Object> defaultMap = new HashMap<>();
+        defaultMap.put("cassandra.writer.queueSize", 10000);
+        defaultMap.put("cassandra.writer.maxInFlight", 64);
+        defaultMap.put("cassandra.writer.batchSize", 20);
+        defaultMap.put("cassandra.reader.fetchSize", 1000);
+        Config defaultConf = ConfigFactory.parseMap(defaultMap);
+        Config config = ConfigFactory.load().withFallback(defaultConf);
+        setWriterQueueSize(config.getInt("cassandra.writer.queueSize"));
+        setWriterMaxInFlight(config.getInt("cassandra.writer.maxInFlight"));
+        setWriterBatchSize(config.getInt("cassandra.writer.batchSize"));
+        setReaderFetchSize(config.getInt("cassandra.reader.fetchSize"));
+    }
 
     @Bean
     public Cluster cluster() {
@@ -134,4 +152,36 @@ public class CassandraRegistryConfig {
         this.password = password;
     }
 
+    public int getWriterQueueSize() {
+        return writerQueueSize;
+    }
+
+    public void setWriterQueueSize(int writerQueueSize) {
+        this.writerQueueSize = writerQueueSize;
+    }
+
+    public int getWriterMaxInFlight() {
+        return writerMaxInFlight;
+    }
+
+    public void setWriterMaxInFlight(int writerMaxInFlight) {
+        this.writerMaxInFlight = writerMaxInFlight;
+    }
+
+    public int getWriterBatchSize() {
+        return writerBatchSize;
+    }
+
+    public void setWriterBatchSize(int writerBatchSize) {
+        this.writerBatchSize = writerBatchSize;
+    }
+
+    public int getReaderFetchSize() {
+        return readerFetchSize;
+    }
+
+    public void setReaderFetchSize(int readerFetchSize) {
+        this.readerFetchSize = readerFetchSize;
+    }
+
 }
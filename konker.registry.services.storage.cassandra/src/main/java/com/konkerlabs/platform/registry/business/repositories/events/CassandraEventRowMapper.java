@@ -0,0 +1,86 @@
+package com.konkerlabs.platform.registry.business.repositories.events;
+
+import java.time.Instant;
+
+import com.datastax.driver.core.Row;
+import com.konkerlabs.platform.registry.business.model.Event;
+import com.konkerlabs.platform.registry.business.model.Event.EventActor;
+import com.konkerlabs.platform.registry.business.model.Event.EventGeolocation;
+
+/**
+ * Maps rows of the incoming and outgoing event tables, bucketed or not, to events.
+ */
+public class CassandraEventRowMapper {
+
+    public static final String INCOMING_COLUMNS = "tenant_domain, application_name, timestamp, channel, device_guid, device_id, geo_elev, geo_hdop, geo_lat, geo_lon, ingested_timestamp, payload";
+
+    public static final String OUTGOING_COLUMNS = "tenant_domain, application_name, timestamp, channel, device_guid, device_id, geo_elev, geo_hdop, geo_lat, geo_lon, incoming_channel, incoming_device_guid, incoming_device_id, ingested_timestamp, payload";
+
+    private CassandraEventRowMapper() {
+    }
+
+    public static Event incoming(Row row) {
+
+        EventActor incomingActor = EventActor.builder()
+                .tenantDomain(row.getString("tenant_domain"))
+                .applicationName(row.getString("application_name"))
+                .deviceGuid(row.getString("device_guid"))
+                .deviceId(row.getString("device_id"))
+                .channel(row.getString("channel"))
+                .build();
+
+        return toEvent(row, incomingActor, null);
+
+    }
+
+    public static Event outgoing(Row row) {
+
+        EventActor outgoingActor = EventActor.builder()
+                .tenantDomain(row.getString("tenant_domain"))
+                .applicationName(row.getString("application_name"))
+                .deviceGuid(row.getString("device_guid"))
+                .deviceId(row.getString("device_id"))
+                .channel(row.getString("channel"))
+                .build();
+
+        EventActor incomingActor = EventActor.builder()
+                .tenantDomain(row.getString("tenant_domain"))
+                .applicationName(row.getString("application_name"))
+                .deviceGuid(row.getString("incoming_device_guid"))
+                .deviceId(row.getString("incoming_device_id"))
+                .channel(row.getString("incoming_channel"))
+                .build();
+
+        return toEvent(row, incomingActor, outgoingActor);
+
+    }
+
+    private static Event toEvent(Row row, EventActor incomingActor, EventActor outgoingActor) {
+
+        EventGeolocation eventGeolocation = null;
+        if (!row.isNull("geo_lat") && !row.isNull("geo_lon")) {
+             eventGeolocation = EventGeolocation.builder()
+                    .lat(row.getDouble("geo_lat"))
+                    .lon(row.getDouble("geo_lon"))
+                    .build();
+             if (!row.isNull("geo_hdop")) {
+                 eventGeolocation.setHdop(row.getLong("geo_hdop"));
+             }
+             if (!row.isNull("geo_elev")) {
+                 eventGeolocation.setElev(row.getDouble("geo_elev"));
+             }
+        }
+
+        return Event.builder()
+                    .epochTime(row.getLong("timestamp"))
+                    .creationTimestamp(Instant.ofEpochMilli(row.getLong("timestamp") / 1000000))
+                    .ingestedTimestamp(Instant.ofEpochMilli(row.getLong("ingested_timestamp") / 1000000))
+                    .incoming(incomingActor)
+                    .outgoing(outgoingActor)
+                    .geolocation(eventGeolocation)
+                    .payload(row.getString("payload"))
+                    .build();
+
+    }
+
+}
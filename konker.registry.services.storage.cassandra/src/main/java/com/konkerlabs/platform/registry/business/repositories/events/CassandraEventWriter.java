@@ -0,0 +1,292 @@
+package com.konkerlabs.platform.registry.business.repositories.events;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+
+/**
+ * Write pipeline for the event tables.
+ *
+ * Each call queues its writes as one entry and a single flusher thread drains
+ * them, groups the writes
+ * that target the same table partition into UNLOGGED batches and executes them
+ * asynchronously, keeping at most {@code maxInFlight} requests outstanding.
+ * Callers only block when the queue is full, which is the back pressure applied
+ * when Cassandra cannot keep up.
+ *
+ * Once closed, new writes are rejected and any write still queued when the
+ * flusher stops is failed, so no caller is left waiting on a write that will
+ * never be sent.
+ */
+public class CassandraEventWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CassandraEventWriter.class);
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+    private static final long CLOSE_TIMEOUT_MILLIS = 10000;
+
+    private final Session session;
+    private final BlockingQueue<List<Write>> queue;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final int batchSize;
+    private final int drainSize;
+    private final Thread flusher;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    private volatile boolean running = true;
+    private volatile boolean closed = false;
+
+    public CassandraEventWriter(Session session, int queueSize, int maxInFlight, int batchSize) {
+        this.session = session;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.batchSize = batchSize;
+        this.drainSize = batchSize * maxInFlight;
+
+        this.flusher = new Thread(this::flushLoop, "cassandra-event-writer");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public void registerMetrics(MetricRegistry registry) {
+        registry.register(MetricRegistry.name(CassandraEventWriter.class, "queue-depth"),
+                (Gauge<Integer>) this::getQueueDepth);
+        registry.register(MetricRegistry.name(CassandraEventWriter.class, "in-flight"),
+                (Gauge<Integer>) this::getInFlight);
+        registry.register(MetricRegistry.name(CassandraEventWriter.class, "written"),
+                (Gauge<Long>) this::getWritten);
+        registry.register(MetricRegistry.name(CassandraEventWriter.class, "failures"),
+                (Gauge<Long>) this::getFailures);
+        registry.register(MetricRegistry.name(CassandraEventWriter.class, "batches"),
+                (Gauge<Long>) this::getBatches);
+    }
+
+    /**
+     * Queues the given writes and returns a future completed once all of them
+     * have been acknowledged, or completed exceptionally if any of them failed.
+     */
+    public CompletableFuture<Void> write(List<Write> writes) {
+        if (!running) {
+            CompletableFuture<Void> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new IllegalStateException("Cassandra event writer is closed"));
+            return rejected;
+        }
+
+        CompletableFuture<Void> result = CompletableFuture.allOf(writes.stream()
+                .map(write -> write.future)
+                .toArray(CompletableFuture[]::new));
+
+        try {
+            queue.put(writes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writes.forEach(write -> write.future.completeExceptionally(e));
+            return result;
+        }
+
+        // raced with close(): the flusher may already be gone
+        if (closed) {
+            failQueued();
+        }
+
+        return result;
+    }
+
+    public int getQueueDepth() {
+        return queue.stream().mapToInt(List::size).sum();
+    }
+
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public void close() throws InterruptedException {
+        close(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops accepting writes, flushes what is already queued and waits for the
+     * outstanding requests to be acknowledged. Writes the flusher could not send
+     * within the timeout are failed.
+     */
+    public void close(long timeout, TimeUnit unit) throws InterruptedException {
+        running = false;
+        flusher.join(unit.toMillis(timeout));
+
+        if (flusher.isAlive()) {
+            LOGGER.warn("Cassandra event writer did not flush within {} ms, failing {} queued writes",
+                    unit.toMillis(timeout), getQueueDepth());
+            flusher.interrupt();
+            flusher.join(unit.toMillis(timeout));
+        }
+
+        closed = true;
+        failQueued();
+
+        if (inFlight.tryAcquire(maxInFlight, timeout, unit)) {
+            inFlight.release(maxInFlight);
+        } else {
+            LOGGER.warn("Closing Cassandra event writer with {} requests in flight", getInFlight());
+        }
+    }
+
+    private void failQueued() {
+        List<List<Write>> queued = new ArrayList<>();
+        queue.drainTo(queued);
+
+        IllegalStateException closedException = new IllegalStateException("Cassandra event writer is closed");
+        queued.forEach(writes -> fail(writes, closedException));
+    }
+
+    private void flushLoop() {
+        List<List<Write>> drained = new ArrayList<>(drainSize);
+        List<Write> writes = new ArrayList<>();
+
+        while (running || !queue.isEmpty()) {
+            try {
+                List<Write> first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                drained.add(first);
+                queue.drainTo(drained, drainSize - 1);
+                drained.forEach(writes::addAll);
+
+                flush(writes);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(writes, e);
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.error("Unexpected failure flushing Cassandra event writes", e);
+                fail(writes, e);
+            } finally {
+                drained.clear();
+                writes.clear();
+            }
+        }
+    }
+
+    private void flush(List<Write> writes) throws InterruptedException {
+        Map<String, List<Write>> partitions = new LinkedHashMap<>();
+        for (Write write : writes) {
+            partitions.computeIfAbsent(write.partitionKey, key -> new ArrayList<>()).add(write);
+        }
+
+        for (List<Write> partition : partitions.values()) {
+            for (int from = 0; from < partition.size(); from += batchSize) {
+                execute(new ArrayList<>(partition.subList(from, Math.min(from + batchSize, partition.size()))));
+            }
+        }
+    }
+
+    private void execute(List<Write> writes) throws InterruptedException {
+        Statement statement;
+        if (writes.size() == 1) {
+            statement = writes.get(0).statement;
+        } else {
+            BatchStatement batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+            for (Write write : writes) {
+                batch.add(write.statement);
+            }
+            statement = batch;
+        }
+
+        inFlight.acquire();
+
+        ResultSetFuture future;
+        try {
+            future = session.executeAsync(statement);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            fail(writes, e);
+            return;
+        }
+
+        batches.incrementAndGet();
+
+        Futures.addCallback(future, new FutureCallback<ResultSet>() {
+            @Override
+            public void onSuccess(ResultSet result) {
+                inFlight.release();
+                written.addAndGet(writes.size());
+                for (Write write : writes) {
+                    write.future.complete(null);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                inFlight.release();
+                fail(writes, t);
+            }
+        });
+    }
+
+    private void fail(List<Write> writes, Throwable t) {
+        failures.addAndGet(writes.stream().filter(write -> !write.future.isDone()).count());
+        for (Write write : writes) {
+            write.future.completeExceptionally(t);
+        }
+    }
+
+    public static class Write {
+
+        private final String partitionKey;
+        private final Statement statement;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        public Write(String partitionKey, Statement statement) {
+            this.partitionKey = partitionKey;
+            this.statement = statement;
+        }
+
+        public String getPartitionKey() {
+            return partitionKey;
+        }
+
+        public Statement getStatement() {
+            return statement;
+        }
+
+    }
+
+}
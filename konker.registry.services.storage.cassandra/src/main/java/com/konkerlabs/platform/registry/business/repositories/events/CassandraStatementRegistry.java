@@ -0,0 +1,39 @@
+package com.konkerlabs.platform.registry.business.repositories.events;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+
+/**
+ * Prepared statements shared by every thread using the event repository.
+ *
+ * Each statement is prepared at most once: concurrent callers asking for the same
+ * shape wait for the first preparation instead of preparing it again. Fixed shapes
+ * are registered under a name so the hot path looks them up without rebuilding
+ * their CQL; dynamic shapes are registered under the CQL itself.
+ */
+public class CassandraStatementRegistry {
+
+    private final Session session;
+    private final ConcurrentMap<String, PreparedStatement> statements = new ConcurrentHashMap<>();
+
+    public CassandraStatementRegistry(Session session) {
+        this.session = session;
+    }
+
+    public PreparedStatement get(String cql) {
+        return statements.computeIfAbsent(cql, session::prepare);
+    }
+
+    public PreparedStatement get(String name, Supplier<String> cql) {
+        return statements.computeIfAbsent(name, key -> session.prepare(cql.get()));
+    }
+
+    public int size() {
+        return statements.size();
+    }
+
+}
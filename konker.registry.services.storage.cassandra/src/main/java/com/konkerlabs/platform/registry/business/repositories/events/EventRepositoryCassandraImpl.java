@@ -2,14 +2,27 @@ package com.konkerlabs.platform.registry.business.repositories.events;
 
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,26 +38,50 @@ import com.konkerlabs.platform.registry.business.exceptions.BusinessException;
 import com.konkerlabs.platform.registry.business.model.Application;
 import com.konkerlabs.platform.registry.business.model.Event;
 import com.konkerlabs.platform.registry.business.model.Event.EventActor;
-import com.konkerlabs.platform.registry.business.model.Event.EventGeolocation;
 import com.konkerlabs.platform.registry.business.model.Tenant;
 import com.konkerlabs.platform.registry.business.repositories.config.CassandraRegistryConfig;
 import com.konkerlabs.platform.registry.business.repositories.events.api.BaseEventRepositoryImpl;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventCursor;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventPage;
+import com.konkerlabs.platform.utilities.cache.LocalCache;
 
 @Repository("cassandraEvents")
 public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implements DisposableBean {
 
-    private static final String INCOMING_EVENTS = "incoming_events";
-    private static final String INCOMING_EVENTS_CHANNEL = "incoming_events_channel";
-    private static final String INCOMING_EVENTS_DEVICE_GUID = "incoming_events_device_guid";
-    private static final String INCOMING_EVENTS_DEVICE_GUID_CHANNEL = "incoming_events_device_guid_channel";
+    private static final String INCOMING_EVENTS = "incoming_events_by_day";
+    private static final String INCOMING_EVENTS_CHANNEL = "incoming_events_channel_by_day";
+    private static final String INCOMING_EVENTS_DEVICE_GUID = "incoming_events_device_guid_by_day";
+    private static final String INCOMING_EVENTS_DEVICE_GUID_CHANNEL = "incoming_events_device_guid_channel_by_day";
     private static final String INCOMING_EVENTS_DELETED = "incoming_events_deleted";
 
-    private static final String OUTGOING_EVENTS = "outgoing_events";
-    private static final String OUTGOING_EVENTS_CHANNEL = "outgoing_events_channel";
-    private static final String OUTGOING_EVENTS_DEVICE_GUID = "outgoing_events_device_guid";
-    private static final String OUTGOING_EVENTS_DEVICE_GUID_CHANNEL = "outgoing_events_device_guid_channel";
+    private static final String OUTGOING_EVENTS = "outgoing_events_by_day";
+    private static final String OUTGOING_EVENTS_CHANNEL = "outgoing_events_channel_by_day";
+    private static final String OUTGOING_EVENTS_DEVICE_GUID = "outgoing_events_device_guid_by_day";
+    private static final String OUTGOING_EVENTS_DEVICE_GUID_CHANNEL = "outgoing_events_device_guid_channel_by_day";
     private static final String OUTGOING_EVENTS_DELETED = "outgoing_events_deleted";
 
+    // buckets holding events of each application (device_guid = '') and of each device
+    private static final String EVENT_BUCKETS = "event_buckets";
+    private static final String ANY_DEVICE = "";
+
+    private static final long NANOS_PER_BUCKET = TimeUnit.DAYS.toNanos(1);
+
+    private static final int REMOVAL_PAGE_SIZE = 1000;
+
+    private static final Set<String> DEVICE_GUID_PARTITIONED_TABLES = new HashSet<>(Arrays.asList(
+            INCOMING_EVENTS_DEVICE_GUID, INCOMING_EVENTS_DEVICE_GUID_CHANNEL, INCOMING_EVENTS_DELETED,
+            OUTGOING_EVENTS_DEVICE_GUID, OUTGOING_EVENTS_DEVICE_GUID_CHANNEL, OUTGOING_EVENTS_DELETED));
+
+    private static final Set<String> CHANNEL_PARTITIONED_TABLES = new HashSet<>(Arrays.asList(
+            INCOMING_EVENTS_CHANNEL, INCOMING_EVENTS_DEVICE_GUID_CHANNEL,
+            OUTGOING_EVENTS_CHANNEL, OUTGOING_EVENTS_DEVICE_GUID_CHANNEL));
+
+    private static final Set<String> BUCKETED_TABLES = new HashSet<>(Arrays.asList(
+            INCOMING_EVENTS, INCOMING_EVENTS_CHANNEL, INCOMING_EVENTS_DEVICE_GUID, INCOMING_EVENTS_DEVICE_GUID_CHANNEL,
+            OUTGOING_EVENTS, OUTGOING_EVENTS_CHANNEL, OUTGOING_EVENTS_DEVICE_GUID, OUTGOING_EVENTS_DEVICE_GUID_CHANNEL));
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventRepositoryCassandraImpl.class);
+
     @Autowired
     private CassandraRegistryConfig config;
 
@@ -56,89 +93,252 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
 
     private Random rnd = new Random(System.nanoTime());
 
-    private Map<String, PreparedStatement> insertIncomingMap = new HashMap<>();
+    private CassandraStatementRegistry statements;
 
-    private Map<String, PreparedStatement> insertOutgoingMap = new HashMap<>();
+    private CassandraEventWriter writer;
 
-    private Map<String, PreparedStatement> selectStatementCache = new HashMap<>();
+    private LocalCache<String, Boolean> knownBuckets = new LocalCache<>(100000);
+
+    @PostConstruct
+    public void init() {
+        if (session == null) {
+            return;
+        }
+
+        statements = new CassandraStatementRegistry(session);
+        try {
+            prepareStatements();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to prepare Cassandra event statements, they will be prepared on first use", e);
+        }
+
+        writer = new CassandraEventWriter(session,
+                                          config.getWriterQueueSize(),
+                                          config.getWriterMaxInFlight(),
+                                          config.getWriterBatchSize());
+
+        Optional.ofNullable(cluster.getMetrics())
+                .ifPresent(metrics -> writer.registerMetrics(metrics.getRegistry()));
+    }
+
+    private void prepareStatements() {
+
+        for (String table : BUCKETED_TABLES) {
+            if (table.startsWith("incoming")) {
+                getInsertIncomingPreparedStatement(table);
+            } else {
+                getInsertOutgoingPreparedStatement(table);
+            }
+        }
+        getDeletedMarkerPreparedStatement(INCOMING_EVENTS_DELETED);
+        getDeletedMarkerPreparedStatement(OUTGOING_EVENTS_DELETED);
+        getSelectPreparedStatement(getDeviceKeysQuery(INCOMING_EVENTS_DEVICE_GUID));
+        getSelectPreparedStatement(getDeviceKeysQuery(OUTGOING_EVENTS_DEVICE_GUID));
+
+        for (String table : Arrays.asList(INCOMING_EVENTS, INCOMING_EVENTS_CHANNEL, OUTGOING_EVENTS, OUTGOING_EVENTS_CHANNEL)) {
+            getDeletePreparedStatement(table, true);
+        }
+        for (String table : Arrays.asList(INCOMING_EVENTS_DEVICE_GUID, INCOMING_EVENTS_DEVICE_GUID_CHANNEL,
+                                          OUTGOING_EVENTS_DEVICE_GUID, OUTGOING_EVENTS_DEVICE_GUID_CHANNEL)) {
+            getDeletePreparedStatement(table, false);
+        }
+
+        getInsertBucketPreparedStatement();
+        getDeleteBucketsPreparedStatement();
+
+    }
 
     @Override
-    protected Event doSave(Tenant tenant, Application application, Event event, Type type) {
+    protected Event doSave(Tenant tenant, Application application, Event event, Type type) throws BusinessException {
+        return doSaveAll(tenant, application, Collections.singletonList(event), type).get(0);
+    }
+
+    /**
+     * Queues the writes of every event together and waits until the writer has
+     * acknowledged all of them, so a failed write reaches the caller.
+     */
+    @Override
+    protected List<Event> doSaveAll(Tenant tenant, Application application, List<Event> events, Type type) throws BusinessException {
+
+        List<CassandraEventWriter.Write> writes = new ArrayList<>(6 * events.size());
+        List<String> newBuckets = new ArrayList<>(2);
+
+        for (Event event : events) {
+            addWrites(tenant, application, event, type, writes, newBuckets);
+        }
+
+        try {
+            write(writes).join();
+        } catch (CompletionException e) {
+            newBuckets.forEach(knownBuckets::invalidate);
+            throw new BusinessException(e.getCause().getMessage(), e.getCause());
+        }
 
-        event.setEpochTime(event.getCreationTimestamp().toEpochMilli() * 1000000 + rnd.nextInt(1000000));
+        return events;
+
+    }
+
+    private void addWrites(Tenant tenant, Application application, Event event, Type type,
+                           List<CassandraEventWriter.Write> writes, List<String> newBuckets) {
+
+        if (event.getEpochTime() == null) {
+            event.setEpochTime(event.getCreationTimestamp().toEpochMilli() * 1000000 + rnd.nextInt(1000000));
+        }
 
         if (type == Type.INCOMING) {
-            saveEvent(tenant, application, event, type, INCOMING_EVENTS, true);
-            saveEvent(tenant, application, event, type, INCOMING_EVENTS_DEVICE_GUID, false);
-            saveEvent(tenant, application, event, type, INCOMING_EVENTS_DEVICE_GUID_CHANNEL, false);
-            saveEvent(tenant, application, event, type, INCOMING_EVENTS_CHANNEL, false);
+            writes.add(toWrite(tenant, application, event, type, INCOMING_EVENTS));
+            writes.add(toWrite(tenant, application, event, type, INCOMING_EVENTS_DEVICE_GUID));
+            writes.add(toWrite(tenant, application, event, type, INCOMING_EVENTS_DEVICE_GUID_CHANNEL));
+            writes.add(toWrite(tenant, application, event, type, INCOMING_EVENTS_CHANNEL));
         } else if (type == Type.OUTGOING) {
-            saveEvent(tenant, application, event, type, OUTGOING_EVENTS, true);
-            saveEvent(tenant, application, event, type, OUTGOING_EVENTS_DEVICE_GUID, false);
-            saveEvent(tenant, application, event, type, OUTGOING_EVENTS_DEVICE_GUID_CHANNEL, false);
-            saveEvent(tenant, application, event, type, OUTGOING_EVENTS_CHANNEL, false);
+            writes.add(toWrite(tenant, application, event, type, OUTGOING_EVENTS));
+            writes.add(toWrite(tenant, application, event, type, OUTGOING_EVENTS_DEVICE_GUID));
+            writes.add(toWrite(tenant, application, event, type, OUTGOING_EVENTS_DEVICE_GUID_CHANNEL));
+            writes.add(toWrite(tenant, application, event, type, OUTGOING_EVENTS_CHANNEL));
         }
 
-        return event;
+        EventActor actor = type == Type.INCOMING ? event.getIncoming() : event.getOutgoing();
+        int bucket = bucketOf(event.getEpochTime());
+
+        addBucketWrite(tenant, application, type, ANY_DEVICE, bucket, writes, newBuckets);
+        addBucketWrite(tenant, application, type, actor.getDeviceGuid(), bucket, writes, newBuckets);
 
     }
 
-    private void saveEvent(Tenant tenant, Application application, Event event, Type type, String table, boolean synchronous) {
+    private void addBucketWrite(Tenant tenant, Application application, Type type, String deviceGuid, int bucket,
+                                List<CassandraEventWriter.Write> writes, List<String> newBuckets) {
 
-        if (type == Type.INCOMING) {
+        String partitionKey = bucketPartitionKey(tenant.getDomainName(), application.getName(), type, deviceGuid);
+        String bucketKey = partitionKey + '\u0000' + bucket;
 
-            PreparedStatement ps = getInsertIncomingPreparedStatement(table);
-
-            BoundStatement statement = ps.bind(tenant.getDomainName(),
-                                               application.getName(),
-                                               event.getEpochTime(),
-                                               event.getIncoming().getChannel(),
-                                               event.getIncoming().getDeviceGuid(),
-                                               event.getIncoming().getDeviceId(),
-                                               Optional.ofNullable(event.getGeolocation()).isPresent() ? event.getGeolocation().getElev() : null,
-                                               Optional.ofNullable(event.getGeolocation()).isPresent() ? event.getGeolocation().getHdop() : null,
-                                               Optional.ofNullable(event.getGeolocation()).isPresent() ? event.getGeolocation().getLat() : null,
-                                               Optional.ofNullable(event.getGeolocation()).isPresent() ? event.getGeolocation().getLon() : null,
-                                               event.getIngestedTimestamp().toEpochMilli() * 1000000, // nanoseconds
-                                               event.getPayload());
-            if (synchronous) {
-                session.execute(statement);
-            } else {
-                session.executeAsync(statement);
+        if (knownBuckets.getIfPresent(bucketKey).isPresent()) {
+            return;
+        }
+
+        knownBuckets.put(bucketKey, Boolean.TRUE);
+        newBuckets.add(bucketKey);
+
+        writes.add(new CassandraEventWriter.Write(partitionKey,
+                getInsertBucketPreparedStatement().bind(tenant.getDomainName(), application.getName(), type.getActorFieldName(), deviceGuid, bucket)));
+
+    }
+
+    private PreparedStatement getInsertBucketPreparedStatement() {
+
+        return statements.get("insert:" + EVENT_BUCKETS, () -> {
+
+            StringBuilder query = new StringBuilder();
+            query.append("INSERT INTO ");
+            query.append(config.getKeyspace());
+            query.append(".");
+            query.append(EVENT_BUCKETS);
+            query.append(" (tenant_domain, application_name, event_type, device_guid, bucket) VALUES (?, ?, ?, ?, ?)");
+
+            return query.toString();
+
+        });
+
+    }
+
+    private static String bucketPartitionKey(String tenantDomain, String applicationName, Type type, String deviceGuid) {
+        return EVENT_BUCKETS + '\u0000' + tenantDomain + '\u0000' + applicationName + '\u0000' + type.getActorFieldName() + '\u0000' + deviceGuid;
+    }
+
+    private static int bucketOf(long epochTimeNanos) {
+        return (int) Math.floorDiv(epochTimeNanos, NANOS_PER_BUCKET);
+    }
+
+    private CompletableFuture<Void> write(List<CassandraEventWriter.Write> writes) {
+        return writer.write(writes).whenComplete((result, e) -> {
+            if (e != null) {
+                LOGGER.error("Failed to write event to Cassandra", e);
             }
+        });
+    }
+
+    private CassandraEventWriter.Write toWrite(Tenant tenant, Application application, Event event, Type type, String table) {
+        EventActor actor = type == Type.INCOMING ? event.getIncoming() : event.getOutgoing();
+
+        String partitionKey = partitionKey(table, tenant.getDomainName(), application.getName(),
+                actor.getDeviceGuid(), actor.getChannel(), bucketOf(event.getEpochTime()));
+
+        return new CassandraEventWriter.Write(partitionKey, bindEvent(tenant, application, event, type, table));
+    }
+
+    private static String partitionKey(String table, String tenantDomain, String applicationName,
+                                       String deviceGuid, String channel, int bucket) {
+
+        StringBuilder partitionKey = new StringBuilder();
+        partitionKey.append(table);
+        partitionKey.append('\u0000').append(tenantDomain);
+        partitionKey.append('\u0000').append(applicationName);
+        if (DEVICE_GUID_PARTITIONED_TABLES.contains(table)) {
+            partitionKey.append('\u0000').append(deviceGuid);
+        }
+        if (CHANNEL_PARTITIONED_TABLES.contains(table)) {
+            partitionKey.append('\u0000').append(channel);
+        }
+        if (BUCKETED_TABLES.contains(table)) {
+            partitionKey.append('\u0000').append(bucket);
+        }
+
+        return partitionKey.toString();
+    }
+
+    private BoundStatement bindEvent(Tenant tenant, Application application, Event event, Type type, String table) {
+
+        PreparedStatement ps = null;
+        List<Object> values = null;
+
+        if (type == Type.INCOMING) {
+
+            ps = getInsertIncomingPreparedStatement(table);
+
+            values = Arrays.asList(tenant.getDomainName(),
+                                   application.getName(),
+                                   event.getEpochTime(),
+                                   event.getIncoming().getChannel(),
+                                   event.getIncoming().getDeviceGuid(),
+                                   event.getIncoming().getDeviceId(),
+                                   Optional.ofNullable(event.getGeolocation()).isPresent() ? event.getGeolocation().getElev() : null,
+                                   Optional.ofNullable(event.getGeolocation()).isPresent() ? event.getGeolocation().getHdop() : null,
+                                   Optional.ofNullable(event.getGeolocation()).isPresent() ? event.getGeolocation().getLat() : null,
+                                   Optional.ofNullable(event.getGeolocation()).isPresent() ? event.getGeolocation().getLon() : null,
+                                   event.getIngestedTimestamp().toEpochMilli() * 1000000, // nanoseconds
+                                   event.getPayload());
         } else if (type == Type.OUTGOING) {
 
-            PreparedStatement ps = getInsertOutgoingPreparedStatement(table);
-
-            BoundStatement statement = ps.bind(tenant.getDomainName(),
-                                               application.getName(),
-                                               event.getEpochTime(),
-                                               event.getOutgoing().getChannel(),
-                                               event.getOutgoing().getDeviceGuid(),
-                                               event.getOutgoing().getDeviceId(),
-                                               Optional.ofNullable(event.getGeolocation()).isPresent() ? event.getGeolocation().getElev() : null,
-                                               Optional.ofNullable(event.getGeolocation()).isPresent() ? event.getGeolocation().getHdop() : null,
-                                               Optional.ofNullable(event.getGeolocation()).isPresent() ? event.getGeolocation().getLat() : null,
-                                               Optional.ofNullable(event.getGeolocation()).isPresent() ? event.getGeolocation().getLon() : null,
-                                               event.getIncoming().getChannel(),
-                                               event.getIncoming().getDeviceGuid(),
-                                               event.getIncoming().getDeviceId(),
-                                               event.getIngestedTimestamp().toEpochMilli()* 1000000, // nanoseconds
-                                               event.getPayload());
-            if (synchronous) {
-                session.execute(statement);
-            } else {
-                session.executeAsync(statement);
-            }
+            ps = getInsertOutgoingPreparedStatement(table);
+
+            values = Arrays.asList(tenant.getDomainName(),
+                                   application.getName(),
+                                   event.getEpochTime(),
+                                   event.getOutgoing().getChannel(),
+                                   event.getOutgoing().getDeviceGuid(),
+                                   event.getOutgoing().getDeviceId(),
+                                   Optional.ofNullable(event.getGeolocation()).isPresent() ? event.getGeolocation().getElev() : null,
+                                   Optional.ofNullable(event.getGeolocation()).isPresent() ? event.getGeolocation().getHdop() : null,
+                                   Optional.ofNullable(event.getGeolocation()).isPresent() ? event.getGeolocation().getLat() : null,
+                                   Optional.ofNullable(event.getGeolocation()).isPresent() ? event.getGeolocation().getLon() : null,
+                                   event.getIncoming().getChannel(),
+                                   event.getIncoming().getDeviceGuid(),
+                                   event.getIncoming().getDeviceId(),
+                                   event.getIngestedTimestamp().toEpochMilli()* 1000000, // nanoseconds
+                                   event.getPayload());
         }
 
+        if (BUCKETED_TABLES.contains(table)) {
+            values = new ArrayList<>(values);
+            values.add(bucketOf(event.getEpochTime()));
+        }
+
+        return ps.bind(values.toArray());
+
     }
 
     private PreparedStatement getInsertOutgoingPreparedStatement(String table) {
 
-        PreparedStatement ps = insertOutgoingMap.get(table);
-
-        if (ps == null) {
+        return statements.get("insert:" + table, () -> {
 
             StringBuilder query = new StringBuilder();
             query.append("INSERT INTO ");
@@ -164,6 +364,9 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
             query.append("ingested_timestamp, ");
 
             query.append("payload");
+            if (BUCKETED_TABLES.contains(table)) {
+                query.append(", bucket");
+            }
             query.append(") VALUES (");
             query.append("?, ");
             query.append("?, ");
@@ -180,22 +383,20 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
             query.append("?, ");
             query.append("?, ");
             query.append("?");
+            if (BUCKETED_TABLES.contains(table)) {
+                query.append(", ?");
+            }
             query.append(")");
 
-            ps = session.prepare(query.toString());
-            insertOutgoingMap.put(table, ps);
+            return query.toString();
 
-        }
-
-        return ps;
+        });
 
     }
 
     private PreparedStatement getInsertIncomingPreparedStatement(String table) {
 
-        PreparedStatement ps = insertIncomingMap.get(table);
-
-        if (ps == null) {
+        return statements.get("insert:" + table, () -> {
 
             StringBuilder query = new StringBuilder();
             query.append("INSERT INTO ");
@@ -215,6 +416,9 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
             query.append("geo_lon, ");
             query.append("ingested_timestamp, ");
             query.append("payload");
+            if (BUCKETED_TABLES.contains(table)) {
+                query.append(", bucket");
+            }
             query.append(") VALUES (");
             query.append("?, ");
             query.append("?, ");
@@ -228,129 +432,250 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
             query.append("?, ");
             query.append("?, ");
             query.append("?");
+            if (BUCKETED_TABLES.contains(table)) {
+                query.append(", ?");
+            }
             query.append(")");
 
-            ps = session.prepare(query.toString());
-            insertIncomingMap.put(table, ps);
+            return query.toString();
 
-        }
+        });
 
-        return ps;
+    }
+
+    @Override
+    protected Stream<Event> doStreamBy(Tenant tenant,
+                                       Application application,
+                                       String deviceGuid,
+                                       String channel,
+                                       Instant startInstant,
+                                       Instant endInstant,
+                                       boolean ascending,
+                                       Integer limit,
+                                       Type type,
+                                       boolean isDeleted) throws BusinessException {
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                scan(tenant, application, deviceGuid, channel, toNanos(startInstant), toNanos(endInstant), ascending, limit, type),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
 
     }
 
+    /**
+     * Event timestamps are unique within each table partition, and a partition never
+     * holds more than one day bucket, so the timestamp of the last event read is
+     * enough to resume the query right after it.
+     */
     @Override
-    protected List<Event> doFindBy(Tenant tenant,
-                                   Application application,
-                                   String deviceGuid,
-                                   String channel,
-                                   Instant startInstant,
-                                   Instant endInstant,
-                                   boolean ascending,
-                                   Integer limit,
-                                   Type type,
-                                   boolean isDeleted) throws BusinessException {
+    protected EventPage doFindPageBy(Tenant tenant,
+                                     Application application,
+                                     String deviceGuid,
+                                     String channel,
+                                     Instant startInstant,
+                                     Instant endInstant,
+                                     boolean ascending,
+                                     int limit,
+                                     EventCursor after,
+                                     Type type) throws BusinessException {
+
+        Long from = toNanos(startInstant);
+        Long to = toNanos(endInstant);
+
+        if (after != null && ascending) {
+            from = from != null ? Math.max(from, after.getTimestamp()) : after.getTimestamp();
+        } else if (after != null) {
+            to = to != null ? Math.min(to, after.getTimestamp() - 1) : after.getTimestamp() - 1;
+        }
 
-        List<Object> filters = new ArrayList<>();
+        // one more event than asked tells whether there is a next page
+        BucketScan scan = scan(tenant, application, deviceGuid, channel, from, to, ascending, limit + 1, type);
+
+        List<Event> events = new ArrayList<>(Math.min(limit, config.getReaderFetchSize()));
+        while (events.size() < limit && scan.hasNext()) {
+            events.add(scan.next());
+        }
+
+        EventCursor next = null;
+        if (scan.hasNext()) {
+            next = new EventCursor(events.get(events.size() - 1).getEpochTime(), null);
+        }
 
-        String query = getQuery(tenant,
-                                application,
-                                deviceGuid,
-                                channel,
-                                startInstant,
-                                endInstant,
-                                ascending,
-                                limit,
-                                type,
-                                filters);
-
-        PreparedStatement ps = selectStatementCache.get(query);
-        if (ps == null) {
-            ps = session.prepare(query);
-            selectStatementCache.put(query, ps);
-        }
-        BoundStatement statement = ps.bind(filters.toArray(new Object[filters.size()]));
-
-        final ResultSet rs = session.execute(statement);
-
-        List<Event> events = new LinkedList<>();
-
-        while (!rs.isExhausted()) {
-            final Row row = rs.one();
-
-            EventActor outgoingActor = null;
-            EventActor incomingActor = null;
-
-            if (type == Type.INCOMING) {
-
-                incomingActor = EventActor.builder()
-                        .tenantDomain(row.getString("tenant_domain"))
-                        .applicationName(row.getString("application_name"))
-                        .deviceGuid(row.getString("device_guid"))
-                        .deviceId(row.getString("device_id"))
-                        .channel(row.getString("channel"))
-                        .build();
-
-            } else if (type == Type.OUTGOING) {
-
-                outgoingActor = EventActor.builder()
-                        .tenantDomain(row.getString("tenant_domain"))
-                        .applicationName(row.getString("application_name"))
-                        .deviceGuid(row.getString("device_guid"))
-                        .deviceId(row.getString("device_id"))
-                        .channel(row.getString("channel"))
-                        .build();
-
-                incomingActor = EventActor.builder()
-                        .tenantDomain(row.getString("tenant_domain"))
-                        .applicationName(row.getString("application_name"))
-                        .deviceGuid(row.getString("incoming_device_guid"))
-                        .deviceId(row.getString("incoming_device_id"))
-                        .channel(row.getString("incoming_channel"))
-                        .build();
+        return new EventPage(events, next);
+
+    }
+
+    private BucketScan scan(Tenant tenant, Application application, String deviceGuid, String channel,
+                            Long from, Long to, boolean ascending, Integer limit, Type type) {
+
+        List<Integer> buckets = findBuckets(tenant, application, deviceGuid, from, to, ascending, type);
+
+        return new BucketScan(tenant, application, deviceGuid, channel, buckets, from, to, ascending, limit, type);
+
+    }
+
+    private static Long toNanos(Instant instant) {
+        return instant != null ? instant.toEpochMilli() * 1000000 : null;
+    }
+
+    /**
+     * Reads the events of a query bucket after bucket, in the order the buckets were
+     * found, so the first `limit` events read are the right ones. Timestamps are
+     * bounded by `from`, exclusive, and `to`, inclusive, in nanos. Each bucket is
+     * fetched in pages of the configured fetch size, the next page being requested
+     * while the current one is still being consumed.
+     */
+    private class BucketScan implements Iterator<Event> {
+
+        private final Tenant tenant;
+        private final Application application;
+        private final String deviceGuid;
+        private final String channel;
+        private final Iterator<Integer> buckets;
+        private final Long from;
+        private final Long to;
+        private final boolean ascending;
+        private final Integer limit;
+        private final Type type;
+
+        private ResultSet rs;
+        private int read;
+
+        private BucketScan(Tenant tenant, Application application, String deviceGuid, String channel,
+                           List<Integer> buckets, Long from, Long to, boolean ascending,
+                           Integer limit, Type type) {
+            this.tenant = tenant;
+            this.application = application;
+            this.deviceGuid = deviceGuid;
+            this.channel = channel;
+            this.buckets = buckets.iterator();
+            this.from = from;
+            this.to = to;
+            this.ascending = ascending;
+            this.limit = limit;
+            this.type = type;
+        }
+
+        @Override
+        public boolean hasNext() {
+
+            while (rs == null || rs.isExhausted()) {
+
+                Integer remaining = limit != null ? limit - read : null;
+                if (!buckets.hasNext() || (remaining != null && remaining <= 0)) {
+                    return false;
+                }
+
+                List<Object> filters = new ArrayList<>();
+
+                String query = getQuery(tenant,
+                                        application,
+                                        deviceGuid,
+                                        channel,
+                                        buckets.next(),
+                                        from,
+                                        to,
+                                        ascending,
+                                        remaining,
+                                        type,
+                                        filters);
+
+                BoundStatement statement = getSelectPreparedStatement(query).bind(filters.toArray(new Object[filters.size()]));
+                statement.setFetchSize(config.getReaderFetchSize());
+
+                rs = session.execute(statement);
 
             }
 
-            EventGeolocation eventGeolocation = null;
-            if (!row.isNull("geo_lat") && !row.isNull("geo_lon")) {
-                 eventGeolocation = EventGeolocation.builder()
-                        .lat(row.getDouble("geo_lat"))
-                        .lon(row.getDouble("geo_lon"))
-                        .build();
-                 if (!row.isNull("geo_hdop")) {
-                     eventGeolocation.setHdop(row.getLong("geo_hdop"));
-                 }
-                 if (!row.isNull("geo_elev")) {
-                     eventGeolocation.setElev(row.getDouble("geo_elev"));
-                 }
+            return true;
+
+        }
+
+        @Override
+        public Event next() {
+
+            if (!hasNext()) {
+                throw new NoSuchElementException();
             }
 
-            Event event = Event.builder()
-                               .epochTime(row.getLong("timestamp"))
-                               .creationTimestamp(Instant.ofEpochMilli(row.getLong("timestamp") / 1000000))
-                               .ingestedTimestamp(Instant.ofEpochMilli(row.getLong("ingested_timestamp") / 1000000))
-                               .incoming(incomingActor)
-                               .outgoing(outgoingActor)
-                               .geolocation(eventGeolocation)
-                               .payload(row.getString("payload"))
-                               .build();
+            if (rs.getAvailableWithoutFetching() == config.getReaderFetchSize() / 2 && !rs.isFullyFetched()) {
+                rs.fetchMoreResults();
+            }
+
+            Row row = rs.one();
+            read++;
+
+            return type == Type.INCOMING ? CassandraEventRowMapper.incoming(row) : CassandraEventRowMapper.outgoing(row);
 
-            events.add(event);
         }
 
-        return events;
+    }
+
+    private List<Integer> findBuckets(Tenant tenant, Application application, String deviceGuid,
+            Long from, Long to, boolean ascending, Type type) {
+
+        StringBuilder query = new StringBuilder();
+        List<Object> filters = new ArrayList<>();
+
+        query.append("SELECT bucket FROM ");
+        query.append(config.getKeyspace());
+        query.append(".");
+        query.append(EVENT_BUCKETS);
+        query.append(" WHERE ");
 
+        query.append(" tenant_domain = ?");
+        filters.add(tenant.getDomainName());
+
+        query.append(" AND application_name = ?");
+        filters.add(application.getName());
+
+        query.append(" AND event_type = ?");
+        filters.add(type.getActorFieldName());
+
+        query.append(" AND device_guid = ?");
+        filters.add(deviceGuid != null ? deviceGuid : ANY_DEVICE);
+
+        if (from != null) {
+            query.append(" AND bucket >= ?");
+            filters.add(bucketOf(from));
+        }
+
+        if (to != null) {
+            query.append(" AND bucket <= ?");
+            filters.add(bucketOf(to));
+        }
+
+        if (ascending) {
+            query.append(" ORDER BY bucket ASC");
+        } else {
+            query.append(" ORDER BY bucket DESC");
+        }
+
+        BoundStatement statement = getSelectPreparedStatement(query.toString()).bind(filters.toArray(new Object[filters.size()]));
+
+        List<Integer> buckets = new ArrayList<>();
+        for (Row row : session.execute(statement)) {
+            buckets.add(row.getInt("bucket"));
+        }
+
+        return buckets;
+
+    }
+
+    private PreparedStatement getSelectPreparedStatement(String query) {
+        return statements.get(query);
     }
 
-    private String getQuery(Tenant tenant, Application application, String deviceGuid, String channel,
-            Instant startInstant, Instant endInstant, boolean ascending, Integer limit, Type type,
+    private String getQuery(Tenant tenant, Application application, String deviceGuid, String channel, int bucket,
+            Long from, Long to, boolean ascending, Integer limit, Type type,
             List<Object> filters) {
 
         String table = null;
         StringBuilder query = new StringBuilder();
 
         if (type == Type.INCOMING) {
-            query.append("SELECT tenant_domain, application_name, timestamp, channel, device_guid, device_id, geo_elev, geo_hdop, geo_lat, geo_lon, ingested_timestamp, payload FROM ");
+            query.append("SELECT ");
+            query.append(CassandraEventRowMapper.INCOMING_COLUMNS);
+            query.append(" FROM ");
 
             if (deviceGuid != null && channel != null) {
                 table = INCOMING_EVENTS_DEVICE_GUID_CHANNEL;
@@ -362,7 +687,9 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
                 table = INCOMING_EVENTS;
             }
         } else if (type == Type.OUTGOING) {
-            query.append("SELECT tenant_domain, application_name, timestamp, channel, device_guid, device_id, geo_elev, geo_hdop, geo_lat, geo_lon, incoming_channel, incoming_device_guid, incoming_device_id, ingested_timestamp, payload FROM ");
+            query.append("SELECT ");
+            query.append(CassandraEventRowMapper.OUTGOING_COLUMNS);
+            query.append(" FROM ");
 
             if (deviceGuid != null && channel != null) {
                 table = OUTGOING_EVENTS_DEVICE_GUID_CHANNEL;
@@ -386,6 +713,9 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
         query.append(" AND application_name = ?");
         filters.add(application.getName());
 
+        query.append(" AND bucket = ?");
+        filters.add(bucket);
+
         if (deviceGuid != null) {
             query.append(" AND device_guid = ?");
             filters.add(deviceGuid);
@@ -396,14 +726,14 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
             filters.add(channel);
         }
 
-        if (startInstant != null) {
+        if (from != null) {
             query.append(" AND timestamp > ?");
-            filters.add(startInstant.toEpochMilli() * 1000000);
+            filters.add(from);
         }
 
-        if (endInstant != null) {
+        if (to != null) {
             query.append(" AND timestamp <= ?");
-            filters.add(endInstant.toEpochMilli() * 1000000);
+            filters.add(to);
         }
 
         if (ascending) {
@@ -413,190 +743,239 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
         }
 
         if (limit != null) {
-            query.append(" LIMIT ");
-            query.append(limit);
+            query.append(" LIMIT ?");
+            filters.add(limit);
         }
 
         return query.toString();
 
     }
 
+    /**
+     * Removes every event of the device one day bucket at a time, streaming the
+     * keys of each bucket from the device table in pages so memory stays bounded
+     * whatever the device history. Rows shared with other devices are deleted by
+     * key, the device partitions themselves are dropped whole once read.
+     */
     @Override
     protected void doRemoveBy(Tenant tenant, Application application, String deviceGuid, Type type) throws Exception {
 
-        List<Event> keys = doFindBy(tenant, application, deviceGuid, null, null, null, false, null, type, false);
+        String guidTable = type == Type.INCOMING ? INCOMING_EVENTS_DEVICE_GUID : OUTGOING_EVENTS_DEVICE_GUID;
+        List<Integer> buckets = findBuckets(tenant, application, deviceGuid, null, null, false, type);
+
+        for (Integer bucket : buckets) {
+
+            Set<String> channels = new HashSet<>();
+            List<CassandraEventWriter.Write> page = new ArrayList<>(REMOVAL_PAGE_SIZE * 3);
+
+            BoundStatement keys = getSelectPreparedStatement(getDeviceKeysQuery(guidTable))
+                    .bind(tenant.getDomainName(), application.getName(), deviceGuid, bucket);
+            keys.setFetchSize(REMOVAL_PAGE_SIZE);
 
-        Set<String> channels = new HashSet<>();
+            for (Row row : session.execute(keys)) {
+                channels.add(row.getString("channel"));
+                removeByKey(tenant, application, deviceGuid, row.getString("channel"), row.getString("device_id"),
+                        row.getLong("timestamp"), type, page);
 
-        for (Event key: keys) {
-            if (type == Type.INCOMING) {
-                channels.add(key.getIncoming().getChannel());
-                removeFromTableByKey(key, type);
-                saveEvent(tenant, application, key, type, INCOMING_EVENTS_DELETED, false);
-            } else if (type == Type.OUTGOING) {
-                channels.add(key.getOutgoing().getChannel());
-                removeFromTableByKey(key, type);
-                saveEvent(tenant, application, key, type, OUTGOING_EVENTS_DELETED, false);
+                if (page.size() >= REMOVAL_PAGE_SIZE * 3) {
+                    writePage(page);
+                }
             }
+
+            writePage(page);
+
+            removeFromGuidChannelTable(tenant, application, deviceGuid, type, channels, Collections.singletonList(bucket));
+            removeFromGuidTable(tenant, application, deviceGuid, type, Collections.singletonList(bucket));
+
         }
 
-        removeFromGuidTable(tenant, application, deviceGuid, type);
-        removeFromGuidChannelTable(tenant, application, deviceGuid, type, channels);
+        removeDeviceBuckets(tenant, application, deviceGuid, type);
 
     }
-    
+
     @Override
     protected void doRemoveBy(Tenant tenant, Application application, String deviceGuid, List<Event> events, Type type) throws Exception {
     	Set<String> channels = new HashSet<>();
+    	List<CassandraEventWriter.Write> writes = new ArrayList<>(events.size() * 3);
 
     	for (Event key: events) {
-            if (type == Type.INCOMING) {
-                channels.add(key.getIncoming().getChannel());
-                removeFromTableByKey(key, type);
-                saveEvent(tenant, application, key, type, INCOMING_EVENTS_DELETED, false);
-            } else if (type == Type.OUTGOING) {
-            	channels.add(key.getOutgoing().getChannel());
-                removeFromTableByKey(key, type);
-                saveEvent(tenant, application, key, type, OUTGOING_EVENTS_DELETED, false);
-            }
+            EventActor actor = type == Type.INCOMING ? key.getIncoming() : key.getOutgoing();
+
+            channels.add(actor.getChannel());
+            removeByKey(tenant, application, deviceGuid, actor.getChannel(), actor.getDeviceId(), key.getEpochTime(), type, writes);
+        }
+
+        writePage(writes);
+
+        List<Integer> buckets = findBuckets(tenant, application, deviceGuid, null, null, false, type);
+
+        removeFromGuidTable(tenant, application, deviceGuid, type, buckets);
+        removeFromGuidChannelTable(tenant, application, deviceGuid, type, channels, buckets);
+    }
+
+    private void writePage(List<CassandraEventWriter.Write> page) {
+        if (page.isEmpty()) {
+            return;
         }
-        
-        removeFromGuidTable(tenant, application, deviceGuid, type);
-        removeFromGuidChannelTable(tenant, application, deviceGuid, type, channels);
+
+        write(new ArrayList<>(page)).join();
+        page.clear();
     }
 
-    private void removeFromGuidChannelTable(Tenant tenant, Application application, String deviceGuid, Type type, Set<String> channels) {
+    private String getDeviceKeysQuery(String guidTable) {
 
-        for (String channel: channels) {
+        StringBuilder query = new StringBuilder();
+
+        query.append("SELECT timestamp, channel, device_id FROM ");
+        query.append(config.getKeyspace());
+        query.append(".");
+        query.append(guidTable);
+        query.append(" WHERE ");
 
-            String tenantDomain = tenant.getDomainName();
-            String applicationName = application.getName();
+        query.append(" tenant_domain = ?");
+        query.append(" AND application_name = ?");
+        query.append(" AND device_guid = ?");
+        query.append(" AND bucket = ?");
 
-            // INCOMING_EVENTS_DEVICE_GUID
+        return query.toString();
 
-            StringBuilder query = new StringBuilder();
-            List<Object> filters = new ArrayList<>();
+    }
 
-            query.append("DELETE FROM ");
+    private void removeByKey(Tenant tenant, Application application, String deviceGuid, String channel, String deviceId,
+                             long epochTs, Type type, List<CassandraEventWriter.Write> writes) {
+
+        String tenantDomain = tenant.getDomainName();
+        String applicationName = application.getName();
+        int bucket = bucketOf(epochTs);
+
+        // remove from tables: INCOMING_EVENTS or OUTGOING_EVENTS
+        String table = type == Type.INCOMING ? INCOMING_EVENTS : OUTGOING_EVENTS;
+        writes.add(new CassandraEventWriter.Write(
+                partitionKey(table, tenantDomain, applicationName, null, null, bucket),
+                getDeletePreparedStatement(table, true).bind(tenantDomain, applicationName, bucket, epochTs)));
+
+        // remove from tables: INCOMING_EVENTS_CHANNEL or OUTGOING_EVENTS_CHANNEL
+        table = type == Type.INCOMING ? INCOMING_EVENTS_CHANNEL : OUTGOING_EVENTS_CHANNEL;
+        writes.add(new CassandraEventWriter.Write(
+                partitionKey(table, tenantDomain, applicationName, null, channel, bucket),
+                getDeletePreparedStatement(table, true).bind(tenantDomain, applicationName, channel, bucket, epochTs)));
+
+        // keep a marker of the removed event, without its payload
+        table = type == Type.INCOMING ? INCOMING_EVENTS_DELETED : OUTGOING_EVENTS_DELETED;
+        writes.add(new CassandraEventWriter.Write(
+                partitionKey(table, tenantDomain, applicationName, deviceGuid, null, bucket),
+                getDeletedMarkerPreparedStatement(table).bind(tenantDomain, applicationName, deviceGuid, epochTs, channel, deviceId)));
+
+    }
+
+    private PreparedStatement getDeletedMarkerPreparedStatement(String table) {
+
+        return statements.get("marker:" + table, () -> {
+
+            StringBuilder query = new StringBuilder();
+            query.append("INSERT INTO ");
             query.append(config.getKeyspace());
             query.append(".");
-            if (type == Type.INCOMING) {
-                query.append(INCOMING_EVENTS_DEVICE_GUID_CHANNEL);
-            } else if (type == Type.OUTGOING) {
-                query.append(OUTGOING_EVENTS_DEVICE_GUID_CHANNEL);
-            }
-            query.append(" WHERE ");
+            query.append(table);
+            query.append(" (tenant_domain, application_name, device_guid, timestamp, channel, device_id) VALUES (?, ?, ?, ?, ?, ?)");
 
-            query.append(" tenant_domain = ?");
-            filters.add(tenantDomain);
+            return query.toString();
 
-            query.append(" AND application_name = ?");
-            filters.add(applicationName);
+        });
 
-            query.append(" AND device_guid = ?");
-            filters.add(deviceGuid);
+    }
 
-            query.append(" AND channel = ?");
-            filters.add(channel);
+    private void removeFromGuidChannelTable(Tenant tenant, Application application, String deviceGuid, Type type, Set<String> channels, List<Integer> buckets) {
 
-            session.execute(query.toString(), filters.toArray(new Object[filters.size()]));
+        String table = type == Type.INCOMING ? INCOMING_EVENTS_DEVICE_GUID_CHANNEL : OUTGOING_EVENTS_DEVICE_GUID_CHANNEL;
+        PreparedStatement ps = getDeletePreparedStatement(table, false);
 
+        for (String channel: channels) {
+            for (Integer bucket: buckets) {
+                session.execute(ps.bind(tenant.getDomainName(), application.getName(), deviceGuid, channel, bucket));
+            }
         }
 
     }
 
-    private void removeFromGuidTable(Tenant tenant, Application application, String deviceGuid, Type type) {
+    private void removeFromGuidTable(Tenant tenant, Application application, String deviceGuid, Type type, List<Integer> buckets) {
 
-        String tenantDomain = tenant.getDomainName();
-        String applicationName = application.getName();
+        String table = type == Type.INCOMING ? INCOMING_EVENTS_DEVICE_GUID : OUTGOING_EVENTS_DEVICE_GUID;
+        PreparedStatement ps = getDeletePreparedStatement(table, false);
 
-        // INCOMING_EVENTS_DEVICE_GUID
-
-        StringBuilder query = new StringBuilder();
-        List<Object> filters = new ArrayList<>();
-
-        query.append("DELETE FROM ");
-        query.append(config.getKeyspace());
-        query.append(".");
-        if (type == Type.INCOMING) {
-            query.append(INCOMING_EVENTS_DEVICE_GUID);
-        } else if (type == Type.OUTGOING) {
-            query.append(OUTGOING_EVENTS_DEVICE_GUID);
+        for (Integer bucket: buckets) {
+            session.execute(ps.bind(tenant.getDomainName(), application.getName(), deviceGuid, bucket));
         }
-        query.append(" WHERE ");
 
-        query.append(" tenant_domain = ?");
-        filters.add(tenantDomain);
+    }
 
-        query.append(" AND application_name = ?");
-        filters.add(applicationName);
+    private void removeDeviceBuckets(Tenant tenant, Application application, String deviceGuid, Type type) {
 
-        query.append(" AND device_guid = ?");
-        filters.add(deviceGuid);
+        session.execute(getDeleteBucketsPreparedStatement().bind(tenant.getDomainName(),
+                                                                 application.getName(),
+                                                                 type.getActorFieldName(),
+                                                                 deviceGuid));
 
-        session.execute(query.toString(), filters.toArray(new Object[filters.size()]));
+        String partitionKey = bucketPartitionKey(tenant.getDomainName(), application.getName(), type, deviceGuid);
+        knownBuckets.invalidateIf(key -> key.startsWith(partitionKey + '\u0000'));
 
     }
 
-    private void removeFromTableByKey(Event key, Type type) {
+    private PreparedStatement getDeletePreparedStatement(String table, boolean byTimestamp) {
 
-        String tenantDomain = key.getIncoming().getTenantDomain();
-        String applicationName = key.getIncoming().getApplicationName();
-        String channel = key.getIncoming().getChannel();
-        Long epochTs = key.getEpochTime();
+        return statements.get("delete:" + table + (byTimestamp ? ":timestamp" : ""), () -> {
 
-        // remove from tables: INCOMING_EVENTS or OUTGOING_EVENTS
-        StringBuilder query = new StringBuilder();
-        List<Object> filters = new ArrayList<>();
+            StringBuilder query = new StringBuilder();
 
-        query.append("DELETE FROM ");
-        query.append(config.getKeyspace());
-        query.append(".");
-        if (type == Type.INCOMING) {
-            query.append(INCOMING_EVENTS);
-        } else if (type == Type.OUTGOING) {
-            query.append(OUTGOING_EVENTS);
-        }
-        query.append(" WHERE ");
+            query.append("DELETE FROM ");
+            query.append(config.getKeyspace());
+            query.append(".");
+            query.append(table);
+            query.append(" WHERE ");
 
-        query.append(" tenant_domain = ?");
-        filters.add(tenantDomain);
+            query.append(" tenant_domain = ?");
+            query.append(" AND application_name = ?");
 
-        query.append(" AND application_name = ?");
-        filters.add(applicationName);
+            if (DEVICE_GUID_PARTITIONED_TABLES.contains(table)) {
+                query.append(" AND device_guid = ?");
+            }
 
-        query.append(" AND timestamp = ?");
-        filters.add(epochTs);
+            if (CHANNEL_PARTITIONED_TABLES.contains(table)) {
+                query.append(" AND channel = ?");
+            }
 
-        session.executeAsync(query.toString(), filters.toArray(new Object[filters.size()]));
+            query.append(" AND bucket = ?");
 
-        // remove from tables: INCOMING_EVENTS_CHANNEL or OUTGOING_EVENTS_CHANNEL
-        query = new StringBuilder();
-        filters = new ArrayList<>();
+            if (byTimestamp) {
+                query.append(" AND timestamp = ?");
+            }
 
-        query.append("DELETE FROM ");
-        query.append(config.getKeyspace());
-        query.append(".");
-        if (type == Type.INCOMING) {
-            query.append(INCOMING_EVENTS_CHANNEL);
-        } else if (type == Type.OUTGOING) {
-            query.append(OUTGOING_EVENTS_CHANNEL);
-        }
-        query.append(" WHERE ");
+            return query.toString();
 
-        query.append(" tenant_domain = ?");
-        filters.add(tenantDomain);
+        });
 
-        query.append(" AND application_name = ?");
-        filters.add(applicationName);
+    }
 
-        query.append(" AND channel = ?");
-        filters.add(channel);
+    private PreparedStatement getDeleteBucketsPreparedStatement() {
 
-        query.append(" AND timestamp = ?");
-        filters.add(epochTs);
+        return statements.get("delete:" + EVENT_BUCKETS, () -> {
 
-        session.executeAsync(query.toString(), filters.toArray(new Object[filters.size()]));
+            StringBuilder query = new StringBuilder();
+
+            query.append("DELETE FROM ");
+            query.append(config.getKeyspace());
+            query.append(".");
+            query.append(EVENT_BUCKETS);
+            query.append(" WHERE ");
+
+            query.append(" tenant_domain = ?");
+            query.append(" AND application_name = ?");
+            query.append(" AND event_type = ?");
+            query.append(" AND device_guid = ?");
+
+            return query.toString();
+
+        });
 
     }
 
@@ -606,6 +985,9 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
 
     @Override
     public void destroy() throws Exception {
+        if (writer != null) {
+            writer.close();
+        }
         if (cluster != null) {
             cluster.close();
         }
@@ -0,0 +1,134 @@
+package com.konkerlabs.platform.registry.test.business.repositories;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.konkerlabs.platform.registry.business.repositories.events.CassandraEventWriter;
+import com.konkerlabs.platform.registry.business.repositories.events.CassandraEventWriter.Write;
+
+public class CassandraEventWriterTest {
+
+    private Session session;
+    private CassandraEventWriter subject;
+
+    @Before
+    public void setUp() {
+        session = mock(Session.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        subject.close();
+    }
+
+    @Test
+    public void shouldBatchWritesToTheSamePartition() throws Exception {
+        ResultSetFuture result = resultOf(Futures.immediateFuture(mock(ResultSet.class)));
+        when(session.executeAsync(any(Statement.class))).thenReturn(result);
+
+        subject = new CassandraEventWriter(session, 100, 1, 10);
+
+        List<Write> writes = Arrays.asList(
+                new Write("incoming_events\u0000tenant\u0000app", new SimpleStatement("INSERT 1")),
+                new Write("incoming_events\u0000tenant\u0000app", new SimpleStatement("INSERT 2")),
+                new Write("incoming_events_channel\u0000tenant\u0000app\u0000temp", new SimpleStatement("INSERT 3")));
+
+        subject.write(writes).get(5, TimeUnit.SECONDS);
+
+        ArgumentCaptor<Statement> statements = ArgumentCaptor.forClass(Statement.class);
+        verify(session, times(2)).executeAsync(statements.capture());
+
+        assertThat(statements.getAllValues().get(0), instanceOf(BatchStatement.class));
+        assertThat(((BatchStatement) statements.getAllValues().get(0)).size(), equalTo(2));
+        assertThat(statements.getAllValues().get(1), instanceOf(SimpleStatement.class));
+        assertThat(subject.getWritten(), equalTo(3L));
+        assertThat(subject.getFailures(), equalTo(0L));
+    }
+
+    @Test
+    public void shouldReportFailedWrites() throws Exception {
+        ResultSetFuture result = resultOf(Futures.immediateFailedFuture(new IllegalStateException("unavailable")));
+        when(session.executeAsync(any(Statement.class))).thenReturn(result);
+
+        subject = new CassandraEventWriter(session, 100, 1, 10);
+
+        CompletableFuture<Void> future = subject.write(Arrays.asList(
+                new Write("incoming_events\u0000tenant\u0000app", new SimpleStatement("INSERT 1"))));
+
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+        }
+
+        assertThat(future.isCompletedExceptionally(), equalTo(true));
+        assertThat(subject.getFailures(), equalTo(1L));
+        assertThat(subject.getInFlight(), equalTo(0));
+    }
+
+    @Test
+    public void shouldFailQueuedAndLateWritesOnClose() throws Exception {
+        SettableFuture<ResultSet> acknowledgement = SettableFuture.create();
+        ResultSetFuture pending = resultOf(acknowledgement);
+        when(session.executeAsync(any(Statement.class))).thenReturn(pending);
+
+        subject = new CassandraEventWriter(session, 100, 1, 1);
+
+        subject.write(Arrays.asList(
+                new Write("incoming_events\u0000tenant\u0000app", new SimpleStatement("INSERT 1"))));
+        CompletableFuture<Void> queued = subject.write(Arrays.asList(
+                new Write("incoming_events\u0000tenant\u0000other", new SimpleStatement("INSERT 2"))));
+
+        subject.close(100, TimeUnit.MILLISECONDS);
+
+        CompletableFuture<Void> late = subject.write(Arrays.asList(
+                new Write("incoming_events\u0000tenant\u0000app", new SimpleStatement("INSERT 3"))));
+
+        assertThat(queued.isCompletedExceptionally(), equalTo(true));
+        assertThat(late.isCompletedExceptionally(), equalTo(true));
+        verify(session, times(1)).executeAsync(any(Statement.class));
+
+        acknowledgement.set(mock(ResultSet.class));
+    }
+
+    private ResultSetFuture resultOf(ListenableFuture<ResultSet> delegate) throws Exception {
+        ResultSetFuture future = mock(ResultSetFuture.class);
+        when(future.isDone()).thenReturn(true);
+        doAnswer(invocation -> {
+            delegate.addListener((Runnable) invocation.getArguments()[0],
+                    (Executor) invocation.getArguments()[1]);
+            return null;
+        }).when(future).addListener(any(Runnable.class), any(Executor.class));
+        when(future.get()).thenAnswer(invocation -> delegate.get());
+        return future;
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.konkerlabs.platform.registry.test.business.repositories;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+import com.konkerlabs.platform.registry.business.repositories.events.CassandraStatementRegistry;
+
+public class CassandraStatementRegistryTest {
+
+    private static final String CQL = "DELETE FROM registrykeyspace.incoming_events_by_day WHERE tenant_domain = ?";
+
+    private Session session;
+    private PreparedStatement preparedStatement;
+    private CassandraStatementRegistry subject;
+
+    @Before
+    public void setUp() {
+        session = mock(Session.class);
+        preparedStatement = mock(PreparedStatement.class);
+        when(session.prepare(anyString())).thenReturn(preparedStatement);
+
+        subject = new CassandraStatementRegistry(session);
+    }
+
+    @Test
+    public void shouldPrepareEachStatementOnceUnderContention() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<PreparedStatement>> lookups = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                lookups.add(() -> subject.get(CQL));
+            }
+
+            for (Future<PreparedStatement> future : executor.invokeAll(lookups)) {
+                assertThat(future.get(), sameInstance(preparedStatement));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(session, times(1)).prepare(CQL);
+        assertThat(subject.size(), equalTo(1));
+    }
+
+    @Test
+    public void shouldBuildNamedStatementsOnlyOnFirstUse() {
+        subject.get("delete:incoming_events_by_day", () -> CQL);
+        subject.get("delete:incoming_events_by_day", () -> {
+            throw new IllegalStateException("should not rebuild the query");
+        });
+
+        verify(session, times(1)).prepare(CQL);
+    }
+
+}
@@ -0,0 +1,309 @@
+package com.konkerlabs.platform.registry.test.business.repositories;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.konkerlabs.platform.registry.business.model.Application;
+import com.konkerlabs.platform.registry.business.model.Event;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.repositories.config.CassandraRegistryConfig;
+import com.konkerlabs.platform.registry.business.repositories.events.EventRepositoryCassandraImpl;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventPage;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EventRepositoryCassandraTest {
+
+    private static final long NANOS_PER_BUCKET = 86400000000000L;
+
+    @Mock
+    private CassandraRegistryConfig config;
+    @Mock
+    private Cluster cluster;
+    @Mock
+    private Session session;
+
+    @InjectMocks
+    private EventRepositoryCassandraImpl subject;
+
+    private Tenant tenant;
+    private Application application;
+    private String deviceGuid;
+
+    private Map<Statement, Binding> bindings;
+    private List<Binding> executed;
+
+    @Before
+    public void setUp() {
+        tenant = Tenant.builder().domainName("konker").name("Konker").build();
+        application = Application.builder().name("smartffkonker").build();
+        deviceGuid = "7d51c242-81db-11e6-a8c2-0746f010e945";
+
+        bindings = new ConcurrentHashMap<>();
+        executed = Collections.synchronizedList(new ArrayList<>());
+
+        when(config.getKeyspace()).thenReturn("registrykeyspace");
+        when(config.getReaderFetchSize()).thenReturn(100);
+        when(config.getWriterQueueSize()).thenReturn(100);
+        when(config.getWriterMaxInFlight()).thenReturn(1);
+        when(config.getWriterBatchSize()).thenReturn(50);
+
+        when(session.prepare(anyString())).thenAnswer(invocation -> prepared((String) invocation.getArguments()[0]));
+
+        subject.init();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        subject.destroy();
+    }
+
+    @Test
+    public void shouldReadTheBucketsInOrderUntilTheLimitIsReached() throws Exception {
+        int first = 17000;
+        int second = 17001;
+
+        rows(binding -> {
+            if (binding.query.startsWith("SELECT bucket FROM")) {
+                return Arrays.asList(bucket(first), bucket(second));
+            } else if ((int) binding.args[2] == first) {
+                return Arrays.asList(event(first, 1), event(first, 2));
+            } else {
+                return Arrays.asList(event(second, 1), event(second, 2));
+            }
+        });
+
+        List<Event> events = subject.findIncomingBy(tenant, application, deviceGuid, null, null, null, true, 3);
+
+        assertThat(events.stream().map(Event::getEpochTime).collect(Collectors.toList()),
+                contains(timestamp(first, 1), timestamp(first, 2), timestamp(second, 1)));
+
+        List<Binding> reads = executed.stream()
+                .filter(binding -> binding.query.contains("incoming_events_device_guid_by_day"))
+                .collect(Collectors.toList());
+
+        assertThat(executed.get(0).query, containsString("ORDER BY bucket ASC"));
+        assertThat(reads, hasSize(2));
+        assertThat(reads.get(0).args[reads.get(0).args.length - 1], equalTo(3));
+        assertThat(reads.get(1).args[2], equalTo(second));
+        assertThat(reads.get(1).args[reads.get(1).args.length - 1], equalTo(1));
+    }
+
+    @Test
+    public void shouldNotReadFurtherBucketsOnceTheLimitIsReached() throws Exception {
+        int first = 17000;
+
+        rows(binding -> {
+            if (binding.query.startsWith("SELECT bucket FROM")) {
+                return Arrays.asList(bucket(first), bucket(first - 1));
+            } else {
+                return Arrays.asList(event(first, 2), event(first, 1));
+            }
+        });
+
+        List<Event> events = subject.findIncomingBy(tenant, application, deviceGuid, null, null, null, false, 2);
+
+        assertThat(events, hasSize(2));
+        assertThat(executed.get(0).query, containsString("ORDER BY bucket DESC"));
+        assertThat(executed.stream()
+                .filter(binding -> binding.query.contains("incoming_events_device_guid_by_day"))
+                .count(), equalTo(1L));
+    }
+
+    @Test
+    public void shouldPointToTheNextPageAcrossBuckets() throws Exception {
+        int first = 17000;
+        int second = 17001;
+
+        rows(binding -> {
+            if (binding.query.startsWith("SELECT bucket FROM")) {
+                return Arrays.asList(bucket(first), bucket(second));
+            } else if ((int) binding.args[2] == first) {
+                return Collections.singletonList(event(first, 1));
+            } else {
+                return Arrays.asList(event(second, 1), event(second, 2));
+            }
+        });
+
+        EventPage page = subject.findIncomingPageBy(tenant, application, deviceGuid, null, null, null, true, 2, null);
+
+        assertThat(page.getEvents(), hasSize(2));
+        assertThat(page.getNext(), notNullValue());
+        assertThat(page.getNext().getTimestamp(), equalTo(timestamp(second, 1)));
+    }
+
+    @Test
+    public void shouldRemoveDeviceEventsInPagesUpToTheLastPartialPage() throws Exception {
+        int first = 17000;
+        AtomicInteger read = new AtomicInteger();
+
+        List<Row> keys = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            keys.add(key(first, i, read));
+        }
+
+        rows(binding -> {
+            if (binding.query.startsWith("SELECT bucket FROM")) {
+                return "incoming".equals(binding.args[2]) ? Collections.singletonList(bucket(first)) : Collections.emptyList();
+            } else if (binding.query.startsWith("SELECT timestamp, channel, device_id FROM")) {
+                return keys;
+            } else {
+                return Collections.emptyList();
+            }
+        });
+
+        List<Integer> readOnWrite = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger written = new AtomicInteger();
+
+        when(session.executeAsync(any(Statement.class))).thenAnswer(invocation -> {
+            Statement statement = (Statement) invocation.getArguments()[0];
+            written.addAndGet(statement instanceof BatchStatement ? ((BatchStatement) statement).size() : 1);
+            readOnWrite.add(read.get());
+            return acknowledged();
+        });
+
+        subject.removeBy(tenant, application, deviceGuid);
+
+        assertThat(readOnWrite.stream().distinct().collect(Collectors.toList()), contains(1000, 2000, 2500));
+        assertThat(written.get(), equalTo(2500 * 3));
+        assertThat(executed.stream()
+                .filter(binding -> binding.query.startsWith("DELETE FROM registrykeyspace.event_buckets"))
+                .count(), equalTo(2L));
+    }
+
+    private void rows(Function<Binding, List<Row>> rows) {
+        when(session.execute(any(Statement.class))).thenAnswer(invocation -> {
+            Binding binding = bindings.get(invocation.getArguments()[0]);
+            executed.add(binding);
+
+            List<Row> result = rows.apply(binding);
+            if (binding.query.endsWith("LIMIT ?")) {
+                result = result.subList(0, Math.min(result.size(), (int) binding.args[binding.args.length - 1]));
+            }
+
+            return resultOf(result);
+        });
+    }
+
+    private PreparedStatement prepared(String query) {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.getQueryString()).thenReturn(query);
+        when(statement.bind(Matchers.<Object>anyVararg())).thenAnswer(invocation -> {
+            BoundStatement bound = mock(BoundStatement.class);
+            bindings.put(bound, new Binding(query, invocation.getArguments()));
+            return bound;
+        });
+        return statement;
+    }
+
+    private ResultSet resultOf(List<Row> rows) {
+        LinkedList<Row> remaining = new LinkedList<>(rows);
+
+        ResultSet result = mock(ResultSet.class);
+        when(result.isExhausted()).thenAnswer(invocation -> remaining.isEmpty());
+        when(result.one()).thenAnswer(invocation -> remaining.poll());
+        when(result.getAvailableWithoutFetching()).thenAnswer(invocation -> remaining.size());
+        when(result.isFullyFetched()).thenReturn(true);
+        when(result.iterator()).thenAnswer(invocation -> remaining.iterator());
+        return result;
+    }
+
+    private Row bucket(int bucket) {
+        Row row = mock(Row.class);
+        when(row.getInt("bucket")).thenReturn(bucket);
+        return row;
+    }
+
+    private Row event(int bucket, int offset) {
+        Row row = mock(Row.class);
+        when(row.isNull(anyString())).thenReturn(true);
+        when(row.getString("tenant_domain")).thenReturn(tenant.getDomainName());
+        when(row.getString("application_name")).thenReturn(application.getName());
+        when(row.getString("device_guid")).thenReturn(deviceGuid);
+        when(row.getString("channel")).thenReturn("command");
+        when(row.getLong("timestamp")).thenReturn(timestamp(bucket, offset));
+        when(row.getLong("ingested_timestamp")).thenReturn(timestamp(bucket, offset));
+        return row;
+    }
+
+    private Row key(int bucket, int offset, AtomicInteger read) {
+        Row row = mock(Row.class);
+        when(row.getString("channel")).thenReturn("command");
+        when(row.getString("device_id")).thenReturn("device");
+        when(row.getLong("timestamp")).thenAnswer(invocation -> {
+            read.incrementAndGet();
+            return timestamp(bucket, offset);
+        });
+        return row;
+    }
+
+    private ResultSetFuture acknowledged() {
+        ResultSetFuture future = mock(ResultSetFuture.class);
+        when(future.isDone()).thenReturn(true);
+        doAnswer(invocation -> {
+            ((Executor) invocation.getArguments()[1]).execute((Runnable) invocation.getArguments()[0]);
+            return null;
+        }).when(future).addListener(any(Runnable.class), any(Executor.class));
+        try {
+            when(future.get()).thenReturn(mock(ResultSet.class));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return future;
+    }
+
+    private static long timestamp(int bucket, int offset) {
+        return bucket * NANOS_PER_BUCKET + offset;
+    }
+
+    private static class Binding {
+
+        private final String query;
+        private final Object[] args;
+
+        private Binding(String query, Object[] args) {
+            this.query = query;
+            this.args = args;
+        }
+
+    }
+
+}
@@ -2,6 +2,7 @@ package com.konkerlabs.platform.registry.business.repositories.events;
 
 import com.konkerlabs.platform.registry.business.exceptions.BusinessException;
 import com.konkerlabs.platform.registry.business.model.Application;
+import com.konkerlabs.platform.registry.business.model.Device;
 import com.konkerlabs.platform.registry.business.model.Event;
 import com.konkerlabs.platform.registry.business.model.Event.EventGeolocation;
 import com.konkerlabs.platform.registry.business.model.Tenant;
@@ -9,13 +10,16 @@ import com.konkerlabs.platform.registry.business.model.validation.CommonValidati
 import com.konkerlabs.platform.registry.business.repositories.DeviceRepository;
 import com.konkerlabs.platform.registry.business.repositories.TenantRepository;
 import com.konkerlabs.platform.registry.business.repositories.events.api.BaseEventRepositoryImpl;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventCursor;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventPage;
 import com.mongodb.BasicDBObject;
+import com.mongodb.DBCursor;
 import com.mongodb.DBObject;
 
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -25,16 +29,24 @@ import org.springframework.stereotype.Repository;
 import java.text.MessageFormat;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Repository("mongoEvents")
 public class EventRepositoryMongoImpl extends BaseEventRepositoryImpl {
 	
 	private Logger LOGGER = LoggerFactory.getLogger(this.getClass());
 
+    private static final int FETCH_BATCH_SIZE = 1000;
+
     @Autowired
     private MongoTemplate mongoTemplate;
     @Autowired
@@ -70,6 +82,66 @@ public class EventRepositoryMongoImpl extends BaseEventRepositoryImpl {
             ).orElseThrow(() -> new BusinessException(Validations.OUTGOING_DEVICE_ID_DOES_NOT_EXIST.getCode()));
         }
 
+        mongoTemplate.save(toDBObject(tenant, event, type), type.getCollectionName());
+
+        return event;
+    }
+
+    /**
+     * Checks every event against one read of the tenant and of the devices involved,
+     * then inserts them all in a single call.
+     */
+    @Override
+    protected List<Event> doSaveAll(Tenant tenant, Application application, List<Event> events, Type type) throws BusinessException {
+        if (events.isEmpty())
+            return events;
+
+        Tenant existingTenant = Optional.ofNullable(tenantRepository.findByDomainName(tenant.getDomainName()))
+                .orElseThrow(() -> new BusinessException(CommonValidations.TENANT_DOES_NOT_EXIST.getCode()));
+
+        Set<String> deviceGuids = new HashSet<>();
+        for (Event event : events) {
+            Optional.ofNullable(event.getCreationTimestamp())
+                    .orElseThrow(() -> new BusinessException(Validations.EVENT_TIMESTAMP_NULL.getCode()));
+
+            if (!application.getName().equals(event.getIncoming().getDeviceGuid()))
+                deviceGuids.add(event.getIncoming().getDeviceGuid());
+
+            if (type.equals(Type.OUTGOING)) {
+                Optional.ofNullable(event.getOutgoing())
+                        .orElseThrow(() -> new BusinessException(Validations.EVENT_OUTGOING_NULL.getCode()));
+                Optional.ofNullable(event.getOutgoing().getDeviceGuid()).filter(s -> !s.isEmpty())
+                        .orElseThrow(() -> new BusinessException(Validations.OUTGOING_DEVICE_GUID_NULL.getCode()));
+                Optional.ofNullable(event.getOutgoing().getChannel()).filter(s -> !s.isEmpty())
+                        .orElseThrow(() -> new BusinessException(Validations.EVENT_OUTGOING_CHANNEL_NULL.getCode()));
+
+                deviceGuids.add(event.getOutgoing().getDeviceGuid());
+            }
+        }
+
+        Query devicesQuery = Query.query(Criteria.where("tenant.id").is(existingTenant.getId()).and("guid").in(deviceGuids));
+        devicesQuery.fields().include("guid");
+        Set<String> existingGuids = mongoTemplate.find(devicesQuery, Device.class).stream()
+                .map(Device::getGuid)
+                .collect(Collectors.toSet());
+
+        List<DBObject> toSave = new ArrayList<>(events.size());
+        for (Event event : events) {
+            if (!application.getName().equals(event.getIncoming().getDeviceGuid())
+                    && !existingGuids.contains(event.getIncoming().getDeviceGuid()))
+                throw new BusinessException(Validations.INCOMING_DEVICE_ID_DOES_NOT_EXIST.getCode());
+            if (type.equals(Type.OUTGOING) && !existingGuids.contains(event.getOutgoing().getDeviceGuid()))
+                throw new BusinessException(Validations.OUTGOING_DEVICE_ID_DOES_NOT_EXIST.getCode());
+
+            toSave.add(toDBObject(tenant, event, type));
+        }
+
+        mongoTemplate.getCollection(type.getCollectionName()).insert(toSave);
+
+        return events;
+    }
+
+    private DBObject toDBObject(Tenant tenant, Event event, Type type) {
         event.getIncoming().setTenantDomain(tenant.getDomainName());
 
         DBObject incoming = new BasicDBObject();
@@ -83,7 +155,8 @@ public class EventRepositoryMongoImpl extends BaseEventRepositoryImpl {
 
         toSave.removeField("ts");
         toSave.put("ts", event.getCreationTimestamp().toEpochMilli());
-        toSave.put("ingestedTimestamp", event.getIngestedTimestamp());
+        // written as the template's Instant converter would, since batches skip the template
+        toSave.put("ingestedTimestamp", Optional.ofNullable(event.getIngestedTimestamp()).map(Instant::toEpochMilli).orElse(null));
         toSave.put(Type.INCOMING.getActorFieldName(), incoming);
         toSave.put("payload", event.getPayload());
         
@@ -108,12 +181,10 @@ public class EventRepositoryMongoImpl extends BaseEventRepositoryImpl {
             toSave.put(Type.OUTGOING.getActorFieldName(), outgoing);
         }
 
-        mongoTemplate.save(toSave, type.getCollectionName());
-
-        return event;
+        return toSave;
     }
 
-    protected List<Event> doFindBy(Tenant tenant,
+    protected Stream<Event> doStreamBy(Tenant tenant,
                                  Application application,
                                  String deviceGuid,
                                  String channel,
@@ -124,8 +195,106 @@ public class EventRepositoryMongoImpl extends BaseEventRepositoryImpl {
                                  Type type,
                                  boolean isDeleted) throws BusinessException {
 
+        Query query = getQuery(tenant, deviceGuid, channel, startInstant, endInstant, isDeleted, type, new ArrayList<>());
+
+        DBCursor cursor = mongoTemplate.getCollection(type.getCollectionName())
+                .find(query.getQueryObject())
+                .sort(new BasicDBObject("ts", ascending ? 1 : -1))
+                .batchSize(FETCH_BATCH_SIZE);
+
+        Optional.ofNullable(limit).filter(integer -> integer > 0).ifPresent(integer -> cursor.limit(integer));
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(cursor::close)
+                .map(this::toEvent);
+
+    }
+
+    /**
+     * Pages are sorted by ts and then by _id, events received in the same millisecond
+     * being told apart by their _id. The cursor id keeps the type of the _id, ObjectId
+     * ("o") or string ("s"), since Mongo only compares values of the same type.
+     */
+    @Override
+    protected EventPage doFindPageBy(Tenant tenant,
+                                     Application application,
+                                     String deviceGuid,
+                                     String channel,
+                                     Instant startInstant,
+                                     Instant endInstant,
+                                     boolean ascending,
+                                     int limit,
+                                     EventCursor after,
+                                     Type type) throws BusinessException {
+
         List<Criteria> criterias = new ArrayList<>();
 
+        if (after != null) {
+            Object id = toId(after.getId());
+
+            if (ascending) {
+                criterias.add(new Criteria().orOperator(
+                        Criteria.where("ts").gt(after.getTimestamp()),
+                        Criteria.where("ts").is(after.getTimestamp()).and("_id").gt(id)));
+            } else {
+                criterias.add(new Criteria().orOperator(
+                        Criteria.where("ts").lt(after.getTimestamp()),
+                        Criteria.where("ts").is(after.getTimestamp()).and("_id").lt(id)));
+            }
+        }
+
+        Query query = getQuery(tenant, deviceGuid, channel, startInstant, endInstant, false, type, criterias);
+
+        BasicDBObject sort = new BasicDBObject("ts", ascending ? 1 : -1);
+        sort.put("_id", ascending ? 1 : -1);
+
+        // one more event than asked tells whether there is a next page
+        DBCursor cursor = mongoTemplate.getCollection(type.getCollectionName())
+                .find(query.getQueryObject())
+                .sort(sort)
+                .limit(limit + 1)
+                .batchSize(Math.min(limit + 1, FETCH_BATCH_SIZE));
+
+        try {
+            List<Event> events = new ArrayList<>();
+            EventCursor next = null;
+
+            while (events.size() < limit && cursor.hasNext()) {
+                DBObject dbObject = cursor.next();
+                next = new EventCursor((Long) dbObject.get("ts"), fromId(dbObject.get("_id")));
+                events.add(toEvent(dbObject));
+            }
+
+            return new EventPage(events, cursor.hasNext() ? next : null);
+        } finally {
+            cursor.close();
+        }
+
+    }
+
+    private Object toId(String cursorId) throws BusinessException {
+        if (cursorId != null && cursorId.startsWith("o") && ObjectId.isValid(cursorId.substring(1))) {
+            return new ObjectId(cursorId.substring(1));
+        } else if (cursorId != null && cursorId.startsWith("s")) {
+            return cursorId.substring(1);
+        } else {
+            throw new BusinessException(Validations.EVENT_CURSOR_INVALID.getCode());
+        }
+    }
+
+    private String fromId(Object id) {
+        return id instanceof ObjectId ? "o" + ((ObjectId) id).toHexString() : "s" + id;
+    }
+
+    private Query getQuery(Tenant tenant,
+                           String deviceGuid,
+                           String channel,
+                           Instant startInstant,
+                           Instant endInstant,
+                           boolean isDeleted,
+                           Type type,
+                           List<Criteria> criterias) {
+
         Optional.ofNullable(deviceGuid).ifPresent(instant -> criterias.add(Criteria.where(MessageFormat.format("{0}.{1}", type.getActorFieldName(),"deviceGuid")).is(deviceGuid)));
         Optional.ofNullable(startInstant).ifPresent(instant -> criterias.add(Criteria.where("ts").gt(instant.toEpochMilli())));
         Optional.ofNullable(endInstant).ifPresent(instant -> criterias.add(Criteria.where("ts").lte(instant.toEpochMilli())));
@@ -145,19 +314,16 @@ public class EventRepositoryMongoImpl extends BaseEventRepositoryImpl {
                         ).is(tenant.getDomainName())
                         .andOperator(criterias.toArray(new Criteria[criterias.size()])));
 
-        Optional.ofNullable(limit).filter(integer -> integer > 0).ifPresent(integer -> query.limit(integer));
+        return query;
+
+    }
 
-        Sort.Direction sort = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+    private Event toEvent(DBObject dbObject) {
 
-        List<DBObject> result = mongoTemplate.find(query.with(new Sort(new Sort.Order(sort, "ts"))),
-                DBObject.class,
-                type.getCollectionName());
+        dbObject.removeField("_id");
+        dbObject.removeField("_class");
 
-        return result.stream().map(dbObject -> {
-            dbObject.removeField("_id");
-            dbObject.removeField("_class");
-            return dbObject;
-        }).map(dbObject -> Event.builder()
+        return Event.builder()
                 .incoming(
                         ((Supplier<Event.EventActor>) () -> {
                             return Optional.ofNullable((DBObject) dbObject.get(Type.INCOMING.getActorFieldName()))
@@ -203,8 +369,7 @@ public class EventRepositoryMongoImpl extends BaseEventRepositoryImpl {
                 .payload(dbObject.get("payload").toString())
                 .creationTimestamp(Instant.ofEpochMilli((Long) dbObject.get("ts")))
                 .ingestedTimestamp(dbObject.get("ingestedTimestamp") != null ? Instant.ofEpochMilli((Long) dbObject.get("ingestedTimestamp")) : null)
-                .build())
-        .collect(Collectors.toList());
+                .build();
 
     }
 
@@ -4,11 +4,15 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -33,6 +37,8 @@ import com.konkerlabs.platform.registry.business.model.validation.CommonValidati
 import com.konkerlabs.platform.registry.business.repositories.DeviceRepository;
 import com.konkerlabs.platform.registry.business.repositories.TenantRepository;
 import com.konkerlabs.platform.registry.business.repositories.events.EventRepositoryMongoImpl;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventCursor;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventPage;
 import com.konkerlabs.platform.registry.business.repositories.events.api.EventRepository;
 import com.konkerlabs.platform.registry.test.base.BusinessLayerTestSupport;
 import com.konkerlabs.platform.registry.test.base.BusinessTestConfiguration;
@@ -164,7 +170,7 @@ public class EventRepositoryMongoTest extends BusinessLayerTestSupport {
         thrown.expect(BusinessException.class);
         thrown.expectMessage(CommonValidations.RECORD_NULL.getCode());
 
-        eventRepository.saveIncoming(tenant, application, null);
+        eventRepository.saveIncoming(tenant, application, (Event) null);
     }
 
     @Test
@@ -259,6 +265,76 @@ public class EventRepositoryMongoTest extends BusinessLayerTestSupport {
         assertThat(saved, equalTo(persisted));
     }
 
+    @Test
+    public void shouldSaveManyIncomingEventsAtOnce() throws Exception {
+        application = Application.builder().name("smartffkonker").build();
+        String otherDeviceGuid = "8363c556-84ea-11e6-92a2-4b01fea7e243";
+
+        eventRepository.saveIncoming(tenant, application, Arrays.asList(incoming(deviceGuid), incoming(otherDeviceGuid)));
+
+        List<DBObject> saved = mongoTemplate.find(
+                Query.query(Criteria.where("ts").is(firstEventTimestamp.toEpochMilli())),
+                DBObject.class,
+                EventRepositoryMongoImpl.EVENTS_INCOMING_COLLECTION_NAME
+        );
+
+        assertThat(saved, hasSize(2));
+        assertThat(eventRepository.findIncomingBy(tenant, application, otherDeviceGuid, "command",
+                firstEventTimestamp.minusSeconds(1), null, false, 1), hasSize(1));
+    }
+
+    @Test
+    public void shouldNotSaveAnyIncomingEventIfOneDeviceDoesNotExist() throws Exception {
+        application = Application.builder().name("smartffkonker").build();
+
+        thrown.expect(BusinessException.class);
+        thrown.expectMessage(EventRepository.Validations.INCOMING_DEVICE_ID_DOES_NOT_EXIST.getCode());
+
+        try {
+            eventRepository.saveIncoming(tenant, application, Arrays.asList(incoming(deviceGuid), incoming("unknown")));
+        } finally {
+            assertThat(mongoTemplate.count(new Query(), EventRepositoryMongoImpl.EVENTS_INCOMING_COLLECTION_NAME), equalTo(0L));
+        }
+    }
+
+    @Test
+    public void shouldSaveManyOutgoingEventsAtOnce() throws Exception {
+        application = Application.builder().name("smartffkonker").build();
+        String otherDeviceGuid = "8363c556-84ea-11e6-92a2-4b01fea7e243";
+
+        Event withIngestion = outgoing(otherDeviceGuid);
+        withIngestion.setIngestedTimestamp(secondEventTimestamp);
+
+        eventRepository.saveOutgoing(tenant, application, Arrays.asList(outgoing(deviceGuid), withIngestion));
+
+        List<DBObject> saved = mongoTemplate.find(
+                Query.query(Criteria.where("ts").is(firstEventTimestamp.toEpochMilli())),
+                DBObject.class,
+                EventRepositoryMongoImpl.EVENTS_OUTGOING_COLLECTION_NAME
+        );
+
+        assertThat(saved, hasSize(2));
+
+        List<Event> found = eventRepository.findOutgoingBy(tenant, application, otherDeviceGuid, "out",
+                firstEventTimestamp.minusSeconds(1), null, false, 1);
+        assertThat(found, hasSize(1));
+        assertThat(found.get(0).getIngestedTimestamp(), equalTo(secondEventTimestamp));
+    }
+
+    @Test
+    public void shouldNotSaveAnyOutgoingEventIfOneDeviceDoesNotExist() throws Exception {
+        application = Application.builder().name("smartffkonker").build();
+
+        thrown.expect(BusinessException.class);
+        thrown.expectMessage(EventRepository.Validations.OUTGOING_DEVICE_ID_DOES_NOT_EXIST.getCode());
+
+        try {
+            eventRepository.saveOutgoing(tenant, application, Arrays.asList(outgoing(deviceGuid), outgoing("unknown")));
+        } finally {
+            assertThat(mongoTemplate.count(new Query(), EventRepositoryMongoImpl.EVENTS_OUTGOING_COLLECTION_NAME), equalTo(0L));
+        }
+    }
+
     @Test
     @UsingDataSet(locations = {"/fixtures/tenants.json","/fixtures/devices.json","/fixtures/deviceEvents.json"})
     public void shouldRetrieveLastTwoEventsByTenantAndDeviceWhenFindingIncomingBy() throws Exception {
@@ -273,6 +349,43 @@ public class EventRepositoryMongoTest extends BusinessLayerTestSupport {
         assertThat(events.get(1).getCreationTimestamp().toEpochMilli(),equalTo(secondEventTimestamp.toEpochMilli()));
     }
 
+    @Test
+    @UsingDataSet(locations = {"/fixtures/tenants.json","/fixtures/devices.json","/fixtures/deviceEvents.json"})
+    public void shouldStreamEventsInRequestedOrderWhenStreamingIncomingBy() throws Exception {
+        List<Event> events;
+        try (Stream<Event> stream = eventRepository.streamIncomingBy(tenant, application, deviceGuid, "command",
+                firstEventTimestamp.plus(1,ChronoUnit.SECONDS),
+                null,true,null)) {
+            events = stream.collect(Collectors.toList());
+        }
+
+        assertThat(events,hasSize(2));
+
+        assertThat(events.get(0).getCreationTimestamp().toEpochMilli(),equalTo(secondEventTimestamp.toEpochMilli()));
+        assertThat(events.get(1).getCreationTimestamp().toEpochMilli(),equalTo(thirdEventTimestamp.toEpochMilli()));
+    }
+
+    @Test
+    public void shouldPageThroughEventsSharingTheSameTimestamp() throws Exception {
+        application = Application.builder().name("smartffkonker").build();
+
+        for (int i = 0; i < 3; i++) {
+            eventRepository.saveIncoming(tenant, application, incomingEvent);
+        }
+
+        EventPage page = eventRepository.findIncomingPageBy(tenant, application, deviceGuid, "command",
+                null, null, false, 2, null);
+
+        assertThat(page.getEvents(), hasSize(2));
+        assertThat(page.getNext(), notNullValue());
+
+        page = eventRepository.findIncomingPageBy(tenant, application, deviceGuid, "command",
+                null, null, false, 2, EventCursor.decode(page.getNext().encode()));
+
+        assertThat(page.getEvents(), hasSize(1));
+        assertThat(page.getNext(), nullValue());
+    }
+
     @Test
     @UsingDataSet(locations = {"/fixtures/tenants.json","/fixtures/devices.json","/fixtures/deviceEvents.json"})
     public void shouldRemoveEvents() throws Exception {
@@ -293,6 +406,23 @@ public class EventRepositoryMongoTest extends BusinessLayerTestSupport {
         assertThat(events,hasSize(0));
     }
 
+    @Test
+    public void shouldRemoveEveryEventOfALongDeviceHistory() throws Exception {
+        application = Application.builder().name("smartffkonker").build();
+        String otherDeviceGuid = "8363c556-84ea-11e6-92a2-4b01fea7e243";
+
+        List<Event> history = Stream.generate(() -> incoming(deviceGuid)).limit(2500).collect(Collectors.toList());
+        eventRepository.saveIncoming(tenant, application, history);
+        eventRepository.saveIncoming(tenant, application, Arrays.asList(incoming(otherDeviceGuid)));
+
+        eventRepository.removeBy(tenant, application, deviceGuid);
+
+        Query deleted = Query.query(Criteria.where("deleted").is(true));
+        assertThat(mongoTemplate.count(deleted, EventRepositoryMongoImpl.EVENTS_INCOMING_COLLECTION_NAME), equalTo(2500L));
+        assertThat(eventRepository.findIncomingBy(tenant, application, otherDeviceGuid, null,
+                firstEventTimestamp.minusSeconds(1), null, false, 1), hasSize(1));
+    }
+
     @Test
     @UsingDataSet(locations = {"/fixtures/tenants.json","/fixtures/applications.json","/fixtures/devices.json","/fixtures/deviceEvents.json"})
     public void shouldCopyEvents() throws Exception {
@@ -366,4 +496,35 @@ public class EventRepositoryMongoTest extends BusinessLayerTestSupport {
 
         assertThat(events.get(0).getCreationTimestamp().toEpochMilli(),equalTo(thirdEventTimestamp.toEpochMilli()));
     }
-}
\ No newline at end of file
+    private Event incoming(String incomingDeviceGuid) {
+        return Event.builder()
+                .incoming(Event.EventActor.builder()
+                        .channel("command")
+                        .deviceGuid(incomingDeviceGuid)
+                        .tenantDomain(tenant.getDomainName())
+                        .applicationName(application.getName())
+                        .build())
+                .creationTimestamp(firstEventTimestamp)
+                .ingestedTimestamp(firstEventTimestamp)
+                .payload(incomingPayload)
+                .build();
+    }
+
+    private Event outgoing(String outgoingDeviceGuid) {
+        return Event.builder()
+                .incoming(Event.EventActor.builder()
+                        .channel("command")
+                        .deviceGuid(deviceGuid)
+                        .build())
+                .outgoing(Event.EventActor.builder()
+                        .channel("out")
+                        .deviceGuid(outgoingDeviceGuid)
+                        .tenantDomain(tenant.getDomainName())
+                        .applicationName(application.getName())
+                        .build())
+                .creationTimestamp(firstEventTimestamp)
+                .payload(incomingPayload)
+                .build();
+    }
+
+}
@@ -14,10 +14,13 @@ import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.contains;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.Duration;
@@ -40,6 +43,7 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.InOrder;
 import org.mockito.Mockito;
+import org.springframework.amqp.core.MessagePostProcessor;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -65,6 +69,7 @@ import com.konkerlabs.platform.registry.business.repositories.DeviceModelReposit
 import com.konkerlabs.platform.registry.business.repositories.DeviceRepository;
 import com.konkerlabs.platform.registry.business.repositories.LocationRepository;
 import com.konkerlabs.platform.registry.business.repositories.TenantRepository;
+import com.konkerlabs.platform.registry.business.services.DeviceApiKeyCache;
 import com.konkerlabs.platform.registry.business.services.api.ApplicationService;
 import com.konkerlabs.platform.registry.business.services.api.DeviceEventService;
 import com.konkerlabs.platform.registry.business.services.api.DeviceRegisterService;
@@ -74,6 +79,7 @@ import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
 import com.konkerlabs.platform.registry.config.EmailConfig;
 import com.konkerlabs.platform.registry.config.EventStorageConfig;
 import com.konkerlabs.platform.registry.config.PubServerConfig;
+import com.konkerlabs.platform.registry.config.RabbitMQConfig;
 import com.konkerlabs.platform.registry.test.base.BusinessLayerTestSupport;
 import com.konkerlabs.platform.registry.test.base.BusinessTestConfiguration;
 import com.konkerlabs.platform.registry.test.base.MongoTestConfiguration;
@@ -129,6 +135,10 @@ public class DeviceRegisterServiceTest extends BusinessLayerTestSupport {
     private ApplicationRepository applicationRepository;
     @Autowired
     private DeviceEventService deviceEventService;
+    @Autowired
+    private DeviceApiKeyCache deviceApiKeyCache;
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
 
     private Device device;
     private Tenant currentTenant;
@@ -140,6 +150,9 @@ public class DeviceRegisterServiceTest extends BusinessLayerTestSupport {
 
     @Before
     public void setUp() {
+        deviceApiKeyCache.invalidateAll();
+        Mockito.reset(rabbitTemplate);
+
         currentTenant = tenantRepository.findByDomainName("konker");
         emptyTenant = tenantRepository.findByDomainName("empty");
         currentApplication = applicationRepository.findByTenantAndName(currentTenant.getId(), "smartffkonker");
@@ -381,6 +394,33 @@ public class DeviceRegisterServiceTest extends BusinessLayerTestSupport {
         assertThat(found, equalTo(registeredDevice));
     }
 
+    @Test
+    @UsingDataSet(locations = {"/fixtures/devices.json", "/fixtures/tenants.json", "/fixtures/applications.json"})
+    public void shouldServeACachedDeviceByItsApiKey() {
+        Device found = deviceRegisterService.findByApiKey(THE_DEVICE_API_KEY);
+        assertThat(found, notNullValue());
+
+        deviceRepository.delete(THE_DEVICE_INTERNAL_MONGO_ID);
+
+        assertThat(deviceRegisterService.findByApiKey(THE_DEVICE_API_KEY), equalTo(found));
+    }
+
+    @Test
+    @UsingDataSet(locations = {"/fixtures/devices.json", "/fixtures/tenants.json", "/fixtures/applications.json"})
+    public void shouldInvalidateTheCachedDeviceAndNotifyOtherNodesWhenUpdating() {
+        deviceRegisterService.findByApiKey(THE_DEVICE_API_KEY);
+
+        Device persisted = deviceRepository.findOne(THE_DEVICE_INTERNAL_MONGO_ID);
+        persisted.setName(ANOTHER_DEVICE_NAME);
+
+        ServiceResponse<Device> response = deviceRegisterService.update(currentTenant, currentApplication, THE_DEVICE_GUID, persisted);
+        assertThat(response, isResponseOk());
+
+        assertThat(deviceRegisterService.findByApiKey(THE_DEVICE_API_KEY).getName(), equalTo(ANOTHER_DEVICE_NAME));
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.DEVICE_CHANGED_EXCHANGE), eq(""), eq(THE_DEVICE_API_KEY),
+                any(MessagePostProcessor.class));
+    }
+
     @Test
     @UsingDataSet(locations = {"/fixtures/tenants.json", "/fixtures/applications.json"})
     public void shouldRaiseAnExceptionIfDeviceGuidIsNullWhenUpdating() {
@@ -957,6 +997,16 @@ public class DeviceRegisterServiceTest extends BusinessLayerTestSupport {
     	assertThat(serviceResponse.getResult().getApiKey(), equalTo(THE_DEVICE_API_KEY));
     }
     
+    @Test
+    @UsingDataSet(locations = {"/fixtures/tenants.json", "/fixtures/devices.json", "/fixtures/applications.json"})
+    public void shouldReturnEveryDeviceFoundByDeviceIds() {
+    	ServiceResponse<List<Device>> serviceResponse = deviceRegisterService.findAllByDeviceIds(currentTenant, currentApplication,
+    			Arrays.asList(THE_USER_DEFINED_DEVICE_ID, "SN1234567891", "unknown"));
+
+    	assertThat(serviceResponse.getStatus(), equalTo(ServiceResponse.Status.OK));
+    	assertThat(serviceResponse.getResult(), hasSize(2));
+    }
+
     @Configuration
     static class DeviceRegisterServiceTestConfig {
     	
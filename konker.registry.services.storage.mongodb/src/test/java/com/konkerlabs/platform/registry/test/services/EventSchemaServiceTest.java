@@ -7,6 +7,7 @@ import com.konkerlabs.platform.registry.business.repositories.ApplicationReposit
 import com.konkerlabs.platform.registry.business.repositories.DeviceRepository;
 import com.konkerlabs.platform.registry.business.repositories.TenantRepository;
 import com.konkerlabs.platform.registry.business.repositories.events.api.EventRepository;
+import com.konkerlabs.platform.registry.business.services.EventSchemaCache;
 import com.konkerlabs.platform.registry.business.services.api.EventSchemaService;
 import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
 import com.konkerlabs.platform.registry.config.EmailConfig;
@@ -16,6 +17,7 @@ import com.konkerlabs.platform.registry.test.base.BusinessLayerTestSupport;
 import com.konkerlabs.platform.registry.test.base.BusinessTestConfiguration;
 import com.konkerlabs.platform.registry.test.base.MongoTestConfiguration;
 import com.konkerlabs.platform.registry.test.base.matchers.ServiceResponseMatchers;
+import com.konkerlabs.platform.utilities.parsers.json.ParsedJson;
 import com.lordofthejars.nosqlunit.annotation.UsingDataSet;
 import org.junit.Before;
 import org.junit.Test;
@@ -26,6 +28,9 @@ import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
@@ -34,11 +39,13 @@ import org.thymeleaf.spring4.SpringTemplateEngine;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 
 import static com.konkerlabs.platform.registry.test.base.matchers.ServiceResponseMatchers.isResponseOk;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -65,6 +72,10 @@ public class EventSchemaServiceTest extends BusinessLayerTestSupport {
     private EventRepository eventRepository;
     @Autowired
     private EventSchemaService eventSchemaService;
+    @Autowired
+    private EventSchemaCache eventSchemaCache;
+    @Autowired
+    private MongoTemplate mongoTemplate;
 
     private String deviceGuid = "8363c556-84ea-11e6-92a2-4b01fea7e243";
 
@@ -98,6 +109,9 @@ public class EventSchemaServiceTest extends BusinessLayerTestSupport {
 
     @Before
     public void setUp() throws Exception {
+        // every test loads its own schemas
+        eventSchemaCache.invalidateAll();
+
         tenant = tenantRepository.findByDomainName("konker");
         application = Application.builder()
                 .tenant(tenant)
@@ -166,6 +180,46 @@ public class EventSchemaServiceTest extends BusinessLayerTestSupport {
         assertThat(schema.getResult(),equalTo(secondEventSchema));
     }
 
+    @Test
+    public void shouldMergeNewTypesIntoTheStoredSchema() throws Exception {
+        eventSchemaService.appendIncomingSchema(incomingEvent);
+
+        incomingEvent.setPayload(secondJson);
+        eventSchemaService.appendIncomingSchema(incomingEvent);
+
+        EventSchema stored = storedSchema(firstChannel);
+
+        assertThat(stored.getFields().size(), equalTo(2));
+        assertThat(stored.getByPath(secondField).get().getKnownTypes(),
+                equalTo(new HashSet<>(Arrays.asList(JsonNodeType.OBJECT, JsonNodeType.STRING, JsonNodeType.NUMBER))));
+    }
+
+    @Test
+    public void shouldNotWriteAnEventWithAKnownShape() throws Exception {
+        eventSchemaService.appendIncomingSchema(incomingEvent);
+        mongoTemplate.remove(schemaQuery(firstChannel), "incomingEventSchema");
+
+        ServiceResponse<EventSchema> response = eventSchemaService.appendIncomingSchema(incomingEvent);
+
+        assertThat(response, isResponseOk());
+        assertThat(response.getResult().getFields().size(), equalTo(2));
+        assertThat(storedSchema(firstChannel), nullValue());
+    }
+
+    @Test
+    public void shouldValidateAnIncomingSchemaWithoutWritingIt() throws Exception {
+        ServiceResponse<EventSchema> response = eventSchemaService.validateIncomingSchema(incomingEvent,
+                new ParsedJson(incomingEvent.getPayload()));
+
+        assertThat(response, isResponseOk());
+        assertThat(storedSchema(firstChannel), nullValue());
+
+        incomingEvent.getIncoming().setChannel(null);
+        response = eventSchemaService.validateIncomingSchema(incomingEvent, new ParsedJson(incomingEvent.getPayload()));
+
+        assertThat(response, ServiceResponseMatchers.hasErrorMessage(EventSchemaService.Validations.EVENT_INCOMING_CHANNEL_NULL.getCode()));
+    }
+
     @Test
     @UsingDataSet(locations = {"/fixtures/tenants.json", "/fixtures/applications.json", "/fixtures/devices.json", "/fixtures/eventSchemas.json"})
     public void shouldRetrieveAllDistinctChannelByDeviceGuid() throws Exception {
@@ -189,6 +243,20 @@ public class EventSchemaServiceTest extends BusinessLayerTestSupport {
         assertThat(response.getResult(), equalTo(knownMetrics));
     }
 
+    @Test
+    @UsingDataSet(locations = {"/fixtures/tenants.json", "/fixtures/devices.json", "/fixtures/eventSchemas.json"})
+    public void shouldFindKnownIncomingMetricsOfEveryChannel() throws Exception {
+        ServiceResponse<List<String>> response = eventSchemaService.findKnownIncomingMetricsBy(tenant, application, deviceGuid, JsonNodeType.NUMBER);
+
+        assertThat(response,isResponseOk());
+        assertThat(new HashSet<>(response.getResult()), equalTo(new HashSet<>(Arrays.asList("field", "temperature"))));
+
+        response = eventSchemaService.findKnownIncomingMetricsBy(tenant, application, deviceGuid, JsonNodeType.STRING);
+
+        assertThat(response,isResponseOk());
+        assertThat(response.getResult(), equalTo(Arrays.asList("field")));
+    }
+
     @Test
     @UsingDataSet(locations = {"/fixtures/tenants.json", "/fixtures/devices.json", "/fixtures/eventSchemas.json", "/fixtures/applications.json"})
     public void shouldFindLastIncomingBy() throws Exception {
@@ -255,6 +323,14 @@ public class EventSchemaServiceTest extends BusinessLayerTestSupport {
         assertThat(response, ServiceResponseMatchers.hasErrorMessage("service.device.guid.does_not_exist"));
     }
     
+    private EventSchema storedSchema(String channel) {
+        return mongoTemplate.findOne(schemaQuery(channel), EventSchema.class, "incomingEventSchema");
+    }
+
+    private Query schemaQuery(String channel) {
+        return Query.query(Criteria.where("deviceGuid").is(deviceGuid).and("channel").is(channel));
+    }
+
     static class EventSchemaServiceTestConfig {
     	
     	@Bean
@@ -3,6 +3,8 @@ package com.konkerlabs.platform.registry.web.controllers;
 import com.fasterxml.jackson.databind.node.JsonNodeType;
 import com.konkerlabs.platform.registry.business.model.*;
 import com.konkerlabs.platform.registry.business.model.Event.EventDecorator;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventCursor;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventPage;
 import com.konkerlabs.platform.registry.business.services.api.DeviceEventService;
 import com.konkerlabs.platform.registry.business.services.api.DeviceRegisterService;
 import com.konkerlabs.platform.registry.business.services.api.EventSchemaService;
@@ -19,16 +21,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.annotation.Scope;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.util.CollectionUtils;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import javax.servlet.http.HttpServletResponse;
-import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -43,6 +51,8 @@ public class DeviceVisualizationController implements ApplicationContextAware {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(DeviceVisualizationController.class);
 
+	private static final int CSV_PAGE_SIZE = 1000;
+
     public enum Messages {
     	DEVICE_IS_MANDATORY("visualization.device.mandatory"),
     	CHANNE_IS_MANDATORY("visualization.channel.mandatory"),
@@ -107,27 +117,10 @@ public class DeviceVisualizationController implements ApplicationContextAware {
 	@SuppressWarnings("rawtypes")
 	private List doSearch(String dateStart, String dateEnd, boolean online, String deviceGuid,
 			String channel, Locale locale, int limit) {
-		if (deviceGuid.isEmpty()) {
+		Optional<String> invalid = validate(dateStart, dateEnd, online, deviceGuid, channel, locale);
+		if (invalid.isPresent()) {
     		Map<String, String> message = new HashMap<>();
-    		message.put("message", applicationContext.getMessage(Messages.DEVICE_IS_MANDATORY.getCode(),null,locale));
-    		return Arrays.asList(message);
-    	}
-
-    	if (channel.isEmpty()) {
-    		Map<String, String> message = new HashMap<>();
-    		message.put("message", applicationContext.getMessage(Messages.CHANNE_IS_MANDATORY.getCode(),null,locale));
-    		return Arrays.asList(message);
-    	}
-
-    	if (!online && StringUtils.isEmpty(dateStart)) {
-    		Map<String, String> message = new HashMap<>();
-    		message.put("message", applicationContext.getMessage(Messages.DATESTART_IS_MANDATORY.getCode(),null,locale));
-    		return Arrays.asList(message);
-    	}
-
-    	if (!online && StringUtils.isEmpty(dateEnd)) {
-    		Map<String, String> message = new HashMap<>();
-    		message.put("message", applicationContext.getMessage(Messages.DATEEND_IS_MANDATORY.getCode(),null,locale));
+    		message.put("message", invalid.get());
     		return Arrays.asList(message);
     	}
 
@@ -142,19 +135,35 @@ public class DeviceVisualizationController implements ApplicationContextAware {
     		return eventsResult;
     	}
 
-    	LocalDateTime start = LocalDateTime.parse(dateStart, DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss", user.getLanguage().getLocale()));
-    	LocalDateTime end = LocalDateTime.parse(dateEnd, DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss",  user.getLanguage().getLocale()));
-    	ZonedDateTime zonedDateStart = ZonedDateTime.of(start, ZoneId.of(user.getZoneId().getId()));
-    	ZonedDateTime zonedDateEnd = ZonedDateTime.of(end, ZoneId.of(user.getZoneId().getId()));
-
     	ServiceResponse<List<Event>> response = deviceEventService.findIncomingBy(tenant, application,
-				deviceGuid, channel, zonedDateStart.toInstant(),
-    			zonedDateEnd.toInstant(), false, limit);
+				deviceGuid, channel, toInstant(dateStart),
+    			toInstant(dateEnd), false, limit);
 
     	List<EventDecorator> eventsResult = decorateEventResult(response);
 		return eventsResult;
 	}
 
+	private Optional<String> validate(String dateStart, String dateEnd, boolean online, String deviceGuid,
+			String channel, Locale locale) {
+		if (deviceGuid.isEmpty()) {
+    		return Optional.of(applicationContext.getMessage(Messages.DEVICE_IS_MANDATORY.getCode(),null,locale));
+    	}
+
+    	if (channel.isEmpty()) {
+    		return Optional.of(applicationContext.getMessage(Messages.CHANNE_IS_MANDATORY.getCode(),null,locale));
+    	}
+
+    	if (!online && StringUtils.isEmpty(dateStart)) {
+    		return Optional.of(applicationContext.getMessage(Messages.DATESTART_IS_MANDATORY.getCode(),null,locale));
+    	}
+
+    	if (!online && StringUtils.isEmpty(dateEnd)) {
+    		return Optional.of(applicationContext.getMessage(Messages.DATEEND_IS_MANDATORY.getCode(),null,locale));
+    	}
+
+    	return Optional.empty();
+	}
+
 	private List<EventDecorator> decorateEventResult(ServiceResponse<List<Event>> response) {
 		List<EventDecorator> eventsResult = new ArrayList<>();
 		response.getResult().forEach(r -> eventsResult.add(EventDecorator.builder()
@@ -204,37 +213,87 @@ public class DeviceVisualizationController implements ApplicationContextAware {
 
     @RequestMapping(path = "/csv/download")
     @PreAuthorize("hasAuthority('EXPORT_DEVICE_CSV')")
-    public void download(@RequestParam(required = false) String dateStart,
+    public ResponseEntity<StreamingResponseBody> download(@RequestParam(required = false) String dateStart,
 			    		 @RequestParam(required = false) String dateEnd,
 			    		 @RequestParam(required = false) boolean online,
 			    		 @RequestParam String deviceGuid,
 			    		 @RequestParam String channel,
-    					 Locale locale, HttpServletResponse response) {
+			    		 @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+    					 Locale locale) {
+
+        Optional<String> invalid = validate(dateStart, dateEnd, online, deviceGuid, channel, locale);
+        if (invalid.isPresent()) {
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(output -> output.write(invalid.get().getBytes(StandardCharsets.UTF_8)));
+        }
+
+        // everything bound to the request is resolved here, the body is written
+        // after this method returns and out of the request thread
+        Device device = deviceRegisterService.findByTenantDomainNameAndDeviceGuid(tenant.getDomainName(), deviceGuid);
+        Application application = device.getApplication();
 
-    	try  {
-            Device device = deviceRegisterService.findByTenantDomainNameAndDeviceGuid(tenant.getDomainName(), deviceGuid);
-            Application application = device.getApplication();
+        ServiceResponse<EventSchema> metrics = eventSchemaService.findIncomingBy(tenant, application, deviceGuid, channel);
 
-            ServiceResponse<EventSchema> metrics = eventSchemaService.findIncomingBy(tenant, application, deviceGuid, channel);
+        List<String> additionalHeaders = new ArrayList<String>();
+        if (metrics.isOk()) {
+            additionalHeaders = metrics.getResult().getFields().stream()
+                    .map(m -> m.getPath())
+                    .collect(Collectors.toList());
+        }
+
+        Instant startInstant = online ? null : toInstant(dateStart);
+        Instant endInstant = online ? null : toInstant(dateEnd);
+        DateTimeFormatter formatter = instantToStringConverter.getFormatter();
+        List<String> columns = additionalHeaders;
+        boolean compress = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        int limit = environmentConfig.getCsvDownloadRowsLimit();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/csv"));
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, String.format("attachment; filename=\"%s\"", "events.csv"));
+        headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (compress) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
 
-            List<String> additionalHeaders = new ArrayList<String>();
-            if (metrics.isOk()) {
-                additionalHeaders = metrics.getResult().getFields().stream()
-                        .map(m -> m.getPath())
-                        .collect(Collectors.toList());
+        StreamingResponseBody body = output -> {
+            try (EventCsvDownload csvDownload = new EventCsvDownload(output, compress, formatter, columns)) {
+                csvDownload.writeHeader();
+
+                String cursor = null;
+                int remaining = limit;
+                do {
+                    ServiceResponse<EventPage> page = deviceEventService.findIncomingPageBy(tenant, application,
+                            deviceGuid, channel, startInstant, endInstant, false,
+                            Math.min(CSV_PAGE_SIZE, remaining), cursor);
+                    if (!page.isOk()) {
+                        LOGGER.error("Error to read events for CSV: {}", page.getResponseMessages().keySet(),
+                                Device.builder().guid(deviceGuid).build().toURI(),
+                                Device.builder().guid(deviceGuid).build().getLogLevel());
+                        break;
+                    }
+
+                    for (Event event : page.getResult().getEvents()) {
+                        csvDownload.write(event);
+                    }
+                    remaining -= page.getResult().getEvents().size();
+                    cursor = Optional.ofNullable(page.getResult().getNext()).map(EventCursor::encode).orElse(null);
+                } while (cursor != null && remaining > 0);
+            } catch (SecurityException | NoSuchMethodException e) {
+                LOGGER.error("Error to generate CSV",
+                        Device.builder().guid(deviceGuid).build().toURI(),
+                        Device.builder().guid(deviceGuid).build().getLogLevel(),
+                        e);
             }
+        };
+
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
 
-            int limit = environmentConfig.getCsvDownloadRowsLimit();
-            List events = doSearch(dateStart, dateEnd, online, deviceGuid, channel, locale, limit);
-
-    		EventCsvDownload csvDownload = new EventCsvDownload();
-			csvDownload.download(events, response, additionalHeaders);
-		} catch (IOException | SecurityException | NoSuchMethodException e) {
-			LOGGER.error("Error to generate CSV",
-						Device.builder().guid(deviceGuid).build().toURI(),
-						Device.builder().guid(deviceGuid).build().getLogLevel(),
-						e);
-		}
+    private Instant toInstant(String date) {
+        LocalDateTime localDateTime = LocalDateTime.parse(date, DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss", user.getLanguage().getLocale()));
+        return ZonedDateTime.of(localDateTime, ZoneId.of(user.getZoneId().getId())).toInstant();
     }
 
 }
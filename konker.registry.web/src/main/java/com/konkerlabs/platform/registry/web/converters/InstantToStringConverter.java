@@ -28,4 +28,15 @@ public class InstantToStringConverter implements Converter<Instant, String> {
                 );
     }
 
+    /**
+     * Formatter equivalent to {@link #convert(Instant)} for the current user,
+     * usable outside of the request thread.
+     */
+    public DateTimeFormatter getFormatter() {
+        return DateTimeFormatter.ofPattern(
+                        utils.getDateTimeFormatPattern(),
+                        utils.getCurrentLocale())
+                .withZone(ZoneId.of(utils.getUserZoneID()));
+    }
+
 }
@@ -2,68 +2,101 @@ package com.konkerlabs.platform.registry.web.csv;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.ValueNode;
+import com.konkerlabs.platform.registry.business.model.Event;
 import com.konkerlabs.platform.registry.business.model.Event.EventActor;
 import com.konkerlabs.platform.registry.business.model.Event.EventDecorator;
 import org.apache.commons.lang3.ArrayUtils;
 
-import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.zip.GZIPOutputStream;
 
-public class EventCsvDownload {
-	
-	public void download(List<EventDecorator> data, HttpServletResponse response, List<String> additionalHeaders) throws IOException, SecurityException, NoSuchMethodException {
-		String headerKey = "Content-Disposition";
-		String headerValue = String.format("attachment; filename=\"%s\"", "events.csv");
+/**
+ * Writes device events as CSV rows while they are read, so an export never holds
+ * more than the page being written. Rows go through a buffered writer, gzipped
+ * when requested, and payloads are flattened with a parser shared by every export.
+ */
+public class EventCsvDownload implements Closeable {
 
-		response.setContentType("application/csv");
-		response.setHeader(headerKey, headerValue);
-		PrintWriter writer = response.getWriter();
-		
+	private static final ObjectReader PAYLOAD_READER = new ObjectMapper().reader();
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final List<String> additionalHeaders;
+	private final DateTimeFormatter formatter;
+	private final GZIPOutputStream gzip;
+	private final Writer writer;
+	private final Map<String, String> jsonMap = new HashMap<>();
+
+	public EventCsvDownload(OutputStream output, boolean compress, DateTimeFormatter formatter,
+							List<String> additionalHeaders) throws IOException {
+		this.additionalHeaders = additionalHeaders;
+		this.formatter = formatter;
+		this.gzip = compress ? new GZIPOutputStream(output, BUFFER_SIZE) : null;
+		this.writer = new BufferedWriter(
+				new OutputStreamWriter(compress ? gzip : output, StandardCharsets.UTF_8), BUFFER_SIZE);
+	}
+
+	public void writeHeader() throws IOException, SecurityException, NoSuchMethodException {
 		String[] header = createHeader(EventDecorator.class);
 		String[] additionalHeader = additionalHeaders.toArray(new String[0]);
 		header = ArrayUtils.addAll(header, additionalHeader);
-		
-		StringBuffer bufferHeader = new StringBuffer();
-		for (String head : header) {
-			bufferHeader.append(head).append(",");
+
+		writer.write(String.join(",", header));
+		writer.write(System.lineSeparator());
+	}
+
+	public void write(Event event) throws IOException {
+		jsonMap.clear();
+		if (event.getPayload() != null) {
+			jsonToMap("", PAYLOAD_READER.readTree(event.getPayload()), jsonMap);
 		}
-		bufferHeader.deleteCharAt(bufferHeader.lastIndexOf(","));
-		writer.println(bufferHeader.toString());
-				
-		for (EventDecorator event : data) {
-			Map<String, String> jsonMap = new LinkedHashMap<>();
-			
-			jsonToMap("", new ObjectMapper().readTree(event.getPayload()), jsonMap);
-			
-			StringBuffer bufferJson = new StringBuffer();
-			Arrays.asList(additionalHeader).forEach(c -> {
-				String jsonMapValue = jsonMap.get(c);
-				jsonMapValue = handleSpecialCharacters(jsonMapValue);
-				bufferJson.append(Optional.ofNullable(jsonMapValue).orElse("")).append(",");
-			});
-			
-			bufferJson.deleteCharAt(bufferJson.lastIndexOf(","));
-			
-			writer.println(event.getTimestampFormated() +","+
-						event.getTimestamp() +","+
-						Optional.ofNullable(event.getIncoming()).orElse(EventActor.builder().tenantDomain("").build()).getTenantDomain() + "," +
-						Optional.ofNullable(event.getIncoming()).orElse(EventActor.builder().applicationName("").build()).getApplicationName() + "," +
-					    Optional.ofNullable(event.getIncoming()).orElse(EventActor.builder().deviceGuid("").build()).getDeviceGuid() + "," +
-						Optional.ofNullable(event.getIncoming()).orElse(EventActor.builder().deviceId("").build()).getDeviceId() + "," +
-						Optional.ofNullable(event.getIncoming()).orElse(EventActor.builder().channel("").build()).getChannel() + "," +
-						bufferJson.toString());
+
+		EventActor incoming = Optional.ofNullable(event.getIncoming()).orElse(EventActor.builder().build());
+
+		writer.write(formatter.format(event.getCreationTimestamp()));
+		writer.write(',');
+		writer.write(String.valueOf(event.getCreationTimestamp().toEpochMilli()));
+		writeColumn(incoming.getTenantDomain());
+		writeColumn(incoming.getApplicationName());
+		writeColumn(incoming.getDeviceGuid());
+		writeColumn(incoming.getDeviceId());
+		writeColumn(incoming.getChannel());
+		for (String column : additionalHeaders) {
+			writeColumn(handleSpecialCharacters(jsonMap.get(column)));
 		}
-		
+		writer.write(System.lineSeparator());
+	}
+
+	private void writeColumn(String value) throws IOException {
+		writer.write(',');
+		writer.write(Optional.ofNullable(value).orElse(""));
+	}
+
+	/**
+	 * Flushes the pending rows and ends the gzip stream, leaving the underlying
+	 * output open to its owner.
+	 */
+	@Override
+	public void close() throws IOException {
 		writer.flush();
-		writer.close();
+		if (gzip != null) {
+			gzip.finish();
+		}
 	}
 
 	private String handleSpecialCharacters(String jsonMapValue) {
@@ -108,6 +141,10 @@ public class EventCsvDownload {
 		List<String> listHeader = new ArrayList<>();
 		
 		for (Field field : clazz.getDeclaredFields()) {
+			if (field.isSynthetic()) {
+				continue;
+			}
+
 			String fieldName = field.getName();
 			fieldName = fieldName.substring(0, 1).toUpperCase().concat(fieldName.substring(1));
 			
@@ -115,7 +152,7 @@ public class EventCsvDownload {
 			
 			if (method.getReturnType().getCanonicalName().contains("com.konkerlabs.platform.registry")) {
 				for (Field localField : method.getReturnType().getDeclaredFields()) {
-					if (!"URI_SCHEME".equals(localField.getName())) {
+					if (!localField.isSynthetic() && !"URI_SCHEME".equals(localField.getName())) {
 						listHeader.add("tenantDomain".equals(localField.getName()) 
 								? fieldName.concat(".organization") 
 								: fieldName.concat("." + localField.getName()));
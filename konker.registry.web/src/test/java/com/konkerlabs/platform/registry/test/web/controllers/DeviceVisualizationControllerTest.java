@@ -1,12 +1,19 @@
 package com.konkerlabs.platform.registry.test.web.controllers;
 
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -14,7 +21,9 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.After;
 import org.junit.Before;
@@ -24,10 +33,13 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.util.StreamUtils;
 
 import com.fasterxml.jackson.databind.node.JsonNodeType;
 import com.konkerlabs.platform.registry.business.model.Application;
@@ -41,6 +53,8 @@ import com.konkerlabs.platform.registry.business.model.User;
 import com.konkerlabs.platform.registry.business.model.enumerations.DateFormat;
 import com.konkerlabs.platform.registry.business.model.enumerations.Language;
 import com.konkerlabs.platform.registry.business.model.enumerations.TimeZone;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventCursor;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventPage;
 import com.konkerlabs.platform.registry.business.services.api.DeviceEventService;
 import com.konkerlabs.platform.registry.business.services.api.DeviceRegisterService;
 import com.konkerlabs.platform.registry.business.services.api.EventSchemaService;
@@ -240,6 +254,55 @@ public class DeviceVisualizationControllerTest extends WebLayerTestContext {
     					+ "'payload':'{\"a\": 109, \"b\": 111}'}]"));
     }
 
+    @Test
+    @WithMockUser(authorities={"EXPORT_DEVICE_CSV"})
+    public void shouldStreamCsvPageByPageGzipped() throws Exception {
+    	when(userContextResolver.getObject()).thenReturn(user);
+
+        when(deviceRegisterService.findByTenantDomainNameAndDeviceGuid(tenant.getDomainName(), DEVICE_GUID))
+                .thenReturn(Device.builder().application(application).build());
+
+        when(eventSchemaService.findIncomingBy(tenant, application, DEVICE_GUID, CHANNEL))
+        	.thenReturn(ServiceResponseBuilder.<EventSchema>ok()
+        		.withResult(EventSchema.builder().channel(CHANNEL).deviceGuid(DEVICE_GUID)
+        				.field(SchemaField.builder().path("a").build())
+        				.field(SchemaField.builder().path("b").build()).build()).build());
+
+        EventCursor cursor = new EventCursor(1475603097000000000L, "first");
+        Event second = Event.builder().creationTimestamp(Instant.ofEpochSecond(1475603037l))
+        		.incoming(EventActor.builder().tenantDomain(TENANT_DOMAIN).deviceGuid(DEVICE_GUID).channel(CHANNEL).build())
+        		.payload("{\"a\": 108}").build();
+
+        when(deviceEventService.findIncomingPageBy(tenant, application, DEVICE_GUID, CHANNEL, startingTimestamp, endTimestamp, false, 1000, null))
+        	.thenReturn(ServiceResponseBuilder.<EventPage>ok()
+        		.withResult(new EventPage(eventsList, cursor)).build());
+        when(deviceEventService.findIncomingPageBy(tenant, application, DEVICE_GUID, CHANNEL, startingTimestamp, endTimestamp, false, 1000, cursor.encode()))
+        	.thenReturn(ServiceResponseBuilder.<EventPage>ok()
+        		.withResult(new EventPage(Collections.singletonList(second), null)).build());
+
+        MvcResult result = getMockMvc().perform(get("/devices/visualization/csv/download").param("dateStart", dateStart).param("dateEnd", dateEnd).param("online", "false")
+        		.param("deviceGuid", DEVICE_GUID).param("channel", CHANNEL)
+        		.header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+        		.andExpect(request().asyncStarted())
+        		.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+        		.andReturn();
+
+        getMockMvc().perform(asyncDispatch(result))
+        		.andExpect(status().isOk());
+        byte[] body = result.getResponse().getContentAsByteArray();
+
+        String[] lines = StreamUtils.copyToString(new GZIPInputStream(new ByteArrayInputStream(body)), StandardCharsets.UTF_8)
+        		.split(System.lineSeparator());
+
+        assertThat(lines.length, equalTo(3));
+        assertThat(lines[0], equalTo("TimestampFormated,Timestamp,Incoming.organization,Incoming.applicationName,"
+        		+ "Incoming.deviceGuid,Incoming.deviceId,Incoming.channel,a,b"));
+        assertThat(lines[1], equalTo("04/10/2016 14:44:57.000 BRT,1475603097000,inmetrics.com,,"
+        		+ "169897e9-ed44-41d1-978d-d244d78e9a67,,datain,109,111"));
+        assertThat(lines[2], equalTo("04/10/2016 14:43:57.000 BRT,1475603037000,inmetrics.com,,"
+        		+ "169897e9-ed44-41d1-978d-d244d78e9a67,,datain,108,"));
+    }
+
     @Configuration
     static class DeviceTestContextConfig {
     	@Bean
@@ -0,0 +1,159 @@
+package com.konkerlabs.platform.utilities.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Small in-process cache, bounded by entry count with least recently used eviction
+ * and an optional time to live measured from the moment an entry is written.
+ *
+ * Loaders run outside the cache lock, so two threads missing the same key at the
+ * same time may both load it; the last one written wins. A value loaded while any entry
+ * was invalidated is returned but not cached, so a load racing with an invalidation
+ * never puts the stale value back. Null values are never cached.
+ *
+ * An optional removal listener is told about every value that leaves the cache, whether
+ * evicted, expired, replaced or invalidated. It runs under the cache lock, so it should
+ * only release what the value holds.
+ */
+public class LocalCache<K, V> {
+
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+    private final Consumer<? super V> removalListener;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private long invalidations;
+
+    public LocalCache(int maximumSize) {
+        this(maximumSize, null);
+    }
+
+    public LocalCache(int maximumSize, Duration timeToLive) {
+        this(maximumSize, timeToLive, value -> {});
+    }
+
+    public LocalCache(int maximumSize, Duration timeToLive, Consumer<? super V> removalListener) {
+        if (maximumSize <= 0)
+            throw new IllegalArgumentException("Maximum size must be greater than zero");
+
+        this.maximumSize = maximumSize;
+        this.timeToLiveNanos = Optional.ofNullable(timeToLive).map(Duration::toNanos).orElse(0L);
+        this.removalListener = Optional.<Consumer<? super V>>ofNullable(removalListener).orElse(value -> {});
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                boolean evict = size() > LocalCache.this.maximumSize;
+                if (evict)
+                    LocalCache.this.removalListener.accept(eldest.getValue().value);
+                return evict;
+            }
+        };
+    }
+
+    public Optional<V> getIfPresent(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null)
+                return Optional.empty();
+
+            if (isExpired(entry)) {
+                entries.remove(key);
+                removalListener.accept(entry.value);
+                return Optional.empty();
+            }
+
+            return Optional.of(entry.value);
+        }
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long seen;
+        synchronized (entries) {
+            seen = invalidations;
+        }
+
+        Optional<V> cached = getIfPresent(key);
+        if (cached.isPresent())
+            return cached.get();
+
+        V value = loader.apply(key);
+        if (value != null) {
+            synchronized (entries) {
+                if (invalidations == seen)
+                    write(key, value);
+            }
+        }
+
+        return value;
+    }
+
+    public void put(K key, V value) {
+        if (value == null) {
+            invalidate(key);
+            return;
+        }
+
+        synchronized (entries) {
+            write(key, value);
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            invalidations++;
+            Optional.ofNullable(entries.remove(key)).ifPresent(entry -> removalListener.accept(entry.value));
+        }
+    }
+
+    public void invalidateIf(Predicate<? super K> predicate) {
+        synchronized (entries) {
+            invalidations++;
+            entries.entrySet().removeIf(entry -> {
+                boolean remove = predicate.test(entry.getKey());
+                if (remove)
+                    removalListener.accept(entry.getValue().value);
+                return remove;
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidations++;
+            entries.values().forEach(entry -> removalListener.accept(entry.value));
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void write(K key, V value) {
+        Entry<V> replaced = entries.put(key, new Entry<>(value, System.nanoTime()));
+        if (replaced != null && replaced.value != value)
+            removalListener.accept(replaced.value);
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return timeToLiveNanos > 0 && System.nanoTime() - entry.writtenAt > timeToLiveNanos;
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long writtenAt;
+
+        private Entry(V value, long writtenAt) {
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+    }
+
+}
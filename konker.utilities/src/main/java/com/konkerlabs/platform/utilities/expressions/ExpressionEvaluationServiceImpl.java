@@ -1,27 +1,51 @@
 package com.konkerlabs.platform.utilities.expressions;
 
+import com.konkerlabs.platform.utilities.cache.LocalCache;
 import com.konkerlabs.platform.utilities.support.Functions;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
 import org.springframework.context.expression.MapAccessor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.Expression;
+import org.springframework.expression.ParserContext;
 import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
 
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import java.lang.reflect.Method;
 import java.util.Map;
 import java.util.Optional;
 
 @Component
-@Scope(BeanDefinition.SCOPE_PROTOTYPE)
+@Scope(BeanDefinition.SCOPE_SINGLETON)
 public class ExpressionEvaluationServiceImpl implements ExpressionEvaluationService {
 
+    private static final int EXPRESSION_CACHE_SIZE = 1024;
+
+    private static final ParserContext TEMPLATE_PARSER_CONTEXT = new TemplateParserContext("@{","}");
+    private static final MapAccessor MAP_ACCESSOR = new MapAccessor();
+
+    private final SpelExpressionParser parser = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, ExpressionEvaluationServiceImpl.class.getClassLoader()));
+
+    // expressions are keyed by their text, so an edited route or destination never
+    // reaches a stale entry and the text it no longer uses is evicted as least recently used
+    private final LocalCache<String, Expression> templates = new LocalCache<>(EXPRESSION_CACHE_SIZE);
+    private final LocalCache<String, Expression> conditionals = new LocalCache<>(EXPRESSION_CACHE_SIZE);
+
+    private final Method urlEncodeFunction;
+
+    public ExpressionEvaluationServiceImpl() {
+        try {
+            urlEncodeFunction = Functions.class.getDeclaredMethod("urlEncode", new Class[] {String.class});
+        } catch (NoSuchMethodException e) {
+            throw new EvaluationException("Fail to register function to evaluation context", e);
+        }
+    }
+
     @Override
     public String evaluateTemplate(String expressionTemplate, Map<String, Object> evaluationContext) {
         Optional.ofNullable(expressionTemplate)
@@ -31,17 +55,12 @@ public class ExpressionEvaluationServiceImpl implements ExpressionEvaluationServ
         Optional.ofNullable(evaluationContext)
             .orElseThrow(() -> new IllegalArgumentException("Evaluation context cannot be null"));
 
-        Expression expression = new SpelExpressionParser().parseExpression(expressionTemplate
-                ,new TemplateParserContext("@{","}"));
+        Expression expression = templates.get(expressionTemplate,
+                template -> parser.parseExpression(template, TEMPLATE_PARSER_CONTEXT));
 
         StandardEvaluationContext standardEvaluationContext = new StandardEvaluationContext();
-        try {
-            standardEvaluationContext.registerFunction("urlEncode",
-                    Functions.class.getDeclaredMethod("urlEncode", new Class[] {String.class}));
-        } catch (NoSuchMethodException e) {
-            throw new EvaluationException("Fail to register function to evaluation context", e);
-        }
-        standardEvaluationContext.addPropertyAccessor(new MapAccessor());
+        standardEvaluationContext.registerFunction("urlEncode", urlEncodeFunction);
+        standardEvaluationContext.addPropertyAccessor(MAP_ACCESSOR);
         standardEvaluationContext.setVariables(evaluationContext);
 
         return expression.getValue(standardEvaluationContext,String.class);
@@ -56,12 +75,13 @@ public class ExpressionEvaluationServiceImpl implements ExpressionEvaluationServ
         Optional.ofNullable(evaluationContext)
                 .orElseThrow(() -> new IllegalArgumentException("Evaluation context cannot be null"));
 
-        Expression expression = new SpelExpressionParser().parseExpression(conditionalExpression);
+        Expression expression = conditionals.get(conditionalExpression, parser::parseExpression);
 
         StandardEvaluationContext standardEvaluationContext = new StandardEvaluationContext();
-        standardEvaluationContext.addPropertyAccessor(new MapAccessor());
+        standardEvaluationContext.addPropertyAccessor(MAP_ACCESSOR);
         standardEvaluationContext.setVariables(evaluationContext);
 
         return expression.getValue(standardEvaluationContext,Boolean.class);
     }
+
 }
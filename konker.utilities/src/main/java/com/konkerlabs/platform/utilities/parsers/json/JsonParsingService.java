@@ -10,6 +10,8 @@ import java.util.Map;
 
 public interface JsonParsingService {
 
+    ParsedJson parse(String json);
+
     Map<String,JsonPathData> toFlatMap(String json) throws JsonProcessingException;
 
     Map<String,Object> toMap(String json) throws JsonProcessingException;
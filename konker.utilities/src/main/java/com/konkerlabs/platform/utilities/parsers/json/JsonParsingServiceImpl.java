@@ -3,12 +3,7 @@ package com.konkerlabs.platform.utilities.parsers.json;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.JsonNodeType;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.fasterxml.jackson.databind.node.ValueNode;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 
 import org.springframework.beans.factory.config.BeanDefinition;
@@ -22,22 +17,16 @@ import java.util.*;
 @Scope(BeanDefinition.SCOPE_SINGLETON)
 public class JsonParsingServiceImpl implements JsonParsingService {
 
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     @Override
-    public Map<String, JsonPathData> toFlatMap(String json) throws JsonProcessingException {
-        Optional.ofNullable(json)
-            .filter(s -> !s.isEmpty())
-            .orElseThrow(() -> new IllegalArgumentException("JSON cannot be null or empty"));
-
-        Map<String, JsonPathData> map = new HashMap<>();
-        try {
-            addKeys("", OBJECT_MAPPER.readTree(json), map, null);
-        } catch (IOException e) {
-            throw new JsonParseException("Failed to parse json",null,e);
-        }
+    public ParsedJson parse(String json) {
+        return new ParsedJson(json);
+    }
 
-        return map;
+    @Override
+    public Map<String, JsonPathData> toFlatMap(String json) throws JsonProcessingException {
+        return parse(json).getFlatMap();
     }
 
     @Override
@@ -81,66 +70,6 @@ public class JsonParsingServiceImpl implements JsonParsingService {
 
     @Override
     public boolean isValid(String json) {
-        try {
-            return Optional.ofNullable(json).isPresent() &&
-                   Optional.ofNullable(OBJECT_MAPPER.readTree(json)).isPresent();
-        } catch (IOException|IllegalArgumentException e) {
-            return false;
-        }
-    }
-
-    private void addKeys(String currentPath, JsonNode jsonNode, Map<String, JsonPathData> map, List<JsonNodeType> knownTypes) {
-        if (jsonNode.isObject()) {
-            ObjectNode objectNode = (ObjectNode) jsonNode;
-            Iterator<Map.Entry<String, JsonNode>> iterator = objectNode.fields();
-            String pathPrefix = currentPath.isEmpty() ? "" : currentPath + ".";
-
-            if (knownTypes == null)
-                knownTypes = new ArrayList<>();
-
-            knownTypes.add(JsonNodeType.OBJECT);
-
-            while (iterator.hasNext()) {
-                Map.Entry<String, JsonNode> entry = iterator.next();
-                addKeys(pathPrefix + entry.getKey(), entry.getValue(), map, new ArrayList<>(knownTypes));
-            }
-        } else if (jsonNode.isArray()) {
-            ArrayNode arrayNode = (ArrayNode) jsonNode;
-
-            if (currentPath.isEmpty())
-                currentPath = "root";
-
-            if (knownTypes == null)
-                knownTypes = new ArrayList<>();
-
-            knownTypes.add(JsonNodeType.ARRAY);
-
-            for (int i = 0; i < arrayNode.size(); i++) {
-                addKeys(currentPath + "." + i, arrayNode.get(i), map, new ArrayList<>(knownTypes));
-            }
-        } else if (jsonNode.isValueNode()) {
-            ValueNode valueNode = (ValueNode) jsonNode;
-            if (knownTypes == null)
-                knownTypes = new ArrayList<>();
-            knownTypes.add(valueNode.getNodeType());
-            JsonPathData.JsonPathDataBuilder data = JsonPathData.builder().types(knownTypes);
-            switch (valueNode.getNodeType()) {
-                case NUMBER: {
-                    if (valueNode.asText().contains("."))
-                        map.put(currentPath, data.value(valueNode.asDouble()).build());
-                    else
-                        map.put(currentPath, data.value(valueNode.asLong()).build());
-                    break;
-                }
-                case BOOLEAN: {
-                    map.put(currentPath, data.value(valueNode.asBoolean()).build());
-                    break;
-                }
-                default: {
-                    map.put(currentPath, data.value(valueNode.asText()).build());
-                    break;
-                }
-            }
-        }
+        return parse(json).isValid();
     }
 }
@@ -0,0 +1,168 @@
+package com.konkerlabs.platform.utilities.parsers.json;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.ValueNode;
+import com.konkerlabs.platform.utilities.parsers.json.JsonParsingService.JsonPathData;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * A JSON document that is parsed at most once.
+ *
+ * The Jackson tree is read on first access and kept, and the flat path map and the
+ * plain map views are derived from that tree on demand. Handing the same instance
+ * along an event's ingest and routing chain lets every stage share a single parse.
+ *
+ * A document may also wrap a tree already read as part of a larger one, such as an
+ * element of a gateway's array; its source is then written from the tree when first
+ * asked for, and never parsed again.
+ *
+ * Instances are meant to be confined to the thread handling the event.
+ */
+public class ParsedJson {
+
+    private String source;
+
+    private JsonNode tree;
+    private JsonProcessingException failure;
+    private Map<String, JsonPathData> flatMap;
+    private Map<String, Object> map;
+
+    public ParsedJson(String source) {
+        this.source = source;
+    }
+
+    public ParsedJson(JsonNode tree) {
+        this.tree = Optional.ofNullable(tree)
+                .orElseThrow(() -> new IllegalArgumentException("JSON cannot be null"));
+    }
+
+    public String getSource() {
+        if (source == null && tree != null) {
+            try {
+                source = JsonParsingServiceImpl.OBJECT_MAPPER.writeValueAsString(tree);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Failed to write json", e);
+            }
+        }
+
+        return source;
+    }
+
+    public boolean isValid() {
+        try {
+            return getTree() != null;
+        } catch (JsonProcessingException|IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public JsonNode getTree() throws JsonProcessingException {
+        if (tree != null)
+            return tree;
+
+        Optional.ofNullable(source)
+                .filter(s -> !s.isEmpty())
+                .orElseThrow(() -> new IllegalArgumentException("JSON cannot be null or empty"));
+
+        if (failure != null)
+            throw failure;
+
+        try {
+            tree = Optional.ofNullable(JsonParsingServiceImpl.OBJECT_MAPPER.readTree(source))
+                    .orElseThrow(() -> new JsonParseException("Failed to parse json", null));
+        } catch (IOException e) {
+            failure = new JsonParseException("Failed to parse json", null, e);
+            throw failure;
+        }
+
+        return tree;
+    }
+
+    public Map<String, JsonPathData> getFlatMap() throws JsonProcessingException {
+        if (flatMap == null) {
+            Map<String, JsonPathData> data = new HashMap<>();
+            addKeys("", getTree(), data, null);
+            flatMap = Collections.unmodifiableMap(data);
+        }
+
+        return flatMap;
+    }
+
+    public Map<String, Object> getMap() throws JsonProcessingException {
+        if (map == null) {
+            JsonNode root = getTree();
+            if (!root.isObject())
+                throw new JsonParseException("JSON root is not an object", null);
+
+            map = JsonParsingServiceImpl.OBJECT_MAPPER.convertValue(root,
+                    new TypeReference<Map<String, Object>>() {
+                    });
+        }
+
+        return map;
+    }
+
+    private static void addKeys(String currentPath, JsonNode jsonNode, Map<String, JsonPathData> map, List<JsonNodeType> knownTypes) {
+        if (jsonNode.isObject()) {
+            ObjectNode objectNode = (ObjectNode) jsonNode;
+            Iterator<Map.Entry<String, JsonNode>> iterator = objectNode.fields();
+            String pathPrefix = currentPath.isEmpty() ? "" : currentPath + ".";
+
+            if (knownTypes == null)
+                knownTypes = new ArrayList<>();
+
+            knownTypes.add(JsonNodeType.OBJECT);
+
+            while (iterator.hasNext()) {
+                Map.Entry<String, JsonNode> entry = iterator.next();
+                addKeys(pathPrefix + entry.getKey(), entry.getValue(), map, new ArrayList<>(knownTypes));
+            }
+        } else if (jsonNode.isArray()) {
+            ArrayNode arrayNode = (ArrayNode) jsonNode;
+
+            if (currentPath.isEmpty())
+                currentPath = "root";
+
+            if (knownTypes == null)
+                knownTypes = new ArrayList<>();
+
+            knownTypes.add(JsonNodeType.ARRAY);
+
+            for (int i = 0; i < arrayNode.size(); i++) {
+                addKeys(currentPath + "." + i, arrayNode.get(i), map, new ArrayList<>(knownTypes));
+            }
+        } else if (jsonNode.isValueNode()) {
+            ValueNode valueNode = (ValueNode) jsonNode;
+            if (knownTypes == null)
+                knownTypes = new ArrayList<>();
+            knownTypes.add(valueNode.getNodeType());
+            JsonPathData.JsonPathDataBuilder data = JsonPathData.builder().types(knownTypes);
+            switch (valueNode.getNodeType()) {
+                case NUMBER: {
+                    if (valueNode.asText().contains("."))
+                        map.put(currentPath, data.value(valueNode.asDouble()).build());
+                    else
+                        map.put(currentPath, data.value(valueNode.asLong()).build());
+                    break;
+                }
+                case BOOLEAN: {
+                    map.put(currentPath, data.value(valueNode.asBoolean()).build());
+                    break;
+                }
+                default: {
+                    map.put(currentPath, data.value(valueNode.asText()).build());
+                    break;
+                }
+            }
+        }
+    }
+
+}
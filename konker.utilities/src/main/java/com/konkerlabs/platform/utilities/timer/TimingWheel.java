@@ -0,0 +1,134 @@
+package com.konkerlabs.platform.utilities.timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hashed timing wheel of keyed deadlines, in epoch milliseconds. Deadlines fall in one
+ * of {@code wheelSize} buckets by tick, and {@link #advance} only visits the buckets of
+ * the ticks elapsed since its last call, so its cost follows the number of deadlines
+ * due, not the number armed.
+ *
+ * Postponing an armed deadline only records the new value: the key stays in its bucket
+ * and moves when that bucket comes due, so keys refreshed much more often than they
+ * expire move about once per period. Deadlines further than a revolution away stay in
+ * their bucket until the revolution that reaches them.
+ *
+ * Any thread may schedule or cancel; {@link #advance} is meant for a single timer thread.
+ */
+public class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final List<Set<K>> buckets;
+    private final ConcurrentMap<K, Long> deadlines = new ConcurrentHashMap<>();
+
+    private volatile long tick;
+
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0)
+            throw new IllegalArgumentException("Tick must be greater than zero");
+        if (wheelSize <= 0)
+            throw new IllegalArgumentException("Wheel size must be greater than zero");
+
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(ConcurrentHashMap.newKeySet());
+        }
+        this.tick = startMillis / tickMillis;
+    }
+
+    /**
+     * Arms the key to expire at the deadline, replacing any deadline it had.
+     *
+     * @return whether the key was not armed before
+     */
+    public boolean schedule(K key, long deadlineMillis) {
+        Long previous = deadlines.put(key, deadlineMillis);
+
+        if (previous == null || deadlineMillis < previous) {
+            Set<K> bucket = bucketOf(deadlineMillis);
+            synchronized (bucket) {
+                bucket.add(key);
+            }
+        }
+
+        return previous == null;
+    }
+
+    public boolean cancel(K key) {
+        return deadlines.remove(key) != null;
+    }
+
+    public Optional<Long> deadlineOf(K key) {
+        return Optional.ofNullable(deadlines.get(key));
+    }
+
+    public int size() {
+        return deadlines.size();
+    }
+
+    /**
+     * Moves the wheel up to {@code nowMillis} and disarms the keys whose deadline passed.
+     *
+     * @return keys expired, in no particular order
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        List<K> expired = new ArrayList<>();
+
+        long target = nowMillis / tickMillis;
+        long next = Math.max(tick + 1, target - buckets.size() + 1);
+
+        for (long current = next; current <= target; current++) {
+            tick = current;
+            Set<K> bucket = buckets.get((int) (current % buckets.size()));
+
+            synchronized (bucket) {
+                for (K key : bucket) {
+                    expire(bucket, key, nowMillis, expired);
+                }
+            }
+        }
+
+        if (tick < target)
+            tick = target;
+
+        return expired;
+    }
+
+    private void expire(Set<K> bucket, K key, long nowMillis, List<K> expired) {
+        while (true) {
+            Long deadline = deadlines.get(key);
+
+            if (deadline == null) {
+                bucket.remove(key);
+                return;
+            }
+
+            if (deadline > nowMillis) {
+                Set<K> target = bucketOf(deadline);
+                if (target != bucket) {
+                    target.add(key);
+                    bucket.remove(key);
+                }
+                return;
+            }
+
+            if (deadlines.remove(key, deadline)) {
+                bucket.remove(key);
+                expired.add(key);
+                return;
+            }
+        }
+    }
+
+    private Set<K> bucketOf(long deadlineMillis) {
+        long deadlineTick = Math.max(deadlineMillis / tickMillis, tick + 1);
+        return buckets.get((int) (deadlineTick % buckets.size()));
+    }
+
+}
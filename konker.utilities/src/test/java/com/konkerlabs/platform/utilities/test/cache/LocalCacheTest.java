@@ -0,0 +1,118 @@
+package com.konkerlabs.platform.utilities.test.cache;
+
+import com.konkerlabs.platform.utilities.cache.LocalCache;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class LocalCacheTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private LocalCache<String, String> subject;
+
+    @Before
+    public void setUp() {
+        subject = new LocalCache<>(2);
+    }
+
+    @Test
+    public void shouldRaiseAnExceptionIfMaximumSizeIsNotPositive() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Maximum size must be greater than zero");
+
+        new LocalCache<String, String>(0);
+    }
+
+    @Test
+    public void shouldLoadOnlyOnceForTheSameKey() {
+        AtomicInteger loads = new AtomicInteger();
+
+        subject.get("a", key -> key + loads.incrementAndGet());
+        String value = subject.get("a", key -> key + loads.incrementAndGet());
+
+        assertThat(value, equalTo("a1"));
+        assertThat(loads.get(), equalTo(1));
+    }
+
+    @Test
+    public void shouldNotCacheNullValues() {
+        assertThat(subject.get("a", key -> null), nullValue());
+        assertThat(subject.getIfPresent("a"), equalTo(Optional.empty()));
+    }
+
+    @Test
+    public void shouldNotCacheAValueLoadedWhileAnEntryWasInvalidated() {
+        String value = subject.get("a", key -> {
+            subject.invalidate("a");
+            return "stale";
+        });
+
+        assertThat(value, equalTo("stale"));
+        assertThat(subject.getIfPresent("a"), equalTo(Optional.empty()));
+        assertThat(subject.get("a", key -> "fresh"), equalTo("fresh"));
+        assertThat(subject.getIfPresent("a"), equalTo(Optional.of("fresh")));
+    }
+
+    @Test
+    public void shouldEvictTheLeastRecentlyUsedEntry() {
+        subject.put("a", "1");
+        subject.put("b", "2");
+        subject.getIfPresent("a");
+        subject.put("c", "3");
+
+        assertThat(subject.size(), equalTo(2));
+        assertThat(subject.getIfPresent("a"), equalTo(Optional.of("1")));
+        assertThat(subject.getIfPresent("b"), equalTo(Optional.empty()));
+    }
+
+    @Test
+    public void shouldExpireEntriesAfterTimeToLive() throws Exception {
+        subject = new LocalCache<>(2, Duration.ofMillis(10));
+        subject.put("a", "1");
+
+        Thread.sleep(30);
+
+        assertThat(subject.getIfPresent("a"), equalTo(Optional.empty()));
+    }
+
+    @Test
+    public void shouldInvalidateMatchingKeys() {
+        subject.put("tenant.a", "1");
+        subject.put("other.b", "2");
+
+        subject.invalidateIf(key -> key.startsWith("tenant."));
+
+        assertThat(subject.getIfPresent("tenant.a"), equalTo(Optional.empty()));
+        assertThat(subject.getIfPresent("other.b"), equalTo(Optional.of("2")));
+    }
+
+    @Test
+    public void shouldTellTheListenerAboutRemovedValues() {
+        List<String> removed = new ArrayList<>();
+        subject = new LocalCache<>(2, null, removed::add);
+
+        subject.put("a", "1");
+        subject.put("b", "2");
+        subject.put("c", "3");
+        subject.put("b", "4");
+        subject.invalidate("c");
+        subject.invalidateAll();
+
+        assertThat(removed, contains("1", "2", "3", "4"));
+    }
+
+}
@@ -93,6 +93,21 @@ public class ExpressionEvaluationServiceTest {
             assertThat(actual,not(isEmptyString()));
             assertThat(actual,equalTo(expected));
         }
+        @Test
+        public void shouldInterpolateTheSameTemplateAgainstDifferentContexts() throws Exception {
+            subject.evaluateTemplate(template,rootContext);
+            rootContext.put("fieldOne","valueTwo");
+
+            String actual = subject.evaluateTemplate(template,rootContext);
+            assertThat(actual,equalTo("http://host:8080/service/valueTwo"));
+        }
+        @Test
+        public void shouldEncodeUsingUrlEncodeFunction() throws Exception {
+            rootContext.put("fieldOne","value one");
+
+            String actual = subject.evaluateTemplate("http://host/@{#urlEncode(#fieldOne)}",rootContext);
+            assertThat(actual,equalTo("http://host/value+one"));
+        }
     }
 
     @RunWith(SpringJUnit4ClassRunner.class)
@@ -136,5 +151,15 @@ public class ExpressionEvaluationServiceTest {
 
             assertThat(condition,equalTo(true));
         }
+        @Test
+        public void shouldEvaluateTheSameExpressionAgainstDifferentContexts() throws Exception {
+            for (int i = 0; i < 5; i++) {
+                assertThat(subject.evaluateConditional(expression,rootContext),equalTo(true));
+            }
+
+            rootContext.put("valid",false);
+
+            assertThat(subject.evaluateConditional(expression,rootContext),equalTo(false));
+        }
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.node.JsonNodeType;
 import com.konkerlabs.platform.utilities.config.UtilitiesConfig;
 import com.konkerlabs.platform.utilities.parsers.json.JsonParsingService;
+import com.konkerlabs.platform.utilities.parsers.json.ParsedJson;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -24,7 +25,8 @@ import static org.hamcrest.Matchers.*;
         JsonParsingServiceTest.FlatMap.class,
         JsonParsingServiceTest.ToMap.class,
         JsonParsingServiceTest.ToJsonString.class,
-        JsonParsingServiceTest.IsValid.class
+        JsonParsingServiceTest.IsValid.class,
+        JsonParsingServiceTest.Parse.class
 })
 public class JsonParsingServiceTest {
 
@@ -274,4 +276,52 @@ public class JsonParsingServiceTest {
         }
 
     }
-}
\ No newline at end of file
+
+    @RunWith(SpringJUnit4ClassRunner.class)
+    @ContextConfiguration(classes = {
+            UtilitiesConfig.class
+    })
+    public static class Parse extends JsonParsingServiceTestBase {
+
+        @Test
+        public void shouldRaiseAnExceptionIfJsonIsNotValidOnEveryAccess() throws Exception {
+            ParsedJson parsed = service.parse(invalidJson);
+
+            assertThat(parsed.isValid(), equalTo(false));
+
+            thrown.expect(JsonProcessingException.class);
+
+            parsed.getFlatMap();
+        }
+
+        @Test
+        public void shouldRaiseAnExceptionIfJsonRootIsNotAnObjectOnGetMap() throws Exception {
+            thrown.expect(JsonProcessingException.class);
+
+            service.parse("[1,2]").getMap();
+        }
+
+        @Test
+        public void shouldShareTheSameTreeAndViews() throws Exception {
+            ParsedJson parsed = service.parse(validJson);
+
+            assertThat(parsed.isValid(), equalTo(true));
+            assertThat(parsed.getTree(), sameInstance(parsed.getTree()));
+            assertThat(parsed.getFlatMap(), sameInstance(parsed.getFlatMap()));
+            assertThat(parsed.getFlatMap(), equalTo(service.toFlatMap(validJson)));
+            assertThat(parsed.getMap(), equalTo(service.toMap(validJson)));
+        }
+
+        @Test
+        public void shouldWrapAnElementOfAParsedArray() throws Exception {
+            ParsedJson array = service.parse("[" + validJson + "]");
+
+            ParsedJson element = new ParsedJson(array.getTree().get(0));
+
+            assertThat(element.getTree(), sameInstance(array.getTree().get(0)));
+            assertThat(element.getFlatMap(), equalTo(service.toFlatMap(validJson)));
+            assertThat(service.parse(element.getSource()).getMap(), equalTo(service.toMap(validJson)));
+        }
+
+    }
+}
@@ -0,0 +1,104 @@
+package com.konkerlabs.platform.utilities.test.timer;
+
+import com.konkerlabs.platform.utilities.timer.TimingWheel;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+public class TimingWheelTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private TimingWheel<String> subject;
+
+    @Before
+    public void setUp() {
+        subject = new TimingWheel<>(1000, 8, 0);
+    }
+
+    @Test
+    public void shouldRaiseAnExceptionIfWheelSizeIsNotPositive() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Wheel size must be greater than zero");
+
+        new TimingWheel<String>(1000, 0, 0);
+    }
+
+    @Test
+    public void shouldExpireKeysOnceTheirDeadlinePasses() {
+        assertThat(subject.schedule("a", 2500), equalTo(true));
+        assertThat(subject.schedule("b", 4000), equalTo(true));
+
+        assertThat(subject.advance(2000), empty());
+        assertThat(subject.advance(3000), containsInAnyOrder("a"));
+        assertThat(subject.advance(4000), containsInAnyOrder("b"));
+        assertThat(subject.size(), equalTo(0));
+    }
+
+    @Test
+    public void shouldPostponeARescheduledKey() {
+        subject.schedule("a", 2000);
+        assertThat(subject.schedule("a", 5000), equalTo(false));
+
+        assertThat(subject.advance(3000), empty());
+        assertThat(subject.deadlineOf("a"), equalTo(Optional.of(5000L)));
+        assertThat(subject.advance(5000), containsInAnyOrder("a"));
+    }
+
+    @Test
+    public void shouldBringForwardARescheduledKey() {
+        subject.schedule("a", 6000);
+        subject.schedule("a", 2000);
+
+        assertThat(subject.advance(2000), containsInAnyOrder("a"));
+        assertThat(subject.advance(7000), empty());
+    }
+
+    @Test
+    public void shouldKeepDeadlinesBeyondOneRevolution() {
+        subject.schedule("a", 9500);
+
+        assertThat(subject.advance(2000), empty());
+        assertThat(subject.advance(9000), empty());
+        assertThat(subject.advance(10000), containsInAnyOrder("a"));
+    }
+
+    @Test
+    public void shouldExpireEveryDueKeyWhenTheWheelFallsBehind() {
+        subject.schedule("a", 1000);
+        subject.schedule("b", 5000);
+        subject.schedule("c", 30000);
+
+        assertThat(subject.advance(20000), containsInAnyOrder("a", "b"));
+        assertThat(subject.advance(30000), containsInAnyOrder("c"));
+    }
+
+    @Test
+    public void shouldExpireOverdueDeadlinesOnTheNextTick() {
+        subject.advance(5000);
+        subject.schedule("a", 1000);
+
+        assertThat(subject.advance(6000), containsInAnyOrder("a"));
+    }
+
+    @Test
+    public void shouldNotExpireCancelledKeys() {
+        subject.schedule("a", 2000);
+        assertThat(subject.cancel("a"), equalTo(true));
+
+        assertThat(subject.advance(3000), empty());
+        assertThat(subject.cancel("a"), equalTo(false));
+        assertThat(subject.schedule("a", 4000), equalTo(true));
+        assertThat(subject.advance(4000), containsInAnyOrder("a"));
+    }
+
+}